@@ -1,6 +1,8 @@
 package com.tencent.supersonic.chat.api.component;
 
 import com.tencent.supersonic.chat.api.pojo.QueryContext;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A schema mapper identifies references to schema elements(metrics/dimensions/entities/values)
@@ -9,4 +11,12 @@ import com.tencent.supersonic.chat.api.pojo.QueryContext;
 public interface SchemaMapper {
 
     void map(QueryContext queryContext);
+
+    /**
+     * Mappers that must have finished before this mapper runs, because it reads or rewrites
+     * the matches they produce. Mappers without dependencies between each other may run concurrently.
+     */
+    default List<Class<? extends SchemaMapper>> dependsOn() {
+        return Collections.emptyList();
+    }
 }
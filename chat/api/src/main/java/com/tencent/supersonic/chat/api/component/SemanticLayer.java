@@ -19,6 +19,8 @@ import com.tencent.supersonic.semantic.api.query.request.QueryMultiStructReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * A semantic layer provides a simplified and consistent view of data from multiple sources.
@@ -35,6 +37,16 @@ public interface SemanticLayer {
 
     QueryResultWithSchemaResp queryByStruct(QueryStructReq queryStructReq, User user);
 
+    /***
+     * query by struct, handing each row to the handler instead of returning it
+     * @param queryStructReq
+     * @param user
+     * @param rowHandler
+     * @return the columns of the result, without rows
+     */
+    QueryResultWithSchemaResp streamByStruct(QueryStructReq queryStructReq, User user,
+            Consumer<Map<String, Object>> rowHandler);
+
     QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructReq, User user);
 
     QueryResultWithSchemaResp queryByDsl(QueryDslReq queryDslReq, User user);
@@ -1,10 +1,13 @@
 package com.tencent.supersonic.chat.api.pojo;
 
 import com.tencent.supersonic.chat.api.pojo.request.QueryFilters;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @AllArgsConstructor
@@ -19,4 +22,29 @@ public class SemanticCorrectInfo {
     private String sql;
 
     private String preSql;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ParsedSql parsedSql;
+
+    public String getSql() {
+        return parsedSql == null ? sql : parsedSql.getSql();
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+        this.parsedSql = null;
+    }
+
+    /***
+     * the sql parsed once and shared by the correctors, correctors update it in place instead of
+     * parsing and rendering the sql text, setSql drops it
+     * @return
+     */
+    public ParsedSql getParsedSql() {
+        if (parsedSql == null) {
+            parsedSql = new ParsedSql(sql);
+        }
+        return parsedSql;
+    }
 }
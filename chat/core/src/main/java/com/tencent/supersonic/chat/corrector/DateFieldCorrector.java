@@ -2,7 +2,7 @@ package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
 import com.tencent.supersonic.chat.parser.llm.dsl.DSLDateHelper;
-import com.tencent.supersonic.common.util.jsqlparser.SqlParserSelectHelper;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
@@ -14,14 +14,13 @@ public class DateFieldCorrector extends BaseSemanticCorrector {
     @Override
     public void correct(SemanticCorrectInfo semanticCorrectInfo) {
 
-        String sql = semanticCorrectInfo.getSql();
-        List<String> whereFields = SqlParserSelectHelper.getWhereFields(sql);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        semanticCorrectInfo.setPreSql(parsedSql.getSql());
+        List<String> whereFields = parsedSql.getWhereFields();
         if (CollectionUtils.isEmpty(whereFields) || !whereFields.contains(DATE_FIELD)) {
             String currentDate = DSLDateHelper.getReferenceDate(semanticCorrectInfo.getParseInfo().getModelId());
-            sql = SqlParserUpdateHelper.addWhere(sql, DATE_FIELD, currentDate);
+            parsedSql.update(plainSelect -> SqlParserUpdateHelper.addWhere(plainSelect, DATE_FIELD, currentDate));
         }
-        semanticCorrectInfo.setPreSql(semanticCorrectInfo.getSql());
-        semanticCorrectInfo.setSql(sql);
     }
 
 }
@@ -1,7 +1,9 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -9,10 +11,9 @@ public class FieldCorrector extends BaseSemanticCorrector {
 
     @Override
     public void correct(SemanticCorrectInfo semanticCorrectInfo) {
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceFields(preSql,
-                getFieldToBizName(semanticCorrectInfo.getParseInfo().getModelId()));
-        semanticCorrectInfo.setSql(sql);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        semanticCorrectInfo.setPreSql(parsedSql.getSql());
+        Map<String, String> fieldToBizName = getFieldToBizName(semanticCorrectInfo.getParseInfo().getModelId());
+        parsedSql.update(plainSelect -> SqlParserUpdateHelper.replaceFields(plainSelect, fieldToBizName, false));
     }
 }
@@ -6,6 +6,7 @@ import com.tencent.supersonic.chat.query.llm.dsl.LLMReq;
 import com.tencent.supersonic.chat.query.llm.dsl.LLMReq.ElementValue;
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
 import java.util.List;
 import java.util.Map;
@@ -40,10 +41,10 @@ public class FieldNameCorrector extends BaseSemanticCorrector {
                 Collectors.groupingBy(ElementValue::getFieldValue,
                         Collectors.mapping(ElementValue::getFieldName, Collectors.toSet())));
 
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceFieldNameByValue(preSql, fieldValueToFieldNames);
-        semanticCorrectInfo.setSql(sql);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        semanticCorrectInfo.setPreSql(parsedSql.getSql());
+        parsedSql.update(plainSelect -> SqlParserUpdateHelper.replaceFieldNameByValue(plainSelect,
+                fieldValueToFieldNames));
     }
 
 }
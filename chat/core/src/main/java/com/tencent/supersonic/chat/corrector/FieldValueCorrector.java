@@ -5,6 +5,7 @@ import com.tencent.supersonic.chat.api.pojo.SchemaElement;
 import com.tencent.supersonic.chat.api.pojo.SchemaValueMap;
 import com.tencent.supersonic.chat.api.pojo.SemanticSchema;
 import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
 import com.tencent.supersonic.knowledge.service.SchemaService;
 import java.util.HashMap;
@@ -32,10 +33,9 @@ public class FieldValueCorrector extends BaseSemanticCorrector {
         }
 
         Map<String, Map<String, String>> aliasAndBizNameToTechName = getAliasAndBizNameToTechName(dimensions);
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceValue(preSql, aliasAndBizNameToTechName);
-        semanticCorrectInfo.setSql(sql);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        semanticCorrectInfo.setPreSql(parsedSql.getSql());
+        parsedSql.update(plainSelect -> SqlParserUpdateHelper.replaceValue(plainSelect, aliasAndBizNameToTechName));
         return;
     }
 
@@ -1,7 +1,10 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -9,8 +12,13 @@ public class FunctionAliasCorrector extends BaseSemanticCorrector {
 
     @Override
     public void correct(SemanticCorrectInfo semanticCorrectInfo) {
-        String replaceAlias = SqlParserUpdateHelper.replaceAlias(semanticCorrectInfo.getSql());
-        semanticCorrectInfo.setSql(replaceAlias);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        Map<String, String> aliasToExpression = new HashMap<>();
+        parsedSql.update(plainSelect -> aliasToExpression.putAll(SqlParserUpdateHelper.replaceAlias(plainSelect)));
+        if (!aliasToExpression.isEmpty()) {
+            // the replaced aliases are columns holding function text, parse again to get the functions
+            semanticCorrectInfo.setSql(parsedSql.getSql());
+        }
     }
 
 }
@@ -1,6 +1,7 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
 import lombok.extern.slf4j.Slf4j;
 
@@ -9,9 +10,8 @@ public class FunctionCorrector extends BaseSemanticCorrector {
 
     @Override
     public void correct(SemanticCorrectInfo semanticCorrectInfo) {
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceFunction(preSql);
-        semanticCorrectInfo.setSql(sql);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        semanticCorrectInfo.setPreSql(parsedSql.getSql());
+        parsedSql.update(SqlParserUpdateHelper::replaceFunction);
     }
 }
@@ -4,6 +4,7 @@ import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
 import com.tencent.supersonic.chat.api.pojo.request.QueryFilters;
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.util.StringUtil;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -20,14 +21,13 @@ public class QueryFilterAppend extends BaseSemanticCorrector {
     @Override
     public void correct(SemanticCorrectInfo semanticCorrectInfo) throws JSQLParserException {
         String queryFilter = getQueryFilter(semanticCorrectInfo.getQueryFilters());
-        String preSql = semanticCorrectInfo.getSql();
 
         if (StringUtils.isNotEmpty(queryFilter)) {
             log.info("add queryFilter to preSql :{}", queryFilter);
             Expression expression = CCJSqlParserUtil.parseCondExpression(queryFilter);
-            String sql = SqlParserUpdateHelper.addWhere(preSql, expression);
-            semanticCorrectInfo.setPreSql(preSql);
-            semanticCorrectInfo.setSql(sql);
+            ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+            semanticCorrectInfo.setPreSql(parsedSql.getSql());
+            parsedSql.update(plainSelect -> SqlParserUpdateHelper.addWhere(plainSelect, expression));
         }
     }
 
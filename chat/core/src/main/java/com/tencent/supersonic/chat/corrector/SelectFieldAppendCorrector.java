@@ -1,6 +1,7 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserSelectHelper;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
 import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
@@ -9,7 +10,9 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import org.springframework.util.CollectionUtils;
 
 @Slf4j
@@ -17,30 +20,41 @@ public class SelectFieldAppendCorrector extends BaseSemanticCorrector {
 
     @Override
     public void correct(SemanticCorrectInfo semanticCorrectInfo) {
-        String preSql = semanticCorrectInfo.getSql();
-        if (SqlParserSelectHelper.hasAggregateFunction(preSql)) {
-            Expression havingExpression = SqlParserSelectHelper.getHavingExpression(preSql);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        if (parsedSql.hasAggregateFunction()) {
+            Expression havingExpression = SqlParserSelectHelper.getHavingExpression(parsedSql.getPlainSelect());
             if (Objects.nonNull(havingExpression)) {
-                String replaceSql = SqlParserUpdateHelper.addFunctionToSelect(preSql, havingExpression);
-                semanticCorrectInfo.setPreSql(preSql);
-                semanticCorrectInfo.setSql(replaceSql);
+                // select a copy, the having node must not be shared with the select items
+                Expression selectExpression = copyExpression(havingExpression);
+                semanticCorrectInfo.setPreSql(parsedSql.getSql());
+                parsedSql.update(plainSelect -> SqlParserUpdateHelper.addFunctionToSelect(plainSelect,
+                        selectExpression));
             }
             return;
         }
-        Set<String> selectFields = new HashSet<>(SqlParserSelectHelper.getSelectFields(preSql));
-        Set<String> whereFields = new HashSet<>(SqlParserSelectHelper.getWhereFields(preSql));
+        Set<String> selectFields = new HashSet<>(parsedSql.getSelectFields());
+        Set<String> whereFields = new HashSet<>(parsedSql.getWhereFields());
 
         if (CollectionUtils.isEmpty(selectFields) || CollectionUtils.isEmpty(whereFields)) {
             return;
         }
 
-        whereFields.addAll(SqlParserSelectHelper.getOrderByFields(preSql));
+        whereFields.addAll(parsedSql.getOrderByFields());
         whereFields.removeAll(selectFields);
         whereFields.remove(TimeDimensionEnum.DAY.getName());
         whereFields.remove(TimeDimensionEnum.WEEK.getName());
         whereFields.remove(TimeDimensionEnum.MONTH.getName());
-        String replaceFields = SqlParserUpdateHelper.addFieldsToSelect(preSql, new ArrayList<>(whereFields));
-        semanticCorrectInfo.setPreSql(preSql);
-        semanticCorrectInfo.setSql(replaceFields);
+        semanticCorrectInfo.setPreSql(parsedSql.getSql());
+        parsedSql.update(plainSelect -> SqlParserUpdateHelper.addFieldsToSelect(plainSelect,
+                new ArrayList<>(whereFields)));
+    }
+
+    private Expression copyExpression(Expression expression) {
+        try {
+            return CCJSqlParserUtil.parseExpression(expression.toString());
+        } catch (JSQLParserException e) {
+            log.warn("copy expression error, expression:{}", expression, e);
+            return expression;
+        }
     }
 }
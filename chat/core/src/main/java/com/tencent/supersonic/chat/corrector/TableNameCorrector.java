@@ -1,6 +1,7 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
 import lombok.extern.slf4j.Slf4j;
 
@@ -12,10 +13,9 @@ public class TableNameCorrector extends BaseSemanticCorrector {
     @Override
     public void correct(SemanticCorrectInfo semanticCorrectInfo) {
         Long modelId = semanticCorrectInfo.getParseInfo().getModelId();
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceTable(preSql, TABLE_PREFIX + modelId);
-        semanticCorrectInfo.setSql(sql);
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
+        semanticCorrectInfo.setPreSql(parsedSql.getSql());
+        parsedSql.update(plainSelect -> SqlParserUpdateHelper.replaceTable(plainSelect, TABLE_PREFIX + modelId));
     }
 
 }
@@ -13,6 +13,7 @@ import com.tencent.supersonic.common.util.ContextUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.util.CollectionUtils;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,6 +21,11 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EntityMapper implements SchemaMapper {
 
+    @Override
+    public List<Class<? extends SchemaMapper>> dependsOn() {
+        return Arrays.asList(HanlpDictMapper.class, FuzzyNameMapper.class, QueryFilterMapper.class);
+    }
+
     @Override
     public void map(QueryContext queryContext) {
         SchemaMapInfo schemaMapInfo = queryContext.getMapInfo();
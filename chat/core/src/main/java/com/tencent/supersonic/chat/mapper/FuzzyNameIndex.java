@@ -0,0 +1,123 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.tencent.supersonic.chat.api.pojo.SchemaElement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Character n-gram inverted index over schema element names. A name can only contain a segment when it
+ * contains every gram of the segment, so a search reads the posting list of the rarest gram instead of
+ * scanning all names. Names are numbered by length, so posting lists can stop at the first name too long
+ * to reach the similarity threshold.
+ */
+public class FuzzyNameIndex {
+
+    private static final int GRAM_SIZE = 2;
+    private static final double EPSILON = 1e-9;
+
+    private final String[] names;
+    private final List<Set<SchemaElement>> elements;
+    private final Map<String, int[]> postings;
+
+    public FuzzyNameIndex(List<SchemaElement> schemaElements) {
+        Map<String, Set<SchemaElement>> nameToItems = new LinkedHashMap<>();
+        for (SchemaElement schemaElement : schemaElements) {
+            if (schemaElement.getName() == null) {
+                continue;
+            }
+            nameToItems.computeIfAbsent(schemaElement.getName(), key -> new HashSet<>()).add(schemaElement);
+        }
+        List<String> sortedNames = new ArrayList<>(nameToItems.keySet());
+        sortedNames.sort(Comparator.comparingInt(String::length));
+
+        names = sortedNames.toArray(new String[0]);
+        elements = new ArrayList<>(names.length);
+        Map<String, List<Integer>> gramToIds = new HashMap<>();
+        for (int id = 0; id < names.length; id++) {
+            elements.add(Collections.unmodifiableSet(nameToItems.get(names[id])));
+            for (String gram : getIndexGrams(names[id])) {
+                gramToIds.computeIfAbsent(gram, key -> new ArrayList<>()).add(id);
+            }
+        }
+        postings = new HashMap<>();
+        gramToIds.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /***
+     * names containing the segment which may reach the threshold, similarity still has to be checked by caller
+     * @param segment
+     * @param threshold
+     * @return name to the schema elements with that name
+     */
+    public Map<String, Set<SchemaElement>> search(String segment, double threshold) {
+        Map<String, Set<SchemaElement>> result = new HashMap<>();
+        int[] ids = getRarestPosting(segment);
+        for (int id : ids) {
+            String name = names[id];
+            if (segment.length() < threshold * name.length() - EPSILON) {
+                break;
+            }
+            if (name.contains(segment)) {
+                result.put(name, elements.get(id));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private int[] getRarestPosting(String segment) {
+        if (segment.isEmpty()) {
+            return new int[0];
+        }
+        int[] rarest = null;
+        for (String gram : getSearchGrams(segment)) {
+            int[] ids = postings.get(gram);
+            if (ids == null) {
+                return new int[0];
+            }
+            if (rarest == null || ids.length < rarest.length) {
+                rarest = ids;
+            }
+        }
+        return rarest;
+    }
+
+    /***
+     * single chars and bigrams of the name, single chars serve the one char segments
+     * @param name
+     * @return
+     */
+    private static Set<String> getIndexGrams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i < name.length(); i++) {
+            grams.add(name.substring(i, i + 1));
+            if (i + GRAM_SIZE <= name.length()) {
+                grams.add(name.substring(i, i + GRAM_SIZE));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> getSearchGrams(String segment) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (segment.length() < GRAM_SIZE) {
+            grams.add(segment);
+            return grams;
+        }
+        for (int i = 0; i + GRAM_SIZE <= segment.length(); i++) {
+            grams.add(segment.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+}
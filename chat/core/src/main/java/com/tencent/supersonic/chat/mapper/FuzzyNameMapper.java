@@ -1,5 +1,7 @@
 package com.tencent.supersonic.chat.mapper;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.hankcs.hanlp.seg.common.Term;
 import com.tencent.supersonic.chat.api.component.SchemaMapper;
 import com.tencent.supersonic.chat.api.pojo.SchemaMapInfo;
@@ -11,8 +13,8 @@ import com.tencent.supersonic.chat.api.pojo.QueryContext;
 import com.tencent.supersonic.chat.config.OptimizationConfig;
 import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.knowledge.service.SchemaService;
-import com.tencent.supersonic.knowledge.utils.HanlpHelper;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -26,29 +28,87 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
 
 @Slf4j
-public class FuzzyNameMapper implements SchemaMapper {
+public class FuzzyNameMapper
+        implements PreparedSchemaMapper<Map<SchemaElementType, Map<String, Set<SchemaElement>>>> {
+
+    /***
+     * name indexes of each loaded semantic schema, a reloaded schema is a new instance and gets new indexes
+     */
+    private static final Cache<SemanticSchema, Map<SchemaElementType, FuzzyNameIndex>> nameIndexes =
+            Caffeine.newBuilder().weakKeys().build();
 
     @Override
-    public void map(QueryContext queryContext) {
+    public List<Class<? extends SchemaMapper>> dependsOn() {
+        return Collections.singletonList(HanlpDictMapper.class);
+    }
 
-        log.debug("before db mapper,mapInfo:{}", queryContext.getMapInfo());
+    /***
+     * detect candidates with the lowest threshold apply may use,
+     * so that it does not need to wait for the matches of other mappers
+     * @param queryContext
+     * @return
+     */
+    @Override
+    public Map<SchemaElementType, Map<String, Set<SchemaElement>>> prepare(QueryContext queryContext) {
 
-        List<Term> terms = HanlpHelper.getTerms(queryContext.getRequest().getQueryText());
+        List<Term> terms = ContextUtils.getBean(MapperHelper.class).getTerms(queryContext);
 
         SemanticSchema semanticSchema = ContextUtils.getBean(SchemaService.class).getSemanticSchema();
+        Map<SchemaElementType, FuzzyNameIndex> indexes = getNameIndexes(semanticSchema);
+
+        Map<SchemaElementType, Map<String, Set<SchemaElement>>> candidates = new HashMap<>();
+        candidates.put(SchemaElementType.DIMENSION,
+                detect(queryContext, terms, indexes.get(SchemaElementType.DIMENSION)));
+        candidates.put(SchemaElementType.METRIC,
+                detect(queryContext, terms, indexes.get(SchemaElementType.METRIC)));
+        return candidates;
+    }
 
-        detectAndAddToSchema(queryContext, terms, semanticSchema.getDimensions(), SchemaElementType.DIMENSION);
+    private static Map<SchemaElementType, FuzzyNameIndex> getNameIndexes(SemanticSchema semanticSchema) {
+        return nameIndexes.get(semanticSchema, schema -> {
+            Map<SchemaElementType, FuzzyNameIndex> indexes = new HashMap<>();
+            indexes.put(SchemaElementType.DIMENSION, new FuzzyNameIndex(schema.getDimensions()));
+            indexes.put(SchemaElementType.METRIC, new FuzzyNameIndex(schema.getMetrics()));
+            log.info("build fuzzy name index, dimensions:{}, metrics:{}",
+                    indexes.get(SchemaElementType.DIMENSION).size(), indexes.get(SchemaElementType.METRIC).size());
+            return indexes;
+        });
+    }
+
+    @Override
+    public void apply(QueryContext queryContext,
+            Map<SchemaElementType, Map<String, Set<SchemaElement>>> candidates) {
 
-        detectAndAddToSchema(queryContext, terms, semanticSchema.getMetrics(), SchemaElementType.METRIC);
+        log.debug("before db mapper,mapInfo:{}", queryContext.getMapInfo());
+
+        MapperHelper mapperHelper = ContextUtils.getBean(MapperHelper.class);
+        Double threshold = getThreshold(queryContext, mapperHelper);
+
+        addToSchema(queryContext, candidates.get(SchemaElementType.DIMENSION), threshold,
+                SchemaElementType.DIMENSION);
+
+        addToSchema(queryContext, candidates.get(SchemaElementType.METRIC), threshold,
+                SchemaElementType.METRIC);
 
         log.debug("after db mapper,mapInfo:{}", queryContext.getMapInfo());
     }
 
-    private void detectAndAddToSchema(QueryContext queryContext, List<Term> terms, List<SchemaElement> models,
+    private Map<String, Set<SchemaElement>> detect(QueryContext queryContext, List<Term> terms,
+            FuzzyNameIndex nameIndex) {
+        try {
+            MapperHelper mapperHelper = ContextUtils.getBean(MapperHelper.class);
+            return getResultSet(queryContext, terms, nameIndex, getMinThreshold(mapperHelper));
+        } catch (Exception e) {
+            log.error("detect error", e);
+        }
+        return new HashMap<>();
+    }
+
+    private void addToSchema(QueryContext queryContext, Map<String, Set<SchemaElement>> candidates, Double threshold,
             SchemaElementType schemaElementType) {
         try {
 
-            Map<String, Set<SchemaElement>> modelResultSet = getResultSet(queryContext, terms, models);
+            Map<String, Set<SchemaElement>> modelResultSet = filterByThreshold(candidates, threshold);
 
             addToSchemaMapInfo(modelResultSet, queryContext.getMapInfo(), schemaElementType);
 
@@ -58,17 +118,13 @@ public class FuzzyNameMapper implements SchemaMapper {
     }
 
     private Map<String, Set<SchemaElement>> getResultSet(QueryContext queryContext, List<Term> terms,
-            List<SchemaElement> models) {
+            FuzzyNameIndex nameIndex, Double metricDimensionThresholdConfig) {
 
         String queryText = queryContext.getRequest().getQueryText();
 
         MapperHelper mapperHelper = ContextUtils.getBean(MapperHelper.class);
         Set<Long> modelIds = mapperHelper.getModelIds(queryContext.getRequest());
 
-        Double metricDimensionThresholdConfig = getThreshold(queryContext, mapperHelper);
-
-        Map<String, Set<SchemaElement>> nameToItems = getNameToItems(models);
-
         Map<Integer, Integer> regOffsetToLength = terms.stream().sorted(Comparator.comparing(Term::length))
                 .collect(Collectors.toMap(Term::getOffset, term -> term.word.length(), (value1, value2) -> value2));
 
@@ -81,11 +137,12 @@ public class FuzzyNameMapper implements SchemaMapper {
                 }
                 String detectSegment = queryText.substring(startIndex, endIndex);
 
+                Map<String, Set<SchemaElement>> nameToItems = nameIndex.search(detectSegment,
+                        metricDimensionThresholdConfig);
                 for (Entry<String, Set<SchemaElement>> entry : nameToItems.entrySet()) {
                     String name = entry.getKey();
                     Set<SchemaElement> schemaElements = entry.getValue();
-                    if (!name.contains(detectSegment)
-                            || mapperHelper.getSimilarity(detectSegment, name) < metricDimensionThresholdConfig) {
+                    if (mapperHelper.getSimilarity(detectSegment, name) < metricDimensionThresholdConfig) {
                         continue;
                     }
                     if (!CollectionUtils.isEmpty(modelIds)) {
@@ -93,10 +150,7 @@ public class FuzzyNameMapper implements SchemaMapper {
                                 .filter(schemaElement -> modelIds.contains(schemaElement.getModel()))
                                 .collect(Collectors.toSet());
                     }
-                    Set<SchemaElement> preSchemaElements = modelResultSet.putIfAbsent(detectSegment, schemaElements);
-                    if (Objects.nonNull(preSchemaElements)) {
-                        preSchemaElements.addAll(schemaElements);
-                    }
+                    modelResultSet.computeIfAbsent(detectSegment, key -> new HashSet<>()).addAll(schemaElements);
                 }
             }
             startIndex = mapperHelper.getStepIndex(regOffsetToLength, startIndex);
@@ -104,6 +158,33 @@ public class FuzzyNameMapper implements SchemaMapper {
         return modelResultSet;
     }
 
+    private Map<String, Set<SchemaElement>> filterByThreshold(Map<String, Set<SchemaElement>> candidates,
+            Double threshold) {
+        Map<String, Set<SchemaElement>> modelResultSet = new HashMap<>();
+        if (Objects.isNull(candidates)) {
+            return modelResultSet;
+        }
+        MapperHelper mapperHelper = ContextUtils.getBean(MapperHelper.class);
+        for (Entry<String, Set<SchemaElement>> entry : candidates.entrySet()) {
+            String detectSegment = entry.getKey();
+            Set<SchemaElement> schemaElements = entry.getValue().stream()
+                    .filter(element -> mapperHelper.getSimilarity(detectSegment, element.getName()) >= threshold)
+                    .collect(Collectors.toSet());
+            if (!CollectionUtils.isEmpty(schemaElements)) {
+                modelResultSet.put(detectSegment, schemaElements);
+            }
+        }
+        return modelResultSet;
+    }
+
+    private Double getMinThreshold(MapperHelper mapperHelper) {
+        OptimizationConfig optimizationConfig = mapperHelper.getOptimizationConfig();
+        Double metricDimensionThresholdConfig = optimizationConfig.getMetricDimensionThresholdConfig();
+        double halfThreshold = Math.max(metricDimensionThresholdConfig / 2,
+                optimizationConfig.getMetricDimensionMinThresholdConfig());
+        return Math.min(metricDimensionThresholdConfig, halfThreshold);
+    }
+
     private Double getThreshold(QueryContext queryContext, MapperHelper mapperHelper) {
 
         OptimizationConfig optimizationConfig = ContextUtils.getBean(OptimizationConfig.class);
@@ -126,18 +207,6 @@ public class FuzzyNameMapper implements SchemaMapper {
         return metricDimensionThresholdConfig;
     }
 
-    private Map<String, Set<SchemaElement>> getNameToItems(List<SchemaElement> models) {
-        return models.stream().collect(
-                Collectors.toMap(SchemaElement::getName, a -> {
-                    Set<SchemaElement> result = new HashSet<>();
-                    result.add(a);
-                    return result;
-                }, (k1, k2) -> {
-                    k1.addAll(k2);
-                    return k1;
-                }));
-    }
-
     private void addToSchemaMapInfo(Map<String, Set<SchemaElement>> mapResultRowSet, SchemaMapInfo schemaMap,
             SchemaElementType schemaElementType) {
         if (Objects.isNull(mapResultRowSet) || mapResultRowSet.size() <= 0) {
@@ -1,7 +1,6 @@
 package com.tencent.supersonic.chat.mapper;
 
 import com.hankcs.hanlp.seg.common.Term;
-import com.tencent.supersonic.chat.api.component.SchemaMapper;
 import com.tencent.supersonic.chat.api.pojo.ModelSchema;
 import com.tencent.supersonic.chat.api.pojo.QueryContext;
 import com.tencent.supersonic.chat.api.pojo.SchemaElement;
@@ -10,13 +9,11 @@ import com.tencent.supersonic.chat.api.pojo.SchemaElementType;
 import com.tencent.supersonic.chat.api.pojo.SchemaMapInfo;
 import com.tencent.supersonic.chat.service.SemanticService;
 import com.tencent.supersonic.common.util.ContextUtils;
-import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.knowledge.dictionary.DictNature;
 import com.tencent.supersonic.knowledge.dictionary.MapResult;
-import com.tencent.supersonic.knowledge.dictionary.builder.BaseWordBuilder;
-import com.tencent.supersonic.knowledge.dictionary.builder.WordBuilderFactory;
 import com.tencent.supersonic.knowledge.utils.HanlpHelper;
-import com.tencent.supersonic.knowledge.utils.NatureHelper;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -29,20 +26,27 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
 
 @Slf4j
-public class HanlpDictMapper implements SchemaMapper {
-
+public class HanlpDictMapper implements PreparedSchemaMapper<Map<Long, List<SchemaElementMatch>>> {
+
+    /***
+     * match the dictionary against the query text, it only reads the request,
+     * so it runs while the other mappers are prepared
+     * @param queryContext
+     * @return
+     */
     @Override
-    public void map(QueryContext queryContext) {
+    public Map<Long, List<SchemaElementMatch>> prepare(QueryContext queryContext) {
 
-        String queryText = queryContext.getRequest().getQueryText();
-        List<Term> terms = HanlpHelper.getTerms(queryText);
+        MapperHelper mapperHelper = ContextUtils.getBean(MapperHelper.class);
+        List<Term> terms = mapperHelper.getTerms(queryContext);
 
-        for (Term term : terms) {
-            log.info("word:{},nature:{},frequency:{}", term.word, term.nature.toString(), term.getFrequency());
+        if (log.isDebugEnabled()) {
+            for (Term term : terms) {
+                log.debug("word:{},nature:{},frequency:{}", term.word, term.nature, term.getFrequency());
+            }
         }
 
         QueryMatchStrategy matchStrategy = ContextUtils.getBean(QueryMatchStrategy.class);
-        MapperHelper mapperHelper = ContextUtils.getBean(MapperHelper.class);
         Set<Long> detectModelIds = mapperHelper.getModelIds(queryContext.getRequest());
 
         Map<MatchText, List<MapResult>> matchResult = matchStrategy.match(queryContext.getRequest(), terms,
@@ -52,15 +56,25 @@ public class HanlpDictMapper implements SchemaMapper {
 
         HanlpHelper.transLetterOriginal(matches);
 
-        log.info("queryContext:{},matches:{}", queryContext, matches);
+        log.debug("queryContext:{},matches:{}", queryContext, matches);
 
-        convertTermsToSchemaMapInfo(matches, queryContext.getMapInfo(), terms);
+        return convertTermsToElementMatches(matches, terms);
     }
 
+    @Override
+    public void apply(QueryContext queryContext, Map<Long, List<SchemaElementMatch>> prepared) {
+        SchemaMapInfo schemaMap = queryContext.getMapInfo();
+        for (Map.Entry<Long, List<SchemaElementMatch>> entry : prepared.entrySet()) {
+            schemaMap.getModelElementMatches().computeIfAbsent(entry.getKey(), key -> new ArrayList<>())
+                    .addAll(entry.getValue());
+        }
+    }
 
-    private void convertTermsToSchemaMapInfo(List<MapResult> mapResults, SchemaMapInfo schemaMap, List<Term> terms) {
+    private Map<Long, List<SchemaElementMatch>> convertTermsToElementMatches(List<MapResult> mapResults,
+            List<Term> terms) {
+        Map<Long, List<SchemaElementMatch>> modelElementMatches = new LinkedHashMap<>();
         if (CollectionUtils.isEmpty(mapResults)) {
-            return;
+            return modelElementMatches;
         }
 
         Map<String, Long> wordNatureToFrequency = terms.stream().collect(
@@ -69,11 +83,12 @@ public class HanlpDictMapper implements SchemaMapper {
 
         for (MapResult mapResult : mapResults) {
             for (String nature : mapResult.getNatures()) {
-                Long modelId = NatureHelper.getModelId(nature);
+                DictNature dictNature = DictNature.of(nature);
+                Long modelId = dictNature.getModelId();
                 if (Objects.isNull(modelId)) {
                     continue;
                 }
-                SchemaElementType elementType = NatureHelper.convertToElementType(nature);
+                SchemaElementType elementType = dictNature.getElementType();
                 if (Objects.isNull(elementType)) {
                     continue;
                 }
@@ -81,8 +96,7 @@ public class HanlpDictMapper implements SchemaMapper {
                 SemanticService schemaService = ContextUtils.getBean(SemanticService.class);
                 ModelSchema modelSchema = schemaService.getModelSchema(modelId);
 
-                BaseWordBuilder baseWordBuilder = WordBuilderFactory.get(DictWordType.getNatureType(nature));
-                Long elementID = baseWordBuilder.getElementID(nature);
+                Long elementID = dictNature.getElementId();
                 Long frequency = wordNatureToFrequency.get(mapResult.getName() + nature);
 
                 SchemaElement elementDb = modelSchema.getElement(elementType, elementID);
@@ -104,15 +118,10 @@ public class HanlpDictMapper implements SchemaMapper {
                         .detectWord(mapResult.getDetectWord())
                         .build();
 
-                Map<Long, List<SchemaElementMatch>> modelElementMatches = schemaMap.getModelElementMatches();
-                List<SchemaElementMatch> schemaElementMatches = modelElementMatches.putIfAbsent(modelId,
-                        new ArrayList<>());
-                if (schemaElementMatches == null) {
-                    schemaElementMatches = modelElementMatches.get(modelId);
-                }
-                schemaElementMatches.add(schemaElementMatch);
+                modelElementMatches.computeIfAbsent(modelId, key -> new ArrayList<>()).add(schemaElementMatch);
             }
         }
+        return modelElementMatches;
     }
 
     private List<MapResult> getMatches(Map<MatchText, List<MapResult>> matchResult) {
@@ -0,0 +1,150 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.tencent.supersonic.chat.api.component.SchemaMapper;
+import com.tencent.supersonic.chat.api.pojo.QueryContext;
+import com.tencent.supersonic.chat.persistence.dataobject.CostType;
+import com.tencent.supersonic.chat.persistence.dataobject.StatisticsDO;
+import com.tencent.supersonic.common.util.JsonUtil;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs schema mappers in the order of their declared dependencies.
+ * The detection of all prepared mappers runs concurrently up front, only their cheap apply steps
+ * run one after another on the shared context, so the result does not depend on thread timing.
+ */
+@Service
+@Slf4j
+public class MapperExecutor {
+
+    @Value("${mapper.executor.thread.size:8}")
+    private Integer threadSize;
+
+    @Value("${mapper.executor.queue.size:256}")
+    private Integer queueSize;
+
+    private ExecutorService executorService;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNum = new AtomicInteger();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threadSize, threadSize,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "schema-mapper-" + threadNum.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        executorService = TtlExecutors.getTtlExecutorService(threadPoolExecutor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdown();
+    }
+
+    public List<StatisticsDO> execute(List<SchemaMapper> schemaMappers, QueryContext queryContext) {
+        Map<SchemaMapper, Future<Object>> preparedResults = prepare(schemaMappers, queryContext);
+        Map<SchemaMapper, Long> mapperCosts = new IdentityHashMap<>();
+        for (List<SchemaMapper> stage : getStages(schemaMappers)) {
+            for (SchemaMapper mapper : stage) {
+                mapperCosts.put(mapper, run(mapper, queryContext, preparedResults));
+                if (log.isDebugEnabled()) {
+                    log.debug("{} result:{}", mapper.getClass().getSimpleName(), JsonUtil.toString(queryContext));
+                }
+            }
+        }
+        List<StatisticsDO> timeCostDOList = new ArrayList<>();
+        for (SchemaMapper mapper : schemaMappers) {
+            timeCostDOList.add(StatisticsDO.builder().cost(mapperCosts.get(mapper).intValue())
+                    .interfaceName(mapper.getClass().getSimpleName()).type(CostType.MAPPER.getType()).build());
+        }
+        return timeCostDOList;
+    }
+
+    /***
+     * group mappers into stages, a mapper is placed in the first stage after all its dependencies,
+     * dependencies that are not registered are ignored
+     * @param schemaMappers
+     * @return
+     */
+    public List<List<SchemaMapper>> getStages(List<SchemaMapper> schemaMappers) {
+        List<List<SchemaMapper>> stages = new ArrayList<>();
+        List<SchemaMapper> remaining = new ArrayList<>(schemaMappers);
+        while (!remaining.isEmpty()) {
+            List<SchemaMapper> stage = new ArrayList<>();
+            for (SchemaMapper mapper : remaining) {
+                if (isReady(mapper, remaining)) {
+                    stage.add(mapper);
+                }
+            }
+            if (stage.isEmpty()) {
+                log.warn("cyclic dependency between schema mappers:{}, run in registration order", remaining);
+                stage.add(remaining.get(0));
+            }
+            remaining.removeAll(stage);
+            stages.add(stage);
+        }
+        return stages;
+    }
+
+    private boolean isReady(SchemaMapper mapper, List<SchemaMapper> remaining) {
+        for (Class<? extends SchemaMapper> dependency : mapper.dependsOn()) {
+            if (remaining.stream().anyMatch(other -> other != mapper && dependency.isInstance(other))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<SchemaMapper, Future<Object>> prepare(List<SchemaMapper> schemaMappers, QueryContext queryContext) {
+        Map<SchemaMapper, Future<Object>> preparedResults = new IdentityHashMap<>();
+        for (SchemaMapper mapper : schemaMappers) {
+            if (mapper instanceof PreparedSchemaMapper) {
+                PreparedSchemaMapper<Object> preparedMapper = (PreparedSchemaMapper<Object>) mapper;
+                preparedResults.put(mapper, executorService.submit(() -> preparedMapper.prepare(queryContext)));
+            }
+        }
+        return preparedResults;
+    }
+
+    private long run(SchemaMapper mapper, QueryContext queryContext,
+            Map<SchemaMapper, Future<Object>> preparedResults) {
+        long startTime = System.currentTimeMillis();
+        Future<Object> prepared = preparedResults.get(mapper);
+        if (prepared == null) {
+            mapper.map(queryContext);
+        } else {
+            Object preparedResult;
+            try {
+                preparedResult = prepared.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while preparing " + mapper.getClass().getSimpleName(), e);
+            } catch (ExecutionException e) {
+                log.error("prepare {} error, fall back to map", mapper.getClass().getSimpleName(), e.getCause());
+                mapper.map(queryContext);
+                return System.currentTimeMillis() - startTime;
+            }
+            ((PreparedSchemaMapper<Object>) mapper).apply(queryContext, preparedResult);
+        }
+        return System.currentTimeMillis() - startTime;
+    }
+}
@@ -1,10 +1,15 @@
 package com.tencent.supersonic.chat.mapper;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.hankcs.hanlp.algorithm.EditDistance;
+import com.hankcs.hanlp.seg.common.Term;
+import com.tencent.supersonic.chat.api.pojo.QueryContext;
 import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
 import com.tencent.supersonic.chat.config.OptimizationConfig;
 import com.tencent.supersonic.chat.service.AgentService;
 import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.knowledge.utils.HanlpHelper;
 import com.tencent.supersonic.knowledge.utils.NatureHelper;
 import java.util.HashSet;
 import java.util.List;
@@ -26,9 +31,24 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class MapperHelper {
 
+    /**
+     * terms of the queries being mapped, weak keys compare by identity and
+     * let an entry go together with its query context
+     */
+    private static final Cache<QueryContext, List<Term>> queryTerms = Caffeine.newBuilder().weakKeys().build();
+
     @Autowired
     private OptimizationConfig optimizationConfig;
 
+    /***
+     * get the terms of the query text, segmented once per query context and shared by all mappers
+     * @param queryContext
+     * @return
+     */
+    public List<Term> getTerms(QueryContext queryContext) {
+        return queryTerms.get(queryContext, context -> HanlpHelper.getTerms(context.getRequest().getQueryText()));
+    }
+
     public Integer getStepIndex(Map<Integer, Integer> regOffsetToLength, Integer index) {
         Integer subRegLength = regOffsetToLength.get(index);
         if (Objects.nonNull(subRegLength)) {
@@ -0,0 +1,21 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.tencent.supersonic.chat.api.component.SchemaMapper;
+import com.tencent.supersonic.chat.api.pojo.QueryContext;
+
+/**
+ * A schema mapper whose expensive detection only reads the request, so it can be prepared
+ * ahead of time while the mappers it depends on are still running.
+ * The cheap apply step still runs after its dependencies.
+ */
+public interface PreparedSchemaMapper<T> extends SchemaMapper {
+
+    T prepare(QueryContext queryContext);
+
+    void apply(QueryContext queryContext, T prepared);
+
+    @Override
+    default void map(QueryContext queryContext) {
+        apply(queryContext, prepare(queryContext));
+    }
+}
@@ -13,6 +13,7 @@ import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
 import com.tencent.supersonic.common.pojo.Constants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -23,6 +24,11 @@ public class QueryFilterMapper implements SchemaMapper {
     private Long frequency = 9999999L;
     private double similarity = 1.0;
 
+    @Override
+    public List<Class<? extends SchemaMapper>> dependsOn() {
+        return Arrays.asList(HanlpDictMapper.class, FuzzyNameMapper.class);
+    }
+
     @Override
     public void map(QueryContext queryContext) {
         QueryReq queryReq = queryContext.getRequest();
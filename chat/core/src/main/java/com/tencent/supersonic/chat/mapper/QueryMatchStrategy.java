@@ -63,6 +63,10 @@ public class QueryMatchStrategy implements MatchStrategy {
         String text = queryReq.getQueryText();
         List<MapResult> results = Lists.newArrayList();
 
+        // segments that can not be followed in the tries have no search results, skip them
+        int[] prefixMatchLengths = SearchService.getPrefixMatchLengths(text);
+        int[] suffixMatchLengths = SearchService.getSuffixMatchLengths(text);
+
         for (Integer index = 0; index <= text.length() - 1; ) {
 
             Set<MapResult> mapResultRowSet = new LinkedHashSet();
@@ -71,7 +75,13 @@ public class QueryMatchStrategy implements MatchStrategy {
                 int offset = mapperHelper.getStepOffset(offsetList, index);
                 i = mapperHelper.getStepIndex(regOffsetToLength, i);
                 if (i <= text.length()) {
-                    List<MapResult> mapResults = detectByStep(queryReq, detectModelIds, index, i, offset);
+                    boolean prefixMatch = i - index <= prefixMatchLengths[index];
+                    boolean suffixMatch = i - index <= suffixMatchLengths[i];
+                    if (!prefixMatch && !suffixMatch) {
+                        continue;
+                    }
+                    List<MapResult> mapResults = detectByStep(queryReq, detectModelIds, index, i, offset,
+                            prefixMatch, suffixMatch);
                     selectMapResultInOneRound(mapResultRowSet, mapResults);
                 }
             }
@@ -109,20 +119,23 @@ public class QueryMatchStrategy implements MatchStrategy {
     }
 
     private List<MapResult> detectByStep(QueryReq queryReq, Set<Long> detectModelIds, Integer index, Integer i,
-            int offset) {
+            int offset, boolean prefixMatch, boolean suffixMatch) {
         String text = queryReq.getQueryText();
         Integer agentId = queryReq.getAgentId();
         String detectSegment = text.substring(index, i);
 
         // step1. pre search
         Integer oneDetectionMaxSize = optimizationConfig.getOneDetectionMaxSize();
-        LinkedHashSet<MapResult> mapResults = SearchService.prefixSearch(detectSegment, oneDetectionMaxSize, agentId,
-                detectModelIds).stream().collect(Collectors.toCollection(LinkedHashSet::new));
+        LinkedHashSet<MapResult> mapResults = new LinkedHashSet<>();
+        if (prefixMatch) {
+            mapResults.addAll(SearchService.prefixSearch(detectSegment, oneDetectionMaxSize, agentId,
+                    detectModelIds));
+        }
         // step2. suffix search
-        LinkedHashSet<MapResult> suffixMapResults = SearchService.suffixSearch(detectSegment, oneDetectionMaxSize,
-                agentId, detectModelIds).stream().collect(Collectors.toCollection(LinkedHashSet::new));
-
-        mapResults.addAll(suffixMapResults);
+        if (suffixMatch) {
+            mapResults.addAll(SearchService.suffixSearch(detectSegment, oneDetectionMaxSize, agentId,
+                    detectModelIds));
+        }
 
         if (CollectionUtils.isEmpty(mapResults)) {
             return new ArrayList<>();
@@ -33,6 +33,7 @@ import com.tencent.supersonic.common.pojo.DateConf.DateMode;
 import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.common.util.JsonUtil;
 import com.tencent.supersonic.common.util.jsqlparser.FilterExpression;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserSelectHelper;
 import com.tencent.supersonic.knowledge.service.SchemaService;
 import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
@@ -128,11 +129,14 @@ public class LLMDslParser implements SemanticParser {
 
     public void updateParseInfo(SemanticCorrectInfo semanticCorrectInfo, Long modelId, SemanticParseInfo parseInfo) {
 
+        ParsedSql parsedSql = semanticCorrectInfo.getParsedSql();
         String correctorSql = semanticCorrectInfo.getPreSql();
-        if (StringUtils.isEmpty(correctorSql)) {
-            correctorSql = semanticCorrectInfo.getSql();
+        List<FilterExpression> expressions;
+        if (StringUtils.isEmpty(correctorSql) || correctorSql.equals(parsedSql.getSql())) {
+            expressions = parsedSql.getFilterExpressions();
+        } else {
+            expressions = SqlParserSelectHelper.getFilterExpression(correctorSql);
         }
-        List<FilterExpression> expressions = SqlParserSelectHelper.getFilterExpression(correctorSql);
         //set dataInfo
         try {
             if (!CollectionUtils.isEmpty(expressions)) {
@@ -157,19 +161,19 @@ public class LLMDslParser implements SemanticParser {
         if (Objects.isNull(semanticSchema)) {
             return;
         }
-        List<String> allFields = getFieldsExceptDate(SqlParserSelectHelper.getAllFields(semanticCorrectInfo.getSql()));
+        List<String> allFields = getFieldsExceptDate(parsedSql.getAllFields());
 
         Set<SchemaElement> metrics = getElements(modelId, allFields, semanticSchema.getMetrics());
         parseInfo.setMetrics(metrics);
 
-        if (SqlParserSelectHelper.hasAggregateFunction(semanticCorrectInfo.getSql())) {
+        if (parsedSql.hasAggregateFunction()) {
             parseInfo.setNativeQuery(false);
-            List<String> groupByFields = SqlParserSelectHelper.getGroupByFields(semanticCorrectInfo.getSql());
+            List<String> groupByFields = parsedSql.getGroupByFields();
             List<String> groupByDimensions = getFieldsExceptDate(groupByFields);
             parseInfo.setDimensions(getElements(modelId, groupByDimensions, semanticSchema.getDimensions()));
         } else {
             parseInfo.setNativeQuery(true);
-            List<String> selectFields = SqlParserSelectHelper.getSelectFields(semanticCorrectInfo.getSql());
+            List<String> selectFields = parsedSql.getSelectFields();
             List<String> selectDimensions = getFieldsExceptDate(selectFields);
             parseInfo.setDimensions(getElements(modelId, selectDimensions, semanticSchema.getDimensions()));
         }
@@ -21,6 +21,7 @@ import com.tencent.supersonic.chat.api.pojo.request.DictTaskFilterReq;
 import com.tencent.supersonic.knowledge.dictionary.DictUpdateMode;
 import com.tencent.supersonic.knowledge.dictionary.DimValue2DictCommand;
 import com.tencent.supersonic.knowledge.dictionary.DimValueDictInfo;
+import com.tencent.supersonic.knowledge.dictionary.DimValueTaskProgress;
 import com.tencent.supersonic.knowledge.persistence.repository.DictRepository;
 
 
@@ -39,6 +40,17 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 @Slf4j
 @Service
@@ -56,7 +68,14 @@ public class ChatKnowledgeServiceImpl implements ChatKnowledgeService {
     private Boolean dictFlushDailyEnable;
     @Value("${dict.file.type:txt}")
     private String dictFileType;
+    @Value("${dict.task.parallelism:4}")
+    private Integer dictTaskParallelism;
+    @Value("${dict.task.datasource.parallelism:2}")
+    private Integer dictTaskDatasourceParallelism;
+    @Value("${dict.task.queue.size:1000}")
+    private Integer dictTaskQueueSize;
     private String dimValue = "DimValue_%d_%d";
+    private ExecutorService executorService;
 
     public ChatKnowledgeServiceImpl(DictMetaHelper metaUtils,
                                     DictQueryHelper dictQueryHelper,
@@ -70,6 +89,33 @@ public class ChatKnowledgeServiceImpl implements ChatKnowledgeService {
         this.applicationStartedListener = applicationStartedListener;
     }
 
+    @PostConstruct
+    public void init() {
+        int threadSize = Math.max(1, dictTaskParallelism);
+        AtomicInteger threadNum = new AtomicInteger();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threadSize, threadSize,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(dictTaskQueueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dict-task-" + threadNum.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    // a rejected chain step fails its task instead of never completing
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("dictionary task executor is shut down");
+                    }
+                    runnable.run();
+                });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        executorService = threadPoolExecutor;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdown();
+    }
+
     @Scheduled(cron = "${knowledge.dimension.value.cron:0 0 0 * * ?}")
     public Boolean dailyDictTask() {
         log.info("[dailyDictTask] start");
@@ -117,18 +163,8 @@ public class ChatKnowledgeServiceImpl implements ChatKnowledgeService {
             dictTaskDO.setDimIds(JsonUtil.toString(dimIds));
             dictRepository.updateDictTaskStatus(TaskStatusEnum.RUNNING.getCode(), dictTaskDO);
             log.debug("dimValueDOList:{}", dimValueDOList);
-            //2. query dimension value information
-            for (DimValueDO dimValueDO : dimValueDOList) {
-                Long modelId = dimValueDO.getModelId();
-                DefaultMetric defaultMetricDesc = dimValueDO.getDefaultMetricDescList().get(0);
-                for (Dim4Dict dim4Dict : dimValueDO.getDimensions()) {
-                    List<String> data = dictQueryHelper.fetchDimValueSingle(modelId, defaultMetricDesc, dim4Dict, user);
-                    //3. local file changes
-                    String fileName = String.format(dimValue + Constants.DOT + dictFileType, modelId,
-                            dim4Dict.getDimId());
-                    fileHandler.writeFile(data, fileName, false);
-                }
-            }
+            //2. query dimension value information and write local files
+            fetchDimValues(dimValueDOList, dictTaskDO, user);
             applicationStartedListener.updateKnowledgeDimValue();
             log.debug("updateDictTaskStatus to SUCCESS");
             dictRepository.updateDictTaskStatus(TaskStatusEnum.SUCCESS.getCode(), dictTaskDO);
@@ -139,6 +175,86 @@ public class ChatKnowledgeServiceImpl implements ChatKnowledgeService {
         return 1L;
     }
 
+    /***
+     * dimensions run concurrently on the dictTaskParallelism threads shared by all dictionary tasks,
+     * the dimensions read from one datasource,
+     * whichever model they belong to, are split into at most dictTaskDatasourceParallelism chains
+     * so that one datasource is not flooded
+     * @param dimValueDOList
+     * @param dictTaskDO
+     * @param user
+     */
+    private void fetchDimValues(List<DimValueDO> dimValueDOList, DictTaskDO dictTaskDO, User user) {
+        List<DimValueTaskProgress> progresses = new ArrayList<>();
+        Map<String, List<Runnable>> datasourceTasks = new LinkedHashMap<>();
+        Map<Long, Long> dimensionDatasourceIds = metaUtils.getDimensionDatasourceIds(dimValueDOList.stream()
+                .map(DimValueDO::getModelId).collect(Collectors.toSet()));
+        for (DimValueDO dimValueDO : dimValueDOList) {
+            Long modelId = dimValueDO.getModelId();
+            DefaultMetric defaultMetricDesc = dimValueDO.getDefaultMetricDescList().get(0);
+            for (Dim4Dict dim4Dict : dimValueDO.getDimensions()) {
+                DimValueTaskProgress progress = new DimValueTaskProgress(modelId, dim4Dict.getDimId());
+                progresses.add(progress);
+                Long datasourceId = dimensionDatasourceIds.get(dim4Dict.getDimId());
+                // a dimension whose datasource is unknown is limited with the other ones of its model
+                String limitKey = Objects.nonNull(datasourceId) ? "datasource_" + datasourceId : "model_" + modelId;
+                datasourceTasks.computeIfAbsent(limitKey, key -> new ArrayList<>()).add(() -> fetchDimValue(modelId,
+                        defaultMetricDesc, dim4Dict, user, progress, dictTaskDO, progresses));
+            }
+        }
+        if (progresses.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<Runnable> tasks : datasourceTasks.values()) {
+            int chainSize = Math.max(1, Math.min(dictTaskDatasourceParallelism, tasks.size()));
+            for (int i = 0; i < chainSize; i++) {
+                CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+                for (int j = i; j < tasks.size(); j += chainSize) {
+                    chain = chain.thenRunAsync(tasks.get(j), executorService);
+                }
+                futures.add(chain);
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void fetchDimValue(Long modelId, DefaultMetric defaultMetricDesc, Dim4Dict dim4Dict, User user,
+                               DimValueTaskProgress progress, DictTaskDO dictTaskDO,
+                               List<DimValueTaskProgress> progresses) {
+        long startTime = System.currentTimeMillis();
+        progress.setStatus(TaskStatusEnum.RUNNING);
+        try {
+            //3. local file changes, written batch by batch while the values are queried
+            String fileName = String.format(dimValue + Constants.DOT + dictFileType, modelId, dim4Dict.getDimId());
+            Long lineCount = fileHandler.writeFile(writer -> dictQueryHelper.fetchDimValueSingle(modelId,
+                    defaultMetricDesc, dim4Dict, user, writer), fileName, false);
+            progress.setLineCount(lineCount);
+            progress.setStatus(lineCount < 0 ? TaskStatusEnum.ERROR : TaskStatusEnum.SUCCESS);
+        } catch (Exception e) {
+            log.warn("fetchDimValue exception, modelId:{}, dimId:{}, e:", modelId, dim4Dict.getDimId(), e);
+            progress.setStatus(TaskStatusEnum.ERROR);
+        }
+        progress.setElapsedMs(System.currentTimeMillis() - startTime);
+        updateDictTaskProgress(dictTaskDO, progresses);
+    }
+
+    private void updateDictTaskProgress(DictTaskDO dictTaskDO, List<DimValueTaskProgress> progresses) {
+        synchronized (dictTaskDO) {
+            try {
+                long finished = progresses.stream()
+                        .filter(progress -> TaskStatusEnum.SUCCESS.equals(progress.getStatus())
+                                || TaskStatusEnum.ERROR.equals(progress.getStatus()))
+                        .count();
+                dictTaskDO.setProgress((double) finished / progresses.size());
+                dictTaskDO.setMessage(JsonUtil.toString(progresses));
+                dictRepository.updateDictTaskProgress(dictTaskDO);
+            } catch (Exception e) {
+                log.warn("updateDictTaskProgress exception:", e);
+            }
+        }
+    }
+
     private Set<Long> generateDimSet(List<DimValueDO> dimValueDOList) {
         Set<Long> dimIds = new HashSet<>();
         if (!CollectionUtils.isEmpty(dimValueDOList)) {
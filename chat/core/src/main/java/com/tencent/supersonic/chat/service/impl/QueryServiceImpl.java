@@ -15,6 +15,7 @@ import com.tencent.supersonic.chat.api.pojo.response.EntityInfo;
 import com.tencent.supersonic.chat.api.pojo.response.ParseResp;
 import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
 import com.tencent.supersonic.chat.api.pojo.response.QueryState;
+import com.tencent.supersonic.chat.mapper.MapperExecutor;
 import com.tencent.supersonic.chat.persistence.dataobject.ChatParseDO;
 import com.tencent.supersonic.chat.persistence.dataobject.CostType;
 import com.tencent.supersonic.chat.persistence.dataobject.StatisticsDO;
@@ -62,6 +63,8 @@ public class QueryServiceImpl implements QueryService {
     private ChatService chatService;
     @Autowired
     private StatisticsService statisticsService;
+    @Autowired
+    private MapperExecutor mapperExecutor;
 
     @Value("${time.threshold: 100}")
     private Integer timeThreshold;
@@ -75,16 +78,7 @@ public class QueryServiceImpl implements QueryService {
         QueryContext queryCtx = new QueryContext(queryReq);
         // in order to support multi-turn conversation, chat context is needed
         ChatContext chatCtx = chatService.getOrCreateContext(queryReq.getChatId());
-        List<StatisticsDO> timeCostDOList = new ArrayList<>();
-        schemaMappers.stream().forEach(mapper -> {
-            Long startTime = System.currentTimeMillis();
-            mapper.map(queryCtx);
-            Long endTime = System.currentTimeMillis();
-            String className = mapper.getClass().getSimpleName();
-            timeCostDOList.add(StatisticsDO.builder().cost((int) (endTime - startTime))
-                    .interfaceName(className).type(CostType.MAPPER.getType()).build());
-            log.info("{} result:{}", className, JsonUtil.toString(queryCtx));
-        });
+        List<StatisticsDO> timeCostDOList = new ArrayList<>(mapperExecutor.execute(schemaMappers, queryCtx));
         semanticParsers.stream().forEach(parser -> {
             Long startTime = System.currentTimeMillis();
             parser.parse(queryCtx, chatCtx);
@@ -215,10 +209,7 @@ public class QueryServiceImpl implements QueryService {
         // in order to support multi-turn conversation, chat context is needed
         ChatContext chatCtx = chatService.getOrCreateContext(queryReq.getChatId());
 
-        schemaMappers.stream().forEach(mapper -> {
-            mapper.map(queryCtx);
-            log.info("{} result:{}", mapper.getClass().getSimpleName(), JsonUtil.toString(queryCtx));
-        });
+        mapperExecutor.execute(schemaMappers, queryCtx);
 
         semanticParsers.stream().forEach(parser -> {
             parser.parse(queryCtx, chatCtx);
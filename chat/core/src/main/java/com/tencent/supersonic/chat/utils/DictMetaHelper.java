@@ -38,6 +38,8 @@ import org.springframework.util.CollectionUtils;
 @Component
 public class DictMetaHelper {
 
+    private static final int DIMENSION_PAGE_SIZE = 100;
+
     @Autowired
     private ConfigService configService;
     @Value("${model.internal.metric.suffix:internal_cnt}")
@@ -219,6 +221,35 @@ public class DictMetaHelper {
         }
     }
 
+    /***
+     * the datasource id of each dimension of the models, read page by page instead of one query per dimension
+     * @param modelIds
+     * @return
+     */
+    public Map<Long, Long> getDimensionDatasourceIds(Set<Long> modelIds) {
+        Map<Long, Long> dimensionDatasourceIds = new HashMap<>();
+        if (CollectionUtils.isEmpty(modelIds)) {
+            return dimensionDatasourceIds;
+        }
+        PageDimensionReq pageDimensionCmd = new PageDimensionReq();
+        pageDimensionCmd.setModelIds(new ArrayList<>(modelIds));
+        pageDimensionCmd.setPageSize(DIMENSION_PAGE_SIZE);
+        for (int current = 1; ; current++) {
+            pageDimensionCmd.setCurrent(current);
+            PageInfo<DimensionResp> dimensionPage = semanticLayer.getDimensionPage(pageDimensionCmd);
+            if (Objects.isNull(dimensionPage) || CollectionUtils.isEmpty(dimensionPage.getList())) {
+                break;
+            }
+            dimensionPage.getList().stream()
+                    .filter(dimension -> Objects.nonNull(dimension.getDatasourceId()))
+                    .forEach(dimension -> dimensionDatasourceIds.put(dimension.getId(), dimension.getDatasourceId()));
+            if (!dimensionPage.isHasNextPage()) {
+                break;
+            }
+        }
+        return dimensionDatasourceIds;
+    }
+
     private String queryDataSourceByDimId(Long id) {
         PageDimensionReq pageDimensionCmd = new PageDimensionReq();
         pageDimensionCmd.setId(id.toString());
@@ -4,24 +4,30 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.chat.api.component.SemanticLayer;
 import com.tencent.supersonic.chat.config.DefaultMetric;
 import com.tencent.supersonic.chat.config.Dim4Dict;
-import com.tencent.supersonic.common.pojo.QueryColumn;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.query.enums.FilterOperatorEnum;
 import com.tencent.supersonic.semantic.api.query.pojo.Filter;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.common.pojo.enums.QueryLaneEnum;
 import com.tencent.supersonic.common.pojo.Aggregator;
 import com.tencent.supersonic.common.pojo.DateConf;
 import com.tencent.supersonic.common.pojo.Order;
+import com.tencent.supersonic.common.util.QueryLaneContext;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
@@ -49,92 +55,106 @@ public class DictQueryHelper {
     private Long dimMaxLimit;
     @Value("${dimension.white.weight:60000000}")
     private Long dimensionWhiteWeight;
-
-    public List<String> fetchDimValueSingle(Long modelId, DefaultMetric defaultMetricDesc, Dim4Dict dim4Dict,
-                                            User user) {
-        List<String> data = new ArrayList<>();
+    @Value("${dimension.value.batch.size:1000}")
+    private Integer dimValueBatchSize;
+
+    /***
+     * query the values of one dimension, the rows are streamed from the database and merged as they are read,
+     * each batch of merged values is handed to the writer as file lines once it holds dimValueBatchSize values,
+     * so at most one batch is kept in memory. a multivalued value spread over several batches is written
+     * once per batch. the white list is always written last, also when no value was merged
+     * @param modelId
+     * @param defaultMetricDesc
+     * @param dim4Dict
+     * @param user
+     * @param writer
+     */
+    public void fetchDimValueSingle(Long modelId, DefaultMetric defaultMetricDesc, Dim4Dict dim4Dict, User user,
+                                    Consumer<List<String>> writer) {
         QueryStructReq queryStructCmd = generateQueryStructCmd(modelId, defaultMetricDesc, dim4Dict);
+        String nature = String.format("_%d_%d", modelId, dim4Dict.getDimId());
+        Map<String, Long> valueAndFrequencyPair = new HashMap<>(2000);
+        AtomicLong valueCount = new AtomicLong();
+        QueryResultWithSchemaResp queryResultWithColumns;
+        AtomicReference<String> dimNameRewrite = new AtomicReference<>();
+        // dictionary loads run behind user queries when the database is busy
+        QueryLaneEnum previousLane = QueryLaneContext.set(QueryLaneEnum.DICTIONARY);
         try {
-            QueryResultWithSchemaResp queryResultWithColumns = semanticLayer.queryByStruct(queryStructCmd, user);
-            log.info("fetchDimValueSingle sql:{}", queryResultWithColumns.getSql());
-            String nature = String.format("_%d_%d", modelId, dim4Dict.getDimId());
-            String dimNameRewrite = rewriteDimName(queryResultWithColumns.getColumns(), dim4Dict.getBizName());
-            data = generateFileData(queryResultWithColumns.getResultList(), nature, dimNameRewrite,
-                    defaultMetricDesc.getBizName(), dim4Dict);
-            if (!CollectionUtils.isEmpty(data)) {
-                int size = (data.size() > printDataShow) ? printDataShow : data.size();
-                log.info("data:{}", data.subList(0, size - 1));
-            } else {
-                log.warn("data is empty. nature:{}", nature);
-                if (Objects.nonNull(queryResultWithColumns)) {
-                    log.warn("sql:{}", queryResultWithColumns.getSql());
+            queryResultWithColumns = semanticLayer.streamByStruct(queryStructCmd, user, line -> {
+                if (dimNameRewrite.get() == null) {
+                    dimNameRewrite.set(rewriteDimName(line.keySet(), dim4Dict.getBizName()));
                 }
-            }
-
-        } catch (Exception e) {
-            log.warn("fetchDimValueSingle,e:", e);
+                mergeLine(valueAndFrequencyPair, line, dimNameRewrite.get(), defaultMetricDesc.getBizName());
+                if (valueAndFrequencyPair.size() >= dimValueBatchSize) {
+                    valueCount.addAndGet(flush(valueAndFrequencyPair, nature, writer));
+                }
+            });
+        } finally {
+            QueryLaneContext.restore(previousLane);
+        }
+        if (Objects.isNull(queryResultWithColumns)) {
+            throw new RuntimeException("failed to query the values of dimension, nature:" + nature);
+        }
+        valueCount.addAndGet(flush(valueAndFrequencyPair, nature, writer));
+        log.info("fetchDimValueSingle sql:{}", queryResultWithColumns.getSql());
+        if (valueCount.get() > 0) {
+            log.info("data size:{}, nature:{}", valueCount.get(), nature);
+        } else {
+            log.warn("data is empty. nature:{}", nature);
+            log.warn("sql:{}", queryResultWithColumns.getSql());
+        }
+        if (!CollectionUtils.isEmpty(dim4Dict.getWhiteList())) {
+            writer.accept(dim4Dict.getWhiteList().stream()
+                    .map(white -> String.format("%s %s %s", white, nature, dimensionWhiteWeight))
+                    .collect(Collectors.toList()));
         }
-        return data;
     }
 
-    private String rewriteDimName(List<QueryColumn> columns, String bizName) {
+    private String rewriteDimName(Collection<String> columnNames, String bizName) {
         // metric parser join dimension style
         String dimNameRewrite = bizName;
-
-        if (!CollectionUtils.isEmpty(columns)) {
-            for (QueryColumn column : columns) {
-                if (Strings.isNotEmpty(column.getNameEn())) {
-                    String nameEn = column.getNameEn();
-                    if (nameEn.endsWith(UNDERLINE_DOUBLE + bizName)) {
-                        dimNameRewrite = nameEn;
-                    }
-                }
+        for (String nameEn : columnNames) {
+            if (Strings.isNotEmpty(nameEn) && nameEn.endsWith(UNDERLINE_DOUBLE + bizName)) {
+                dimNameRewrite = nameEn;
             }
         }
         return dimNameRewrite;
     }
 
-    private List<String> generateFileData(List<Map<String, Object>> resultList, String nature, String dimName,
-                                          String metricName, Dim4Dict dim4Dict) {
-        List<String> data = new ArrayList<>();
-        if (CollectionUtils.isEmpty(resultList)) {
-            return data;
+    private void mergeLine(Map<String, Long> valueAndFrequencyPair, Map<String, Object> line, String dimName,
+                           String metricName) {
+        if (CollectionUtils.isEmpty(line) || !line.containsKey(dimName) || Objects.isNull(line.get(dimName))) {
+            return;
         }
-        Map<String, Long> valueAndFrequencyPair = new HashMap<>(2000);
-        for (Map<String, Object> line : resultList) {
-
-            if (CollectionUtils.isEmpty(line) || !line.containsKey(dimName)) {
-                continue;
-            }
-
-            String dimValue = line.get(dimName).toString();
-            Object metricObject = line.get(metricName);
-            if (Strings.isNotEmpty(dimValue) && Objects.nonNull(metricObject)) {
-                Long metric = Math.round(Double.parseDouble(metricObject.toString()));
-                mergeMultivaluedValue(valueAndFrequencyPair, dimValue, metric);
-            }
-
+        String dimValue = line.get(dimName).toString();
+        Object metricObject = line.get(metricName);
+        if (Strings.isNotEmpty(dimValue) && Objects.nonNull(metricObject)) {
+            Long metric = Math.round(Double.parseDouble(metricObject.toString()));
+            mergeMultivaluedValue(valueAndFrequencyPair, dimValue, metric);
         }
-        constructDataLines(valueAndFrequencyPair, nature, data, dim4Dict);
-        return data;
     }
 
-    private void constructDataLines(Map<String, Long> valueAndFrequencyPair, String nature,
-                                    List<String> data, Dim4Dict dim4Dict) {
-        valueAndFrequencyPair.forEach((dimValue, metric) -> {
+    private int flush(Map<String, Long> valueAndFrequencyPair, String nature, Consumer<List<String>> writer) {
+        if (CollectionUtils.isEmpty(valueAndFrequencyPair)) {
+            return 0;
+        }
+        List<String> lines = valueAndFrequencyPair.entrySet().stream().map(entry -> {
+            String dimValue = entry.getKey();
+            Long metric = entry.getValue();
             if (metric > MAX_FREQUENCY) {
                 metric = MAX_FREQUENCY;
             }
             if (Strings.isNotEmpty(dimValue) && dimValue.contains(SPACE)) {
                 dimValue = dimValue.replace(SPACE, "#");
             }
-            data.add(String.format("%s %s %s", dimValue, nature, metric));
-        });
-
-        if (Objects.nonNull(dim4Dict) && !CollectionUtils.isEmpty(dim4Dict.getWhiteList())) {
-            dim4Dict.getWhiteList().stream()
-                    .forEach(white -> data.add(String.format("%s %s %s", white, nature, dimensionWhiteWeight)));
+            return String.format("%s %s %s", dimValue, nature, metric);
+        }).collect(Collectors.toList());
+        if (log.isDebugEnabled()) {
+            log.debug("nature:{}, data:{}", nature, lines.stream().limit(printDataShow).collect(Collectors.toList()));
         }
+        valueAndFrequencyPair.clear();
+        writer.accept(lines);
+        return lines.size();
     }
 
     private void mergeMultivaluedValue(Map<String, Long> valueAndFrequencyPair, String dimValue, Long metric) {
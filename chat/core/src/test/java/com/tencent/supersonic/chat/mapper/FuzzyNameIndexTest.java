@@ -0,0 +1,38 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.tencent.supersonic.chat.api.pojo.SchemaElement;
+import com.tencent.supersonic.chat.api.pojo.SchemaElementType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class FuzzyNameIndexTest {
+
+    private SchemaElement metric(Long id, String name) {
+        return SchemaElement.builder().model(1L).id(id).name(name).type(SchemaElementType.METRIC).build();
+    }
+
+    @Test
+    void search() {
+        List<SchemaElement> metrics = Arrays.asList(metric(1L, "访问次数"), metric(2L, "访问人数"),
+                metric(3L, "停留时长"), metric(4L, "访问次数"), metric(5L, "人均访问次数统计值"));
+        FuzzyNameIndex nameIndex = new FuzzyNameIndex(metrics);
+        Assert.assertEquals(4, nameIndex.size());
+
+        Map<String, Set<SchemaElement>> result = nameIndex.search("访问", 0.1);
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals(2, result.get("访问次数").size());
+
+        result = nameIndex.search("访问", 0.5);
+        Assert.assertEquals(2, result.size());
+        Assert.assertFalse(result.containsKey("人均访问次数统计值"));
+
+        result = nameIndex.search("数", 0.1);
+        Assert.assertEquals(3, result.size());
+        Assert.assertTrue(nameIndex.search("次访", 0.1).isEmpty());
+        Assert.assertTrue(nameIndex.search("部门", 0.1).isEmpty());
+    }
+}
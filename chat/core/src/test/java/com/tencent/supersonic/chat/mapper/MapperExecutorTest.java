@@ -0,0 +1,154 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.tencent.supersonic.chat.api.component.SchemaMapper;
+import com.tencent.supersonic.chat.api.pojo.QueryContext;
+import com.tencent.supersonic.chat.api.pojo.SchemaElementMatch;
+import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MapperExecutorTest {
+
+    @Test
+    void getStages() {
+        MapperExecutor mapperExecutor = new MapperExecutor();
+        List<SchemaMapper> mappers = Arrays.asList(new HanlpDictMapper(), new FuzzyNameMapper(),
+                new QueryFilterMapper(), new EntityMapper());
+
+        List<List<SchemaMapper>> stages = mapperExecutor.getStages(mappers);
+
+        Assert.assertEquals(4, stages.size());
+        Assert.assertTrue(stages.get(0).get(0) instanceof HanlpDictMapper);
+        Assert.assertTrue(stages.get(3).get(0) instanceof EntityMapper);
+    }
+
+    @Test
+    void executeInDependencyOrder() {
+        MapperExecutor mapperExecutor = new MapperExecutor();
+        ReflectionTestUtils.setField(mapperExecutor, "threadSize", 2);
+        ReflectionTestUtils.setField(mapperExecutor, "queueSize", 8);
+        mapperExecutor.init();
+
+        List<SchemaMapper> mappers = Arrays.asList(new WordMapper("a", 50), new WordMapper("b", 0),
+                new CountMapper());
+        Assert.assertEquals(2, mapperExecutor.getStages(mappers).size());
+
+        QueryReq queryReq = new QueryReq();
+        queryReq.setQueryText("test");
+        QueryContext queryContext = new QueryContext(queryReq);
+        mapperExecutor.execute(mappers, queryContext);
+
+        List<String> words = queryContext.getMapInfo().getMatchedElements(1L).stream()
+                .map(SchemaElementMatch::getWord).collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("a", "b", "2"), words);
+        mapperExecutor.destroy();
+    }
+
+    @Test
+    void prepareAheadOfDependencies() {
+        MapperExecutor mapperExecutor = newExecutor();
+        CountDownLatch latch = new CountDownLatch(2);
+        List<SchemaMapper> mappers = Arrays.asList(new LatchMapper(latch), new DependentLatchMapper(latch));
+
+        QueryReq queryReq = new QueryReq();
+        queryReq.setQueryText("test");
+        QueryContext queryContext = new QueryContext(queryReq);
+        mapperExecutor.execute(mappers, queryContext);
+
+        List<String> words = queryContext.getMapInfo().getMatchedElements(1L).stream()
+                .map(SchemaElementMatch::getWord).collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("true", "true"), words);
+        mapperExecutor.destroy();
+    }
+
+    private static MapperExecutor newExecutor() {
+        MapperExecutor mapperExecutor = new MapperExecutor();
+        ReflectionTestUtils.setField(mapperExecutor, "threadSize", 2);
+        ReflectionTestUtils.setField(mapperExecutor, "queueSize", 8);
+        mapperExecutor.init();
+        return mapperExecutor;
+    }
+
+    private static class WordMapper implements SchemaMapper {
+
+        private final String word;
+        private final long sleepMillis;
+
+        WordMapper(String word, long sleepMillis) {
+            this.word = word;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void map(QueryContext queryContext) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            queryContext.getMapInfo().getModelElementMatches().computeIfAbsent(1L, key -> new ArrayList<>())
+                    .add(SchemaElementMatch.builder().word(word).build());
+        }
+    }
+
+    private static class CountMapper implements SchemaMapper {
+
+        @Override
+        public List<Class<? extends SchemaMapper>> dependsOn() {
+            return Collections.singletonList(WordMapper.class);
+        }
+
+        @Override
+        public void map(QueryContext queryContext) {
+            List<SchemaElementMatch> matches = queryContext.getMapInfo().getMatchedElements(1L);
+            matches.add(SchemaElementMatch.builder().word(String.valueOf(matches.size())).build());
+        }
+    }
+
+    private static class LatchMapper implements PreparedSchemaMapper<Boolean> {
+
+        private final CountDownLatch latch;
+
+        LatchMapper(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public Boolean prepare(QueryContext queryContext) {
+            latch.countDown();
+            try {
+                // only released when the prepare of the dependent mapper runs at the same time
+                return latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void apply(QueryContext queryContext, Boolean prepared) {
+            queryContext.getMapInfo().getModelElementMatches().computeIfAbsent(1L, key -> new ArrayList<>())
+                    .add(SchemaElementMatch.builder().word(String.valueOf(prepared)).build());
+        }
+    }
+
+    private static class DependentLatchMapper extends LatchMapper {
+
+        DependentLatchMapper(CountDownLatch latch) {
+            super(latch);
+        }
+
+        @Override
+        public List<Class<? extends SchemaMapper>> dependsOn() {
+            return Collections.singletonList(LatchMapper.class);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.hankcs.hanlp.seg.common.Term;
+import com.tencent.supersonic.chat.api.pojo.QueryContext;
+import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
+import com.tencent.supersonic.knowledge.utils.HanlpHelper;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class MapperHelperTest {
+
+    @Test
+    void getTerms() {
+        QueryReq queryReq = new QueryReq();
+        queryReq.setQueryText("Supersonic按部门访问次数");
+        QueryContext queryContext = new QueryContext(queryReq);
+        MapperHelper mapperHelper = new MapperHelper();
+
+        long segmentCount = HanlpHelper.getSegmentCount();
+        List<Term> terms = mapperHelper.getTerms(queryContext);
+        Assert.assertSame(terms, mapperHelper.getTerms(queryContext));
+        HanlpHelper.getTerms("supersonic按部门访问次数");
+        Assert.assertEquals(segmentCount + 1, HanlpHelper.getSegmentCount());
+
+        HanlpHelper.invalidateTermsCache();
+        HanlpHelper.getTerms("supersonic按部门访问次数");
+        Assert.assertEquals(segmentCount + 2, HanlpHelper.getSegmentCount());
+    }
+}
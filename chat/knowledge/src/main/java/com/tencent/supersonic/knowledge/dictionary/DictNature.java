@@ -0,0 +1,123 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.tencent.supersonic.chat.api.pojo.SchemaElementType;
+import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A dictionary nature such as _modelId_elementId_dimension, parsed once and interned. The dictionary tries
+ * keep arrays of these instead of lists of strings, the model id, element id and type are read from the
+ * fields and the string is only rendered for search results.
+ */
+public final class DictNature {
+
+    private static final Map<String, DictNature> NATURES = new ConcurrentHashMap<>();
+    private static final DictNature[] EMPTY = new DictNature[0];
+
+    private final String nature;
+    private final Long modelId;
+    private final long elementId;
+    private final DictWordType type;
+    private final SchemaElementType elementType;
+    private final boolean dimensionValue;
+    private final String withoutSuffix;
+
+    private DictNature(String nature) {
+        this.nature = nature;
+        String[] split = nature.split(DictWordType.NATURE_SPILT);
+        this.modelId = parseId(split, 1);
+        Long id = parseId(split, 2);
+        this.elementId = id == null ? 0L : id;
+        this.type = DictWordType.getNatureType(nature);
+        this.elementType = toElementType(type);
+        this.dimensionValue = nature.startsWith(DictWordType.NATURE_SPILT) && modelId != null
+                && !nature.endsWith(DictWordType.METRIC.getType())
+                && !nature.endsWith(DictWordType.DIMENSION.getType());
+        this.withoutSuffix = nature.replace(DictWordType.SUFFIX.getType(), "");
+    }
+
+    public static DictNature of(String nature) {
+        return NATURES.computeIfAbsent(nature, DictNature::new);
+    }
+
+    public static DictNature[] of(Object[] natures) {
+        if (natures == null || natures.length == 0) {
+            return EMPTY;
+        }
+        DictNature[] dictNatures = new DictNature[natures.length];
+        for (int i = 0; i < natures.length; i++) {
+            dictNatures[i] = of(natures[i].toString());
+        }
+        return dictNatures;
+    }
+
+    /***
+     * model id of the nature
+     * @return null if the nature does not belong to a model
+     */
+    public Long getModelId() {
+        return modelId;
+    }
+
+    public long getElementId() {
+        return elementId;
+    }
+
+    public DictWordType getType() {
+        return type;
+    }
+
+    public SchemaElementType getElementType() {
+        return elementType;
+    }
+
+    public boolean isDimensionValue() {
+        return dimensionValue;
+    }
+
+    /***
+     * the nature of the word a suffix word stands for
+     * @return
+     */
+    public String getWithoutSuffix() {
+        return withoutSuffix;
+    }
+
+    @Override
+    public String toString() {
+        return nature;
+    }
+
+    private static Long parseId(String[] split, int index) {
+        if (split.length <= index || !StringUtils.isNumeric(split[index])) {
+            return null;
+        }
+        try {
+            return Long.valueOf(split[index]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static SchemaElementType toElementType(DictWordType dictWordType) {
+        if (dictWordType == null) {
+            return null;
+        }
+        switch (dictWordType) {
+            case METRIC:
+                return SchemaElementType.METRIC;
+            case DIMENSION:
+                return SchemaElementType.DIMENSION;
+            case ENTITY:
+                return SchemaElementType.ENTITY;
+            case MODEL:
+                return SchemaElementType.MODEL;
+            case VALUE:
+                return SchemaElementType.VALUE;
+            default:
+                return null;
+        }
+    }
+}
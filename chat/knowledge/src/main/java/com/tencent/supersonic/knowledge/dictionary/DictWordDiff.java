@@ -0,0 +1,49 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.ToString;
+
+/***
+ * word level changes between two dictionary word lists, a word whose natures changed
+ * is removed with its old natures and added with its new natures
+ */
+@Getter
+@ToString
+public class DictWordDiff {
+
+    private final List<DictWord> added;
+    private final List<DictWord> removed;
+
+    private DictWordDiff(List<DictWord> added, List<DictWord> removed) {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public static DictWordDiff of(List<DictWord> preDictWords, List<DictWord> dictWords) {
+        Set<DictWord> preWords = new LinkedHashSet<>(preDictWords);
+        Set<DictWord> words = new LinkedHashSet<>(dictWords);
+        List<DictWord> added = words.stream().filter(word -> !preWords.contains(word)).collect(Collectors.toList());
+        List<DictWord> removed = preWords.stream().filter(word -> !words.contains(word))
+                .collect(Collectors.toList());
+        return new DictWordDiff(added, removed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    /***
+     * words which are both removed and added, i.e. words whose natures changed
+     * @return
+     */
+    public List<String> getRenaturedWords() {
+        Set<String> removedWords = removed.stream().map(DictWord::getWord).collect(Collectors.toSet());
+        return new ArrayList<>(added.stream().map(DictWord::getWord).filter(removedWords::contains)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+}
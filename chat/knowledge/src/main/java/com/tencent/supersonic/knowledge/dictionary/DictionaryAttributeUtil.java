@@ -2,6 +2,7 @@ package com.tencent.supersonic.knowledge.dictionary;
 
 import com.hankcs.hanlp.corpus.tag.Nature;
 import com.hankcs.hanlp.dictionary.CoreDictionary;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -35,4 +36,27 @@ public class DictionaryAttributeUtil {
         }
         return attribute;
     }
+
+    /***
+     * remove the natures of remove from old
+     * @param old
+     * @param remove
+     * @return the attribute with the natures left, null if no nature is left
+     */
+    public static CoreDictionary.Attribute removeNatures(CoreDictionary.Attribute old,
+            CoreDictionary.Attribute remove) {
+        List<Nature> removeNatures = Arrays.asList(remove.nature);
+        List<Integer> left = IntStream.range(0, old.nature.length).boxed()
+                .filter(i -> !removeNatures.contains(old.nature[i]))
+                .collect(Collectors.toList());
+        if (left.isEmpty()) {
+            return null;
+        }
+        int[] frequency = left.stream().mapToInt(i -> old.frequency[i]).toArray();
+        CoreDictionary.Attribute attribute = new CoreDictionary.Attribute(
+                left.stream().map(i -> old.nature[i]).toArray(Nature[]::new), frequency,
+                Arrays.stream(frequency).sum());
+        attribute.original = old.original;
+        return attribute;
+    }
 }
@@ -0,0 +1,423 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.hankcs.hanlp.HanLP;
+import com.hankcs.hanlp.collection.trie.DoubleArrayTrie;
+import com.hankcs.hanlp.corpus.io.ByteArray;
+import com.hankcs.hanlp.corpus.io.IOUtil;
+import com.hankcs.hanlp.corpus.tag.Nature;
+import com.hankcs.hanlp.dictionary.CoreDictionary;
+import com.hankcs.hanlp.utility.TextUtility;
+import com.tencent.supersonic.knowledge.service.SearchService;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.FileStatus;
+
+/**
+ * Binary cache of the custom dictionary. The file starts with a magic number, the format version and a
+ * fingerprint of the length and modified time of the source text files, and ends with a CRC32 of everything
+ * before it. A file of another version or of other sources is stale and is rebuilt from text, it is never used.
+ * Local files are memory mapped, a {@link MappedDoubleArrayTrie} searches the trie arrays in the mapped file,
+ * so they are not copied to heap. Neither the sources nor the mapped file are read in full to load it: the
+ * checksum of a mapped file is verified in the background after loading, a corrupt file is deleted and the
+ * dictionary is rebuilt from text.
+ */
+@Slf4j
+public class DictionaryBinaryFile {
+
+    public static final String BIN_SUFFIX = ".bin";
+    private static final int MAGIC = 0x53324443;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int CHECKSUM_SIZE = 8;
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final ExecutorService VERIFIER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dictionary-verifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /***
+     * save the dictionary built from map to mainPath.bin
+     * @param mainPath
+     * @param sourcePaths
+     * @param map
+     * @param dat
+     * @return
+     */
+    public static boolean save(String mainPath, String[] sourcePaths, TreeMap<String, CoreDictionary.Attribute> map,
+            DoubleArrayTrie<CoreDictionary.Attribute> dat) {
+        if (map.containsValue(null)) {
+            return false;
+        }
+        String binPath = mainPath + BIN_SUFFIX;
+        boolean isLocal = isLocal();
+        String writePath = isLocal ? binPath + TMP_SUFFIX : binPath;
+        CRC32 crc32 = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(IOUtil.newOutputStream(writePath)), crc32))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(getFingerprint(sourcePaths));
+
+            Map<Nature, Integer> natureIndex = new LinkedHashMap<>();
+            map.values().forEach(attribute -> {
+                for (Nature nature : attribute.nature) {
+                    natureIndex.putIfAbsent(nature, natureIndex.size());
+                }
+            });
+            out.writeInt(natureIndex.size());
+            for (Nature nature : natureIndex.keySet()) {
+                TextUtility.writeString(nature.toString(), out);
+            }
+
+            out.writeInt(map.size());
+            for (Map.Entry<String, CoreDictionary.Attribute> entry : map.entrySet()) {
+                CoreDictionary.Attribute attribute = entry.getValue();
+                TextUtility.writeString(entry.getKey(), out);
+                out.writeBoolean(attribute.original != null);
+                if (attribute.original != null) {
+                    TextUtility.writeString(attribute.original, out);
+                }
+                out.writeInt(attribute.totalFrequency);
+                out.writeInt(attribute.nature.length);
+                for (int i = 0; i < attribute.nature.length; i++) {
+                    out.writeInt(natureIndex.get(attribute.nature[i]));
+                    out.writeInt(attribute.frequency[i]);
+                }
+            }
+            dat.save(out);
+            // the value is taken before the checksum itself is written
+            out.writeLong(crc32.getValue());
+        } catch (Exception e) {
+            log.warn("save dictionary binary file error, path:{}", binPath, e);
+            return false;
+        }
+        if (isLocal) {
+            try {
+                Files.move(Paths.get(writePath), Paths.get(binPath), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("move dictionary binary file error, path:{}", binPath, e);
+                return false;
+            }
+        }
+        log.info("save dictionary binary file:{}, size:{}", binPath, map.size());
+        return true;
+    }
+
+    /***
+     * load mainPath.bin into dat if it is valid for the source files
+     * @param mainPath
+     * @param sourcePaths
+     * @param dat
+     * @param addToSuggestTrie
+     * @return false if the file is missing or stale
+     */
+    public static boolean load(String mainPath, String[] sourcePaths, DoubleArrayTrie<CoreDictionary.Attribute> dat,
+            boolean addToSuggestTrie) {
+        return load(mainPath, sourcePaths, dat, addToSuggestTrie, null);
+    }
+
+    /***
+     * load mainPath.bin into dat if it is valid for the source files
+     * @param mainPath
+     * @param sourcePaths
+     * @param dat
+     * @param addToSuggestTrie
+     * @param onCorrupt run when the checksum verified after loading is wrong, once the file is deleted
+     * @return false if the file is missing or stale
+     */
+    public static boolean load(String mainPath, String[] sourcePaths, DoubleArrayTrie<CoreDictionary.Attribute> dat,
+            boolean addToSuggestTrie, Runnable onCorrupt) {
+        String binPath = mainPath + BIN_SUFFIX;
+        try {
+            ByteBuffer buffer = read(binPath);
+            if (buffer == null) {
+                return false;
+            }
+            boolean isLocal = isLocal();
+            // a file read from a remote file system is already in heap, its checksum is verified right away
+            if (!isValid(buffer, getFingerprint(sourcePaths)) || (!isLocal && !isChecksumValid(buffer))) {
+                log.info("dictionary binary file is stale, rebuild from text, path:{}", binPath);
+                return false;
+            }
+            ByteBufferArray byteArray = new ByteBufferArray(buffer, HEADER_SIZE, buffer.limit() - CHECKSUM_SIZE);
+
+            Nature[] natures = new Nature[byteArray.nextInt()];
+            for (int i = 0; i < natures.length; i++) {
+                natures[i] = Nature.create(byteArray.nextString());
+            }
+            int size = byteArray.nextInt();
+            List<String> words = addToSuggestTrie ? new ArrayList<>(size) : null;
+            CoreDictionary.Attribute[] attributes = new CoreDictionary.Attribute[size];
+            for (int i = 0; i < size; i++) {
+                // the words are kept in the trie, only the suggest trie needs them as strings
+                if (addToSuggestTrie) {
+                    words.add(byteArray.nextString());
+                } else {
+                    byteArray.skipString();
+                }
+                String original = byteArray.nextBoolean() ? byteArray.nextString() : null;
+                int totalFrequency = byteArray.nextInt();
+                CoreDictionary.Attribute attribute = new CoreDictionary.Attribute(byteArray.nextInt());
+                for (int j = 0; j < attribute.nature.length; j++) {
+                    attribute.nature[j] = natures[byteArray.nextInt()];
+                    attribute.frequency[j] = byteArray.nextInt();
+                }
+                attribute.totalFrequency = totalFrequency;
+                attribute.original = original;
+                attributes[i] = attribute;
+            }
+            boolean loaded = dat instanceof MappedDoubleArrayTrie
+                    ? ((MappedDoubleArrayTrie<CoreDictionary.Attribute>) dat).load(buffer, byteArray.getOffset(),
+                    attributes) : dat.load(byteArray, attributes);
+            if (!loaded) {
+                return false;
+            }
+            if (addToSuggestTrie) {
+                SearchService.startUpdate();
+                boolean added = false;
+                try {
+                    for (int i = 0; i < size; i++) {
+                        SearchService.put(words.get(i), attributes[i]);
+                    }
+                    added = true;
+                } finally {
+                    if (added) {
+                        SearchService.publish();
+                    } else {
+                        SearchService.discard();
+                    }
+                }
+            }
+            if (isLocal) {
+                verifyLater(binPath, buffer, onCorrupt);
+            }
+            log.info("load dictionary binary file:{}, size:{}", binPath, size);
+            return true;
+        } catch (Exception e) {
+            log.warn("load dictionary binary file error, rebuild from text, path:{}", binPath, e);
+            return false;
+        }
+    }
+
+    /***
+     * fingerprint of the format version and the path, length and modified time of every source file, taken from
+     * the file system without reading the files
+     * @param sourcePaths
+     * @return
+     */
+    public static long getFingerprint(String[] sourcePaths) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(VERSION);
+        for (String sourcePath : sourcePaths) {
+            String sourceFile = getSourceFile(sourcePath);
+            String source = new File(sourceFile).getPath() + "|" + getFileStatus(sourceFile) + "\n";
+            crc32.update(source.getBytes(StandardCharsets.UTF_8));
+        }
+        return crc32.getValue();
+    }
+
+    /***
+     * length and modified time of the file, -1 when it does not exist
+     * @param path
+     * @return
+     */
+    private static String getFileStatus(String path) {
+        try {
+            if (!isLocal()) {
+                FileStatus status = ((HadoopFileIOAdapter) HanLP.Config.IOAdapter).getFileStatus(path);
+                return status.getLen() + "|" + status.getModificationTime();
+            }
+            Path file = Paths.get(path);
+            if (!Files.exists(file)) {
+                return "-1";
+            }
+            return Files.size(file) + "|" + Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            log.warn("read dictionary source file status error, path:{}", path, e);
+            return "-1";
+        }
+    }
+
+    private static boolean isValid(ByteBuffer buffer, long fingerprint) {
+        if (buffer.limit() < HEADER_SIZE + CHECKSUM_SIZE) {
+            return false;
+        }
+        return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getLong(8) == fingerprint;
+    }
+
+    private static boolean isChecksumValid(ByteBuffer buffer) {
+        CRC32 crc32 = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(buffer.limit() - CHECKSUM_SIZE);
+        crc32.update(content);
+        return crc32.getValue() == buffer.getLong(buffer.limit() - CHECKSUM_SIZE);
+    }
+
+    /***
+     * verify the checksum of the mapped file in the background, a corrupt file is deleted so the next load
+     * rebuilds it from text
+     * @param binPath
+     * @param buffer
+     * @param onCorrupt
+     */
+    private static void verifyLater(String binPath, ByteBuffer buffer, Runnable onCorrupt) {
+        VERIFIER.execute(() -> {
+            if (isChecksumValid(buffer)) {
+                return;
+            }
+            log.error("dictionary binary file is corrupt, rebuild from text, path:{}", binPath);
+            try {
+                Files.deleteIfExists(Paths.get(binPath));
+                if (onCorrupt != null) {
+                    onCorrupt.run();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("rebuild corrupt dictionary binary file error, path:{}", binPath, e);
+            }
+        });
+    }
+
+    private static ByteBuffer read(String binPath) throws IOException {
+        if (!isLocal()) {
+            if (!IOUtil.isFileExisted(binPath)) {
+                return null;
+            }
+            return ByteBuffer.wrap(IOUtil.readBytes(binPath));
+        }
+        Path path = Paths.get(binPath);
+        if (!Files.exists(path) || Files.size(path) > Integer.MAX_VALUE) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static String getSourceFile(String sourcePath) {
+        // a path may be followed by a space and its default nature
+        File file = new File(sourcePath);
+        int cut = file.getName().lastIndexOf(' ');
+        if (cut > 0) {
+            return file.getParent() + File.separator + file.getName().substring(0, cut);
+        }
+        return sourcePath;
+    }
+
+    private static boolean isLocal() {
+        return !(HanLP.Config.IOAdapter instanceof HadoopFileIOAdapter);
+    }
+
+    /**
+     * ByteArray reading a ByteBuffer in place, the big endian order of ByteBuffer matches ByteArray
+     */
+    private static class ByteBufferArray extends ByteArray {
+
+        private final ByteBuffer buffer;
+        private final int limit;
+
+        ByteBufferArray(ByteBuffer buffer, int offset, int limit) {
+            super(new byte[0]);
+            this.buffer = buffer.duplicate();
+            this.buffer.position(offset);
+            this.limit = limit;
+        }
+
+        @Override
+        public int nextInt() {
+            return buffer.getInt();
+        }
+
+        @Override
+        public double nextDouble() {
+            return buffer.getDouble();
+        }
+
+        @Override
+        public char nextChar() {
+            return buffer.getChar();
+        }
+
+        @Override
+        public byte nextByte() {
+            return buffer.get();
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return buffer.get() == 1;
+        }
+
+        @Override
+        public boolean hasMore() {
+            return buffer.position() < limit;
+        }
+
+        @Override
+        public float nextFloat() {
+            return buffer.getFloat();
+        }
+
+        @Override
+        public int nextUnsignedShort() {
+            return buffer.getShort() & 0xFFFF;
+        }
+
+        @Override
+        public String nextUTF() {
+            int length = nextUnsignedShort();
+            byte[] bytes = new byte[length + 2];
+            bytes[0] = (byte) (length >>> 8);
+            bytes[1] = (byte) length;
+            buffer.get(bytes, 2, length);
+            try {
+                return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public void skipString() {
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + length * 2);
+        }
+
+        @Override
+        public int getOffset() {
+            return buffer.position();
+        }
+
+        @Override
+        public int getLength() {
+            return limit;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
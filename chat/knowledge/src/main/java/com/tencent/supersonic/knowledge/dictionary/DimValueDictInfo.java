@@ -27,5 +27,12 @@ public class DimValueDictInfo {
 
     private Long elapsedMs;
 
+    private Double progress;
+
+    /***
+     * progress of each dimension, json of DimValueTaskProgress list
+     */
+    private String message;
+
     private Set<Long> dimIds;
 }
\ No newline at end of file
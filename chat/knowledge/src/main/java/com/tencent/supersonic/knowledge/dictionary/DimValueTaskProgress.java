@@ -0,0 +1,28 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.tencent.supersonic.common.pojo.enums.TaskStatusEnum;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/***
+ * progress of the dictionary extraction of one dimension in a dictionary task
+ */
+@Data
+@NoArgsConstructor
+public class DimValueTaskProgress {
+
+    private Long modelId;
+
+    private Long dimId;
+
+    private TaskStatusEnum status = TaskStatusEnum.PENDING;
+
+    private Long lineCount = 0L;
+
+    private Long elapsedMs = 0L;
+
+    public DimValueTaskProgress(Long modelId, Long dimId) {
+        this.modelId = modelId;
+        this.dimId = dimId;
+    }
+}
@@ -1,6 +1,8 @@
 package com.tencent.supersonic.knowledge.dictionary;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface FileHandler {
 
@@ -32,6 +34,30 @@ public interface FileHandler {
      */
     void writeFile(List<String> data, String fileName, Boolean append);
 
+    /**
+     * write lines to a specific file without holding them in memory,
+     * a replaced file only becomes visible after all lines are written
+     * config dir: dict.directory.latest
+     *
+     * @param lines
+     * @param fileName
+     * @param append
+     * @return number of lines written
+     */
+    Long writeFile(Stream<String> lines, String fileName, Boolean append);
+
+    /**
+     * write lines to a specific file batch by batch as the producer hands them to the writer it gets,
+     * a replaced file only becomes visible after the producer returns, and stays untouched if it fails
+     * config dir: dict.directory.latest
+     *
+     * @param producer
+     * @param fileName
+     * @param append
+     * @return number of lines written
+     */
+    Long writeFile(Consumer<Consumer<List<String>>> producer, String fileName, Boolean append);
+
     /**
      * get the knowledge file root directory
      *
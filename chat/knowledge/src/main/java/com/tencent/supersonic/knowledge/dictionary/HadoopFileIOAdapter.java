@@ -8,6 +8,7 @@ import java.net.URI;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
@@ -29,4 +30,10 @@ public class HadoopFileIOAdapter implements IIOAdapter {
         FileSystem fs = FileSystem.get(URI.create(path), conf);
         return fs.create(new Path(path));
     }
+
+    public FileStatus getFileStatus(String path) throws IOException {
+        Configuration conf = new Configuration();
+        FileSystem fs = FileSystem.get(URI.create(path), conf);
+        return fs.getFileStatus(new Path(path));
+    }
 }
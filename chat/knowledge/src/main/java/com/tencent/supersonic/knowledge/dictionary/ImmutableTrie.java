@@ -0,0 +1,234 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * A character trie that is never modified once built, so it can be read by any number of threads
+ * without locking. Updates go through a {@link Builder}, which copies only the nodes on the updated
+ * paths and shares all other nodes with the trie it started from.
+ */
+public final class ImmutableTrie<V> {
+
+    private final Node<V> root;
+
+    private ImmutableTrie(Node<V> root) {
+        this.root = root;
+    }
+
+    public static <V> ImmutableTrie<V> empty() {
+        return new ImmutableTrie<>(new Node<>('\0', null));
+    }
+
+    public V get(String key) {
+        Node<V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /***
+     * breadth first walk of the words starting with key, children are visited in char order
+     * @param key
+     * @param limit
+     * @return at most limit words with their values
+     */
+    public List<Map.Entry<String, V>> prefixWalk(String key, int limit) {
+        List<Map.Entry<String, V>> entries = new ArrayList<>();
+        Node<V> start = getNode(key);
+        if (start == null) {
+            return entries;
+        }
+        Queue<Map.Entry<String, Node<V>>> queue = new ArrayDeque<>();
+        queue.add(new AbstractMap.SimpleImmutableEntry<>(key, start));
+        while (!queue.isEmpty() && entries.size() < limit) {
+            Map.Entry<String, Node<V>> current = queue.poll();
+            String word = current.getKey();
+            Node<V> node = current.getValue();
+            if (node.value != null) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(word, node.value));
+            }
+            if (node.children == null) {
+                continue;
+            }
+            for (Node<V> child : node.children) {
+                queue.add(new AbstractMap.SimpleImmutableEntry<>(word + child.c, child));
+            }
+        }
+        return entries;
+    }
+
+    /***
+     * length of the longest segment of text starting at start that is a path of this trie
+     * @param text
+     * @param start
+     * @return
+     */
+    public int matchLength(String text, int start) {
+        Node<V> node = root;
+        int length = 0;
+        for (int i = start; i < text.length(); i++) {
+            node = node.getChild(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    /***
+     * length of the longest segment of text ending before end whose reverse is a path of this trie
+     * @param text
+     * @param end
+     * @return
+     */
+    public int reverseMatchLength(String text, int end) {
+        Node<V> node = root;
+        int length = 0;
+        for (int i = end - 1; i >= 0; i--) {
+            node = node.getChild(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    public Builder<V> toBuilder() {
+        return new Builder<>(root);
+    }
+
+    private Node<V> getNode(String key) {
+        Node<V> node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.getChild(key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Collects updates for a new trie. Nodes copied by this builder are owned by it and updated in place
+     * until {@link #build()} publishes them, after that they are copied again before any change.
+     */
+    public static final class Builder<V> {
+
+        private Node<V> root;
+        private Object owner = new Object();
+
+        private Builder(Node<V> root) {
+            this.root = root;
+        }
+
+        public Builder<V> put(String key, V value) {
+            Node<V> node = getOrCreatePath(key);
+            node.value = value;
+            return this;
+        }
+
+        public V get(String key) {
+            Node<V> node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.getChild(key.charAt(i));
+            }
+            return node == null ? null : node.value;
+        }
+
+        public Builder<V> remove(String key) {
+            Node<V> node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.getChild(key.charAt(i));
+            }
+            if (node != null && node.value != null) {
+                getOrCreatePath(key).value = null;
+            }
+            return this;
+        }
+
+        public ImmutableTrie<V> build() {
+            owner = new Object();
+            return new ImmutableTrie<>(root);
+        }
+
+        private Node<V> getOrCreatePath(String key) {
+            root = own(root);
+            Node<V> node = root;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                int index = node.indexOf(c);
+                Node<V> child;
+                if (index >= 0) {
+                    child = own(node.children[index]);
+                    node.children[index] = child;
+                } else {
+                    child = new Node<>(c, owner);
+                    node.insertChild(-(index + 1), child);
+                }
+                node = child;
+            }
+            return node;
+        }
+
+        private Node<V> own(Node<V> node) {
+            if (node.owner == owner) {
+                return node;
+            }
+            Node<V> copy = new Node<>(node.c, owner);
+            copy.value = node.value;
+            copy.children = node.children == null ? null : node.children.clone();
+            return copy;
+        }
+    }
+
+    private static final class Node<V> {
+
+        private final char c;
+        private final Object owner;
+        private Node<V>[] children;
+        private V value;
+
+        private Node(char c, Object owner) {
+            this.c = c;
+            this.owner = owner;
+        }
+
+        private Node<V> getChild(char key) {
+            int index = indexOf(key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private int indexOf(char key) {
+            if (children == null) {
+                return -1;
+            }
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].c;
+                if (midChar < key) {
+                    low = mid + 1;
+                } else if (midChar > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void insertChild(int index, Node<V> child) {
+            int length = children == null ? 0 : children.length;
+            Node<V>[] newChildren = new Node[length + 1];
+            if (length > 0) {
+                System.arraycopy(children, 0, newChildren, 0, index);
+                System.arraycopy(children, index, newChildren, index + 1, length - index);
+            }
+            newChildren[index] = child;
+            children = newChildren;
+        }
+    }
+}
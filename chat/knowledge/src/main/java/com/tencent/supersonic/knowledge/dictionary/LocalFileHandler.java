@@ -3,13 +3,18 @@ package com.tencent.supersonic.knowledge.dictionary;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -19,6 +24,8 @@ import org.springframework.util.CollectionUtils;
 @Component
 public class LocalFileHandler implements FileHandler {
 
+    private static final String TMP_SUFFIX = ".tmp";
+
     private final LocalFileConfig localFileConfig;
 
     public LocalFileHandler(LocalFileConfig localFileConfig) {
@@ -102,6 +109,61 @@ public class LocalFileHandler implements FileHandler {
         }
     }
 
+    @Override
+    public Long writeFile(Stream<String> lines, String fileName, Boolean append) {
+        return writeFile(writer -> lines.forEach(line -> writer.accept(Collections.singletonList(line))),
+                fileName, append);
+    }
+
+    @Override
+    public Long writeFile(Consumer<Consumer<List<String>>> producer, String fileName, Boolean append) {
+        String dictDirectoryLatest = localFileConfig.getDictDirectoryLatest();
+        if (!existPath(dictDirectoryLatest)) {
+            createDir(dictDirectoryLatest);
+        }
+        String filePath = dictDirectoryLatest + "/" + fileName;
+        if (existPath(filePath)) {
+            backupFile(fileName);
+        }
+        String writePath = append ? filePath : filePath + TMP_SUFFIX;
+        AtomicLong count = new AtomicLong();
+        boolean written = false;
+        try {
+            try (BufferedWriter writer = getWriter(writePath, append)) {
+                producer.accept(batch -> {
+                    try {
+                        for (String line : batch) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count.addAndGet(batch.size());
+                });
+            } catch (IOException | UncheckedIOException e) {
+                log.info("Failed to write file:{}, e:", getAbsolutePath(writePath), e);
+                return -1L;
+            }
+            written = true;
+        } finally {
+            if (!written && !append) {
+                deleteFile(writePath);
+            }
+        }
+        try {
+            if (!append) {
+                Files.move(Paths.get(writePath), Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            log.info("File:{} written successfully! lines:{}", getAbsolutePath(filePath), count.get());
+        } catch (IOException e) {
+            log.info("Failed to move file:{}, e:", getAbsolutePath(writePath), e);
+            return -1L;
+        }
+        return count.get();
+    }
+
     public String getAbsolutePath(String path) {
         return Paths.get(path).toAbsolutePath().toString();
     }
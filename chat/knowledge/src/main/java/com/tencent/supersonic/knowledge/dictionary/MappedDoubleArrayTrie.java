@@ -0,0 +1,468 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.hankcs.hanlp.collection.trie.DoubleArrayTrie;
+import com.hankcs.hanlp.corpus.io.ByteArray;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DoubleArrayTrie reading base and check in place from a buffer, such as the memory mapped dictionary binary
+ * file, instead of copying them to heap arrays. The searches are the ones of DoubleArrayTrie, a cell past the
+ * end reads as 0 like the zero padding of the heap arrays. Building or loading the trie the HanLP way keeps it
+ * on heap again.
+ */
+public class MappedDoubleArrayTrie<V> extends DoubleArrayTrie<V> {
+
+    private static final long serialVersionUID = 1L;
+
+    // base and check of each cell, one after the other, as DoubleArrayTrie saves them
+    private transient volatile IntBuffer cells;
+
+    /***
+     * read the trie saved by DoubleArrayTrie.save at offset of buffer in place. the fields are replaced one by
+     * one, so the trie is loaded before any search uses it and swapped in afterwards
+     * @param buffer
+     * @param offset
+     * @param value
+     * @return
+     */
+    public boolean load(ByteBuffer buffer, int offset, V[] value) {
+        int cellCount = buffer.getInt(offset);
+        ByteBuffer content = buffer.duplicate();
+        content.position(offset + 4).limit(offset + 4 + cellCount * 8);
+        IntBuffer mapped = content.slice().asIntBuffer();
+        this.size = cellCount;
+        this.v = value;
+        // published before the heap arrays are dropped, the searches read it first
+        this.cells = mapped;
+        // the constructor of Searcher reads the base of the root from the heap array
+        this.base = new int[]{cellCount > 0 ? mapped.get(0) : 0};
+        this.check = null;
+        return true;
+    }
+
+    @Override
+    public boolean load(String path, List<V> value) {
+        cells = null;
+        return super.load(path, value);
+    }
+
+    @Override
+    public boolean load(String path, V[] value) {
+        cells = null;
+        return super.load(path, value);
+    }
+
+    @Override
+    public boolean load(ByteArray byteArray, V[] value) {
+        cells = null;
+        return super.load(byteArray, value);
+    }
+
+    @Override
+    public boolean load(byte[] bytes, int offset, V[] value) {
+        cells = null;
+        return super.load(bytes, offset, value);
+    }
+
+    @Override
+    public boolean load(String path) {
+        cells = null;
+        return super.load(path);
+    }
+
+    @Override
+    public void open(String fileName) throws IOException {
+        cells = null;
+        super.open(fileName);
+    }
+
+    public boolean isMapped() {
+        return cells != null;
+    }
+
+    @Override
+    public int build(List<String> key, int[] length, int[] value, int keySize) {
+        cells = null;
+        return super.build(key, length, value, keySize);
+    }
+
+    @Override
+    public boolean save(DataOutputStream out) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.save(out);
+        }
+        try {
+            out.writeInt(size);
+            for (int i = 0; i < size * 2; i++) {
+                out.writeInt(mapped.get(i));
+            }
+        } catch (Exception e) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int getNonzeroSize() {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.getNonzeroSize();
+        }
+        int result = 0;
+        for (int i = 0; i < size; i++) {
+            if (mapped.get(i * 2 + 1) != 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int[] getBase() {
+        return cells == null ? super.getBase() : copy(0);
+    }
+
+    @Override
+    public int[] getCheck() {
+        return cells == null ? super.getCheck() : copy(1);
+    }
+
+    @Override
+    public int exactMatchSearch(String key, int pos, int len, int nodePos) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.exactMatchSearch(key, pos, len, nodePos);
+        }
+        if (len <= 0) {
+            len = key.length();
+        }
+        if (nodePos <= 0) {
+            nodePos = 0;
+        }
+        int b = base(mapped, nodePos);
+        for (int i = pos; i < len; i++) {
+            int p = b + key.charAt(i) + 1;
+            if (b != check(mapped, p)) {
+                return -1;
+            }
+            b = base(mapped, p);
+        }
+        return getIndex(mapped, b);
+    }
+
+    @Override
+    public int exactMatchSearch(char[] keyChars, int pos, int len, int nodePos) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.exactMatchSearch(keyChars, pos, len, nodePos);
+        }
+        int b = base(mapped, nodePos);
+        for (int i = pos; i < len; i++) {
+            int p = b + keyChars[i] + 1;
+            if (b != check(mapped, p)) {
+                return -1;
+            }
+            b = base(mapped, p);
+        }
+        return getIndex(mapped, b);
+    }
+
+    @Override
+    public List<Integer> commonPrefixSearch(String key, int pos, int len, int nodePos) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.commonPrefixSearch(key, pos, len, nodePos);
+        }
+        if (len <= 0) {
+            len = key.length();
+        }
+        if (nodePos <= 0) {
+            nodePos = 0;
+        }
+        List<Integer> result = new ArrayList<>();
+        int b = base(mapped, nodePos);
+        for (int i = pos; i < len; i++) {
+            int p = b + key.charAt(i) + 1;
+            if (b != check(mapped, p)) {
+                return result;
+            }
+            b = base(mapped, p);
+            int index = getIndex(mapped, b);
+            if (index >= 0) {
+                result.add(index);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public LinkedList<Map.Entry<String, V>> commonPrefixSearchWithValue(String key) {
+        if (cells == null) {
+            return super.commonPrefixSearchWithValue(key);
+        }
+        return commonPrefixSearchWithValue(key.toCharArray(), 0);
+    }
+
+    @Override
+    public LinkedList<Map.Entry<String, V>> commonPrefixSearchWithValue(char[] keyChars, int begin) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.commonPrefixSearchWithValue(keyChars, begin);
+        }
+        LinkedList<Map.Entry<String, V>> result = new LinkedList<>();
+        int b = base(mapped, 0);
+        for (int i = begin; i < keyChars.length; i++) {
+            int index = getIndex(mapped, b);
+            if (index >= 0) {
+                result.add(new AbstractMap.SimpleEntry<>(new String(keyChars, begin, i - begin), v[index]));
+            }
+            int p = b + keyChars[i] + 1;
+            if (b != check(mapped, p)) {
+                return result;
+            }
+            b = base(mapped, p);
+        }
+        int index = getIndex(mapped, b);
+        if (index >= 0) {
+            result.add(new AbstractMap.SimpleEntry<>(new String(keyChars, begin, keyChars.length - begin),
+                    v[index]));
+        }
+        return result;
+    }
+
+    @Override
+    public int transition(String path, int from) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.transition(path, from);
+        }
+        int b = from;
+        for (int i = 0; i < path.length(); i++) {
+            int p = b + path.charAt(i) + 1;
+            if (b != check(mapped, p)) {
+                return -1;
+            }
+            b = base(mapped, p);
+        }
+        return b;
+    }
+
+    @Override
+    public int transition(char c, int from) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.transition(c, from);
+        }
+        int p = from + c + 1;
+        if (from != check(mapped, p)) {
+            return -1;
+        }
+        return base(mapped, p);
+    }
+
+    @Override
+    protected int transition(char[] path) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.transition(path);
+        }
+        int b = base(mapped, 0);
+        for (char c : path) {
+            int p = b + c + 1;
+            if (b != check(mapped, p)) {
+                return -1;
+            }
+            b = base(mapped, p);
+        }
+        return b;
+    }
+
+    @Override
+    protected int transition(int current, char c) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.transition(current, c);
+        }
+        int b = base(mapped, current);
+        int p = b + c + 1;
+        if (b != check(mapped, p)) {
+            return -1;
+        }
+        return base(mapped, p);
+    }
+
+    @Override
+    public V output(int state) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.output(state);
+        }
+        if (state < 0) {
+            return null;
+        }
+        int index = getIndex(mapped, state);
+        return index >= 0 ? v[index] : null;
+    }
+
+    @Override
+    public Searcher getSearcher(String text, int offset) {
+        return getSearcher(text.toCharArray(), offset);
+    }
+
+    @Override
+    public Searcher getSearcher(char[] text, int offset) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.getSearcher(text, offset);
+        }
+        return new MappedSearcher(mapped, offset, text);
+    }
+
+    @Override
+    public LongestSearcher getLongestSearcher(char[] text, int offset) {
+        IntBuffer mapped = cells;
+        if (mapped == null) {
+            return super.getLongestSearcher(text, offset);
+        }
+        return new MappedLongestSearcher(mapped, offset, text);
+    }
+
+    private int base(IntBuffer mapped, int position) {
+        return position < size ? mapped.get(position * 2) : 0;
+    }
+
+    private int check(IntBuffer mapped, int position) {
+        return position < size ? mapped.get(position * 2 + 1) : 0;
+    }
+
+    /***
+     * the value index of the word ending at state b, -1 when no word ends there
+     * @param mapped
+     * @param b
+     * @return
+     */
+    private int getIndex(IntBuffer mapped, int b) {
+        int n = base(mapped, b);
+        return b == check(mapped, b) && n < 0 ? -n - 1 : -1;
+    }
+
+    private int[] copy(int column) {
+        IntBuffer mapped = cells;
+        int[] values = new int[size + 65535];
+        for (int i = 0; i < size; i++) {
+            values[i] = mapped.get(i * 2 + column);
+        }
+        return values;
+    }
+
+    private class MappedSearcher extends Searcher {
+
+        private final IntBuffer mapped;
+        private final char[] charArray;
+        private final int arrayLength;
+        private int last;
+        private int i;
+
+        MappedSearcher(IntBuffer mapped, int offset, char[] charArray) {
+            super(offset, charArray);
+            this.mapped = mapped;
+            this.charArray = charArray;
+            this.arrayLength = charArray.length;
+            this.i = offset;
+            this.last = base(mapped, 0);
+        }
+
+        @Override
+        public boolean next() {
+            int b = last;
+            while (true) {
+                if (i == arrayLength) {
+                    begin++;
+                    if (begin == arrayLength) {
+                        return false;
+                    }
+                    i = begin;
+                    b = base(mapped, 0);
+                }
+                int p = b + charArray[i] + 1;
+                if (b != check(mapped, p)) {
+                    i = begin++;
+                    if (begin == arrayLength) {
+                        return false;
+                    }
+                    b = base(mapped, 0);
+                } else {
+                    b = base(mapped, p);
+                    int found = getIndex(mapped, b);
+                    if (found >= 0) {
+                        length = i - begin + 1;
+                        index = found;
+                        value = v[found];
+                        last = b;
+                        i++;
+                        return true;
+                    }
+                }
+                i++;
+            }
+        }
+    }
+
+    private class MappedLongestSearcher extends LongestSearcher {
+
+        private final IntBuffer mapped;
+        private final char[] charArray;
+        private final int arrayLength;
+        private int i;
+
+        MappedLongestSearcher(IntBuffer mapped, int offset, char[] charArray) {
+            super(offset, charArray);
+            this.mapped = mapped;
+            this.charArray = charArray;
+            this.arrayLength = charArray.length;
+            this.i = offset;
+        }
+
+        @Override
+        public boolean next() {
+            length = 0;
+            begin = i;
+            int b = base(mapped, 0);
+            while (true) {
+                if (i >= arrayLength) {
+                    return length > 0;
+                }
+                int p = b + charArray[i] + 1;
+                if (b == check(mapped, p)) {
+                    b = base(mapped, p);
+                } else {
+                    if (begin == arrayLength) {
+                        return false;
+                    }
+                    if (length > 0) {
+                        i = begin + length;
+                        return true;
+                    }
+                    i = begin++;
+                    b = base(mapped, 0);
+                }
+                int found = getIndex(mapped, b);
+                if (found >= 0) {
+                    length = i - begin + 1;
+                    index = found;
+                    value = v[found];
+                }
+                i++;
+            }
+        }
+    }
+}
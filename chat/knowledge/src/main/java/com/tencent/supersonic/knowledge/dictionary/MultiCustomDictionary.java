@@ -5,7 +5,6 @@ import static com.hankcs.hanlp.utility.Predefine.logger;
 import com.hankcs.hanlp.HanLP;
 import com.hankcs.hanlp.collection.trie.DoubleArrayTrie;
 import com.hankcs.hanlp.collection.trie.bintrie.BinTrie;
-import com.hankcs.hanlp.corpus.io.ByteArray;
 import com.hankcs.hanlp.corpus.io.IOUtil;
 import com.hankcs.hanlp.corpus.tag.Nature;
 import com.hankcs.hanlp.dictionary.CoreDictionary;
@@ -17,18 +16,11 @@ import com.hankcs.hanlp.utility.TextUtility;
 import com.tencent.supersonic.knowledge.service.SearchService;
 import com.tencent.supersonic.knowledge.utils.HanlpHelper;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
 import java.util.TreeMap;
 
 public class MultiCustomDictionary extends DynamicCustomDictionary {
@@ -41,7 +33,8 @@ public class MultiCustomDictionary extends DynamicCustomDictionary {
     }
 
     public MultiCustomDictionary(String... path) {
-        super(path);
+        // the trie of the binary file is searched in the mapped file
+        super(new MappedDoubleArrayTrie<>(), new BinTrie<>(), path);
     }
 
     /***
@@ -152,13 +145,33 @@ public class MultiCustomDictionary extends DynamicCustomDictionary {
      */
     public static boolean loadMainDictionary(String mainPath, String[] path,
             DoubleArrayTrie<CoreDictionary.Attribute> dat, boolean isCache, boolean addToSuggestTrie) {
+        return loadMainDictionary(mainPath, path, dat, isCache, addToSuggestTrie, null);
+    }
+
+    /***
+     * load main dictionary
+     * @param mainPath
+     * @param path
+     * @param dat
+     * @param isCache
+     * @param addToSuggestTrie
+     * @param onCorrupt run when the binary file loaded turns out to be corrupt
+     * @return
+     */
+    public static boolean loadMainDictionary(String mainPath, String[] path,
+            DoubleArrayTrie<CoreDictionary.Attribute> dat, boolean isCache, boolean addToSuggestTrie,
+            Runnable onCorrupt) {
         Predefine.logger.info("自定义词典开始加载:" + mainPath);
-        if (loadDat(mainPath, dat)) {
+        if (DictionaryBinaryFile.load(mainPath, path, dat, addToSuggestTrie, onCorrupt)) {
             return true;
         } else {
             TreeMap<String, CoreDictionary.Attribute> map = new TreeMap();
             LinkedHashSet customNatureCollector = new LinkedHashSet();
 
+            if (addToSuggestTrie) {
+                SearchService.startUpdate();
+            }
+            boolean loaded = false;
             try {
                 for (String p : path) {
                     Nature defaultNature = Nature.n;
@@ -191,52 +204,37 @@ public class MultiCustomDictionary extends DynamicCustomDictionary {
 
                 logger.info("正在构建DoubleArrayTrie……");
                 dat.build(map);
-                if (addToSuggestTrie) {
-                    // SearchService.save();
-                }
                 if (isCache) {
                     // 缓存成dat文件，下次加载会快很多
                     logger.info("正在缓存词典为dat文件……");
-                    // 缓存值文件
-                    List<CoreDictionary.Attribute> attributeList = new LinkedList<CoreDictionary.Attribute>();
-                    for (Map.Entry<String, CoreDictionary.Attribute> entry : map.entrySet()) {
-                        attributeList.add(entry.getValue());
-                    }
-
-                    DataOutputStream out = new DataOutputStream(
-                            new BufferedOutputStream(IOUtil.newOutputStream(mainPath + ".bin")));
-                    if (customNatureCollector.isEmpty()) {
-                        for (int i = Nature.begin.ordinal() + 1; i < Nature.values().length; ++i) {
-                            customNatureCollector.add(Nature.values()[i]);
-                        }
-                    }
-
-                    IOUtil.writeCustomNature(out, customNatureCollector);
-                    out.writeInt(attributeList.size());
-
-                    for (CoreDictionary.Attribute attribute : attributeList) {
-                        attribute.save(out);
-                    }
-
-                    dat.save(out);
-                    out.close();
+                    DictionaryBinaryFile.save(mainPath, path, map, dat);
                 }
-            } catch (FileNotFoundException var17) {
-                logger.severe("自定义词典" + mainPath + "不存在！" + var17);
-                return false;
-            } catch (IOException var18) {
-                logger.severe("自定义词典" + mainPath + "读取错误！" + var18);
-                return false;
+                loaded = true;
             } catch (Exception var19) {
-                logger.warning("自定义词典" + mainPath + "缓存失败！\n" + TextUtility.exceptionToString(var19));
+                logger.warning("自定义词典" + mainPath + "加载失败！\n" + TextUtility.exceptionToString(var19));
+            } finally {
+                // the words of a failed load are not published, searches keep the current ones
+                if (addToSuggestTrie) {
+                    if (loaded) {
+                        SearchService.publish();
+                    } else {
+                        SearchService.discard();
+                    }
+                }
             }
 
-            return true;
+            return loaded;
         }
     }
 
     public boolean loadMainDictionary(String mainPath) {
-        return loadMainDictionary(mainPath, this.path, this.dat, true, addToSuggesterTrie);
+        // a new trie is loaded and swapped in, searches keep using the current one until it is complete
+        DoubleArrayTrie<CoreDictionary.Attribute> loaded = new MappedDoubleArrayTrie<>();
+        if (!loadMainDictionary(mainPath, this.path, loaded, true, addToSuggesterTrie, this::reload)) {
+            return false;
+        }
+        this.dat = loaded;
+        return true;
     }
 
     public static boolean loadDat(String path, DoubleArrayTrie<CoreDictionary.Attribute> dat) {
@@ -244,53 +242,7 @@ public class MultiCustomDictionary extends DynamicCustomDictionary {
     }
 
     public static boolean loadDat(String path, String[] customDicPath, DoubleArrayTrie<CoreDictionary.Attribute> dat) {
-        try {
-            if (HanLP.Config.CustomDictionaryAutoRefreshCache && isDicNeedUpdate(path, customDicPath)) {
-                return false;
-            } else {
-                ByteArray byteArray = ByteArray.createByteArray(path + ".bin");
-                if (byteArray == null) {
-                    return false;
-                } else {
-                    int size = byteArray.nextInt();
-                    if (size < 0) {
-                        while (true) {
-                            ++size;
-                            if (size > 0) {
-                                size = byteArray.nextInt();
-                                break;
-                            }
-
-                            Nature.create(byteArray.nextString());
-                        }
-                    }
-
-                    CoreDictionary.Attribute[] attributes = new CoreDictionary.Attribute[size];
-                    Nature[] natureIndexArray = Nature.values();
-
-                    for (int i = 0; i < size; ++i) {
-                        int currentTotalFrequency = byteArray.nextInt();
-                        int length = byteArray.nextInt();
-                        attributes[i] = new CoreDictionary.Attribute(length);
-                        attributes[i].totalFrequency = currentTotalFrequency;
-
-                        for (int j = 0; j < length; ++j) {
-                            attributes[i].nature[j] = natureIndexArray[byteArray.nextInt()];
-                            attributes[i].frequency[j] = byteArray.nextInt();
-                        }
-                    }
-
-                    if (!dat.load(byteArray, attributes)) {
-                        return false;
-                    } else {
-                        return true;
-                    }
-                }
-            }
-        } catch (Exception var11) {
-            logger.warning("读取失败，问题发生在" + TextUtility.exceptionToString(var11));
-            return false;
-        }
+        return DictionaryBinaryFile.load(path, customDicPath, dat, false);
     }
 
     public static boolean isLetters(String str) {
@@ -325,11 +277,8 @@ public class MultiCustomDictionary extends DynamicCustomDictionary {
 
     public boolean reload() {
         if (this.path != null && this.path.length != 0) {
-            IOUtil.deleteFile(this.path[0] + ".bin");
-            Boolean loadCacheOk = this.loadDat(this.path[0], this.path, this.dat);
-            if (!loadCacheOk) {
-                return this.loadMainDictionary(this.path[0], this.path, this.dat, true, addToSuggesterTrie);
-            }
+            // the binary file is used only if it was built from the current text files, otherwise it is rebuilt
+            return this.loadMainDictionary(this.path[0]);
         }
         return false;
 
@@ -375,4 +324,107 @@ public class MultiCustomDictionary extends DynamicCustomDictionary {
             return true;
         }
     }
+
+    /***
+     * the attribute of the word in the double array trie or the online words, looked up as insert stores it
+     * @param word
+     * @return null if it is not a word
+     */
+    public CoreDictionary.Attribute getAttribute(String word) {
+        String key = getKey(word);
+        if (key == null) {
+            return null;
+        }
+        CoreDictionary.Attribute attribute = this.dat.get(key);
+        if (attribute == null && this.trie != null) {
+            attribute = this.trie.get(key);
+        }
+        return attribute;
+    }
+
+    /***
+     * put back the attribute a word had before a failed batch of changes
+     * @param word
+     * @param attribute the attribute given by getAttribute before the changes, null if it was not a word
+     */
+    public void restore(String word, CoreDictionary.Attribute attribute) {
+        String key = getKey(word);
+        if (key == null) {
+            return;
+        }
+        if (this.dat.containsKey(key)) {
+            this.dat.set(key, attribute == null ? new CoreDictionary.Attribute(Nature.nz, 1) : attribute);
+        } else if (attribute == null) {
+            if (this.trie != null) {
+                this.trie.remove(key);
+            }
+        } else {
+            if (this.trie == null) {
+                this.trie = new BinTrie();
+            }
+            this.trie.put(key, attribute);
+        }
+        if (addToSuggesterTrie) {
+            if (attribute == null) {
+                SearchService.remove(key);
+            } else {
+                SearchService.put(key, attribute);
+            }
+        }
+    }
+
+    /***
+     * remove the natures of a word, a word without natures left is removed. words of the double array trie
+     * can not be removed, they keep the default nature which is not a semantic nature
+     * @param word
+     * @param natureWithFrequency
+     * @return
+     */
+    public boolean removeNatures(String word, String natureWithFrequency) {
+        if (word == null || natureWithFrequency == null) {
+            return false;
+        }
+        if (HanLP.Config.Normalization) {
+            word = CharTable.convert(word);
+        }
+        word = getWordBySpace(word);
+        if (isLetters(word)) {
+            word = word.toLowerCase();
+        }
+        boolean inDat = this.dat.containsKey(word);
+        CoreDictionary.Attribute current = inDat ? this.dat.get(word)
+                : this.trie == null ? null : this.trie.get(word);
+        if (current == null) {
+            return false;
+        }
+        CoreDictionary.Attribute left = DictionaryAttributeUtil.removeNatures(current,
+                CoreDictionary.Attribute.create(natureWithFrequency));
+        if (inDat) {
+            this.dat.set(word, left == null ? new CoreDictionary.Attribute(Nature.nz, 1) : left);
+        } else if (left == null) {
+            this.trie.remove(word);
+        } else {
+            this.trie.put(word, left);
+        }
+        if (addToSuggesterTrie) {
+            if (left == null) {
+                SearchService.remove(word);
+            } else {
+                SearchService.put(word, left);
+            }
+        }
+        return true;
+    }
+
+    private static String getKey(String word) {
+        if (word == null) {
+            return null;
+        }
+        if (HanLP.Config.Normalization) {
+            word = CharTable.convert(word);
+        }
+        boolean isLetters = isLetters(word);
+        word = getWordBySpace(word);
+        return isLetters ? word.toLowerCase() : word;
+    }
 }
@@ -0,0 +1,26 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.tencent.supersonic.knowledge.utils.HanlpHelper;
+import javax.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@Slf4j
+public class TermsCacheConfig {
+
+    @Value("${terms.cache.size:1000}")
+    private Long termsCacheSize;
+
+    @Value("${terms.cache.expire.seconds:60}")
+    private Long termsCacheExpireSeconds;
+
+    @PostConstruct
+    public void init() {
+        log.info("termsCacheSize:{},termsCacheExpireSeconds:{}", termsCacheSize, termsCacheExpireSeconds);
+        HanlpHelper.configTermsCache(termsCacheSize, termsCacheExpireSeconds);
+    }
+}
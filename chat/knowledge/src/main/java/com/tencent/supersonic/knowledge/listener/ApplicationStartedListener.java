@@ -1,11 +1,11 @@
 package com.tencent.supersonic.knowledge.listener;
 
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
+import com.tencent.supersonic.knowledge.dictionary.DictWordDiff;
 import com.tencent.supersonic.knowledge.service.SchemaService;
 import com.tencent.supersonic.knowledge.service.KnowledgeService;
 import com.tencent.supersonic.knowledge.service.WordService;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.ApplicationListener;
@@ -57,7 +57,8 @@ public class ApplicationStartedListener implements ApplicationListener<Applicati
     }
 
     /***
-     * reload knowledge task
+     * reload knowledge task, only the changed words are applied,
+     * a full rebuild is done by updateKnowledgeDimValue on demand
      */
     @Scheduled(cron = "${reload.knowledge.corn:0 0/1 * * * ?}")
     public void reloadKnowledge() {
@@ -65,15 +66,17 @@ public class ApplicationStartedListener implements ApplicationListener<Applicati
 
         try {
             List<DictWord> dictWords = wordService.getAllDictWords();
-            List<DictWord> preDictWords = wordService.getPreDictWords();
+            DictWordDiff diff = DictWordDiff.of(wordService.getPreDictWords(), dictWords);
 
-            if (CollectionUtils.isEqualCollection(dictWords, preDictWords)) {
+            if (diff.isEmpty()) {
                 log.debug("dictWords has not changed, reloadKnowledge end");
                 return;
             }
-            log.info("dictWords has changed");
+            log.info("dictWords has changed, added:{}, removed:{}, renatured:{}", diff.getAdded().size(),
+                    diff.getRemoved().size(), diff.getRenaturedWords().size());
+            // the words are taken as applied only when the diff is, otherwise it is applied again next time
+            knowledgeService.updateOnlineKnowledge(diff);
             wordService.setPreDictWords(dictWords);
-            knowledgeService.updateOnlineKnowledge(wordService.getAllDictWords());
             schemaService.getCache().refresh(SchemaService.ALL_CACHE);
 
         } catch (Exception e) {
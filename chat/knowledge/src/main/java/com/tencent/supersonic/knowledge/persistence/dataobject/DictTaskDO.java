@@ -32,6 +32,8 @@ public class DictTaskDO {
 
     private Long elapsedMs;
 
+    private String message;
+
     public String getCommandMd5() {
         return DigestUtils.md5Hex(command);
     }
@@ -14,6 +14,8 @@ public interface DictRepository {
 
     Boolean updateDictTaskStatus(Integer status, DictTaskDO dictTaskDO);
 
+    Boolean updateDictTaskProgress(DictTaskDO dictTaskDO);
+
     List<DimValueDictInfo> searchDictTaskList(DictTaskFilterReq filter);
 
     DictConfig getDictInfoByModelId(Long modelId);
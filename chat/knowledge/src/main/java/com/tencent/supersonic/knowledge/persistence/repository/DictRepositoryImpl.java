@@ -55,6 +55,14 @@ public class DictRepositoryImpl implements DictRepository {
         return true;
     }
 
+    @Override
+    public Boolean updateDictTaskProgress(DictTaskDO dictTaskDO) {
+        long elapsedMs = System.currentTimeMillis() - dictTaskDO.getCreatedAt().getTime();
+        dictTaskDO.setElapsedMs(elapsedMs);
+        dictTaskMapper.updateTaskStatus(dictTaskDO);
+        return true;
+    }
+
     @Override
     public List<DimValueDictInfo> searchDictTaskList(DictTaskFilterReq filter) {
         List<DimValueDictInfo> dimValueDictDescList = new ArrayList<>();
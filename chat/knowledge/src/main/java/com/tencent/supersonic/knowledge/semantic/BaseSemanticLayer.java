@@ -2,16 +2,20 @@ package com.tencent.supersonic.knowledge.semantic;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.chat.api.component.SemanticLayer;
 import com.tencent.supersonic.chat.api.pojo.ModelSchema;
 import com.tencent.supersonic.common.pojo.ResultData;
 import com.tencent.supersonic.semantic.api.model.response.ModelSchemaResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +32,24 @@ public abstract class BaseSemanticLayer implements SemanticLayer {
             new ParameterizedTypeReference<ResultData<QueryResultWithSchemaResp>>() {
             };
 
+    /***
+     * hand over the rows of the whole result, semantic layers that can stream override it
+     * @param queryStructReq
+     * @param user
+     * @param rowHandler
+     * @return
+     */
+    @Override
+    public QueryResultWithSchemaResp streamByStruct(QueryStructReq queryStructReq, User user,
+            Consumer<Map<String, Object>> rowHandler) {
+        QueryResultWithSchemaResp queryResultWithColumns = queryByStruct(queryStructReq, user);
+        if (queryResultWithColumns != null && queryResultWithColumns.getResultList() != null) {
+            queryResultWithColumns.getResultList().forEach(rowHandler);
+            queryResultWithColumns.setResultList(new ArrayList<>());
+        }
+        return queryResultWithColumns;
+    }
+
     @SneakyThrows
     public List<ModelSchemaResp> fetchModelSchema(List<Long> ids, Boolean cacheEnable) {
         if (cacheEnable) {
@@ -26,6 +26,8 @@ import com.tencent.supersonic.semantic.model.domain.ModelService;
 import com.tencent.supersonic.semantic.query.service.QueryService;
 import com.tencent.supersonic.semantic.query.service.SchemaService;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
@@ -45,6 +47,14 @@ public class LocalSemanticLayer extends BaseSemanticLayer {
         return queryService.queryByStructWithAuth(queryStructReq, user);
     }
 
+    @SneakyThrows
+    @Override
+    public QueryResultWithSchemaResp streamByStruct(QueryStructReq queryStructReq, User user,
+            Consumer<Map<String, Object>> rowHandler) {
+        queryService = ContextUtils.getBean(QueryService.class);
+        return queryService.streamByStructWithAuth(queryStructReq, user, rowHandler);
+    }
+
     @Override
     public QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructReq, User user) {
         try {
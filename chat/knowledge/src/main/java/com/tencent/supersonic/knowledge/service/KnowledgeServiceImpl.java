@@ -1,10 +1,14 @@
 package com.tencent.supersonic.knowledge.service;
 
+import com.hankcs.hanlp.dictionary.CoreDictionary;
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
+import com.tencent.supersonic.knowledge.dictionary.DictWordDiff;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.knowledge.utils.HanlpHelper;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -20,28 +24,49 @@ public class KnowledgeServiceImpl implements KnowledgeService {
                 .filter(entry -> !entry.getNatureWithFrequency().contains(DictWordType.SUFFIX.getType()))
                 .collect(Collectors.toList());
 
-        for (DictWord nature : prefixes) {
-            HanlpHelper.addToCustomDictionary(nature);
-        }
-
         List<DictWord> suffixes = natures.stream()
                 .filter(entry -> entry.getNatureWithFrequency().contains(DictWordType.SUFFIX.getType()))
                 .collect(Collectors.toList());
 
-        SearchService.loadSuffix(suffixes);
+        // publish all words to search at once
+        SearchService.startUpdate();
+        boolean updated = false;
+        try {
+            for (DictWord nature : prefixes) {
+                HanlpHelper.addToCustomDictionary(nature);
+            }
+            SearchService.loadSuffix(suffixes);
+            updated = true;
+        } finally {
+            if (updated) {
+                SearchService.publish();
+            } else {
+                SearchService.discard();
+            }
+        }
     }
 
 
     public void reloadAllData(List<DictWord> natures) {
-        // 1. reload custom knowledge
+        // the tries are rebuilt with the online words and published once, so searches never miss them. a failed
+        // step discards the rebuild and searches keep the current tries
+        SearchService.startRebuild();
+        boolean reloaded = false;
         try {
+            // 1. reload custom knowledge
             HanlpHelper.reloadCustomDictionary();
+            // 2. update online knowledge
+            updateSemanticKnowledge(natures);
+            reloaded = true;
         } catch (Exception e) {
-            log.error("reloadCustomDictionary error", e);
+            log.error("reloadAllData error", e);
+        } finally {
+            if (reloaded) {
+                SearchService.publish();
+            } else {
+                SearchService.discard();
+            }
         }
-
-        // 2. update online knowledge
-        updateOnlineKnowledge(natures);
     }
 
     public void updateOnlineKnowledge(List<DictWord> natures) {
@@ -52,4 +77,55 @@ public class KnowledgeServiceImpl implements KnowledgeService {
         }
     }
 
+    /***
+     * apply word level changes, words of the removed natures are updated before the added natures
+     * are merged, so a word whose natures changed ends with its new natures. The changes are published to
+     * search at once. A failure puts back the words changed so far and is thrown to the caller, which keeps the
+     * previous words so the diff is applied again on the next reload
+     * @param diff
+     */
+    public void updateOnlineKnowledge(DictWordDiff diff) {
+        Map<String, CoreDictionary.Attribute> previous = new LinkedHashMap<>();
+        SearchService.startUpdate();
+        boolean applied = false;
+        try {
+            for (DictWord dictWord : diff.getRemoved()) {
+                if (!isSuffix(dictWord)) {
+                    keepPrevious(previous, dictWord);
+                    HanlpHelper.removeNaturesFromCustomDictionary(dictWord);
+                }
+            }
+            SearchService.removeSuffix(diff.getRemoved().stream().filter(this::isSuffix)
+                    .collect(Collectors.toList()));
+            for (DictWord dictWord : diff.getAdded()) {
+                if (!isSuffix(dictWord)) {
+                    keepPrevious(previous, dictWord);
+                    HanlpHelper.addToCustomDictionary(dictWord);
+                }
+            }
+            SearchService.addSuffix(diff.getAdded().stream().filter(this::isSuffix).collect(Collectors.toList()));
+            applied = true;
+        } finally {
+            if (applied) {
+                SearchService.publish();
+            } else {
+                try {
+                    previous.forEach(HanlpHelper::restoreCustomDictionary);
+                } finally {
+                    SearchService.discard();
+                }
+            }
+        }
+    }
+
+    private void keepPrevious(Map<String, CoreDictionary.Attribute> previous, DictWord dictWord) {
+        if (!previous.containsKey(dictWord.getWord())) {
+            previous.put(dictWord.getWord(), HanlpHelper.getCustomDictionaryAttribute(dictWord.getWord()));
+        }
+    }
+
+    private boolean isSuffix(DictWord dictWord) {
+        return dictWord.getNatureWithFrequency().contains(DictWordType.SUFFIX.getType());
+    }
+
 }
@@ -1,6 +1,6 @@
 package com.tencent.supersonic.knowledge.service;
 
-import com.tencent.supersonic.knowledge.utils.NatureHelper;
+import com.tencent.supersonic.knowledge.dictionary.DictNature;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -22,34 +22,23 @@ public class LoadRemoveService {
     private String mapperRemoveNaturePrefix;
 
 
-    public List removeNatures(List value, Integer agentId, Set<Long> detectModelIds) {
-        if (CollectionUtils.isEmpty(value)) {
-            return value;
-        }
-        List<String> resultList = new ArrayList<>(value);
-        if (!CollectionUtils.isEmpty(detectModelIds)) {
-            resultList.removeIf(nature -> {
-                if (Objects.isNull(nature)) {
-                    return false;
-                }
-                Long modelId = NatureHelper.getModelId(nature);
-                if (Objects.nonNull(modelId)) {
-                    return !detectModelIds.contains(modelId);
-                }
-                return false;
-            });
-        }
-        if (Objects.nonNull(mapperRemoveAgentId)
+    public List<DictNature> removeNatures(DictNature[] value, Integer agentId, Set<Long> detectModelIds) {
+        List<DictNature> resultList = new ArrayList<>(value.length);
+        boolean removePrefix = Objects.nonNull(mapperRemoveAgentId)
                 && mapperRemoveAgentId.equals(agentId)
-                && StringUtils.isNotBlank(mapperRemoveNaturePrefix)) {
-            resultList.removeIf(nature -> {
-                if (Objects.isNull(nature)) {
-                    return false;
-                }
-                return nature.startsWith(mapperRemoveNaturePrefix);
-            });
+                && StringUtils.isNotBlank(mapperRemoveNaturePrefix);
+        for (DictNature nature : value) {
+            Long modelId = nature.getModelId();
+            if (!CollectionUtils.isEmpty(detectModelIds) && Objects.nonNull(modelId)
+                    && !detectModelIds.contains(modelId)) {
+                continue;
+            }
+            if (removePrefix && nature.toString().startsWith(mapperRemoveNaturePrefix)) {
+                continue;
+            }
+            resultList.add(nature);
         }
         return resultList;
     }
 
-}
\ No newline at end of file
+}
@@ -1,19 +1,24 @@
 package com.tencent.supersonic.knowledge.service;
 
-import com.hankcs.hanlp.collection.trie.bintrie.BaseNode;
-import com.hankcs.hanlp.collection.trie.bintrie.BinTrie;
 import com.hankcs.hanlp.corpus.tag.Nature;
 import com.hankcs.hanlp.dictionary.CoreDictionary;
+import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.knowledge.dictionary.DictNature;
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
-import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.knowledge.dictionary.DictionaryAttributeUtil;
+import com.tencent.supersonic.knowledge.dictionary.ImmutableTrie;
 import com.tencent.supersonic.knowledge.dictionary.MapResult;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -25,13 +30,23 @@ import org.springframework.util.CollectionUtils;
 public class SearchService {
 
     public static final int SEARCH_SIZE = 200;
-    private static BinTrie<List<String>> trie;
-    private static BinTrie<List<String>> suffixTrie;
 
-    static {
-        trie = new BinTrie<>();
-        suffixTrie = new BinTrie<>();
-    }
+    /**
+     * the prefix and suffix tries readers search, replaced as a whole on every update
+     */
+    private static final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * serializes writers, held from startUpdate/startRebuild until the matching publish or discard
+     */
+    private static final ReentrantLock writeLock = new ReentrantLock();
+
+    private static Snapshot.Builder pending;
+
+    /**
+     * a batch nested in the running one was discarded, so the running one is discarded too
+     */
+    private static boolean failed;
 
     /***
      * prefix Search
@@ -39,16 +54,19 @@ public class SearchService {
      * @return
      */
     public static List<MapResult> prefixSearch(String key, int limit, Integer agentId, Set<Long> detectModelIds) {
-        return prefixSearch(key, limit, agentId, trie, detectModelIds);
+        return prefixSearch(key, limit, agentId, snapshot.get().trie, detectModelIds);
     }
 
-    public static List<MapResult> prefixSearch(String key, int limit, Integer agentId, BinTrie<List<String>> binTrie,
-            Set<Long> detectModelIds) {
-        Set<Map.Entry<String, List<String>>> result = prefixSearchLimit(key, limit, binTrie, agentId, detectModelIds);
+    public static List<MapResult> prefixSearch(String key, int limit, Integer agentId,
+            ImmutableTrie<DictNature[]> trie, Set<Long> detectModelIds) {
+        Set<Map.Entry<String, List<DictNature>>> result = prefixSearchLimit(key, limit, trie, agentId,
+                detectModelIds);
         return result.stream().map(
                         entry -> {
                             String name = entry.getKey().replace("#", " ");
-                            return new MapResult(name, entry.getValue(), key);
+                            List<String> natures = entry.getValue().stream().map(DictNature::toString)
+                                    .collect(Collectors.toList());
+                            return new MapResult(name, natures, key);
                         }
                 ).sorted((a, b) -> -(b.getName().length() - a.getName().length()))
                 .limit(SEARCH_SIZE)
@@ -62,17 +80,17 @@ public class SearchService {
      */
     public static List<MapResult> suffixSearch(String key, int limit, Integer agentId, Set<Long> detectModelIds) {
         String reverseDetectSegment = StringUtils.reverse(key);
-        return suffixSearch(reverseDetectSegment, limit, agentId, suffixTrie, detectModelIds);
+        return suffixSearch(reverseDetectSegment, limit, agentId, snapshot.get().suffixTrie, detectModelIds);
     }
 
-    public static List<MapResult> suffixSearch(String key, int limit, Integer agentId, BinTrie<List<String>> binTrie,
-            Set<Long> detectModelIds) {
-        Set<Map.Entry<String, List<String>>> result = prefixSearchLimit(key, limit, binTrie, agentId, detectModelIds);
+    public static List<MapResult> suffixSearch(String key, int limit, Integer agentId,
+            ImmutableTrie<DictNature[]> trie, Set<Long> detectModelIds) {
+        Set<Map.Entry<String, List<DictNature>>> result = prefixSearchLimit(key, limit, trie, agentId,
+                detectModelIds);
         return result.stream().map(
                         entry -> {
                             String name = entry.getKey().replace("#", " ");
-                            List<String> natures = entry.getValue().stream()
-                                    .map(nature -> nature.replaceAll(DictWordType.SUFFIX.getType(), ""))
+                            List<String> natures = entry.getValue().stream().map(DictNature::getWithoutSuffix)
                                     .collect(Collectors.toList());
                             name = StringUtils.reverse(name);
                             return new MapResult(name, natures, key);
@@ -82,37 +100,173 @@ public class SearchService {
                 .collect(Collectors.toList());
     }
 
-    private static Set<Map.Entry<String, List<String>>> prefixSearchLimit(String key, int limit,
-            BinTrie<List<String>> binTrie, Integer agentId, Set<Long> detectModelIds) {
-        key = key.toLowerCase();
-        Set<Map.Entry<String, List<String>>> entrySet = new TreeSet<Map.Entry<String, List<String>>>();
-        StringBuilder sb = new StringBuilder(key.substring(0, key.length() - 1));
-        BaseNode branch = binTrie;
-        char[] chars = key.toCharArray();
-        for (char aChar : chars) {
-            if (branch == null) {
-                return entrySet;
-            }
-            branch = branch.getChild(aChar);
+    /***
+     * for every start offset of text, the length of the longest segment starting there
+     * for which prefixSearch can return results. the trie is walked once per start offset, each walk stops at
+     * the first character the trie has no child for, so the cost is the sum of the match lengths
+     * @param text
+     * @return
+     */
+    public static int[] getPrefixMatchLengths(String text) {
+        ImmutableTrie<DictNature[]> trie = snapshot.get().trie;
+        String key = text.toLowerCase();
+        int[] lengths = new int[text.length() + 1];
+        if (key.length() != text.length()) {
+            Arrays.fill(lengths, text.length());
+            return lengths;
+        }
+        for (int start = 0; start < key.length(); start++) {
+            lengths[start] = trie.matchLength(key, start);
+        }
+        return lengths;
+    }
+
+    /***
+     * for every end offset of text, the length of the longest segment ending there
+     * for which suffixSearch can return results. the suffix trie is walked backwards once per end offset,
+     * each walk stops at the first character the trie has no child for
+     * @param text
+     * @return
+     */
+    public static int[] getSuffixMatchLengths(String text) {
+        ImmutableTrie<DictNature[]> suffixTrie = snapshot.get().suffixTrie;
+        String key = text.toLowerCase();
+        int[] lengths = new int[text.length() + 1];
+        if (key.length() != text.length()) {
+            Arrays.fill(lengths, text.length());
+            return lengths;
+        }
+        for (int end = 1; end <= key.length(); end++) {
+            lengths[end] = suffixTrie.reverseMatchLength(key, end);
         }
+        return lengths;
+    }
 
-        if (branch == null) {
-            return entrySet;
+    private static Set<Map.Entry<String, List<DictNature>>> prefixSearchLimit(String key, int limit,
+            ImmutableTrie<DictNature[]> trie, Integer agentId, Set<Long> detectModelIds) {
+        key = key.toLowerCase();
+        Set<Map.Entry<String, List<DictNature>>> entrySet = new TreeSet<>(Map.Entry.comparingByKey());
+        LoadRemoveService loadRemoveService = ContextUtils.getBean(LoadRemoveService.class);
+        for (Map.Entry<String, DictNature[]> entry : trie.prefixWalk(key, limit)) {
+            List<DictNature> natures = loadRemoveService.removeNatures(entry.getValue(), agentId, detectModelIds);
+            log.debug("name:{},natures:{}", entry.getKey(), natures);
+            entrySet.add(new AbstractMap.SimpleEntry<>(entry.getKey(), natures));
         }
-        branch.walkLimit(sb, entrySet, limit, agentId, detectModelIds);
         return entrySet;
     }
 
-    public static void clear() {
-        log.info("clear all trie");
-        trie = new BinTrie<>();
-        suffixTrie = new BinTrie<>();
+    /***
+     * start rebuilding the tries from empty, readers keep searching the current tries until publish. a rebuild
+     * started within a running batch drops what the batch changed so far
+     */
+    public static void startRebuild() {
+        writeLock.lock();
+        log.info("start rebuilding all trie");
+        if (writeLock.getHoldCount() == 1) {
+            failed = false;
+        }
+        pending = Snapshot.EMPTY.toBuilder();
+    }
+
+    /***
+     * start a batch of updates on top of the current tries, batches started while one is running join it
+     */
+    public static void startUpdate() {
+        writeLock.lock();
+        if (writeLock.getHoldCount() == 1) {
+            failed = false;
+            pending = snapshot.get().toBuilder();
+        }
+    }
+
+    /***
+     * end the batch started by the matching startUpdate/startRebuild, the outermost batch makes the updates
+     * visible to readers unless a batch in it was discarded
+     */
+    public static void publish() {
+        try {
+            if (writeLock.getHoldCount() == 1) {
+                if (failed) {
+                    log.warn("a batch of trie updates failed, keep the current tries");
+                } else {
+                    snapshot.set(pending.build());
+                }
+                pending = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /***
+     * end the batch started by the matching startUpdate/startRebuild after a failure, its updates and the ones
+     * of the batches it is nested in are dropped, readers keep searching the current tries
+     */
+    public static void discard() {
+        try {
+            failed = true;
+            if (writeLock.getHoldCount() == 1) {
+                pending = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public static void put(String key, CoreDictionary.Attribute attribute) {
-        trie.put(key, Arrays.stream(attribute.nature).map(entry -> entry.toString()).collect(Collectors.toList()));
+        DictNature[] natures = DictNature.of(attribute.nature);
+        update(() -> pending.trie.put(key, natures));
     }
 
+    public static void remove(String key) {
+        update(() -> pending.trie.remove(key));
+    }
+
+    /***
+     * add the natures of suffix words, unlike loadSuffix the natures already in the suffix trie are kept
+     * @param suffixes
+     */
+    public static void addSuffix(List<DictWord> suffixes) {
+        if (CollectionUtils.isEmpty(suffixes)) {
+            return;
+        }
+        update(() -> {
+            for (DictWord suffix : suffixes) {
+                Set<DictNature> natures = new LinkedHashSet<>();
+                DictNature[] current = pending.suffixTrie.get(suffix.getWord());
+                if (current != null) {
+                    natures.addAll(Arrays.asList(current));
+                }
+                natures.addAll(getNatures(suffix));
+                pending.suffixTrie.put(suffix.getWord(), natures.toArray(new DictNature[0]));
+            }
+        });
+    }
+
+    /***
+     * remove the natures of suffix words, words without natures left are removed from the suffix trie
+     * @param suffixes
+     */
+    public static void removeSuffix(List<DictWord> suffixes) {
+        if (CollectionUtils.isEmpty(suffixes)) {
+            return;
+        }
+        update(() -> {
+            for (DictWord suffix : suffixes) {
+                DictNature[] current = pending.suffixTrie.get(suffix.getWord());
+                if (current == null) {
+                    continue;
+                }
+                List<DictNature> natures = new ArrayList<>(Arrays.asList(current));
+                natures.removeAll(getNatures(suffix));
+                if (natures.isEmpty()) {
+                    pending.suffixTrie.remove(suffix.getWord());
+                } else {
+                    pending.suffixTrie.put(suffix.getWord(), natures.toArray(new DictNature[0]));
+                }
+            }
+        });
+    }
 
     public static void loadSuffix(List<DictWord> suffixes) {
         if (CollectionUtils.isEmpty(suffixes)) {
@@ -128,15 +282,74 @@ public class SearchService {
             }
             map.put(suffix.getWord(), attributeNew);
         }
-        for (Map.Entry<String, CoreDictionary.Attribute> stringAttributeEntry : map.entrySet()) {
-            putSuffix(stringAttributeEntry.getKey(), stringAttributeEntry.getValue());
-        }
+        update(() -> {
+            for (Map.Entry<String, CoreDictionary.Attribute> stringAttributeEntry : map.entrySet()) {
+                putSuffix(stringAttributeEntry.getKey(), stringAttributeEntry.getValue());
+            }
+        });
     }
 
     public static void putSuffix(String key, CoreDictionary.Attribute attribute) {
-        suffixTrie.put(key,
-                Arrays.stream(attribute.nature).map(entry -> entry.toString()).collect(Collectors.toList()));
+        DictNature[] natures = DictNature.of(attribute.nature);
+        update(() -> pending.suffixTrie.put(key, natures));
     }
 
-}
+    /***
+     * run the updates as a batch, published when they succeed and discarded when they fail
+     * @param updates
+     */
+    private static void update(Runnable updates) {
+        startUpdate();
+        boolean done = false;
+        try {
+            updates.run();
+            done = true;
+        } finally {
+            if (done) {
+                publish();
+            } else {
+                discard();
+            }
+        }
+    }
+
+    private static List<DictNature> getNatures(DictWord dictWord) {
+        CoreDictionary.Attribute attribute = dictWord.getNatureWithFrequency() == null
+                ? new CoreDictionary.Attribute(Nature.nz, 1)
+                : CoreDictionary.Attribute.create(dictWord.getNatureWithFrequency());
+        return Arrays.asList(DictNature.of(attribute.nature));
+    }
+
+    private static class Snapshot {
 
+        private static final Snapshot EMPTY = new Snapshot(ImmutableTrie.empty(), ImmutableTrie.empty());
+
+        private final ImmutableTrie<DictNature[]> trie;
+        private final ImmutableTrie<DictNature[]> suffixTrie;
+
+        Snapshot(ImmutableTrie<DictNature[]> trie, ImmutableTrie<DictNature[]> suffixTrie) {
+            this.trie = trie;
+            this.suffixTrie = suffixTrie;
+        }
+
+        Builder toBuilder() {
+            return new Builder(trie.toBuilder(), suffixTrie.toBuilder());
+        }
+
+        private static class Builder {
+
+            private final ImmutableTrie.Builder<DictNature[]> trie;
+            private final ImmutableTrie.Builder<DictNature[]> suffixTrie;
+
+            Builder(ImmutableTrie.Builder<DictNature[]> trie, ImmutableTrie.Builder<DictNature[]> suffixTrie) {
+                this.trie = trie;
+                this.suffixTrie = suffixTrie;
+            }
+
+            Snapshot build() {
+                return new Snapshot(trie.build(), suffixTrie.build());
+            }
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package com.tencent.supersonic.knowledge.utils;
 
 import static com.hankcs.hanlp.HanLP.Config.CustomDictionaryPath;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.hankcs.hanlp.HanLP;
 import com.hankcs.hanlp.dictionary.CoreDictionary;
 import com.hankcs.hanlp.dictionary.DynamicCustomDictionary;
@@ -12,7 +14,10 @@ import com.tencent.supersonic.knowledge.dictionary.DictWord;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.tencent.supersonic.knowledge.dictionary.MapResult;
@@ -36,6 +41,8 @@ public class HanlpHelper {
     public static final String DICT_CLASS = "classes";
     private static volatile DynamicCustomDictionary CustomDictionary;
     private static volatile Segment segment;
+    private static volatile Cache<String, List<Term>> termsCache = buildTermsCache(1000, 60);
+    private static final AtomicLong segmentCount = new AtomicLong();
 
     static {
         // reset hanlp config
@@ -93,13 +100,23 @@ public class HanlpHelper {
             // 2.query txt files，update CustomDictionaryPath
             HdfsFileHelper.resetCustomPath(getDynamicCustomDictionary());
         } else {
-            FileHelper.deleteCacheFile(CustomDictionaryPath);
+            // local binary files are kept, a stale one is detected and rebuilt by the dictionary
             FileHelper.resetCustomPath(getDynamicCustomDictionary());
         }
-        // 3.clear trie
-        SearchService.clear();
-
-        boolean reload = getDynamicCustomDictionary().reload();
+        // 3.rebuild trie, searches keep using the current trie until the rebuild is published
+        SearchService.startRebuild();
+        boolean reload = false;
+        try {
+            reload = getDynamicCustomDictionary().reload();
+        } finally {
+            // a failed reload keeps the current dictionary, so searches keep the current trie too
+            if (reload) {
+                SearchService.publish();
+            } else {
+                SearchService.discard();
+            }
+        }
+        invalidateTermsCache();
         log.info("reloadCustomDictionary end ,cost:{},reload:{}", System.currentTimeMillis() - startTime, reload);
         return reload;
     }
@@ -161,7 +178,9 @@ public class HanlpHelper {
 
     public static boolean addToCustomDictionary(DictWord dictWord) {
         log.info("dictWord:{}", dictWord);
-        return getDynamicCustomDictionary().insert(dictWord.getWord(), dictWord.getNatureWithFrequency());
+        boolean insert = getDynamicCustomDictionary().insert(dictWord.getWord(), dictWord.getNatureWithFrequency());
+        invalidateTermsCache();
+        return insert;
     }
 
     public static void removeFromCustomDictionary(DictWord dictWord) {
@@ -185,6 +204,41 @@ public class HanlpHelper {
         if (StringUtils.isNotBlank(natureWithFrequency)) {
             getDynamicCustomDictionary().add(dictWord.getWord(), natureWithFrequency.substring(0, len - 1));
         }
+        invalidateTermsCache();
+    }
+
+    /***
+     * remove only the natures of dictWord from the word, and update search with the natures left
+     * @param dictWord
+     * @return
+     */
+    public static boolean removeNaturesFromCustomDictionary(DictWord dictWord) {
+        log.debug("dictWord:{}", dictWord);
+        DynamicCustomDictionary dictionary = getDynamicCustomDictionary();
+        boolean remove = dictionary instanceof MultiCustomDictionary
+                && ((MultiCustomDictionary) dictionary).removeNatures(dictWord.getWord(),
+                dictWord.getNatureWithFrequency());
+        invalidateTermsCache();
+        return remove;
+    }
+
+    /***
+     * the attribute of the word in the custom dictionary, to restore it if a batch of changes fails
+     * @param word
+     * @return
+     */
+    public static CoreDictionary.Attribute getCustomDictionaryAttribute(String word) {
+        DynamicCustomDictionary dictionary = getDynamicCustomDictionary();
+        return dictionary instanceof MultiCustomDictionary
+                ? ((MultiCustomDictionary) dictionary).getAttribute(word) : dictionary.get(word);
+    }
+
+    public static void restoreCustomDictionary(String word, CoreDictionary.Attribute attribute) {
+        DynamicCustomDictionary dictionary = getDynamicCustomDictionary();
+        if (dictionary instanceof MultiCustomDictionary) {
+            ((MultiCustomDictionary) dictionary).restore(word, attribute);
+        }
+        invalidateTermsCache();
     }
 
     public static void transLetterOriginal(List<MapResult> mapResults) {
@@ -203,10 +257,56 @@ public class HanlpHelper {
         }
     }
 
+    /***
+     * get the dictionary terms of text, results are shared by all callers of the same normalized text
+     * until the custom dictionary changes, the returned list is read only
+     * @param text
+     * @return
+     */
     public static List<Term> getTerms(String text) {
-        return getSegment().seg(text.toLowerCase()).stream()
+        String normalizedText = text.toLowerCase();
+        Cache<String, List<Term>> cache = termsCache;
+        if (cache == null) {
+            return segmentTerms(normalizedText);
+        }
+        return cache.get(normalizedText, HanlpHelper::segmentTerms);
+    }
+
+    /***
+     * rebuild the terms cache, a maximumSize or expireSeconds not greater than 0 disables it
+     * @param maximumSize
+     * @param expireSeconds
+     */
+    public static void configTermsCache(long maximumSize, long expireSeconds) {
+        termsCache = buildTermsCache(maximumSize, expireSeconds);
+    }
+
+    public static void invalidateTermsCache() {
+        Cache<String, List<Term>> cache = termsCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public static long getSegmentCount() {
+        return segmentCount.get();
+    }
+
+    private static List<Term> segmentTerms(String normalizedText) {
+        segmentCount.incrementAndGet();
+        return Collections.unmodifiableList(getSegment().seg(normalizedText).stream()
                 .filter(term -> term.getNature().startsWith(DictWordType.NATURE_SPILT))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    private static Cache<String, List<Term>> buildTermsCache(long maximumSize, long expireSeconds) {
+        if (maximumSize <= 0 || expireSeconds <= 0) {
+            return null;
+        }
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .build();
     }
 
 }
@@ -4,6 +4,7 @@ import com.hankcs.hanlp.corpus.tag.Nature;
 import com.hankcs.hanlp.seg.common.Term;
 import com.tencent.supersonic.chat.api.pojo.SchemaElementType;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.knowledge.dictionary.DictNature;
 import com.tencent.supersonic.knowledge.dictionary.ModelInfoStat;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -22,28 +23,7 @@ import org.apache.commons.lang3.StringUtils;
 public class NatureHelper {
 
     public static SchemaElementType convertToElementType(String nature) {
-        DictWordType dictWordType = DictWordType.getNatureType(nature);
-        SchemaElementType result = null;
-        switch (dictWordType) {
-            case METRIC:
-                result = SchemaElementType.METRIC;
-                break;
-            case DIMENSION:
-                result = SchemaElementType.DIMENSION;
-                break;
-            case ENTITY:
-                result = SchemaElementType.ENTITY;
-                break;
-            case MODEL:
-                result = SchemaElementType.MODEL;
-                break;
-            case VALUE:
-                result = SchemaElementType.VALUE;
-                break;
-            default:
-                break;
-        }
-        return result;
+        return DictNature.of(nature).getElementType();
     }
 
     private static boolean isModelOrEntity(Term term, Integer model) {
@@ -62,31 +42,14 @@ public class NatureHelper {
     }
 
     public static Long getModelId(String nature) {
-        try {
-            String[] split = nature.split(DictWordType.NATURE_SPILT);
-            if (split.length <= 1) {
-                return null;
-            }
-            return Long.valueOf(split[1]);
-        } catch (NumberFormatException e) {
-            log.error("", e);
-        }
-        return null;
+        return DictNature.of(nature).getModelId();
     }
 
     public static boolean isDimensionValueModelId(String nature) {
         if (StringUtils.isEmpty(nature)) {
             return false;
         }
-        if (!nature.startsWith(DictWordType.NATURE_SPILT)) {
-            return false;
-        }
-        String[] split = nature.split(DictWordType.NATURE_SPILT);
-        if (split.length <= 1) {
-            return false;
-        }
-        return !nature.endsWith(DictWordType.METRIC.getType()) && !nature.endsWith(DictWordType.DIMENSION.getType())
-                && StringUtils.isNumeric(split[1]);
+        return DictNature.of(nature).isDimensionValue();
     }
 
     public static ModelInfoStat getModelStat(List<Term> terms) {
@@ -129,8 +92,9 @@ public class NatureHelper {
         terms.stream().filter(
                 term -> term.nature.startsWith(DictWordType.NATURE_SPILT)
         ).forEach(term -> {
-            DictWordType dictWordType = DictWordType.getNatureType(String.valueOf(term.nature));
-            Long model = getModelId(String.valueOf(term.nature));
+            DictNature nature = DictNature.of(String.valueOf(term.nature));
+            DictWordType dictWordType = nature.getType();
+            Long model = nature.getModelId();
 
             Map<DictWordType, Integer> natureTypeMap = new HashMap<>();
             natureTypeMap.put(dictWordType, 1);
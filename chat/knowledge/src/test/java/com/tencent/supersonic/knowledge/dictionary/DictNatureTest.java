@@ -0,0 +1,37 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.tencent.supersonic.chat.api.pojo.SchemaElementType;
+import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DictNatureTest {
+
+    @Test
+    void parse() {
+        DictNature dimension = DictNature.of("_1_2_dimension");
+        Assertions.assertSame(dimension, DictNature.of("_1_2_dimension"));
+        Assertions.assertEquals(1L, dimension.getModelId());
+        Assertions.assertEquals(2L, dimension.getElementId());
+        Assertions.assertEquals(SchemaElementType.DIMENSION, dimension.getElementType());
+        Assertions.assertFalse(dimension.isDimensionValue());
+
+        DictNature value = DictNature.of("_1_3");
+        Assertions.assertEquals(DictWordType.VALUE, value.getType());
+        Assertions.assertEquals(3L, value.getElementId());
+        Assertions.assertTrue(value.isDimensionValue());
+
+        DictNature model = DictNature.of("_5");
+        Assertions.assertEquals(SchemaElementType.MODEL, model.getElementType());
+        Assertions.assertEquals(0L, model.getElementId());
+
+        DictNature suffix = DictNature.of("_1_4_suffix_metric");
+        Assertions.assertEquals("_1_4_metric", suffix.getWithoutSuffix());
+        Assertions.assertEquals("_1_4_suffix_metric", suffix.toString());
+
+        DictNature other = DictNature.of("nz");
+        Assertions.assertNull(other.getModelId());
+        Assertions.assertNull(other.getElementType());
+        Assertions.assertFalse(other.isDimensionValue());
+    }
+}
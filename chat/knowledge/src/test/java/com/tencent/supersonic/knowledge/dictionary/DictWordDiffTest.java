@@ -0,0 +1,33 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DictWordDiffTest {
+
+    private DictWord dictWord(String word, String natureWithFrequency) {
+        DictWord dictWord = new DictWord();
+        dictWord.setWord(word);
+        dictWord.setNatureWithFrequency(natureWithFrequency);
+        return dictWord;
+    }
+
+    @Test
+    void of() {
+        DictWord visits = dictWord("访问次数", "_1_2_metric 100000");
+        DictWord department = dictWord("部门", "_1_3_dimension 100000");
+        DictWord departmentMoved = dictWord("部门", "_2_3_dimension 100000");
+        DictWord duration = dictWord("停留时长", "_1_4_metric 100000");
+
+        DictWordDiff diff = DictWordDiff.of(Arrays.asList(visits, department),
+                Arrays.asList(visits, departmentMoved, duration));
+
+        Assertions.assertEquals(Arrays.asList(departmentMoved, duration), diff.getAdded());
+        Assertions.assertEquals(Collections.singletonList(department), diff.getRemoved());
+        Assertions.assertEquals(Collections.singletonList("部门"), diff.getRenaturedWords());
+        Assertions.assertTrue(DictWordDiff.of(Arrays.asList(visits, department),
+                Arrays.asList(department, visits)).isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.hankcs.hanlp.collection.trie.DoubleArrayTrie;
+import com.hankcs.hanlp.corpus.tag.Nature;
+import com.hankcs.hanlp.dictionary.CoreDictionary;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DictionaryBinaryFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void saveAndLoad() throws Exception {
+        Path source = tempDir.resolve("DimValue_1_2.txt");
+        Files.write(source, Arrays.asList("abc _1_2 10", "部门 _1_3 5"), StandardCharsets.UTF_8);
+        String[] sourcePaths = new String[]{source.toString()};
+        String mainPath = source.toString();
+
+        TreeMap<String, CoreDictionary.Attribute> map = new TreeMap<>();
+        CoreDictionary.Attribute abc = new CoreDictionary.Attribute(Nature.create("_1_2"), 10);
+        abc.original = "ABC";
+        map.put("abc", abc);
+        map.put("部门", new CoreDictionary.Attribute(Nature.create("_1_3"), 5));
+        DoubleArrayTrie<CoreDictionary.Attribute> dat = new DoubleArrayTrie<>();
+        dat.build(map);
+        Assertions.assertTrue(DictionaryBinaryFile.save(mainPath, sourcePaths, map, dat));
+
+        DoubleArrayTrie<CoreDictionary.Attribute> loaded = new DoubleArrayTrie<>();
+        Assertions.assertTrue(DictionaryBinaryFile.load(mainPath, sourcePaths, loaded, false));
+        Assertions.assertEquals("_1_2", loaded.get("abc").nature[0].toString());
+        Assertions.assertEquals("ABC", loaded.get("abc").original);
+        Assertions.assertEquals(5, loaded.get("部门").frequency[0]);
+        Assertions.assertNull(loaded.get("部"));
+
+        // the checksum is verified after loading, a corrupt file is deleted. saved again first, so the file
+        // mapped by the load above is not the one corrupted
+        Assertions.assertTrue(DictionaryBinaryFile.save(mainPath, sourcePaths, map, dat));
+        Path binPath = tempDir.resolve("DimValue_1_2.txt" + DictionaryBinaryFile.BIN_SUFFIX);
+        try (RandomAccessFile file = new RandomAccessFile(binPath.toFile(), "rw")) {
+            file.seek(file.length() - 9);
+            int value = file.read();
+            file.seek(file.length() - 9);
+            file.write(value + 1);
+        }
+        CountDownLatch corrupt = new CountDownLatch(1);
+        Assertions.assertTrue(DictionaryBinaryFile.load(mainPath, sourcePaths, new DoubleArrayTrie<>(), false,
+                corrupt::countDown));
+        Assertions.assertTrue(corrupt.await(5, TimeUnit.SECONDS));
+        Assertions.assertFalse(Files.exists(binPath));
+        Assertions.assertFalse(DictionaryBinaryFile.load(mainPath, sourcePaths, new DoubleArrayTrie<>(), false));
+
+        Assertions.assertTrue(DictionaryBinaryFile.save(mainPath, sourcePaths, map, dat));
+        Assertions.assertTrue(DictionaryBinaryFile.load(mainPath, sourcePaths, new DoubleArrayTrie<>(), false));
+        // a rewritten source is told apart by its length or modified time, it is not read
+        source.toFile().setLastModified(source.toFile().lastModified() + 2000);
+        Assertions.assertFalse(DictionaryBinaryFile.load(mainPath, sourcePaths, new DoubleArrayTrie<>(), false));
+        Assertions.assertTrue(DictionaryBinaryFile.save(mainPath, sourcePaths, map, dat));
+        long lastModified = source.toFile().lastModified();
+        Files.write(source, Arrays.asList("abcd _1_2 10", "部门 _1_3 5"), StandardCharsets.UTF_8);
+        source.toFile().setLastModified(lastModified);
+        Assertions.assertFalse(DictionaryBinaryFile.load(mainPath, sourcePaths, new DoubleArrayTrie<>(), false));
+    }
+
+    @Test
+    void searchMappedTrie() throws IOException {
+        Path source = tempDir.resolve("DimValue_1_4.txt");
+        Files.write(source, Collections.singletonList("a _1_4 1"), StandardCharsets.UTF_8);
+        String[] sourcePaths = new String[]{source.toString()};
+        TreeMap<String, CoreDictionary.Attribute> map = new TreeMap<>();
+        Random random = new Random(7);
+        String alphabet = "abc部门人";
+        for (int i = 0; i < 300; i++) {
+            map.put(randomText(random, alphabet, 1 + random.nextInt(5)),
+                    new CoreDictionary.Attribute(Nature.create("_1_4"), i));
+        }
+        DoubleArrayTrie<CoreDictionary.Attribute> heap = new DoubleArrayTrie<>();
+        heap.build(map);
+        Assertions.assertTrue(DictionaryBinaryFile.save(source.toString(), sourcePaths, map, heap));
+
+        MappedDoubleArrayTrie<CoreDictionary.Attribute> mapped = new MappedDoubleArrayTrie<>();
+        Assertions.assertTrue(DictionaryBinaryFile.load(source.toString(), sourcePaths, mapped, false));
+        Assertions.assertTrue(mapped.isMapped());
+        Assertions.assertEquals(heap.size(), mapped.size());
+        Assertions.assertArrayEquals(heap.getBase(), mapped.getBase());
+        for (int i = 0; i < 500; i++) {
+            String text = randomText(random, alphabet, random.nextInt(12));
+            Assertions.assertEquals(heap.exactMatchSearch(text), mapped.exactMatchSearch(text));
+            Assertions.assertEquals(heap.commonPrefixSearch(text), mapped.commonPrefixSearch(text));
+            Assertions.assertEquals(String.valueOf(heap.commonPrefixSearchWithValue(text)),
+                    String.valueOf(mapped.commonPrefixSearchWithValue(text)));
+            Assertions.assertEquals(heap.transition(text, 0), mapped.transition(text, 0));
+            Assertions.assertEquals(getHits(heap, text, false), getHits(mapped, text, false));
+            Assertions.assertEquals(getHits(heap, text, true), getHits(mapped, text, true));
+        }
+
+        // building keeps the trie on heap again
+        mapped.build(map);
+        Assertions.assertFalse(mapped.isMapped());
+        Assertions.assertEquals(heap.get("部门") == null, mapped.get("部门") == null);
+    }
+
+    private static List<String> getHits(DoubleArrayTrie<CoreDictionary.Attribute> trie, String text,
+            boolean longest) {
+        List<String> hits = new ArrayList<>();
+        if (longest) {
+            trie.parseLongestText(text, (begin, end, value) -> hits.add(begin + "-" + end + ":" + value));
+        } else {
+            trie.parseText(text, (begin, end, value) -> hits.add(begin + "-" + end + ":" + value));
+        }
+        return hits;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
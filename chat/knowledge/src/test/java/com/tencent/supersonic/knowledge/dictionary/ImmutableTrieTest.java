@@ -0,0 +1,57 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ImmutableTrieTest {
+
+    @Test
+    void prefixWalk() {
+        ImmutableTrie<String> trie = ImmutableTrie.<String>empty().toBuilder()
+                .put("abc", "3").put("ab", "2").put("abd", "4").put("b", "1")
+                .build();
+
+        List<String> words = trie.prefixWalk("ab", 10).stream().map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(3, words.size());
+        Assertions.assertEquals("ab", words.get(0));
+        Assertions.assertEquals("abc", words.get(1));
+        Assertions.assertEquals("abd", words.get(2));
+        Assertions.assertEquals(2, trie.prefixWalk("ab", 2).size());
+        Assertions.assertTrue(trie.prefixWalk("c", 10).isEmpty());
+    }
+
+    @Test
+    void snapshotIsolation() {
+        ImmutableTrie.Builder<String> builder = ImmutableTrie.<String>empty().toBuilder().put("ab", "1");
+        ImmutableTrie<String> first = builder.build();
+
+        ImmutableTrie<String> second = builder.put("ab", "2").put("abc", "3").remove("ab").build();
+
+        Assertions.assertEquals("1", first.get("ab"));
+        Assertions.assertNull(first.get("abc"));
+        Assertions.assertNull(second.get("ab"));
+        Assertions.assertEquals("3", second.get("abc"));
+
+        ImmutableTrie<String> third = second.toBuilder().put("b", "4").build();
+        Assertions.assertNull(second.get("b"));
+        Assertions.assertEquals("3", third.get("abc"));
+    }
+
+    @Test
+    void matchLength() {
+        ImmutableTrie<String> trie = ImmutableTrie.<String>empty().toBuilder()
+                .put("abc", "3").put("bd", "2")
+                .build();
+
+        Assertions.assertEquals(3, trie.matchLength("xabcd", 1));
+        Assertions.assertEquals(1, trie.matchLength("xabcd", 2));
+        Assertions.assertEquals(0, trie.matchLength("xabcd", 0));
+        Assertions.assertEquals(0, trie.matchLength("xabcd", 5));
+        Assertions.assertEquals(2, trie.reverseMatchLength("xdbq", 3));
+        Assertions.assertEquals(0, trie.reverseMatchLength("xdbq", 0));
+    }
+}
@@ -0,0 +1,64 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalFileHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeFileStream() throws IOException {
+        LocalFileConfig localFileConfig = new LocalFileConfig();
+        localFileConfig.setDictDirectoryLatest(tempDir.resolve("latest").toString());
+        localFileConfig.setDictDirectoryBackup(tempDir.resolve("backup").toString());
+        LocalFileHandler fileHandler = new LocalFileHandler(localFileConfig);
+
+        Long count = fileHandler.writeFile(Stream.of("a _1_2 10", "b _1_2 5"), "DimValue_1_2.txt", false);
+        Assertions.assertEquals(2L, count);
+        Path file = new File(localFileConfig.getDictDirectoryLatest(), "DimValue_1_2.txt").toPath();
+        Assertions.assertEquals(Arrays.asList("a _1_2 10", "b _1_2 5"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+
+        count = fileHandler.writeFile(Stream.of("c _1_2 1"), "DimValue_1_2.txt", false);
+        Assertions.assertEquals(1L, count);
+        Assertions.assertEquals(Arrays.asList("c _1_2 1"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        Assertions.assertFalse(new File(file + ".tmp").exists());
+        Assertions.assertTrue(tempDir.resolve("backup").resolve("DimValue_1_2.txt").toFile().exists());
+    }
+
+    @Test
+    void writeFileBatches() throws IOException {
+        LocalFileConfig localFileConfig = new LocalFileConfig();
+        localFileConfig.setDictDirectoryLatest(tempDir.resolve("latest").toString());
+        localFileConfig.setDictDirectoryBackup(tempDir.resolve("backup").toString());
+        LocalFileHandler fileHandler = new LocalFileHandler(localFileConfig);
+
+        Long count = fileHandler.writeFile(writer -> {
+            writer.accept(Arrays.asList("a _1_2 10", "b _1_2 5"));
+            writer.accept(Arrays.asList("c _1_2 1"));
+        }, "DimValue_1_2.txt", false);
+        Assertions.assertEquals(3L, count);
+        Path file = new File(localFileConfig.getDictDirectoryLatest(), "DimValue_1_2.txt").toPath();
+        Assertions.assertEquals(Arrays.asList("a _1_2 10", "b _1_2 5", "c _1_2 1"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+
+        // a producer failing halfway leaves the previous file in place
+        Assertions.assertThrows(RuntimeException.class, () -> fileHandler.writeFile(writer -> {
+            writer.accept(Arrays.asList("d _1_2 1"));
+            throw new RuntimeException("query failed");
+        }, "DimValue_1_2.txt", false));
+        Assertions.assertEquals(Arrays.asList("a _1_2 10", "b _1_2 5", "c _1_2 1"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+        Assertions.assertFalse(new File(file + ".tmp").exists());
+    }
+}
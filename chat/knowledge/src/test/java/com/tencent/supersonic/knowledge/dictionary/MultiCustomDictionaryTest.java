@@ -0,0 +1,37 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import com.hankcs.hanlp.dictionary.CoreDictionary;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MultiCustomDictionaryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void restore() throws IOException {
+        Path source = tempDir.resolve("CustomDictionary.txt");
+        Files.write(source, Collections.singletonList("部门 _1_3 5"), StandardCharsets.UTF_8);
+        MultiCustomDictionary dictionary = new MultiCustomDictionary(source.toString());
+        CoreDictionary.Attribute department = dictionary.getAttribute("部门");
+        Assertions.assertEquals("_1_3", department.nature[0].toString());
+        Assertions.assertNull(dictionary.getAttribute("Online"));
+
+        dictionary.insert("部门", "_1_4 3");
+        dictionary.insert("Online", "_1_5 2");
+        Assertions.assertEquals(2, dictionary.getAttribute("部门").nature.length);
+        Assertions.assertEquals("Online", dictionary.getAttribute("Online").original);
+
+        dictionary.restore("部门", department);
+        dictionary.restore("Online", null);
+        Assertions.assertSame(department, dictionary.getAttribute("部门"));
+        Assertions.assertNull(dictionary.getAttribute("Online"));
+    }
+}
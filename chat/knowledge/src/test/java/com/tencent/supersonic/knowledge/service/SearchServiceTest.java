@@ -0,0 +1,52 @@
+package com.tencent.supersonic.knowledge.service;
+
+import com.hankcs.hanlp.corpus.tag.Nature;
+import com.hankcs.hanlp.dictionary.CoreDictionary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SearchServiceTest {
+
+    @Test
+    void discardFailedBatch() {
+        CoreDictionary.Attribute attribute = new CoreDictionary.Attribute(Nature.create("_1_2"), 1);
+        SearchService.put("kept", attribute);
+
+        SearchService.startUpdate();
+        SearchService.put("outer", attribute);
+        SearchService.startUpdate();
+        SearchService.put("inner", attribute);
+        SearchService.discard();
+        SearchService.publish();
+
+        Assertions.assertEquals(4, getMatchLength("kept"));
+        Assertions.assertEquals(0, getMatchLength("outer"));
+        Assertions.assertEquals(0, getMatchLength("inner"));
+
+        // the next batch is published again
+        SearchService.put("later", attribute);
+        Assertions.assertEquals(5, getMatchLength("later"));
+    }
+
+    @Test
+    void nestedRebuild() {
+        CoreDictionary.Attribute attribute = new CoreDictionary.Attribute(Nature.create("_1_2"), 1);
+        SearchService.put("before", attribute);
+
+        SearchService.startUpdate();
+        SearchService.put("dropped", attribute);
+        SearchService.startRebuild();
+        SearchService.put("rebuilt", attribute);
+        Assertions.assertEquals(6, getMatchLength("before"));
+        SearchService.publish();
+        SearchService.publish();
+
+        Assertions.assertEquals(0, getMatchLength("before"));
+        Assertions.assertEquals(0, getMatchLength("dropped"));
+        Assertions.assertEquals(7, getMatchLength("rebuilt"));
+    }
+
+    private static int getMatchLength(String word) {
+        return SearchService.getPrefixMatchLengths(word)[0];
+    }
+}
@@ -0,0 +1,31 @@
+package com.tencent.supersonic.common.pojo;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published synchronously after the metadata of a model is updated or deleted, listeners drop what they
+ * derived from the model before the write returns.
+ */
+public class MetaChangeEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+    private Long modelId;
+    private String cacheTag;
+
+    public MetaChangeEvent(Object source, Long modelId, String cacheTag) {
+        super(source);
+        this.modelId = modelId;
+        this.cacheTag = cacheTag;
+    }
+
+    public Long getModelId() {
+        return modelId;
+    }
+
+    /***
+     * the tag of the cached results computed from the changed metadata
+     * @return
+     */
+    public String getCacheTag() {
+        return cacheTag;
+    }
+}
@@ -0,0 +1,16 @@
+package com.tencent.supersonic.common.pojo.enums;
+
+/**
+ * Lanes of queries sent to a database, in order of priority. A free connection goes to the waiting query
+ * of the first lane, and the background lanes never take all connections of a database.
+ */
+public enum QueryLaneEnum {
+
+    INTERACTIVE,
+    DICTIONARY,
+    STATISTIC;
+
+    public boolean isBackground() {
+        return this != INTERACTIVE;
+    }
+}
@@ -0,0 +1,88 @@
+package com.tencent.supersonic.common.util;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cancellation of the queries run for one request. The web layer binds a token to the thread running the
+ * request, the query runners register on it how to cancel their running statement, so the statements stop
+ * when the request is given up, for example when its client disconnects.
+ */
+public class QueryCancelContext {
+
+    private static final TransmittableThreadLocal<Token> TOKEN = new TransmittableThreadLocal<>();
+
+    /***
+     * the token of the current request, null when the queries are not run for a request
+     * @return
+     */
+    public static Token get() {
+        return TOKEN.get();
+    }
+
+    /***
+     * bind the token to the current thread
+     * @param token
+     * @return the token bound before, to be restored when the request is done
+     */
+    public static Token set(Token token) {
+        Token previous = TOKEN.get();
+        TOKEN.set(token);
+        return previous;
+    }
+
+    public static void restore(Token previous) {
+        if (previous == null) {
+            TOKEN.remove();
+        } else {
+            TOKEN.set(previous);
+        }
+    }
+
+    @Slf4j
+    public static class Token {
+
+        private final Set<Runnable> hooks = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+
+        /***
+         * run the hook when the token is cancelled, right away when it already is
+         * @param hook
+         */
+        public void register(Runnable hook) {
+            hooks.add(hook);
+            if (cancelled) {
+                run(hook);
+            }
+        }
+
+        public void unregister(Runnable hook) {
+            hooks.remove(hook);
+        }
+
+        public void cancel() {
+            cancelled = true;
+            for (Runnable hook : hooks) {
+                run(hook);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void run(Runnable hook) {
+            // removing the hook claims it, so a hook registered while cancelling runs once
+            if (!hooks.remove(hook)) {
+                return;
+            }
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                log.warn("cancel query error", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.tencent.supersonic.common.util;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import com.tencent.supersonic.common.pojo.enums.QueryLaneEnum;
+
+/**
+ * Lane of the queries sent by the current thread, queries are interactive unless the caller says otherwise
+ */
+public class QueryLaneContext {
+
+    private static final TransmittableThreadLocal<QueryLaneEnum> LANE = new TransmittableThreadLocal<>();
+
+    public static QueryLaneEnum get() {
+        QueryLaneEnum lane = LANE.get();
+        return lane == null ? QueryLaneEnum.INTERACTIVE : lane;
+    }
+
+    /***
+     * send the queries of the current thread in the lane
+     * @param lane
+     * @return the lane set before, null when none was, to be restored when the queries are sent
+     */
+    public static QueryLaneEnum set(QueryLaneEnum lane) {
+        QueryLaneEnum previous = LANE.get();
+        LANE.set(lane);
+        return previous;
+    }
+
+    public static void restore(QueryLaneEnum previous) {
+        if (previous == null) {
+            LANE.remove();
+        } else {
+            LANE.set(previous);
+        }
+    }
+}
@@ -20,5 +20,11 @@ public class CacheCommonConfig {
     @Value("${cache.common.expire.after.write:10}")
     private Integer cacheCommonExpireAfterWrite;
 
+    /**
+     * minutes a result over closed dates lives, it is evicted with the metadata it is computed from
+     */
+    @Value("${cache.common.stable.expire.after.write:1440}")
+    private Integer cacheCommonStableExpireAfterWrite;
+
 
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.tencent.supersonic.common.util.cache;
+
+/**
+ * Names of the tags cached query results depend on.
+ */
+public class CacheTags {
+
+    private static final String MODEL = "model:";
+    private static final String DATASOURCE = "datasource:";
+
+    private CacheTags() {
+    }
+
+    public static String model(Long modelId) {
+        return MODEL + modelId;
+    }
+
+    public static String datasource(Long datasourceId) {
+        return DATASOURCE + datasourceId;
+    }
+}
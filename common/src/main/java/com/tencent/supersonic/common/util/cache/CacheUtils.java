@@ -1,14 +1,41 @@
 package com.tencent.supersonic.common.util.cache;
 
 
+import java.util.Set;
+
 public interface CacheUtils {
 
     Boolean put(String key, Object value);
 
+    /***
+     * put a value computed from the tagged metadata, it lives for expireMinutes unless one of the tags is
+     * evicted after createdAt, also when the eviction happens while the value is put
+     * @param key
+     * @param value
+     * @param tags
+     * @param createdAt when the computation of the value started
+     * @param expireMinutes
+     * @return
+     */
+    Boolean put(String key, Object value, Set<String> tags, long createdAt, long expireMinutes);
+
     Object get(String key);
 
     String generateCacheKey(String prefix, String body);
 
     Boolean removeCache(String key);
 
+    /***
+     * remove all values tagged with the tag
+     * @param tag
+     */
+    void evictByTag(String tag);
+
+    /***
+     * the last time the tag was evicted, 0 if it never was. a value computed before that time must not be put
+     * @param tag
+     * @return
+     */
+    long getTagEvictedAt(String tag);
+
 }
@@ -3,33 +3,33 @@ package com.tencent.supersonic.common.util.cache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.concurrent.TimeUnit;
-import org.springframework.beans.factory.annotation.Autowired;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@Slf4j
 public class CaffeineCacheConfig {
 
-    @Autowired
-    private CacheCommonConfig cacheCommonConfig;
-
     @Value("${caffeine.initial.capacity:500}")
     private Integer caffeineInitialCapacity;
 
     @Value("${caffeine.max.size:5000}")
     private Integer caffeineMaximumSize;
 
-    @Bean(name = "caffeineCache")
-    public Cache<String, Object> caffeineCache() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(cacheCommonConfig.getCacheCommonExpireAfterWrite(), TimeUnit.MINUTES)
-                // 初始的缓存空间大小
-                .initialCapacity(caffeineInitialCapacity)
-                // 缓存的最大条数
-                .maximumSize(caffeineMaximumSize)
-                .build();
-    }
+    @Value("${cache.disk.enable:true}")
+    private boolean diskCacheEnable;
+
+    // instances on one host listen on different ports, so each of them has its own directory by default
+    @Value("${cache.disk.path:${java.io.tmpdir}/supersonic/cache-${server.port:8080}}")
+    private String diskCachePath;
+
+    @Value("${cache.disk.max.bytes:1073741824}")
+    private long diskCacheMaxBytes;
+
+    @Value("${cache.disk.segment.bytes:67108864}")
+    private long diskCacheSegmentBytes;
 
     @Bean(name = "searchCaffeineCache")
     public Cache<Long, Object> searchCaffeineCache() {
@@ -41,4 +41,19 @@ public class CaffeineCacheConfig {
                 .maximumSize(caffeineMaximumSize)
                 .build();
     }
+
+    @Bean(destroyMethod = "close")
+    public DiskCacheStore diskCacheStore() {
+        if (!diskCacheEnable) {
+            return DiskCacheStore.disabled();
+        }
+        try {
+            return new DiskCacheStore(diskCachePath, diskCacheMaxBytes, diskCacheSegmentBytes);
+        } catch (Exception e) {
+            // the result cache still works on heap without its disk tier, also when another instance
+            // holds the lock of the directory
+            log.warn("disable disk cache, open {} error", diskCachePath, e);
+            return DiskCacheStore.disabled();
+        }
+    }
 }
@@ -2,43 +2,136 @@ package com.tencent.supersonic.common.util.cache;
 
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.base.Joiner;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Two tier result cache. Values are stored compressed and weighed by their bytes on heap, each tenant, the
+ * prefix the key is generated with, may hold at most caffeine.tenant.max.bytes of the heap tier, so a few
+ * huge results of one tenant can not evict the small hot results of all others. Values evicted from the heap,
+ * values too large for it and the heap entries left at shutdown go to the {@link DiskCacheStore}, a value
+ * found on disk is promoted back to the heap. A value expires at the same time in both tiers, or earlier
+ * when one of its tags is evicted.
+ */
 @Component
 @Slf4j
 public class CaffeineCacheImpl implements CacheUtils {
 
+    private static final String DEFAULT_TENANT = "-1";
+    private static final int TENANT_SEGMENT = 3;
 
-    @Autowired
-    private CacheCommonConfig cacheCommonConfig;
+    private final CacheCommonConfig cacheCommonConfig;
+    private final Cache<String, Object> caffeineCache;
+    private final DiskCacheStore diskCacheStore;
+    private final Map<String, TenantUsage> tenantUsages = new ConcurrentHashMap<>();
+    private final Map<String, Long> tagEvictedAt = new ConcurrentHashMap<>();
+    private final long maxEntryBytes;
+    private final long tenantMaxBytes;
+    private final long expireMillis;
 
-    @Autowired
-    @Qualifier("caffeineCache")
-    private Cache<String, Object> caffeineCache;
+    public CaffeineCacheImpl(CacheCommonConfig cacheCommonConfig, DiskCacheStore diskCacheStore,
+            @Value("${caffeine.initial.capacity:500}") Integer caffeineInitialCapacity,
+            @Value("${caffeine.max.bytes:268435456}") long maxBytes,
+            @Value("${caffeine.max.entry.bytes:16777216}") long maxEntryBytes,
+            @Value("${caffeine.tenant.max.bytes:67108864}") long tenantMaxBytes) {
+        this.cacheCommonConfig = cacheCommonConfig;
+        this.diskCacheStore = diskCacheStore;
+        this.maxEntryBytes = maxEntryBytes;
+        this.tenantMaxBytes = tenantMaxBytes;
+        this.expireMillis = TimeUnit.MINUTES.toMillis(cacheCommonConfig.getCacheCommonExpireAfterWrite());
+        this.caffeineCache = Caffeine.newBuilder()
+                .expireAfter(new ValueExpiry())
+                .initialCapacity(caffeineInitialCapacity)
+                .maximumWeight(maxBytes)
+                .weigher((String key, Object value) -> weigh(value))
+                // run in the removing thread, so the tenant usage is exact when the put returns
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .build();
+    }
 
     @Override
     public Boolean put(String key, Object value) {
-        log.info("[put caffeineCache] key:{}, value:{}", key, value);
-        caffeineCache.put(key, value);
-        return true;
+        if (value == null) {
+            return false;
+        }
+        return putValue(key, CompressedCacheValue.of(value, Collections.emptySet(), expireMillis));
+    }
+
+    @Override
+    public Boolean put(String key, Object value, Set<String> tags, long createdAt, long expireMinutes) {
+        if (value == null) {
+            return false;
+        }
+        return putValue(key, CompressedCacheValue.of(value, tags, createdAt,
+                TimeUnit.MINUTES.toMillis(expireMinutes)));
     }
 
     @Override
     public Object get(String key) {
-        Object value = caffeineCache.asMap().get(key);
-        log.info("[get caffeineCache] key:{}, value:{}", key, value);
-        return value;
+        Object value = caffeineCache.getIfPresent(key);
+        log.debug("[get caffeineCache] key:{}, hit:{}", key, value != null);
+        if (value instanceof CompressedCacheValue) {
+            // a tag evicted while the value was put
+            if (isEvicted((CompressedCacheValue) value)) {
+                caffeineCache.asMap().remove(key, value);
+                return null;
+            }
+            return ((CompressedCacheValue) value).decode();
+        }
+        if (value != null) {
+            return value;
+        }
+        CompressedCacheValue diskValue = diskCacheStore.get(key);
+        if (diskValue == null || isEvicted(diskValue)) {
+            return null;
+        }
+        log.debug("[get diskCache] key:{}, bytes:{}", key, diskValue.getData().length);
+        if (fitsHeap(diskValue.getWeight())) {
+            putValue(key, diskValue);
+        }
+        return diskValue.decode();
+    }
+
+    private Boolean putValue(String key, CompressedCacheValue cacheValue) {
+        if (isEvicted(cacheValue)) {
+            log.info("[put caffeineCache] key:{} skipped, its metadata changed since it was computed", key);
+            return false;
+        }
+        int weight = cacheValue.getWeight();
+        if (!fitsHeap(weight)) {
+            boolean spilled = diskCacheStore.put(key, cacheValue);
+            log.info("[put caffeineCache] key:{}, bytes:{} over the entry limit, spilled:{}", key, weight, spilled);
+            return spilled;
+        }
+        TenantUsage usage = tenantUsages.computeIfAbsent(getTenant(key), tenant -> new TenantUsage());
+        synchronized (usage) {
+            usage.add(key, weight);
+        }
+        caffeineCache.put(key, cacheValue);
+        log.debug("[put caffeineCache] key:{}, rawBytes:{}, bytes:{}", key, cacheValue.getRawSize(), weight);
+        evictOverQuota(usage);
+        return true;
     }
 
     @Override
     public String generateCacheKey(String prefix, String body) {
         if (Strings.isEmpty(prefix)) {
-            prefix = "-1";
+            prefix = DEFAULT_TENANT;
         }
         return Joiner.on(":").join(cacheCommonConfig.getCacheCommonApp(), cacheCommonConfig.getCacheCommonEnv(),
                 cacheCommonConfig.getCacheCommonVersion(), prefix, body);
@@ -46,7 +139,175 @@ public class CaffeineCacheImpl implements CacheUtils {
 
     @Override
     public Boolean removeCache(String key) {
-        caffeineCache.asMap().remove(key);
+        caffeineCache.invalidate(key);
+        diskCacheStore.remove(key);
         return true;
     }
+
+    @Override
+    public void evictByTag(String tag) {
+        tagEvictedAt.put(tag, System.currentTimeMillis());
+        int heapRemoved = 0;
+        for (Map.Entry<String, Object> entry : caffeineCache.asMap().entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof CompressedCacheValue && ((CompressedCacheValue) value).getTags().contains(tag)) {
+                caffeineCache.asMap().remove(entry.getKey(), value);
+                heapRemoved++;
+            }
+        }
+        int diskRemoved = diskCacheStore.removeByTag(tag);
+        log.info("evict cache tag:{}, heap entries:{}, disk entries:{}", tag, heapRemoved, diskRemoved);
+    }
+
+    @Override
+    public long getTagEvictedAt(String tag) {
+        return tagEvictedAt.getOrDefault(tag, 0L);
+    }
+
+    /***
+     * keep the heap entries on disk, so they are served again after a restart
+     */
+    @PreDestroy
+    public void spillAll() {
+        if (!diskCacheStore.isEnabled()) {
+            return;
+        }
+        caffeineCache.asMap().forEach(this::spill);
+        log.info("spill result cache to disk, entries:{}, bytes:{}", diskCacheStore.size(),
+                diskCacheStore.getTotalBytes());
+    }
+
+    /***
+     * bytes held per tenant
+     * @return
+     */
+    public Map<String, Long> getTenantBytes() {
+        Map<String, Long> tenantBytes = new LinkedHashMap<>();
+        tenantUsages.forEach((tenant, usage) -> {
+            synchronized (usage) {
+                tenantBytes.put(tenant, usage.bytes);
+            }
+        });
+        return tenantBytes;
+    }
+
+    private void evictOverQuota(TenantUsage usage) {
+        while (true) {
+            String oldest;
+            synchronized (usage) {
+                if (usage.bytes <= tenantMaxBytes || usage.weights.isEmpty()) {
+                    return;
+                }
+                Iterator<Map.Entry<String, Integer>> entries = usage.weights.entrySet().iterator();
+                Map.Entry<String, Integer> entry = entries.next();
+                oldest = entry.getKey();
+                usage.bytes -= entry.getValue();
+                entries.remove();
+            }
+            // the removal listener finds no accounting left for the key
+            Object value = caffeineCache.asMap().remove(oldest);
+            if (value != null) {
+                spill(oldest, value);
+            }
+        }
+    }
+
+    private void onRemoval(String key, Object value, RemovalCause cause) {
+        if (key == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        if (cause == RemovalCause.SIZE) {
+            // cold entries evicted for the heap bound move to disk
+            spill(key, value);
+        }
+        TenantUsage usage = tenantUsages.get(getTenant(key));
+        if (usage == null) {
+            return;
+        }
+        synchronized (usage) {
+            Integer weight = usage.weights.get(key);
+            // the entry may be put again before the listener of its old value runs
+            if (weight != null && weight == weigh(value)) {
+                usage.weights.remove(key);
+                usage.bytes -= weight;
+            }
+        }
+    }
+
+    private void spill(String key, Object value) {
+        if (!diskCacheStore.isEnabled() || !(value instanceof CompressedCacheValue)) {
+            return;
+        }
+        CompressedCacheValue cacheValue = (CompressedCacheValue) value;
+        if (cacheValue.getExpireAt() > System.currentTimeMillis() && !isEvicted(cacheValue)
+                && !diskCacheStore.contains(key, cacheValue.getCreatedAt())) {
+            diskCacheStore.put(key, cacheValue);
+        }
+    }
+
+    private boolean isEvicted(CompressedCacheValue cacheValue) {
+        for (String tag : cacheValue.getTags()) {
+            if (getTagEvictedAt(tag) >= cacheValue.getCreatedAt()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean fitsHeap(int weight) {
+        return weight <= maxEntryBytes && weight <= tenantMaxBytes;
+    }
+
+    private static int weigh(Object value) {
+        return value instanceof CompressedCacheValue ? ((CompressedCacheValue) value).getWeight() : 1;
+    }
+
+    private static String getTenant(String key) {
+        int index = -1;
+        for (int i = 0; i < TENANT_SEGMENT; i++) {
+            index = key.indexOf(':', index + 1);
+            if (index < 0) {
+                return DEFAULT_TENANT;
+            }
+        }
+        int end = key.lastIndexOf(':');
+        return end > index ? key.substring(index + 1, end) : DEFAULT_TENANT;
+    }
+
+    private class ValueExpiry implements Expiry<String, Object> {
+
+        @Override
+        public long expireAfterCreate(String key, Object value, long currentTime) {
+            if (!(value instanceof CompressedCacheValue)) {
+                return TimeUnit.MILLISECONDS.toNanos(expireMillis);
+            }
+            long remaining = ((CompressedCacheValue) value).getExpireAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static final class TenantUsage {
+
+        private final LinkedHashMap<String, Integer> weights = new LinkedHashMap<>();
+        private long bytes;
+
+        private void add(String key, int weight) {
+            Integer previous = weights.remove(key);
+            if (previous != null) {
+                bytes -= previous;
+            }
+            weights.put(key, weight);
+            bytes += weight;
+        }
+    }
 }
@@ -0,0 +1,128 @@
+package com.tencent.supersonic.common.util.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A cached value kept as deflated json bytes, so an entry takes about the size of its compressed result
+ * and every read gets its own copy of the value. The tags name what the value was computed from, evicting
+ * one of them drops the value before it expires.
+ */
+public class CompressedCacheValue {
+
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final String type;
+    private final byte[] data;
+    private final int rawSize;
+    private final long createdAt;
+    private final long expireAt;
+    private final Set<String> tags;
+
+    public CompressedCacheValue(String type, byte[] data, int rawSize, long createdAt, long expireAt,
+            Set<String> tags) {
+        this.type = type;
+        this.data = data;
+        this.rawSize = rawSize;
+        this.createdAt = createdAt;
+        this.expireAt = expireAt;
+        this.tags = tags == null ? Collections.emptySet() : tags;
+    }
+
+    public static CompressedCacheValue of(Object value, Set<String> tags, long expireMillis) {
+        return of(value, tags, System.currentTimeMillis(), expireMillis);
+    }
+
+    /***
+     * the value created at createdAt, it expires expireMillis after now
+     * @param value
+     * @param tags
+     * @param createdAt
+     * @param expireMillis
+     * @return
+     */
+    public static CompressedCacheValue of(Object value, Set<String> tags, long createdAt, long expireMillis) {
+        byte[] raw = JSON.toJSONBytes(value, SerializerFeature.WriteMapNullValue);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(raw);
+        } catch (IOException e) {
+            throw new RuntimeException("compress cache value error", e);
+        }
+        return new CompressedCacheValue(value.getClass().getName(), out.toByteArray(), raw.length, createdAt,
+                System.currentTimeMillis() + expireMillis, tags);
+    }
+
+    public Object decode() {
+        try {
+            return JSON.parseObject(inflate(), Class.forName(type));
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("unknown cache value type " + type, e);
+        }
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getRawSize() {
+        return rawSize;
+    }
+
+    /***
+     * when the value was first cached or started to be computed, it identifies the value in every tier
+     * @return
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /***
+     * when the value expires, the same in every tier
+     * @return
+     */
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    /***
+     * the bytes the entry takes on heap
+     * @return
+     */
+    public int getWeight() {
+        return data.length + type.length() + ENTRY_OVERHEAD;
+    }
+
+    private byte[] inflate() {
+        byte[] raw = new byte[rawSize];
+        try (InputStream inflater = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            int offset = 0;
+            while (offset < rawSize) {
+                int read = inflater.read(raw, offset, rawSize - offset);
+                if (read < 0) {
+                    throw new IOException("cache value is shorter than " + rawSize + " bytes");
+                }
+                offset += read;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("decompress cache value error", e);
+        }
+        return raw;
+    }
+}
@@ -0,0 +1,484 @@
+package com.tencent.supersonic.common.util.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local disk tier of the result cache. Values are appended to segment files of one directory, each record
+ * carries a crc32 checksum, and the index of the live records is rebuilt from the segments on start, so the
+ * cache survives restarts. When the segments take more than the max bytes the oldest segment is deleted
+ * with all records in it. A removed key is written as a tombstone record. Records keep the tags of their
+ * value, so values of an evicted tag are found again after a restart. The directory is locked while the store
+ * is open, so a second instance pointed at the same directory fails to open instead of corrupting the segments.
+ */
+@Slf4j
+public class DiskCacheStore implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    // body length and crc32 of the body
+    private static final int HEADER_BYTES = 4 + 8;
+    private static final int TOMBSTONE = -1;
+    private static final String TAG_SEPARATOR = ",";
+    private static final String LOCK_FILE = "cache.lock";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final Map<String, Location> index = new HashMap<>();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel lockChannel;
+    private Segment active;
+    private long totalBytes;
+    private boolean closed;
+
+    public DiskCacheStore(String directory, long maxBytes, long segmentBytes) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.segmentBytes = Math.min(segmentBytes, maxBytes);
+        try {
+            Files.createDirectories(this.directory);
+            lockDirectory();
+            load();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw new RuntimeException("open disk cache " + directory + " error", e);
+        }
+        log.info("open disk cache:{}, entries:{}, bytes:{}", directory, index.size(), totalBytes);
+    }
+
+    private DiskCacheStore() {
+        this.directory = null;
+        this.maxBytes = 0;
+        this.segmentBytes = 0;
+        this.closed = true;
+    }
+
+    /***
+     * a store that keeps nothing, used when the disk tier is turned off
+     * @return
+     */
+    public static DiskCacheStore disabled() {
+        return new DiskCacheStore();
+    }
+
+    public boolean isEnabled() {
+        return !closed;
+    }
+
+    /***
+     * append the value, a value larger than one segment is not kept
+     * @param key
+     * @param value
+     * @return
+     */
+    public boolean put(String key, CompressedCacheValue value) {
+        ByteBuffer record = encode(key, value.getType(), String.join(TAG_SEPARATOR, value.getTags()),
+                value.getCreatedAt(), value.getExpireAt(), value.getRawSize(), value.getData());
+        lock.writeLock().lock();
+        try {
+            if (closed || record.remaining() > segmentBytes) {
+                return false;
+            }
+            Location location = append(record);
+            index.put(key, new Location(location.segmentId, location.offset, location.length,
+                    value.getCreatedAt(), value.getExpireAt(), value.getTags()));
+            evictSegments();
+            return true;
+        } catch (IOException e) {
+            log.warn("write disk cache key:{} error", key, e);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /***
+     * the value of the key, null when it is missing, expired or its record is corrupt
+     * @param key
+     * @return
+     */
+    public CompressedCacheValue get(String key) {
+        Location location = null;
+        lock.readLock().lock();
+        try {
+            location = index.get(key);
+            if (closed || location == null || location.expireAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            Segment segment = segments.get(location.segmentId);
+            ByteBuffer record = ByteBuffer.allocate(location.length);
+            readFully(segment.channel, record, location.offset);
+            record.flip();
+            Record decoded = decode(record);
+            if (decoded != null && key.equals(decoded.key)) {
+                return new CompressedCacheValue(decoded.type, decoded.data, decoded.rawSize, decoded.createdAt,
+                        decoded.expireAt, location.tags);
+            }
+        } catch (IOException e) {
+            log.warn("read disk cache key:{} error", key, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        log.warn("disk cache record of key:{} is corrupt, drop it", key);
+        lock.writeLock().lock();
+        try {
+            index.remove(key, location);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return null;
+    }
+
+    /***
+     * whether the store already has the value cached at createdAt for the key
+     * @param key
+     * @param createdAt
+     * @return
+     */
+    public boolean contains(String key, long createdAt) {
+        lock.readLock().lock();
+        try {
+            Location location = index.get(key);
+            return location != null && location.createdAt == createdAt;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            if (closed || index.remove(key) == null) {
+                return;
+            }
+            appendTombstone(key);
+            evictSegments();
+        } catch (IOException e) {
+            log.warn("remove disk cache key:{} error", key, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /***
+     * remove all values tagged with the tag
+     * @param tag
+     * @return the number of removed values
+     */
+    public int removeByTag(String tag) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            Iterator<Map.Entry<String, Location>> entries = index.entrySet().iterator();
+            while (!closed && entries.hasNext()) {
+                Map.Entry<String, Location> entry = entries.next();
+                if (entry.getValue().tags.contains(tag)) {
+                    entries.remove();
+                    appendTombstone(entry.getKey());
+                    removed++;
+                }
+            }
+            evictSegments();
+            return removed;
+        } catch (IOException e) {
+            log.warn("remove disk cache tag:{} error", tag, e);
+            return 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getTotalBytes() {
+        lock.readLock().lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            for (Segment segment : segments.values()) {
+                closeQuietly(segment);
+            }
+            segments.clear();
+            index.clear();
+            active = null;
+            if (lockChannel != null) {
+                // closing the channel releases the lock of the directory
+                try {
+                    lockChannel.close();
+                } catch (IOException e) {
+                    log.warn("unlock disk cache:{} error", directory, e);
+                }
+                lockChannel = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock fileLock;
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another store of this process
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            throw new IllegalStateException("disk cache " + directory + " is used by another instance");
+        }
+    }
+
+    private void load() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), path);
+                } catch (NumberFormatException e) {
+                    log.warn("skip unknown disk cache file:{}", path);
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            Segment segment = new Segment(file.getKey(), file.getValue());
+            segments.put(segment.id, segment);
+            scan(segment, now);
+            totalBytes += segment.size;
+            active = segment;
+        }
+        evictSegments();
+    }
+
+    private void scan(Segment segment, long now) throws IOException {
+        long fileSize = segment.channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset + HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(segment.channel, header, offset);
+            header.flip();
+            int length = header.getInt();
+            if (length <= 0 || offset + HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+            readFully(segment.channel, record, offset);
+            record.flip();
+            Record decoded = decode(record);
+            if (decoded == null) {
+                break;
+            }
+            if (decoded.rawSize == TOMBSTONE || decoded.expireAt <= now) {
+                index.remove(decoded.key);
+            } else {
+                index.put(decoded.key, new Location(segment.id, offset, HEADER_BYTES + length,
+                        decoded.createdAt, decoded.expireAt, decoded.tags));
+            }
+            offset += HEADER_BYTES + length;
+        }
+        if (offset < fileSize) {
+            // a record cut by a crash or a corrupt one, the rest of the segment is not trusted
+            log.warn("truncate disk cache segment:{} from {} to {} bytes", segment.path, fileSize, offset);
+            segment.channel.truncate(offset);
+        }
+        segment.size = offset;
+    }
+
+    private Location append(ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        if (active == null || active.size + length > segmentBytes) {
+            long id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+            active = new Segment(id, directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX));
+            segments.put(id, active);
+        }
+        long offset = active.size;
+        while (record.hasRemaining()) {
+            active.channel.write(record, offset + record.position());
+        }
+        active.size += length;
+        totalBytes += length;
+        return new Location(active.id, offset, length, 0, 0, Collections.emptySet());
+    }
+
+    private void appendTombstone(String key) throws IOException {
+        append(encode(key, "", "", 0, 0, TOMBSTONE, new byte[0]));
+    }
+
+    private void evictSegments() {
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            index.values().removeIf(location -> location.segmentId == oldest.id);
+            totalBytes -= oldest.size;
+            closeQuietly(oldest);
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                log.warn("delete disk cache segment:{} error", oldest.path, e);
+            }
+        }
+    }
+
+    private static ByteBuffer encode(String key, String type, String tags, long createdAt, long expireAt,
+            int rawSize, byte[] data) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+        byte[] tagBytes = tags.getBytes(StandardCharsets.UTF_8);
+        int length = 4 + keyBytes.length + 4 + typeBytes.length + 4 + tagBytes.length + 8 + 8 + 4 + 4
+                + data.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+        record.putInt(length);
+        record.putLong(0);
+        record.putInt(keyBytes.length).put(keyBytes);
+        record.putInt(typeBytes.length).put(typeBytes);
+        record.putInt(tagBytes.length).put(tagBytes);
+        record.putLong(createdAt).putLong(expireAt);
+        record.putInt(rawSize);
+        record.putInt(data.length).put(data);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, length);
+        record.putLong(4, crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private static Record decode(ByteBuffer record) {
+        int length = record.getInt();
+        long checksum = record.getLong();
+        if (length != record.remaining()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, length);
+        if (crc.getValue() != checksum) {
+            return null;
+        }
+        Record decoded = new Record();
+        decoded.key = readString(record);
+        decoded.type = readString(record);
+        String tags = readString(record);
+        decoded.tags = tags.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(Arrays.asList(tags.split(TAG_SEPARATOR)));
+        decoded.createdAt = record.getLong();
+        decoded.expireAt = record.getLong();
+        decoded.rawSize = record.getInt();
+        decoded.data = new byte[record.getInt()];
+        record.get(decoded.data);
+        return decoded;
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("unexpected end of disk cache segment");
+            }
+            position += read;
+        }
+    }
+
+    private static void closeQuietly(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("close disk cache segment:{} error", segment.path, e);
+        }
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+
+        private Segment(long id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+    }
+
+    private static final class Location {
+
+        private final long segmentId;
+        private final long offset;
+        private final int length;
+        private final long createdAt;
+        private final long expireAt;
+        private final Set<String> tags;
+
+        private Location(long segmentId, long offset, int length, long createdAt, long expireAt,
+                Set<String> tags) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+            this.createdAt = createdAt;
+            this.expireAt = expireAt;
+            this.tags = tags;
+        }
+    }
+
+    private static final class Record {
+
+        private String key;
+        private String type;
+        private Set<String> tags;
+        private long createdAt;
+        private long expireAt;
+        private int rawSize;
+        private byte[] data;
+    }
+}
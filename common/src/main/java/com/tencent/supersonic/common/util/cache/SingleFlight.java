@@ -0,0 +1,155 @@
+package com.tencent.supersonic.common.util.cache;
+
+import com.tencent.supersonic.common.util.QueryCancelContext;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent calls with the same key onto one execution. The first caller runs the call, callers
+ * arriving while it runs wait for its result or its exception instead of running the call again. The result
+ * is encoded once as a {@link CompressedCacheValue} when others wait for it, and each of them decodes its own
+ * copy, so callers may change the result they get without affecting each other.
+ * The call runs with a {@link QueryCancelContext.Token} of its own instead of the one of the leading request.
+ * A caller whose request is given up stops waiting and leaves the flight, the queries of the call are cancelled
+ * only once every caller has left, so one request giving up does not fail the others collapsed onto it.
+ */
+public class SingleFlight<T> {
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    public T execute(String key, Callable<T> call) throws Exception {
+        while (true) {
+            Flight flight = new Flight();
+            Flight running = inFlight.putIfAbsent(key, flight);
+            if (running == null) {
+                return lead(key, flight, call);
+            }
+            if (running.join()) {
+                return await(running);
+            }
+            // the running call finished or was given up by all its callers before joining it, run again
+            inFlight.remove(key, running);
+        }
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private T lead(String key, Flight flight, Callable<T> call) throws Exception {
+        QueryCancelContext.Token requestToken = QueryCancelContext.get();
+        Runnable leave = flight::leave;
+        if (requestToken != null) {
+            requestToken.register(leave);
+        }
+        QueryCancelContext.Token previous = QueryCancelContext.set(flight.token);
+        T result;
+        try {
+            result = call.call();
+        } catch (Exception | Error e) {
+            inFlight.remove(key, flight);
+            flight.close();
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            QueryCancelContext.restore(previous);
+            if (requestToken != null) {
+                requestToken.unregister(leave);
+            }
+        }
+        inFlight.remove(key, flight);
+        if (flight.close() > 0) {
+            try {
+                flight.future.complete(result == null ? null
+                        : CompressedCacheValue.of(result, Collections.emptySet(), 0));
+            } catch (RuntimeException e) {
+                flight.future.completeExceptionally(e);
+            }
+        }
+        return result;
+    }
+
+    private T await(Flight running) throws Exception {
+        QueryCancelContext.Token requestToken = QueryCancelContext.get();
+        CompletableFuture<CompressedCacheValue> givenUp = new CompletableFuture<>();
+        Runnable leave = () -> {
+            givenUp.completeExceptionally(new RuntimeException("query cancelled"));
+            running.leave();
+        };
+        if (requestToken != null) {
+            requestToken.register(leave);
+        }
+        try {
+            return decode(running.future.applyToEither(givenUp, Function.identity()));
+        } finally {
+            if (requestToken != null) {
+                requestToken.unregister(leave);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T decode(CompletableFuture<CompressedCacheValue> future) throws Exception {
+        try {
+            CompressedCacheValue value = future.get();
+            return value == null ? null : (T) value.decode();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Flight {
+
+        private final CompletableFuture<CompressedCacheValue> future = new CompletableFuture<>();
+        private final QueryCancelContext.Token token = new QueryCancelContext.Token();
+        private int followers;
+        // the leader and the followers still waiting for the result
+        private int callers = 1;
+        private boolean closed;
+
+        /***
+         * wait for the result of the flight, false when it already finished without waiting for others or all
+         * its callers were given up
+         * @return
+         */
+        private synchronized boolean join() {
+            if (closed || callers == 0) {
+                return false;
+            }
+            followers++;
+            callers++;
+            return true;
+        }
+
+        /***
+         * a caller was given up, the call is cancelled when it was the last one
+         */
+        private void leave() {
+            boolean cancel;
+            synchronized (this) {
+                callers--;
+                cancel = callers == 0 && !closed;
+            }
+            if (cancel) {
+                token.cancel();
+            }
+        }
+
+        private synchronized int close() {
+            closed = true;
+            return followers;
+        }
+    }
+}
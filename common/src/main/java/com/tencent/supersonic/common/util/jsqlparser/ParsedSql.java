@@ -0,0 +1,129 @@
+package com.tencent.supersonic.common.util.jsqlparser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectBody;
+
+/**
+ * A select statement parsed once and shared by a chain of rewrites. Rewrites change the statement in place
+ * through {@link #update(Consumer)}, the fields read from it are computed on first use and kept until the
+ * next update, and the sql text is rendered again only when it is read after an update.
+ */
+public class ParsedSql {
+
+    private final Select select;
+    private final PlainSelect plainSelect;
+    private String sql;
+    private List<String> whereFields;
+    private List<String> selectFields;
+    private List<String> allFields;
+    private List<String> groupByFields;
+    private List<String> orderByFields;
+    private List<FilterExpression> filterExpressions;
+    private Boolean aggregate;
+
+    public ParsedSql(String sql) {
+        this.sql = sql;
+        this.select = SqlParserSelectHelper.getSelect(sql);
+        SelectBody selectBody = select == null ? null : select.getSelectBody();
+        this.plainSelect = selectBody instanceof PlainSelect ? (PlainSelect) selectBody : null;
+    }
+
+    /***
+     * the sql of the statement, unchanged text if it was never updated
+     * @return
+     */
+    public String getSql() {
+        if (sql == null) {
+            sql = select.toString();
+        }
+        return sql;
+    }
+
+    /***
+     * the parsed plain select, it must only be changed through update
+     * @return null if the sql is not a plain select
+     */
+    public PlainSelect getPlainSelect() {
+        return plainSelect;
+    }
+
+    /***
+     * change the statement in place, does nothing if the sql is not a plain select
+     * @param updater
+     */
+    public void update(Consumer<PlainSelect> updater) {
+        if (Objects.isNull(plainSelect)) {
+            return;
+        }
+        updater.accept(plainSelect);
+        sql = null;
+        whereFields = null;
+        selectFields = null;
+        allFields = null;
+        groupByFields = null;
+        orderByFields = null;
+        filterExpressions = null;
+        aggregate = null;
+    }
+
+    public List<String> getWhereFields() {
+        if (whereFields == null) {
+            whereFields = plainSelect == null ? Collections.emptyList()
+                    : Collections.unmodifiableList(SqlParserSelectHelper.getWhereFields(plainSelect));
+        }
+        return whereFields;
+    }
+
+    public List<String> getSelectFields() {
+        if (selectFields == null) {
+            selectFields = plainSelect == null ? Collections.emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(SqlParserSelectHelper.getSelectFields(plainSelect)));
+        }
+        return selectFields;
+    }
+
+    public List<String> getAllFields() {
+        if (allFields == null) {
+            allFields = plainSelect == null ? Collections.emptyList()
+                    : Collections.unmodifiableList(SqlParserSelectHelper.getAllFields(plainSelect));
+        }
+        return allFields;
+    }
+
+    public List<String> getGroupByFields() {
+        if (groupByFields == null) {
+            groupByFields = plainSelect == null ? Collections.emptyList()
+                    : Collections.unmodifiableList(SqlParserSelectHelper.getGroupByFields(plainSelect));
+        }
+        return groupByFields;
+    }
+
+    public List<String> getOrderByFields() {
+        if (orderByFields == null) {
+            orderByFields = plainSelect == null ? Collections.emptyList()
+                    : Collections.unmodifiableList(SqlParserSelectHelper.getOrderByFields(plainSelect));
+        }
+        return orderByFields;
+    }
+
+    public List<FilterExpression> getFilterExpressions() {
+        if (filterExpressions == null) {
+            filterExpressions = plainSelect == null ? Collections.emptyList()
+                    : Collections.unmodifiableList(SqlParserSelectHelper.getFilterExpression(plainSelect));
+        }
+        return filterExpressions;
+    }
+
+    public boolean hasAggregateFunction() {
+        if (aggregate == null) {
+            aggregate = plainSelect != null && SqlParserSelectHelper.hasAggregateFunction(plainSelect);
+        }
+        return aggregate;
+    }
+}
@@ -33,6 +33,10 @@ public class SqlParserSelectHelper {
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getFilterExpression(plainSelect);
+    }
+
+    public static List<FilterExpression> getFilterExpression(PlainSelect plainSelect) {
         Set<FilterExpression> result = new HashSet<>();
         Expression where = plainSelect.getWhere();
         if (Objects.nonNull(where)) {
@@ -46,6 +50,10 @@ public class SqlParserSelectHelper {
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getWhereFields(plainSelect);
+    }
+
+    public static List<String> getWhereFields(PlainSelect plainSelect) {
         Set<String> result = new HashSet<>();
         getWhereFields(plainSelect, result);
         return new ArrayList<>(result);
@@ -111,6 +119,10 @@ public class SqlParserSelectHelper {
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getAllFields(plainSelect);
+    }
+
+    public static List<String> getAllFields(PlainSelect plainSelect) {
         Set<String> result = getSelectFields(plainSelect);
 
         getGroupByFields(plainSelect, result);
@@ -133,7 +145,10 @@ public class SqlParserSelectHelper {
     }
 
     public static Expression getHavingExpression(String sql) {
-        PlainSelect plainSelect = getPlainSelect(sql);
+        return getHavingExpression(getPlainSelect(sql));
+    }
+
+    public static Expression getHavingExpression(PlainSelect plainSelect) {
         Expression having = plainSelect.getHaving();
         if (Objects.nonNull(having)) {
             if (!(having instanceof ComparisonOperator)) {
@@ -154,6 +169,10 @@ public class SqlParserSelectHelper {
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getOrderByFields(plainSelect);
+    }
+
+    public static List<String> getOrderByFields(PlainSelect plainSelect) {
         Set<String> result = new HashSet<>();
         getOrderByFields(plainSelect, result);
         return new ArrayList<>(result);
@@ -173,6 +192,10 @@ public class SqlParserSelectHelper {
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getGroupByFields(plainSelect);
+    }
+
+    public static List<String> getGroupByFields(PlainSelect plainSelect) {
         HashSet<String> result = new HashSet<>();
         getGroupByFields(plainSelect, result);
         return new ArrayList<>(result);
@@ -211,7 +234,10 @@ public class SqlParserSelectHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return false;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        return hasAggregateFunction((PlainSelect) selectBody);
+    }
+
+    public static boolean hasAggregateFunction(PlainSelect plainSelect) {
         List<SelectItem> selectItems = plainSelect.getSelectItems();
         AggregateFunctionVisitor visitor = new AggregateFunctionVisitor();
         for (SelectItem selectItem : selectItems) {
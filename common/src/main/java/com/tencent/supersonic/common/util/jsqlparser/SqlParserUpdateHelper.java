@@ -36,13 +36,16 @@ public class SqlParserUpdateHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceValue((PlainSelect) selectBody, filedNameToValueMap);
+        return selectStatement.toString();
+    }
+
+    public static void replaceValue(PlainSelect plainSelect, Map<String, Map<String, String>> filedNameToValueMap) {
         Expression where = plainSelect.getWhere();
         FieldlValueReplaceVisitor visitor = new FieldlValueReplaceVisitor(filedNameToValueMap);
         if (Objects.nonNull(where)) {
             where.accept(visitor);
         }
-        return selectStatement.toString();
     }
 
     public static String replaceFieldNameByValue(String sql, Map<String, Set<String>> fieldValueToFieldNames) {
@@ -51,13 +54,17 @@ public class SqlParserUpdateHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceFieldNameByValue((PlainSelect) selectBody, fieldValueToFieldNames);
+        return selectStatement.toString();
+    }
+
+    public static void replaceFieldNameByValue(PlainSelect plainSelect,
+            Map<String, Set<String>> fieldValueToFieldNames) {
         Expression where = plainSelect.getWhere();
         FiledNameReplaceVisitor visitor = new FiledNameReplaceVisitor(fieldValueToFieldNames);
         if (Objects.nonNull(where)) {
             where.accept(visitor);
         }
-        return selectStatement.toString();
     }
 
     public static String replaceFields(String sql, Map<String, String> fieldToBizName) {
@@ -70,7 +77,12 @@ public class SqlParserUpdateHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceFields((PlainSelect) selectBody, fieldToBizName, exactReplace);
+        return selectStatement.toString();
+    }
+
+    public static void replaceFields(PlainSelect plainSelect, Map<String, String> fieldToBizName,
+            boolean exactReplace) {
         //1. replace where fields
         Expression where = plainSelect.getWhere();
         FieldReplaceVisitor visitor = new FieldReplaceVisitor(fieldToBizName, exactReplace);
@@ -101,7 +113,6 @@ public class SqlParserUpdateHelper {
         if (Objects.nonNull(having)) {
             having.accept(visitor);
         }
-        return selectStatement.toString();
     }
 
     public static String replaceFunction(String sql, Map<String, String> functionMap) {
@@ -110,7 +121,21 @@ public class SqlParserUpdateHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceFunction((PlainSelect) selectBody, functionMap);
+        return selectStatement.toString();
+    }
+
+    public static String replaceFunction(String sql) {
+        Select selectStatement = SqlParserSelectHelper.getSelect(sql);
+        SelectBody selectBody = selectStatement.getSelectBody();
+        if (!(selectBody instanceof PlainSelect)) {
+            return sql;
+        }
+        replaceFunction((PlainSelect) selectBody);
+        return selectStatement.toString();
+    }
+
+    public static void replaceFunction(PlainSelect plainSelect, Map<String, String> functionMap) {
         //1. replace where dataDiff function
         Expression where = plainSelect.getWhere();
 
@@ -127,16 +152,9 @@ public class SqlParserUpdateHelper {
         for (SelectItem selectItem : plainSelect.getSelectItems()) {
             selectItem.accept(visitor);
         }
-        return selectStatement.toString();
     }
 
-    public static String replaceFunction(String sql) {
-        Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-        if (!(selectBody instanceof PlainSelect)) {
-            return sql;
-        }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+    public static void replaceFunction(PlainSelect plainSelect) {
         //1. replace where dataDiff function
         Expression where = plainSelect.getWhere();
         FunctionReplaceVisitor visitor = new FunctionReplaceVisitor();
@@ -146,7 +164,6 @@ public class SqlParserUpdateHelper {
         //2. add Waiting Expression
         List<Expression> waitingForAdds = visitor.getWaitingForAdds();
         addWaitingExpression(plainSelect, where, waitingForAdds);
-        return selectStatement.toString();
     }
 
     private static void addWaitingExpression(PlainSelect plainSelect, Expression where,
@@ -174,14 +191,33 @@ public class SqlParserUpdateHelper {
         return selectStatement.toString();
     }
 
+    public static void addFieldsToSelect(PlainSelect plainSelect, List<String> fields) {
+        for (String field : fields) {
+            plainSelect.addSelectItems(new SelectExpressionItem(new Column(field)));
+        }
+    }
+
     public static String addFunctionToSelect(String sql, Expression expression) {
         PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(sql);
         if (Objects.isNull(plainSelect)) {
             return sql;
         }
+        if (!addFunctionToSelect(plainSelect, expression)) {
+            return sql;
+        }
+        return plainSelect.toString();
+    }
+
+    /***
+     * add the function expression to the select items unless it is already selected
+     * @param plainSelect
+     * @param expression
+     * @return false if the select has no items
+     */
+    public static boolean addFunctionToSelect(PlainSelect plainSelect, Expression expression) {
         List<SelectItem> selectItems = plainSelect.getSelectItems();
         if (CollectionUtils.isEmpty(selectItems)) {
-            return sql;
+            return false;
         }
         boolean existFunction = false;
         for (SelectItem selectItem : selectItems) {
@@ -198,7 +234,7 @@ public class SqlParserUpdateHelper {
             SelectExpressionItem sumExpressionItem = new SelectExpressionItem(expression);
             selectItems.add(sumExpressionItem);
         }
-        return plainSelect.toString();
+        return true;
     }
 
     public static String replaceTable(String sql, String tableName) {
@@ -207,11 +243,17 @@ public class SqlParserUpdateHelper {
         }
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
         SelectBody selectBody = selectStatement.getSelectBody();
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceTable((PlainSelect) selectBody, tableName);
+        return selectStatement.toString();
+    }
+
+    public static void replaceTable(PlainSelect plainSelect, String tableName) {
+        if (StringUtils.isEmpty(tableName)) {
+            return;
+        }
         // replace table name
         Table table = (Table) plainSelect.getFromItem();
         table.setName(tableName);
-        return selectStatement.toString();
     }
 
 
@@ -221,16 +263,26 @@ public class SqlParserUpdateHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceAlias((PlainSelect) selectBody);
+        return selectStatement.toString();
+    }
+
+    /***
+     * remove the aliases of the select functions and replace the uses of an alias with its function text
+     * @param plainSelect
+     * @return alias to function text, the replaced columns hold the function as text, so the statement
+     *         should be parsed again from its sql before the functions in them are visited
+     */
+    public static Map<String, String> replaceAlias(PlainSelect plainSelect) {
         FunctionAliasReplaceVisitor visitor = new FunctionAliasReplaceVisitor();
         for (SelectItem selectItem : plainSelect.getSelectItems()) {
             selectItem.accept(visitor);
         }
         Map<String, String> aliasToActualExpression = visitor.getAliasToActualExpression();
         if (Objects.nonNull(aliasToActualExpression) && !aliasToActualExpression.isEmpty()) {
-            return replaceFields(selectStatement.toString(), aliasToActualExpression, true);
+            replaceFields(plainSelect, aliasToActualExpression, true);
         }
-        return selectStatement.toString();
+        return aliasToActualExpression;
     }
 
     public static String addWhere(String sql, String column, Object value) {
@@ -243,23 +295,10 @@ public class SqlParserUpdateHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
-        Expression where = plainSelect.getWhere();
-
-        Expression right = new StringValue(value.toString());
-        if (value instanceof Integer || value instanceof Long) {
-            right = new LongValue(value.toString());
-        }
-
-        if (where == null) {
-            plainSelect.setWhere(new EqualsTo(new Column(column), right));
-        } else {
-            plainSelect.setWhere(new AndExpression(where, new EqualsTo(new Column(column), right)));
-        }
+        addWhere((PlainSelect) selectBody, column, value);
         return selectStatement.toString();
     }
 
-
     public static String addWhere(String sql, Expression expression) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
         SelectBody selectBody = selectStatement.getSelectBody();
@@ -267,7 +306,22 @@ public class SqlParserUpdateHelper {
         if (!(selectBody instanceof PlainSelect)) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        addWhere((PlainSelect) selectBody, expression);
+        return selectStatement.toString();
+    }
+
+    public static void addWhere(PlainSelect plainSelect, String column, Object value) {
+        if (StringUtils.isEmpty(column) || Objects.isNull(value)) {
+            return;
+        }
+        Expression right = new StringValue(value.toString());
+        if (value instanceof Integer || value instanceof Long) {
+            right = new LongValue(value.toString());
+        }
+        addWhere(plainSelect, new EqualsTo(new Column(column), right));
+    }
+
+    public static void addWhere(PlainSelect plainSelect, Expression expression) {
         Expression where = plainSelect.getWhere();
 
         if (where == null) {
@@ -275,8 +329,6 @@ public class SqlParserUpdateHelper {
         } else {
             plainSelect.setWhere(new AndExpression(where, expression));
         }
-        return selectStatement.toString();
     }
 
 }
-
@@ -0,0 +1,20 @@
+package com.tencent.supersonic.common.util;
+
+import com.tencent.supersonic.common.pojo.enums.QueryLaneEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class QueryLaneContextTest {
+
+    @Test
+    void restoreEnclosingLane() {
+        QueryLaneEnum outer = QueryLaneContext.set(QueryLaneEnum.DICTIONARY);
+        QueryLaneEnum inner = QueryLaneContext.set(QueryLaneEnum.STATISTIC);
+        Assertions.assertEquals(QueryLaneEnum.STATISTIC, QueryLaneContext.get());
+
+        QueryLaneContext.restore(inner);
+        Assertions.assertEquals(QueryLaneEnum.DICTIONARY, QueryLaneContext.get());
+        QueryLaneContext.restore(outer);
+        Assertions.assertEquals(QueryLaneEnum.INTERACTIVE, QueryLaneContext.get());
+    }
+}
@@ -0,0 +1,152 @@
+package com.tencent.supersonic.common.util.cache;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import lombok.Data;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CaffeineCacheImplTest {
+
+    @Test
+    void putAndGet() {
+        CaffeineCacheImpl cache = newCache(1 << 20, 1 << 20);
+        Result result = new Result();
+        result.setColumns(Collections.singletonList(new QueryColumn("歌手名", "VARCHAR")));
+        Map<String, Object> row = new HashMap<>();
+        row.put("singer_name", "周杰伦");
+        row.put("play_count", null);
+        result.getResultList().add(row);
+        String key = cache.generateCacheKey("1", "md5");
+
+        Assertions.assertTrue(cache.put(key, result));
+        Object value = cache.get(key);
+
+        Assertions.assertEquals(result, value);
+        Assertions.assertNotSame(value, cache.get(key));
+        Assertions.assertTrue(((Result) value).getResultList().get(0).containsKey("play_count"));
+        Assertions.assertNull(cache.get(cache.generateCacheKey("1", "other")));
+    }
+
+    @Test
+    void tenantQuota() {
+        CaffeineCacheImpl cache = newCache(4096, 4096);
+        Assertions.assertFalse(cache.put(cache.generateCacheKey("1", "huge"), randomResult(8192)));
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String key = cache.generateCacheKey("1", "md5" + i);
+            Assertions.assertTrue(cache.put(key, randomResult(1000)));
+            keys.add(key);
+        }
+        String otherKey = cache.generateCacheKey("2", "md5");
+        cache.put(otherKey, randomResult(1000));
+
+        Assertions.assertTrue(cache.getTenantBytes().get("1") <= 4096);
+        Assertions.assertNull(cache.get(keys.get(0)));
+        Assertions.assertNotNull(cache.get(keys.get(9)));
+        Assertions.assertNotNull(cache.get(otherKey));
+
+        cache.removeCache(keys.get(9));
+        Assertions.assertNull(cache.get(keys.get(9)));
+        Assertions.assertTrue(cache.getTenantBytes().get("1") < 4096);
+    }
+
+    @Test
+    void spillAndPromote(@TempDir Path directory) {
+        DiskCacheStore diskCacheStore = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        CaffeineCacheImpl cache = newCache(4096, 4096, diskCacheStore);
+        String hugeKey = cache.generateCacheKey("1", "huge");
+        Result huge = randomResult(8192);
+        Assertions.assertTrue(cache.put(hugeKey, huge));
+        Assertions.assertEquals(huge, cache.get(hugeKey));
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String key = cache.generateCacheKey("1", "md5" + i);
+            cache.put(key, randomResult(1000 + i));
+            keys.add(key);
+        }
+        Assertions.assertTrue(diskCacheStore.contains(keys.get(0), diskCacheStore.get(keys.get(0)).getCreatedAt()));
+        Assertions.assertEquals(randomResult(1000), cache.get(keys.get(0)));
+
+        cache.spillAll();
+        diskCacheStore.close();
+        DiskCacheStore reopened = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        CaffeineCacheImpl restarted = newCache(4096, 4096, reopened);
+        Assertions.assertEquals(randomResult(1009), restarted.get(keys.get(9)));
+        Assertions.assertEquals(huge, restarted.get(hugeKey));
+
+        restarted.removeCache(keys.get(9));
+        Assertions.assertNull(restarted.get(keys.get(9)));
+        reopened.close();
+    }
+
+    @Test
+    void evictByTag(@TempDir Path directory) {
+        DiskCacheStore diskCacheStore = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        CaffeineCacheImpl cache = newCache(1 << 20, 1 << 20, diskCacheStore);
+        String heapKey = cache.generateCacheKey("1", "heap");
+        String diskKey = cache.generateCacheKey("1", "disk");
+        String otherKey = cache.generateCacheKey("2", "other");
+        Set<String> tags = new HashSet<>(Arrays.asList(CacheTags.model(1L), CacheTags.datasource(10L)));
+        long startAt = System.currentTimeMillis();
+        cache.put(heapKey, randomResult(100), tags, startAt, 60);
+        cache.put(otherKey, randomResult(100), Collections.singleton(CacheTags.model(2L)), startAt, 60);
+        diskCacheStore.put(diskKey, CompressedCacheValue.of(randomResult(100), tags, 60000));
+        Assertions.assertEquals(0, cache.getTagEvictedAt(CacheTags.datasource(10L)));
+
+        cache.evictByTag(CacheTags.datasource(10L));
+
+        Assertions.assertNull(cache.get(heapKey));
+        Assertions.assertNull(cache.get(diskKey));
+        Assertions.assertNotNull(cache.get(otherKey));
+        Assertions.assertTrue(cache.getTagEvictedAt(CacheTags.datasource(10L)) > 0);
+        // computed from the metadata before the eviction, put after it
+        Assertions.assertFalse(cache.put(heapKey, randomResult(100), tags, startAt, 60));
+        Assertions.assertNull(cache.get(heapKey));
+        diskCacheStore.close();
+    }
+
+    private static CaffeineCacheImpl newCache(long tenantMaxBytes, long maxEntryBytes) {
+        return newCache(tenantMaxBytes, maxEntryBytes, DiskCacheStore.disabled());
+    }
+
+    private static CaffeineCacheImpl newCache(long tenantMaxBytes, long maxEntryBytes,
+            DiskCacheStore diskCacheStore) {
+        CacheCommonConfig cacheCommonConfig = new CacheCommonConfig();
+        cacheCommonConfig.setCacheCommonApp("supersonic");
+        cacheCommonConfig.setCacheCommonEnv("test");
+        cacheCommonConfig.setCacheCommonVersion(0);
+        cacheCommonConfig.setCacheCommonExpireAfterWrite(10);
+        return new CaffeineCacheImpl(cacheCommonConfig, diskCacheStore, 16, 1 << 24, maxEntryBytes, tenantMaxBytes);
+    }
+
+    private static Result randomResult(int chars) {
+        StringBuilder value = new StringBuilder();
+        Random random = new Random(chars);
+        for (int i = 0; i < chars; i++) {
+            value.append((char) ('a' + random.nextInt(26)));
+        }
+        Result result = new Result();
+        result.getResultList().add(Collections.singletonMap("value", value.toString()));
+        return result;
+    }
+
+    @Data
+    public static class Result {
+
+        private List<QueryColumn> columns = new ArrayList<>();
+        private List<Map<String, Object>> resultList = new ArrayList<>();
+    }
+}
@@ -0,0 +1,108 @@
+package com.tencent.supersonic.common.util.cache;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiskCacheStoreTest {
+
+    @Test
+    void survivesRestart(@TempDir Path directory) {
+        DiskCacheStore store = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        CompressedCacheValue value = newValue("v", 60000);
+        Assertions.assertTrue(store.put("a", value));
+        Assertions.assertTrue(store.put("b", value));
+        Assertions.assertTrue(store.put("expired", newValue("v", -1)));
+        store.remove("b");
+        Assertions.assertEquals(value.decode(), store.get("a").decode());
+        Assertions.assertNull(store.get("expired"));
+        store.close();
+
+        DiskCacheStore reopened = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        Assertions.assertEquals(1, reopened.size());
+        Assertions.assertTrue(reopened.contains("a", value.getCreatedAt()));
+        Assertions.assertEquals(value.decode(), reopened.get("a").decode());
+        Assertions.assertNull(reopened.get("b"));
+        reopened.close();
+    }
+
+    @Test
+    void truncateCorruptTail(@TempDir Path directory) throws Exception {
+        DiskCacheStore store = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        CompressedCacheValue value = newValue("v", 60000);
+        store.put("a", value);
+        long validBytes = store.getTotalBytes();
+        store.put("b", value);
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("segment-0.dat").toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xff);
+        }
+
+        DiskCacheStore reopened = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        Assertions.assertNotNull(reopened.get("a"));
+        Assertions.assertNull(reopened.get("b"));
+        Assertions.assertEquals(validBytes, reopened.getTotalBytes());
+        Assertions.assertTrue(reopened.put("b", value));
+        Assertions.assertNotNull(reopened.get("b"));
+        reopened.close();
+    }
+
+    @Test
+    void evictOldestSegment(@TempDir Path directory) {
+        DiskCacheStore store = new DiskCacheStore(directory.toString(), 4096, 1024);
+        CompressedCacheValue value = newValue(new String(new char[300]), 60000);
+        for (int i = 0; i < 40; i++) {
+            Assertions.assertTrue(store.put("key" + i, value));
+        }
+        Assertions.assertTrue(store.getTotalBytes() <= 4096);
+        Assertions.assertNull(store.get("key0"));
+        Assertions.assertNotNull(store.get("key39"));
+        Assertions.assertFalse(DiskCacheStore.disabled().put("key", value));
+        store.close();
+    }
+
+    @Test
+    void removeByTag(@TempDir Path directory) {
+        DiskCacheStore store = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        Set<String> tags = new HashSet<>(Arrays.asList(CacheTags.model(1L), CacheTags.datasource(2L)));
+        store.put("a", CompressedCacheValue.of(Collections.singletonMap("k", "a"), tags, 60000));
+        store.put("b", CompressedCacheValue.of(Collections.singletonMap("k", "b"),
+                Collections.singleton(CacheTags.model(3L)), 60000));
+        Assertions.assertEquals(tags, store.get("a").getTags());
+        store.close();
+
+        DiskCacheStore reopened = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        Assertions.assertEquals(tags, reopened.get("a").getTags());
+        Assertions.assertEquals(1, reopened.removeByTag(CacheTags.datasource(2L)));
+        Assertions.assertNull(reopened.get("a"));
+        Assertions.assertNotNull(reopened.get("b"));
+        reopened.close();
+    }
+
+    @Test
+    void lockDirectory(@TempDir Path directory) {
+        DiskCacheStore store = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        store.put("a", newValue("v", 60000));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16));
+        Assertions.assertNotNull(store.get("a"));
+        store.close();
+
+        DiskCacheStore reopened = new DiskCacheStore(directory.toString(), 1 << 20, 1 << 16);
+        Assertions.assertNotNull(reopened.get("a"));
+        reopened.close();
+    }
+
+    private static CompressedCacheValue newValue(String value, long expireMillis) {
+        return CompressedCacheValue.of(Collections.singletonMap("k", value), Collections.emptySet(), expireMillis);
+    }
+}
@@ -0,0 +1,140 @@
+package com.tencent.supersonic.common.util.cache;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.common.util.QueryCancelContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    @Test
+    void collapse() throws Exception {
+        SingleFlight<Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> leader = executorService.submit(() -> singleFlight.execute("key", () -> {
+                running.countDown();
+                finish.await(5, TimeUnit.SECONDS);
+                return calls.incrementAndGet();
+            }));
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executorService.submit(() -> singleFlight.execute("key", calls::incrementAndGet)));
+            }
+            // let the followers reach the running call before it finishes
+            Thread.sleep(200);
+            finish.countDown();
+
+            Assertions.assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> follower : followers) {
+                Assertions.assertEquals(1, follower.get(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, calls.get());
+            Assertions.assertEquals(0, singleFlight.size());
+            Assertions.assertEquals(2, singleFlight.execute("key", calls::incrementAndGet));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void copyPerCaller() throws Exception {
+        SingleFlight<QueryColumn> singleFlight = new SingleFlight<>();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<QueryColumn> leader = executorService.submit(() -> singleFlight.execute("key", () -> {
+                running.countDown();
+                finish.await(5, TimeUnit.SECONDS);
+                return new QueryColumn("pv", "BIGINT");
+            }));
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+            Future<QueryColumn> follower = executorService.submit(() -> singleFlight.execute("key", () -> {
+                throw new IllegalStateException("collapsed callers do not run the call");
+            }));
+            Thread.sleep(200);
+            finish.countDown();
+
+            QueryColumn leaderColumn = leader.get(5, TimeUnit.SECONDS);
+            QueryColumn followerColumn = follower.get(5, TimeUnit.SECONDS);
+            Assertions.assertNotSame(leaderColumn, followerColumn);
+            Assertions.assertEquals(leaderColumn, followerColumn);
+            // a caller changing its result, as the permission aspect does, leaves the others untouched
+            followerColumn.setAuthorized(false);
+            Assertions.assertTrue(leaderColumn.getAuthorized());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancelWhenAllGiveUp() throws Exception {
+        SingleFlight<Integer> singleFlight = new SingleFlight<>();
+        QueryCancelContext.Token leaderToken = new QueryCancelContext.Token();
+        QueryCancelContext.Token followerToken = new QueryCancelContext.Token();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> leader = executorService.submit(() -> runWith(leaderToken,
+                    () -> singleFlight.execute("key", () -> {
+                        QueryCancelContext.get().register(cancelled::countDown);
+                        running.countDown();
+                        cancelled.await(5, TimeUnit.SECONDS);
+                        return 1;
+                    })));
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+            Future<Integer> follower = executorService.submit(() -> runWith(followerToken,
+                    () -> singleFlight.execute("key", () -> 2)));
+            Thread.sleep(200);
+
+            // the follower still waits, so the leader giving up does not cancel the call
+            leaderToken.cancel();
+            Assertions.assertFalse(cancelled.await(200, TimeUnit.MILLISECONDS));
+            Assertions.assertFalse(follower.isDone());
+
+            followerToken.cancel();
+            Assertions.assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+            ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                    () -> follower.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("query cancelled", exception.getCause().getMessage());
+            Assertions.assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(0, singleFlight.size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void failure() {
+        SingleFlight<Integer> singleFlight = new SingleFlight<>();
+        Assertions.assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("warehouse down");
+        }));
+        Assertions.assertEquals(0, singleFlight.size());
+    }
+
+    private static Integer runWith(QueryCancelContext.Token token, Callable<Integer> call) throws Exception {
+        QueryCancelContext.Token previous = QueryCancelContext.set(token);
+        try {
+            return call.call();
+        } finally {
+            QueryCancelContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.tencent.supersonic.common.util.jsqlparser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ParsedSql Test
+ */
+class ParsedSqlTest {
+
+    @Test
+    void getSql() {
+        String sql = "select 歌曲名 from 歌曲库 where 歌手名 = '周杰伦'";
+        ParsedSql parsedSql = new ParsedSql(sql);
+
+        Assert.assertSame(sql, parsedSql.getSql());
+
+        parsedSql.update(plainSelect -> SqlParserUpdateHelper.addWhere(plainSelect, "数据日期", "2023-08-08"));
+        Assert.assertEquals("SELECT 歌曲名 FROM 歌曲库 WHERE 歌手名 = '周杰伦' AND 数据日期 = '2023-08-08'",
+                parsedSql.getSql());
+
+        ParsedSql unparsed = new ParsedSql("not a sql");
+        unparsed.update(plainSelect -> SqlParserUpdateHelper.replaceTable(plainSelect, "t_1"));
+        Assert.assertEquals("not a sql", unparsed.getSql());
+        Assert.assertTrue(unparsed.getAllFields().isEmpty());
+    }
+
+    @Test
+    void updateFields() {
+        ParsedSql parsedSql = new ParsedSql("select 歌曲名 from 歌曲库 where 歌手名 = '周杰伦' order by 播放量 desc");
+
+        Assert.assertEquals(Collections.singletonList("歌手名"), parsedSql.getWhereFields());
+        Assert.assertFalse(parsedSql.hasAggregateFunction());
+
+        Map<String, String> fieldToBizName = new HashMap<>();
+        fieldToBizName.put("歌曲名", "song_name");
+        fieldToBizName.put("歌手名", "singer_name");
+        fieldToBizName.put("播放量", "play_count");
+        parsedSql.update(plainSelect -> SqlParserUpdateHelper.replaceFields(plainSelect, fieldToBizName, true));
+
+        Assert.assertEquals(Collections.singletonList("singer_name"), parsedSql.getWhereFields());
+        Assert.assertEquals(Collections.singletonList("play_count"), parsedSql.getOrderByFields());
+        Assert.assertEquals(SqlParserUpdateHelper.replaceFields("select 歌曲名 from 歌曲库 where 歌手名 = '周杰伦' "
+                + "order by 播放量 desc", fieldToBizName, true), parsedSql.getSql());
+    }
+}
@@ -330,6 +330,27 @@ CREATE TABLE `s2_query_stat_info` (
                                       KEY `domain_index` (`model_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='查询统计信息表';
 
+CREATE TABLE IF NOT EXISTS `s2_materialization` (
+    `id` bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+    `model_id` bigint(20) NOT NULL COMMENT '模型ID',
+    `name` varchar(255) NOT NULL COMMENT '名称',
+    `destination` varchar(255) NOT NULL COMMENT '预聚合表, 位于模型所在数据库',
+    `destination_type` varchar(50) DEFAULT NULL COMMENT '预聚合表类型',
+    `depends` varchar(1000) DEFAULT NULL COMMENT '依赖的数据源',
+    `metrics` varchar(2000) NOT NULL COMMENT '包含的指标',
+    `dimensions` varchar(2000) NOT NULL COMMENT '包含的维度',
+    `date_period` varchar(50) NOT NULL COMMENT '日期粒度, DAY, WEEK, MONTH',
+    `start_date` varchar(64) DEFAULT NULL COMMENT '数据开始日期',
+    `end_date` varchar(64) DEFAULT NULL COMMENT '数据结束日期',
+    `row_count` bigint(20) DEFAULT NULL COMMENT '行数',
+    `created_at` datetime NOT NULL COMMENT '创建时间',
+    `created_by` varchar(100) NOT NULL COMMENT '创建人',
+    `updated_at` datetime NOT NULL COMMENT '更新时间',
+    `updated_by` varchar(100) NOT NULL COMMENT '更新人',
+    PRIMARY KEY (`id`),
+    KEY `model_index` (`model_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='预聚合表信息表';
+
 CREATE TABLE `s2_semantic_pasre_info` (
                                           `id` bigint(20) unsigned NOT NULL AUTO_INCREMENT,
                                           `trace_id` varchar(200) NOT NULL COMMENT '查询标识',
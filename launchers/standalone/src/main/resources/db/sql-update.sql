@@ -54,4 +54,26 @@ ALTER TABLE s2_model add alias varchar(200) default null after domain_id;
 alter table s2_metric add tags varchar(500) null;
 
 --20230920
-alter table s2_user add is_admin int null;
\ No newline at end of file
+alter table s2_user add is_admin int null;
+
+--20231018
+CREATE TABLE IF NOT EXISTS `s2_materialization` (
+    `id` bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+    `model_id` bigint(20) NOT NULL COMMENT '模型ID',
+    `name` varchar(255) NOT NULL COMMENT '名称',
+    `destination` varchar(255) NOT NULL COMMENT '预聚合表, 位于模型所在数据库',
+    `destination_type` varchar(50) DEFAULT NULL COMMENT '预聚合表类型',
+    `depends` varchar(1000) DEFAULT NULL COMMENT '依赖的数据源',
+    `metrics` varchar(2000) NOT NULL COMMENT '包含的指标',
+    `dimensions` varchar(2000) NOT NULL COMMENT '包含的维度',
+    `date_period` varchar(50) NOT NULL COMMENT '日期粒度, DAY, WEEK, MONTH',
+    `start_date` varchar(64) DEFAULT NULL COMMENT '数据开始日期',
+    `end_date` varchar(64) DEFAULT NULL COMMENT '数据结束日期',
+    `row_count` bigint(20) DEFAULT NULL COMMENT '行数',
+    `created_at` datetime NOT NULL COMMENT '创建时间',
+    `created_by` varchar(100) NOT NULL COMMENT '创建人',
+    `updated_at` datetime NOT NULL COMMENT '更新时间',
+    `updated_by` varchar(100) NOT NULL COMMENT '更新人',
+    PRIMARY KEY (`id`),
+    KEY `model_index` (`model_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='预聚合表信息表';
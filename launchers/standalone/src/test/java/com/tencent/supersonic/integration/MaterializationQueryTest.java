@@ -0,0 +1,111 @@
+package com.tencent.supersonic.integration;
+
+import com.tencent.supersonic.StandaloneLauncher;
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.api.query.pojo.Cache;
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.query.service.MaterializationService;
+import com.tencent.supersonic.semantic.query.service.QueryService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StandaloneLauncher.class)
+@ActiveProfiles("local")
+public class MaterializationQueryTest {
+
+    private static final String DESTINATION = "s2_pv_uv_statis_daily";
+
+    @Autowired
+    private QueryService queryService;
+    @Autowired
+    private MaterializationService materializationService;
+
+    private Materialization materialization;
+
+    @After
+    public void tearDown() {
+        if (materialization != null) {
+            materializationService.delete(materialization.getId());
+        }
+    }
+
+    @Test
+    public void queryTest_materialization_covered() throws Exception {
+        Map<String, BigDecimal> expected = toPagePv(queryService.queryByStruct(getPvByPage(), User.getFakeUser()));
+
+        materialization = materializationService.createOrUpdate(getMaterialization(), User.getFakeUser());
+        QueryResultWithSchemaResp result = queryService.queryByStruct(getPvByPage(), User.getFakeUser());
+
+        Assert.assertTrue(result.getSql().contains(DESTINATION));
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, toPagePv(result));
+    }
+
+    @Test
+    public void queryTest_materialization_not_covered() throws Exception {
+        materialization = materializationService.createOrUpdate(getMaterialization(), User.getFakeUser());
+
+        QueryStructReq byUser = getPvByPage();
+        byUser.setGroups(Arrays.asList("page", "user_name"));
+        Assert.assertFalse(queryService.queryByStruct(byUser, User.getFakeUser()).getSql().contains(DESTINATION));
+
+        QueryStructReq uv = getPvByPage();
+        uv.setAggregators(Collections.singletonList(new Aggregator("uv", AggOperatorEnum.SUM)));
+        Assert.assertFalse(queryService.queryByStruct(uv, User.getFakeUser()).getSql().contains(DESTINATION));
+    }
+
+    private Materialization getMaterialization() {
+        Materialization materialization = new Materialization();
+        materialization.setModelId(1L);
+        materialization.setName("pv_by_page_daily");
+        materialization.setDestination(DESTINATION);
+        materialization.setDepends(Collections.singletonList("s2_pv_uv_statis"));
+        materialization.setMetrics(Collections.singletonList("pv"));
+        materialization.setDimensions(Collections.singletonList("page"));
+        materialization.setPeriod("DAY");
+        return materialization;
+    }
+
+    private QueryStructReq getPvByPage() {
+        QueryStructReq queryStructReq = new QueryStructReq();
+        queryStructReq.setModelId(1L);
+        queryStructReq.setGroups(Collections.singletonList("page"));
+        queryStructReq.setAggregators(Collections.singletonList(new Aggregator("pv", AggOperatorEnum.SUM)));
+        DateConf dateConf = new DateConf();
+        dateConf.setDateMode(DateConf.DateMode.BETWEEN);
+        dateConf.setStartDate(LocalDate.now().minusDays(7).toString());
+        dateConf.setEndDate(LocalDate.now().minusDays(1).toString());
+        queryStructReq.setDateInfo(dateConf);
+        Cache cache = new Cache();
+        cache.setCache(false);
+        queryStructReq.setCacheInfo(cache);
+        return queryStructReq;
+    }
+
+    private Map<String, BigDecimal> toPagePv(QueryResultWithSchemaResp result) {
+        Map<String, BigDecimal> pagePv = new TreeMap<>();
+        for (Map<String, Object> row : result.getResultList()) {
+            BigDecimal pv = new BigDecimal(String.valueOf(row.get("pv")));
+            pagePv.put(String.valueOf(row.get("page")), pv.stripTrailingZeros());
+        }
+        return pagePv;
+    }
+}
@@ -321,6 +321,27 @@ CREATE TABLE IF NOT EXISTS `s2_semantic_pasre_info` (
     );
 COMMENT ON TABLE s2_semantic_pasre_info IS 'semantic layer sql parsing information table';
 
+CREATE TABLE IF NOT EXISTS `s2_materialization` (
+    `id` INT NOT NULL AUTO_INCREMENT,
+    `model_id` INT NOT NULL ,
+    `name` varchar(255) NOT NULL ,
+    `destination` varchar(255) NOT NULL , -- pre-aggregated table in the database of the model
+    `destination_type` varchar(50) DEFAULT NULL ,
+    `depends` varchar(1000) DEFAULT NULL , -- datasources the table is built from
+    `metrics` varchar(2000) NOT NULL ,
+    `dimensions` varchar(2000) NOT NULL ,
+    `date_period` varchar(50) NOT NULL , -- DAY, WEEK or MONTH
+    `start_date` varchar(64) DEFAULT NULL ,
+    `end_date` varchar(64) DEFAULT NULL ,
+    `row_count` bigINT DEFAULT NULL ,
+    `created_at` TIMESTAMP NOT NULL ,
+    `created_by` varchar(100) NOT NULL ,
+    `updated_at` TIMESTAMP NOT NULL ,
+    `updated_by` varchar(100) NOT NULL ,
+    PRIMARY KEY (`id`)
+    );
+COMMENT ON TABLE s2_materialization IS 'materialization information table';
+
 
 CREATE TABLE IF NOT EXISTS `s2_available_date_info` (
                                                         `id` INT NOT NULL  AUTO_INCREMENT ,
@@ -374,6 +395,13 @@ CREATE TABLE IF NOT EXISTS `s2_pv_uv_statis` (
     );
 COMMENT ON TABLE s2_pv_uv_statis IS 's2_pv_uv_statis';
 
+CREATE TABLE IF NOT EXISTS `s2_pv_uv_statis_daily` (
+    `sys_imp_date` varchar(200) NOT NULL,
+    `page` varchar(200) NOT NULL,
+    `pv` INT NOT NULL
+    );
+COMMENT ON TABLE s2_pv_uv_statis_daily IS 's2_pv_uv_statis pre-aggregated by day and page';
+
 CREATE TABLE IF NOT EXISTS `s2_stay_time_statis` (
     `imp_date` varchar(200) NOT NULL,
     `user_name` varchar(200) NOT NULL,
@@ -32,6 +32,8 @@ public class DatabaseReq {
 
     private String url;
 
+    private Integer maxActive;
+
     private List<String> admins = Lists.newArrayList();
 
     private List<String> viewers = Lists.newArrayList();
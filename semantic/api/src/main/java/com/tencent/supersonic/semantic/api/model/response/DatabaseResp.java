@@ -39,6 +39,8 @@ public class DatabaseResp extends RecordInfo {
 
     private String version;
 
+    private Integer maxActive;
+
     private boolean hasPermission = false;
 
     private boolean hasUsePermission = false;
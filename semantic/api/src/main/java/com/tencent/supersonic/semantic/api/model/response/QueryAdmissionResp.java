@@ -0,0 +1,25 @@
+package com.tencent.supersonic.semantic.api.model.response;
+
+import lombok.Data;
+
+@Data
+public class QueryAdmissionResp {
+
+    private String database;
+
+    private String lane;
+
+    private int maxRunning;
+
+    private int running;
+
+    private int waiting;
+
+    private long admitted;
+
+    private long rejected;
+
+    private long avgWaitMs;
+
+    private long maxWaitMs;
+}
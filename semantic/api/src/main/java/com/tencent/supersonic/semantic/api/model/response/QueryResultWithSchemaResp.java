@@ -17,4 +17,6 @@ public class QueryResultWithSchemaResp extends QueryResult<Map<String, Object>>
     List<QueryColumn> columns;
     String sql;
     QueryAuthorization queryAuthorization;
+    // rows were dropped because the result reached the row or byte budget
+    boolean truncated;
 }
@@ -1,16 +1,39 @@
 package com.tencent.supersonic.semantic.api.query.pojo;
 
+import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
 
+/**
+ * A pre-aggregated table of a model. It is grouped by the dimensions and the date column of its period,
+ * sys_imp_date, sys_imp_week or sys_imp_month, and holds each metric under the metric biz name.
+ */
 @Data
 public class Materialization {
 
+    private Long id;
+    private Long modelId;
     private String name;
+    /**
+     * the table, in the database of the model
+     */
     private String destination;
     private String destinationType;
-    private List<String> depends;
-    private List<String> metrics;
-    private List<String> dimensions;
+    private List<String> depends = new ArrayList<>();
+    private List<String> metrics = new ArrayList<>();
+    private List<String> dimensions = new ArrayList<>();
+    /**
+     * DAY, WEEK or MONTH
+     */
+    private String period;
+    /**
+     * the first and last date the table holds, empty when it is open on that side
+     */
+    private String startDate;
+    private String endDate;
+    /**
+     * used to pick the smallest table when several cover a query
+     */
+    private Long rowCount;
 
 }
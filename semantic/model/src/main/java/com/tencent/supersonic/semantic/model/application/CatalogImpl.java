@@ -17,6 +17,7 @@ import com.tencent.supersonic.semantic.model.domain.DatasourceService;
 import com.tencent.supersonic.semantic.model.domain.DimensionService;
 import com.tencent.supersonic.semantic.model.domain.MetricService;
 import com.tencent.supersonic.semantic.model.domain.ModelService;
+import com.tencent.supersonic.semantic.model.domain.manager.MetaSnapshotManager;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,16 +36,18 @@ public class CatalogImpl implements Catalog {
     private final DimensionService dimensionService;
     private final DatasourceService datasourceService;
     private final MetricService metricService;
+    private final MetaSnapshotManager metaSnapshotManager;
 
     public CatalogImpl(DatabaseService databaseService,
             ModelService modelService, DimensionService dimensionService,
             DatasourceService datasourceService,
-            MetricService metricService) {
+            MetricService metricService, MetaSnapshotManager metaSnapshotManager) {
         this.databaseService = databaseService;
         this.modelService = modelService;
         this.dimensionService = dimensionService;
         this.datasourceService = datasourceService;
         this.metricService = metricService;
+        this.metaSnapshotManager = metaSnapshotManager;
     }
 
     public DatabaseResp getDatabase(Long id) {
@@ -122,4 +125,9 @@ public class CatalogImpl implements Catalog {
         }
         return "";
     }
+
+    @Override
+    public String getModelDigest(Long modelId) {
+        return metaSnapshotManager.getSnapshot().getModelDigest(modelId);
+    }
 }
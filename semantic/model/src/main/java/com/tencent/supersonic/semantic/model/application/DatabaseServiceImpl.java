@@ -4,11 +4,14 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.semantic.api.model.request.DatabaseReq;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
+import com.tencent.supersonic.semantic.api.model.response.QueryAdmissionResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.DatasourceService;
 import com.tencent.supersonic.semantic.model.domain.adaptor.engineadapter.EngineAdaptor;
 import com.tencent.supersonic.semantic.model.domain.adaptor.engineadapter.EngineAdaptorFactory;
 import com.tencent.supersonic.semantic.model.domain.dataobject.DatabaseDO;
+import com.tencent.supersonic.semantic.model.domain.manager.MetaSnapshotManager;
+import com.tencent.supersonic.semantic.model.domain.manager.QueryAdmissionManager;
 import com.tencent.supersonic.semantic.model.domain.repository.DatabaseRepository;
 import com.tencent.supersonic.semantic.model.domain.utils.DatabaseConverter;
 import com.tencent.supersonic.semantic.model.domain.utils.JdbcDataSourceUtils;
@@ -16,6 +19,7 @@ import com.tencent.supersonic.semantic.model.domain.utils.SqlUtils;
 import com.tencent.supersonic.semantic.model.domain.DatabaseService;
 import com.tencent.supersonic.semantic.model.domain.pojo.Database;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
@@ -30,13 +34,19 @@ public class DatabaseServiceImpl implements DatabaseService {
     private final SqlUtils sqlUtils;
     private DatabaseRepository databaseRepository;
     private DatasourceService datasourceService;
+    private QueryAdmissionManager queryAdmissionManager;
+    private MetaSnapshotManager metaSnapshotManager;
 
     public DatabaseServiceImpl(DatabaseRepository databaseRepository,
                                SqlUtils sqlUtils,
-                               @Lazy DatasourceService datasourceService) {
+                               @Lazy DatasourceService datasourceService,
+                               QueryAdmissionManager queryAdmissionManager,
+                               MetaSnapshotManager metaSnapshotManager) {
         this.databaseRepository = databaseRepository;
         this.sqlUtils = sqlUtils;
         this.datasourceService = datasourceService;
+        this.queryAdmissionManager = queryAdmissionManager;
+        this.metaSnapshotManager = metaSnapshotManager;
     }
 
     @Override
@@ -50,12 +60,19 @@ public class DatabaseServiceImpl implements DatabaseService {
         Database database = DatabaseConverter.convert(databaseReq, user);
         DatabaseDO databaseDO = getDatabaseDO(databaseReq.getId());
         if (databaseDO != null) {
+            DatabaseResp oldDatabaseResp = DatabaseConverter.convert(databaseDO);
             DatabaseConverter.convert(database, databaseDO);
             databaseRepository.updateDatabase(databaseDO);
-            return DatabaseConverter.convert(databaseDO);
+            metaSnapshotManager.bumpVersion();
+            DatabaseResp databaseResp = DatabaseConverter.convert(databaseDO);
+            if (isConnectionChanged(oldDatabaseResp, databaseResp)) {
+                releaseDataSource(oldDatabaseResp);
+            }
+            return databaseResp;
         }
         databaseDO = DatabaseConverter.convert(database);
         databaseRepository.createDatabase(databaseDO);
+        metaSnapshotManager.bumpVersion();
         return DatabaseConverter.convert(databaseDO);
     }
 
@@ -93,12 +110,39 @@ public class DatabaseServiceImpl implements DatabaseService {
             String message = String.format("该数据库被数据源%s使用，无法删除", datasourceNames);
             throw new RuntimeException(message);
         }
+        DatabaseDO databaseDO = getDatabaseDO(databaseId);
         databaseRepository.deleteDatabase(databaseId);
+        metaSnapshotManager.bumpVersion();
+        if (databaseDO != null) {
+            releaseDataSource(DatabaseConverter.convert(databaseDO));
+        }
+    }
+
+    private boolean isConnectionChanged(DatabaseResp oldDatabaseResp, DatabaseResp databaseResp) {
+        return !Objects.equals(oldDatabaseResp.getName(), databaseResp.getName())
+                || !Objects.equals(oldDatabaseResp.getUrl(), databaseResp.getUrl())
+                || !Objects.equals(oldDatabaseResp.getUsername(), databaseResp.getUsername())
+                || !Objects.equals(oldDatabaseResp.getPassword(), databaseResp.getPassword())
+                || !Objects.equals(oldDatabaseResp.getMaxActive(), databaseResp.getMaxActive());
+    }
+
+    private void releaseDataSource(DatabaseResp databaseResp) {
+        try {
+            SqlUtils databaseSqlUtils = sqlUtils.init(databaseResp);
+            databaseSqlUtils.releaseDataSource();
+            // limiters are keyed like the pools, a renamed or deleted database would keep its limiter forever
+            queryAdmissionManager.remove(databaseSqlUtils.getDatabaseResp());
+        } catch (Exception e) {
+            log.warn("release datasource of database:{} error", databaseResp.getId(), e);
+        }
     }
 
     @Override
     public DatabaseResp getDatabase(Long id) {
-        DatabaseDO databaseDO = databaseRepository.getDatabase(id);
+        DatabaseDO databaseDO = metaSnapshotManager.getSnapshot().getDatabase(id);
+        if (databaseDO == null) {
+            return null;
+        }
         return DatabaseConverter.convert(databaseDO);
     }
 
@@ -166,4 +210,9 @@ public class DatabaseServiceImpl implements DatabaseService {
         return queryWithColumns(metaQuerySql, databaseResp);
     }
 
+    @Override
+    public List<QueryAdmissionResp> getAdmissionStats() {
+        return queryAdmissionManager.getStats();
+    }
+
 }
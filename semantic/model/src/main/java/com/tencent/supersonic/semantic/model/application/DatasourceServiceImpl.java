@@ -3,7 +3,9 @@ package com.tencent.supersonic.semantic.model.application;
 import com.alibaba.fastjson.JSONObject;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.common.util.cache.CacheTags;
 import com.tencent.supersonic.semantic.api.model.pojo.DatasourceDetail;
 import com.tencent.supersonic.semantic.api.model.pojo.Dim;
 import com.tencent.supersonic.semantic.api.model.pojo.Identify;
@@ -35,6 +37,7 @@ import com.tencent.supersonic.semantic.model.domain.manager.DatasourceYamlManage
 import com.tencent.supersonic.semantic.model.domain.manager.DimensionYamlManager;
 import com.tencent.supersonic.semantic.model.domain.manager.MetricYamlManager;
 import com.tencent.supersonic.semantic.model.domain.pojo.Datasource;
+import com.tencent.supersonic.semantic.model.domain.manager.MetaSnapshotManager;
 import com.tencent.supersonic.semantic.model.domain.repository.DatasourceRepository;
 import com.tencent.supersonic.semantic.model.domain.repository.DateInfoRepository;
 import com.tencent.supersonic.semantic.model.domain.utils.DatasourceConverter;
@@ -51,6 +54,7 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -70,17 +74,24 @@ public class DatasourceServiceImpl implements DatasourceService {
 
     private DateInfoRepository dateInfoRepository;
 
+    private MetaSnapshotManager metaSnapshotManager;
+
+    private ApplicationEventPublisher applicationEventPublisher;
 
     public DatasourceServiceImpl(DatasourceRepository datasourceRepository,
             DatabaseService databaseService,
             @Lazy DimensionService dimensionService,
             @Lazy MetricService metricService,
-            DateInfoRepository dateInfoRepository) {
+            DateInfoRepository dateInfoRepository,
+            MetaSnapshotManager metaSnapshotManager,
+            ApplicationEventPublisher applicationEventPublisher) {
         this.datasourceRepository = datasourceRepository;
         this.databaseService = databaseService;
         this.dimensionService = dimensionService;
         this.metricService = metricService;
         this.dateInfoRepository = dateInfoRepository;
+        this.metaSnapshotManager = metaSnapshotManager;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     @Override
@@ -119,6 +130,9 @@ public class DatasourceServiceImpl implements DatasourceService {
         DatasourceDO datasourceDO = datasourceRepository.getDatasourceById(datasource.getId());
         datasource.updatedBy(user.getName());
         datasourceRepository.updateDatasource(DatasourceConverter.convert(datasourceDO, datasource));
+        metaSnapshotManager.bumpVersion();
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, datasourceDO.getModelId(),
+                CacheTags.datasource(datasourceDO.getId())));
         return datasourceDO;
     }
 
@@ -170,6 +184,7 @@ public class DatasourceServiceImpl implements DatasourceService {
         DatasourceDO datasourceDO = DatasourceConverter.convert(datasource, user);
         log.info("[save datasource] datasourceDO:{}", JSONObject.toJSONString(datasourceDO));
         datasourceRepository.createDatasource(datasourceDO);
+        metaSnapshotManager.bumpVersion();
         datasource.setId(datasourceDO.getId());
     }
 
@@ -192,12 +207,12 @@ public class DatasourceServiceImpl implements DatasourceService {
 
     @Override
     public List<DatasourceResp> getDatasourceList(Long modelId) {
-        return DatasourceConverter.convertList(datasourceRepository.getDatasourceList(modelId));
+        return DatasourceConverter.convertList(metaSnapshotManager.getSnapshot().getDatasources(modelId));
     }
 
     @Override
     public List<DatasourceResp> getDatasourceList() {
-        return DatasourceConverter.convertList(datasourceRepository.getDatasourceList());
+        return DatasourceConverter.convertList(metaSnapshotManager.getSnapshot().getDatasources());
     }
 
     @Override
@@ -245,6 +260,9 @@ public class DatasourceServiceImpl implements DatasourceService {
         }
         checkDelete(datasourceDO.getModelId(), id);
         datasourceRepository.deleteDatasource(id);
+        metaSnapshotManager.bumpVersion();
+        applicationEventPublisher.publishEvent(
+                new MetaChangeEvent(this, datasourceDO.getModelId(), CacheTags.datasource(id)));
     }
 
     private void checkDelete(Long modelId, Long datasourceId) {
@@ -10,8 +10,10 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.common.pojo.DataAddEvent;
 import com.tencent.supersonic.common.pojo.DataDeleteEvent;
 import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.common.util.ChatGptHelper;
+import com.tencent.supersonic.common.util.cache.CacheTags;
 import com.tencent.supersonic.semantic.api.model.pojo.DatasourceDetail;
 import com.tencent.supersonic.semantic.api.model.pojo.DimValueMap;
 import com.tencent.supersonic.semantic.api.model.request.DimensionReq;
@@ -24,6 +26,8 @@ import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaR
 import com.tencent.supersonic.semantic.model.domain.DatabaseService;
 import com.tencent.supersonic.semantic.model.domain.ModelService;
 import com.tencent.supersonic.semantic.model.domain.dataobject.DimensionDO;
+import com.tencent.supersonic.semantic.model.domain.manager.MetaSnapshotManager;
+import com.tencent.supersonic.semantic.model.domain.pojo.MetaSnapshot;
 import com.tencent.supersonic.semantic.model.domain.repository.DimensionRepository;
 import com.tencent.supersonic.semantic.model.domain.utils.DimensionConverter;
 import com.tencent.supersonic.semantic.model.domain.DatasourceService;
@@ -35,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -60,6 +65,8 @@ public class DimensionServiceImpl implements DimensionService {
 
     private DatabaseService databaseService;
 
+    private MetaSnapshotManager metaSnapshotManager;
+
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
 
@@ -68,13 +75,14 @@ public class DimensionServiceImpl implements DimensionService {
                                 ModelService modelService,
                                 DatasourceService datasourceService,
                                 ChatGptHelper chatGptHelper,
-                                DatabaseService databaseService) {
+                                DatabaseService databaseService,
+                                MetaSnapshotManager metaSnapshotManager) {
         this.modelService = modelService;
         this.dimensionRepository = dimensionRepository;
         this.datasourceService = datasourceService;
         this.chatGptHelper = chatGptHelper;
         this.databaseService = databaseService;
-
+        this.metaSnapshotManager = metaSnapshotManager;
     }
 
     @Override
@@ -135,6 +143,8 @@ public class DimensionServiceImpl implements DimensionService {
     protected void updateDimension(Dimension dimension) {
         DimensionDO dimensionDO = dimensionRepository.getDimensionById(dimension.getId());
         dimensionRepository.updateDimension(DimensionConverter.convert(dimensionDO, dimension));
+        metaSnapshotManager.bumpVersion();
+        evictResultCache(dimensionDO);
     }
 
 
@@ -195,6 +205,14 @@ public class DimensionServiceImpl implements DimensionService {
         return convertList(getDimensionDOS(), datasourceService.getDatasourceMap());
     }
 
+    @Override
+    public List<DimensionResp> getDimensionsByModelIds(List<Long> modelIds) {
+        MetaSnapshot snapshot = metaSnapshotManager.getSnapshot();
+        List<DimensionDO> dimensionDOS = new ArrayList<>();
+        new LinkedHashSet<>(modelIds).forEach(modelId -> dimensionDOS.addAll(snapshot.getDimensions(modelId)));
+        return convertList(dimensionDOS, datasourceService.getDatasourceMap());
+    }
+
     @Override
     public List<DimensionResp> getDimensionsByDatasource(Long datasourceId) {
         List<DimensionResp> dimensionResps = Lists.newArrayList();
@@ -235,18 +253,18 @@ public class DimensionServiceImpl implements DimensionService {
 
 
     protected List<DimensionDO> getDimensionDOS(Long modelId) {
-        return dimensionRepository.getDimensionListOfDomain(modelId);
+        return metaSnapshotManager.getSnapshot().getDimensions(modelId);
     }
 
     protected List<DimensionDO> getDimensionDOS() {
-        return dimensionRepository.getDimensionList();
+        return metaSnapshotManager.getSnapshot().getDimensions();
     }
 
 
     @Override
     public List<DimensionResp> getAllHighSensitiveDimension() {
         List<DimensionResp> dimensionResps = Lists.newArrayList();
-        List<DimensionDO> dimensionDOS = dimensionRepository.getAllDimensionList();
+        List<DimensionDO> dimensionDOS = metaSnapshotManager.getSnapshot().getDimensions();
         if (CollectionUtils.isEmpty(dimensionDOS)) {
             return dimensionResps;
         }
@@ -260,6 +278,7 @@ public class DimensionServiceImpl implements DimensionService {
         DimensionDO dimensionDO = DimensionConverter.convert2DimensionDO(dimension);
         log.info("[save dimension] dimensionDO:{}", JSONObject.toJSONString(dimensionDO));
         dimensionRepository.createDimension(dimensionDO);
+        metaSnapshotManager.bumpVersion();
         dimension.setId(dimensionDO.getId());
     }
 
@@ -273,6 +292,7 @@ public class DimensionServiceImpl implements DimensionService {
                 .map(DimensionConverter::convert2DimensionDO).collect(Collectors.toList());
         log.info("[save dimension] dimensionDO:{}", JSONObject.toJSONString(dimensionDOS));
         dimensionRepository.createDimensionBatch(dimensionDOS);
+        metaSnapshotManager.bumpVersion();
     }
 
 
@@ -283,6 +303,8 @@ public class DimensionServiceImpl implements DimensionService {
             throw new RuntimeException(String.format("the dimension %s not exist", id));
         }
         dimensionRepository.deleteDimension(id);
+        metaSnapshotManager.bumpVersion();
+        evictResultCache(dimensionDO);
         //动态更新字典
         String type = DictWordType.DIMENSION.getType();
         applicationEventPublisher.publishEvent(
@@ -352,6 +374,12 @@ public class DimensionServiceImpl implements DimensionService {
     }
 
 
+    private void evictResultCache(DimensionDO dimensionDO) {
+        String tag = dimensionDO.getDatasourceId() != null ? CacheTags.datasource(dimensionDO.getDatasourceId())
+                : CacheTags.model(dimensionDO.getModelId());
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, dimensionDO.getModelId(), tag));
+    }
+
     private void checkExist(List<DimensionReq> dimensionReqs) {
         Long modelId = dimensionReqs.get(0).getModelId();
         List<DimensionResp> dimensionResps = getDimensions(modelId);
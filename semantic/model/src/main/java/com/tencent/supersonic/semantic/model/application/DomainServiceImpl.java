@@ -13,6 +13,8 @@ import com.tencent.supersonic.semantic.api.model.response.DomainResp;
 import com.tencent.supersonic.semantic.model.domain.DomainService;
 import com.tencent.supersonic.semantic.model.domain.ModelService;
 import com.tencent.supersonic.semantic.model.domain.dataobject.DomainDO;
+import com.tencent.supersonic.semantic.model.domain.manager.MetaSnapshotManager;
+import com.tencent.supersonic.semantic.model.domain.pojo.MetaSnapshot;
 import com.tencent.supersonic.semantic.model.domain.pojo.Domain;
 import com.tencent.supersonic.semantic.model.domain.repository.DomainRepository;
 import com.tencent.supersonic.semantic.model.domain.utils.DomainConvert;
@@ -42,14 +44,17 @@ public class DomainServiceImpl implements DomainService {
     private final DomainRepository domainRepository;
     private final ModelService modelService;
     private final UserService userService;
+    private final MetaSnapshotManager metaSnapshotManager;
 
 
     public DomainServiceImpl(DomainRepository domainRepository,
                              @Lazy ModelService modelService,
-                             UserService userService) {
+                             UserService userService,
+                             MetaSnapshotManager metaSnapshotManager) {
         this.domainRepository = domainRepository;
         this.modelService = modelService;
         this.userService = userService;
+        this.metaSnapshotManager = metaSnapshotManager;
     }
 
     @Override
@@ -71,6 +76,7 @@ public class DomainServiceImpl implements DomainService {
         domainDO.setViewer(String.join(",", domainUpdateReq.getViewers()));
         domainDO.setViewOrg(String.join(",", domainUpdateReq.getViewOrgs()));
         domainRepository.updateDomain(domainDO);
+        metaSnapshotManager.bumpVersion();
     }
 
     @Override
@@ -79,12 +85,18 @@ public class DomainServiceImpl implements DomainService {
         if (!CollectionUtils.isEmpty(modelResps)) {
             throw new RuntimeException("该主题域下还存在模型, 暂不能删除, 请确认");
         }
+        boolean hasChildren = domainRepository.getDomainList().stream()
+                .anyMatch(domainDO -> Objects.equals(domainDO.getParentId(), id));
+        if (hasChildren) {
+            throw new RuntimeException("该主题域下还存在子主题域, 暂不能删除, 请确认");
+        }
         domainRepository.deleteDomain(id);
+        metaSnapshotManager.bumpVersion();
     }
 
     @Override
     public List<DomainResp> getDomainList() {
-        return convertList(domainRepository.getDomainList());
+        return convertList(metaSnapshotManager.getSnapshot().getDomains());
     }
 
     @Override
@@ -141,8 +153,7 @@ public class DomainServiceImpl implements DomainService {
         Map<Long, DomainResp> domainRespMap = getDomainMap();
         for (Long domainId : ids) {
             DomainResp domainResp = domainRespMap.get(domainId);
-            while (domainResp != null) {
-                domainSet.add(domainResp);
+            while (domainResp != null && domainSet.add(domainResp)) {
                 domainResp = domainRespMap.get(domainResp.getParentId());
             }
         }
@@ -152,8 +163,12 @@ public class DomainServiceImpl implements DomainService {
 
     @Override
     public DomainResp getDomain(Long id) {
-        Map<Long, String> fullDomainPathMap = getDomainFullPathMap();
-        return DomainConvert.convert(getDomainDO(id), fullDomainPathMap);
+        MetaSnapshot snapshot = metaSnapshotManager.getSnapshot();
+        DomainDO domainDO = snapshot.getDomain(id);
+        if (domainDO == null) {
+            return null;
+        }
+        return DomainConvert.convert(domainDO, snapshot.getDomainFullPaths());
     }
 
     @Override
@@ -165,6 +180,7 @@ public class DomainServiceImpl implements DomainService {
     private void saveDomain(Domain domain, User user) {
         DomainDO domainDO = DomainConvert.convert(domain, user);
         domainRepository.createDomain(domainDO);
+        metaSnapshotManager.bumpVersion();
         domain.setId(domainDO.getId());
     }
 
@@ -212,26 +228,7 @@ public class DomainServiceImpl implements DomainService {
     }
 
     public Map<Long, String> getDomainFullPathMap() {
-        Map<Long, String> domainFullPathMap = new HashMap<>();
-        List<DomainDO> domainDOList = domainRepository.getDomainList();
-        Map<Long, DomainDO> domainDOMap = domainDOList.stream()
-                .collect(Collectors.toMap(DomainDO::getId, a -> a, (k1, k2) -> k1));
-        for (DomainDO domainDO : domainDOList) {
-            final Long domainId = domainDO.getId();
-            StringBuilder fullPath = new StringBuilder(domainDO.getBizName() + "/");
-            Long parentId = domainDO.getParentId();
-            while (parentId != null && parentId > 0) {
-                domainDO = domainDOMap.get(parentId);
-                if (domainDO == null) {
-                    String message = String.format("get domain : %s failed", parentId);
-                    throw new RuntimeException(message);
-                }
-                fullPath.insert(0, domainDO.getBizName() + "/");
-                parentId = domainDO.getParentId();
-            }
-            domainFullPathMap.put(domainId, fullPath.toString());
-        }
-        return domainFullPathMap;
+        return new HashMap<>(metaSnapshotManager.getSnapshot().getDomainFullPaths());
     }
 
 
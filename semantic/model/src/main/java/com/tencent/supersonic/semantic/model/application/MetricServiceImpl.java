@@ -9,9 +9,11 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.common.pojo.DataAddEvent;
 import com.tencent.supersonic.common.pojo.DataDeleteEvent;
 import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.common.util.ChatGptHelper;
+import com.tencent.supersonic.common.util.cache.CacheTags;
 import com.tencent.supersonic.semantic.api.model.pojo.Measure;
 import com.tencent.supersonic.semantic.api.model.pojo.MetricTypeParams;
 import com.tencent.supersonic.semantic.api.model.request.MetricReq;
@@ -24,12 +26,16 @@ import com.tencent.supersonic.semantic.model.domain.DomainService;
 import com.tencent.supersonic.semantic.model.domain.ModelService;
 import com.tencent.supersonic.semantic.model.domain.dataobject.MetricDO;
 import com.tencent.supersonic.semantic.model.domain.pojo.MetricFilter;
+import com.tencent.supersonic.semantic.model.domain.manager.MetaSnapshotManager;
+import com.tencent.supersonic.semantic.model.domain.pojo.MetaSnapshot;
 import com.tencent.supersonic.semantic.model.domain.repository.MetricRepository;
 import com.tencent.supersonic.semantic.model.domain.utils.MetricConverter;
 import com.tencent.supersonic.semantic.model.domain.MetricService;
 import com.tencent.supersonic.semantic.model.domain.pojo.Metric;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -56,17 +62,21 @@ public class MetricServiceImpl implements MetricService {
 
     private ChatGptHelper chatGptHelper;
 
+    private MetaSnapshotManager metaSnapshotManager;
+
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
 
     public MetricServiceImpl(MetricRepository metricRepository,
                              ModelService modelService,
                              DomainService domainService,
-                             ChatGptHelper chatGptHelper) {
+                             ChatGptHelper chatGptHelper,
+                             MetaSnapshotManager metaSnapshotManager) {
         this.domainService = domainService;
         this.metricRepository = metricRepository;
         this.modelService = modelService;
         this.chatGptHelper = chatGptHelper;
+        this.metaSnapshotManager = metaSnapshotManager;
     }
 
     @Override
@@ -101,17 +111,17 @@ public class MetricServiceImpl implements MetricService {
 
     @Override
     public List<MetricResp> getMetrics(Long modelId) {
-        return convertList(metricRepository.getMetricList(modelId));
+        return convertList(metaSnapshotManager.getSnapshot().getMetrics(modelId));
     }
 
     @Override
     public List<MetricResp> getMetrics() {
-        return convertList(metricRepository.getMetricList());
+        return convertList(metaSnapshotManager.getSnapshot().getMetrics());
     }
 
     @Override
     public List<MetricResp> getMetrics(Long modelId, Long datasourceId) {
-        List<MetricResp> metricResps = convertList(metricRepository.getMetricList(modelId));
+        List<MetricResp> metricResps = convertList(metaSnapshotManager.getSnapshot().getMetrics(modelId));
         return metricResps.stream().filter(metricResp -> {
             Set<Long> datasourceIdSet = metricResp.getTypeParams().getMeasures().stream()
                     .map(Measure::getDatasourceId)
@@ -124,6 +134,14 @@ public class MetricServiceImpl implements MetricService {
         return convertList(metricRepository.getMetricListByIds(ids));
     }
 
+    @Override
+    public List<MetricResp> getMetricsByModelIds(List<Long> modelIds) {
+        MetaSnapshot snapshot = metaSnapshotManager.getSnapshot();
+        List<MetricDO> metricDOS = new ArrayList<>();
+        new LinkedHashSet<>(modelIds).forEach(modelId -> metricDOS.addAll(snapshot.getMetrics(modelId)));
+        return convertList(metricDOS);
+    }
+
     @Override
     public PageInfo<MetricResp> queryMetric(PageMetricReq pageMetricReq, User user) {
         MetricFilter metricFilter = new MetricFilter();
@@ -206,12 +224,16 @@ public class MetricServiceImpl implements MetricService {
         MetricDO metricDO = MetricConverter.convert2MetricDO(metric);
         log.info("[save metric] metricDO:{}", JSONObject.toJSONString(metricDO));
         metricRepository.createMetric(metricDO);
+        metaSnapshotManager.bumpVersion();
         metric.setId(metricDO.getId());
     }
 
     protected void updateMetric(Metric metric) {
         MetricDO metricDO = metricRepository.getMetricById(metric.getId());
         metricRepository.updateMetric(MetricConverter.convert(metricDO, metric));
+        metaSnapshotManager.bumpVersion();
+        applicationEventPublisher.publishEvent(
+                new MetaChangeEvent(this, metricDO.getModelId(), CacheTags.model(metricDO.getModelId())));
     }
 
     public List<MetricResp> getMetricByModelId(Long modelId) {
@@ -219,9 +241,7 @@ public class MetricServiceImpl implements MetricService {
     }
 
     protected List<MetricDO> getMetricDOByModelId(Long modelId) {
-        List<MetricDO> metricDOS = metricRepository.getAllMetricList();
-        return metricDOS.stream().filter(metricDO -> Objects.equals(metricDO.getModelId(), modelId))
-                .collect(Collectors.toList());
+        return metaSnapshotManager.getSnapshot().getMetrics(modelId);
     }
 
     @Override
@@ -238,7 +258,7 @@ public class MetricServiceImpl implements MetricService {
     @Override
     public List<MetricResp> getAllHighSensitiveMetric() {
         List<MetricResp> metricDescs = Lists.newArrayList();
-        List<MetricDO> metricDOS = metricRepository.getAllMetricList();
+        List<MetricDO> metricDOS = metaSnapshotManager.getSnapshot().getMetrics();
         if (CollectionUtils.isEmpty(metricDOS)) {
             return metricDescs;
         }
@@ -254,6 +274,9 @@ public class MetricServiceImpl implements MetricService {
             throw new RuntimeException(String.format("the metric %s not exist", id));
         }
         metricRepository.deleteMetric(id);
+        metaSnapshotManager.bumpVersion();
+        applicationEventPublisher.publishEvent(
+                new MetaChangeEvent(this, metricDO.getModelId(), CacheTags.model(metricDO.getModelId())));
         //动态更新字典
         String type = DictWordType.METRIC.getType();
         applicationEventPublisher.publishEvent(
@@ -288,6 +311,7 @@ public class MetricServiceImpl implements MetricService {
                 .map(MetricConverter::convert2MetricDO).collect(Collectors.toList());
         log.info("[save metric] metrics:{}", JSONObject.toJSONString(metricDOS));
         metricRepository.createMetricBatch(metricDOS);
+        metaSnapshotManager.bumpVersion();
     }
 
     private void preCheckMetric(MetricReq metricReq) {
@@ -4,9 +4,11 @@ import com.alibaba.fastjson.JSONObject;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.auth.api.authentication.service.UserService;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
 import com.tencent.supersonic.common.util.BeanMapper;
 import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.common.util.cache.CacheTags;
 import com.tencent.supersonic.semantic.api.model.request.ModelReq;
 import com.tencent.supersonic.semantic.api.model.request.ModelSchemaFilterReq;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
@@ -18,18 +20,22 @@ import com.tencent.supersonic.semantic.api.model.response.MetricResp;
 import com.tencent.supersonic.semantic.api.model.response.MetricSchemaResp;
 import com.tencent.supersonic.semantic.api.model.response.ModelResp;
 import com.tencent.supersonic.semantic.api.model.response.ModelSchemaResp;
-import com.tencent.supersonic.semantic.model.domain.DatabaseService;
 import com.tencent.supersonic.semantic.model.domain.DatasourceService;
 import com.tencent.supersonic.semantic.model.domain.DimensionService;
 import com.tencent.supersonic.semantic.model.domain.DomainService;
 import com.tencent.supersonic.semantic.model.domain.MetricService;
 import com.tencent.supersonic.semantic.model.domain.ModelService;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DatabaseDO;
 import com.tencent.supersonic.semantic.model.domain.dataobject.ModelDO;
+import com.tencent.supersonic.semantic.model.domain.manager.MetaSnapshotManager;
+import com.tencent.supersonic.semantic.model.domain.pojo.MetaSnapshot;
 import com.tencent.supersonic.semantic.model.domain.pojo.Model;
 import com.tencent.supersonic.semantic.model.domain.repository.ModelRepository;
+import com.tencent.supersonic.semantic.model.domain.utils.DatabaseConverter;
 import com.tencent.supersonic.semantic.model.domain.utils.ModelConvert;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +44,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -52,19 +59,22 @@ public class ModelServiceImpl implements ModelService {
     private final DatasourceService datasourceService;
     private final DomainService domainService;
     private final UserService userService;
-    private final DatabaseService databaseService;
+    private final MetaSnapshotManager metaSnapshotManager;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     public ModelServiceImpl(ModelRepository modelRepository, @Lazy MetricService metricService,
                             @Lazy DimensionService dimensionService, @Lazy DatasourceService datasourceService,
                             @Lazy DomainService domainService, UserService userService,
-                            @Lazy DatabaseService databaseService) {
+                            MetaSnapshotManager metaSnapshotManager,
+                            ApplicationEventPublisher applicationEventPublisher) {
         this.modelRepository = modelRepository;
         this.metricService = metricService;
         this.dimensionService = dimensionService;
         this.datasourceService = datasourceService;
         this.domainService = domainService;
         this.userService = userService;
-        this.databaseService = databaseService;
+        this.metaSnapshotManager = metaSnapshotManager;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     @Override
@@ -87,12 +97,17 @@ public class ModelServiceImpl implements ModelService {
         modelDO.setViewOrg(String.join(",", modelReq.getViewOrgs()));
         modelDO.setEntity(JsonUtil.toString(modelReq.getEntity()));
         modelRepository.updateModel(modelDO);
+        metaSnapshotManager.bumpVersion();
+        applicationEventPublisher.publishEvent(
+                new MetaChangeEvent(this, modelDO.getId(), CacheTags.model(modelDO.getId())));
     }
 
     @Override
     public void deleteModel(Long id) {
         checkDelete(id);
         modelRepository.deleteModel(id);
+        metaSnapshotManager.bumpVersion();
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, id, CacheTags.model(id)));
     }
 
     @Override
@@ -160,14 +175,18 @@ public class ModelServiceImpl implements ModelService {
 
     @Override
     public List<ModelResp> getModelList() {
-        return convertList(modelRepository.getModelList());
+        return convertList(metaSnapshotManager.getSnapshot().getModels());
     }
 
     @Override
     public ModelResp getModel(Long id) {
+        ModelDO modelDO = metaSnapshotManager.getSnapshot().getModel(id);
+        if (modelDO == null) {
+            return null;
+        }
         Map<Long, DomainResp> domainRespMap = domainService.getDomainList().stream()
                         .collect(Collectors.toMap(DomainResp::getId, d -> d));
-        return ModelConvert.convert(getModelDO(id), domainRespMap);
+        return ModelConvert.convert(modelDO, domainRespMap);
     }
 
     private void checkDelete(Long id) {
@@ -183,6 +202,7 @@ public class ModelServiceImpl implements ModelService {
     private void saveModel(Model model, User user) {
         ModelDO modelDO = ModelConvert.convert(model, user);
         modelRepository.createModel(modelDO);
+        metaSnapshotManager.bumpVersion();
         model.setId(modelDO.getId());
     }
 
@@ -221,8 +241,16 @@ public class ModelServiceImpl implements ModelService {
 
     @Override
     public Map<Long, String> getModelFullPathMap() {
-        return getModelList().stream().filter(m -> m != null).collect(Collectors.toMap(ModelResp::getId,
-                ModelResp::getFullPath, (k1, k2) -> k1));
+        MetaSnapshot snapshot = metaSnapshotManager.getSnapshot();
+        Map<Long, String> domainFullPaths = snapshot.getDomainFullPaths();
+        Map<Long, String> modelFullPathMap = new HashMap<>();
+        for (ModelDO modelDO : snapshot.getModels()) {
+            String domainFullPath = domainFullPaths.get(modelDO.getDomainId());
+            if (domainFullPath != null) {
+                modelFullPathMap.putIfAbsent(modelDO.getId(), domainFullPath + modelDO.getBizName());
+            }
+        }
+        return modelFullPathMap;
     }
 
     @Override
@@ -250,50 +278,63 @@ public class ModelServiceImpl implements ModelService {
         return modelRepository.getModelById(id);
     }
 
-    private ModelSchemaResp fetchSingleModelSchema(ModelResp modelResp) {
-        Long modelId = modelResp.getId();
-        ModelSchemaResp modelSchemaResp = new ModelSchemaResp();
-        BeanUtils.copyProperties(modelResp, modelSchemaResp);
-        modelSchemaResp.setDimensions(generateDimSchema(modelId));
-        modelSchemaResp.setMetrics(generateMetricSchema(modelId));
-        return modelSchemaResp;
-    }
-
     @Override
     public ModelSchemaResp fetchSingleModelSchema(Long modelId) {
         ModelResp model = getModel(modelId);
-        return fetchSingleModelSchema(model);
+        if (model == null) {
+            return null;
+        }
+        return fetchModelSchema(Lists.newArrayList(model)).get(0);
     }
 
     @Override
     public List<ModelSchemaResp> fetchModelSchema(ModelSchemaFilterReq modelSchemaFilterReq) {
-        List<ModelSchemaResp> modelSchemaRespList = new ArrayList<>();
+        Map<Long, ModelResp> modelMap = getModelMap();
         List<Long> modelIds = modelSchemaFilterReq.getModelIds();
         if (CollectionUtils.isEmpty(modelIds)) {
-            modelIds = generateModelIdsReq(modelSchemaFilterReq);
+            modelIds = new ArrayList<>(modelMap.keySet());
+        }
+        List<ModelResp> modelResps = modelIds.stream().map(modelMap::get)
+                .filter(Objects::nonNull).collect(Collectors.toList());
+        return fetchModelSchema(modelResps);
+    }
+
+    /***
+     * assemble the schema of all models at once, metrics and dimensions are converted in one batch each
+     * @param modelResps
+     * @return
+     */
+    private List<ModelSchemaResp> fetchModelSchema(List<ModelResp> modelResps) {
+        List<Long> modelIds = modelResps.stream().map(ModelResp::getId).collect(Collectors.toList());
+        Map<Long, List<MetricResp>> metricMap = metricService.getMetricsByModelIds(modelIds).stream()
+                .collect(Collectors.groupingBy(MetricResp::getModelId));
+        Map<Long, List<DimensionResp>> dimensionMap = dimensionService.getDimensionsByModelIds(modelIds).stream()
+                .collect(Collectors.groupingBy(DimensionResp::getModelId));
+        List<ModelSchemaResp> modelSchemaRespList = new ArrayList<>();
+        for (ModelResp modelResp : modelResps) {
+            ModelSchemaResp modelSchemaResp = new ModelSchemaResp();
+            BeanUtils.copyProperties(modelResp, modelSchemaResp);
+            modelSchemaResp.setDimensions(generateDimSchema(
+                    dimensionMap.getOrDefault(modelResp.getId(), Lists.newArrayList())));
+            modelSchemaResp.setMetrics(generateMetricSchema(
+                    metricMap.getOrDefault(modelResp.getId(), Lists.newArrayList())));
+            modelSchemaRespList.add(modelSchemaResp);
         }
-        modelIds.stream().forEach(modelId -> {
-            ModelSchemaResp modelSchemaResp = fetchSingleModelSchema(modelId);
-            if (Objects.nonNull(modelSchemaResp)) {
-                modelSchemaRespList.add(modelSchemaResp);
-            }
-        });
         return modelSchemaRespList;
     }
 
     @Override
     public DatabaseResp getDatabaseByModelId(Long modelId) {
-        List<DatasourceResp> datasourceResps = datasourceService.getDatasourceList(modelId);
-        if (!CollectionUtils.isEmpty(datasourceResps)) {
-            Long databaseId = datasourceResps.iterator().next().getDatabaseId();
-            return databaseService.getDatabase(databaseId);
+        // resolved from the snapshot, no datasource is converted and no database is read per query
+        DatabaseDO databaseDO = metaSnapshotManager.getSnapshot().getDatabaseOfModel(modelId);
+        if (databaseDO == null) {
+            return null;
         }
-        return null;
+        return DatabaseConverter.convert(databaseDO);
     }
 
-    private List<MetricSchemaResp> generateMetricSchema(Long modelId) {
+    private List<MetricSchemaResp> generateMetricSchema(List<MetricResp> metricDescList) {
         List<MetricSchemaResp> metricSchemaDescList = new ArrayList<>();
-        List<MetricResp> metricDescList = metricService.getMetrics(modelId);
         metricDescList.stream().forEach(metricDesc -> {
                     MetricSchemaResp metricSchemaDesc = new MetricSchemaResp();
                     BeanUtils.copyProperties(metricDesc, metricSchemaDesc);
@@ -304,9 +345,8 @@ public class ModelServiceImpl implements ModelService {
         return metricSchemaDescList;
     }
 
-    private List<DimSchemaResp> generateDimSchema(Long modelId) {
+    private List<DimSchemaResp> generateDimSchema(List<DimensionResp> dimDescList) {
         List<DimSchemaResp> dimSchemaDescList = new ArrayList<>();
-        List<DimensionResp> dimDescList = dimensionService.getDimensions(modelId);
         dimDescList.stream().forEach(dimDesc -> {
                     DimSchemaResp dimSchemaDesc = new DimSchemaResp();
                     BeanUtils.copyProperties(dimDesc, dimSchemaDesc);
@@ -317,13 +357,6 @@ public class ModelServiceImpl implements ModelService {
         return dimSchemaDescList;
     }
 
-    private List<Long> generateModelIdsReq(ModelSchemaFilterReq filter) {
-        if (Objects.nonNull(filter) && !CollectionUtils.isEmpty(filter.getModelIds())) {
-            return filter.getModelIds();
-        }
-        return new ArrayList<>(getModelMap().keySet());
-    }
-
     public static boolean checkAdminPermission(Set<String> orgIds, User user, ModelResp modelResp) {
         List<String> admins = modelResp.getAdmins();
         List<String> adminOrgs = modelResp.getAdminOrgs();
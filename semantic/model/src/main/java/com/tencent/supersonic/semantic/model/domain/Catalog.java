@@ -39,4 +39,12 @@ public interface Catalog {
 
     String getAgg(Long modelId, String metricBizName);
 
+    /***
+     * digest of the stored metadata of the model, it changes with any update or delete of the model, its
+     * metrics, dimensions or datasources on any instance once the metadata is reloaded
+     * @param modelId
+     * @return
+     */
+    String getModelDigest(Long modelId);
+
 }
@@ -3,6 +3,7 @@ package com.tencent.supersonic.semantic.model.domain;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.semantic.api.model.request.DatabaseReq;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.QueryAdmissionResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import java.util.List;
 
@@ -28,4 +29,6 @@ public interface DatabaseService {
     QueryResultWithSchemaResp getTables(Long id, String db);
 
     QueryResultWithSchemaResp getColumns(Long id, String db, String table);
+
+    List<QueryAdmissionResp> getAdmissionStats();
 }
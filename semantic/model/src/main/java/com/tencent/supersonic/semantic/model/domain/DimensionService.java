@@ -16,6 +16,8 @@ public interface DimensionService {
 
     List<DimensionResp> getDimensions();
 
+    List<DimensionResp> getDimensionsByModelIds(List<Long> modelIds);
+
     DimensionResp getDimension(String bizName, Long domainId);
 
     void createDimension(DimensionReq dimensionReq, User user) throws Exception;
@@ -19,6 +19,8 @@ public interface MetricService {
 
     List<MetricResp> getMetrics(Long modelId, Long datasourceId);
 
+    List<MetricResp> getMetricsByModelIds(List<Long> modelIds);
+
     void creatExprMetric(MetricReq metricReq, User user) throws Exception;
 
     void createMetricBatch(List<MetricReq> metricReqs, User user) throws Exception;
@@ -14,4 +14,14 @@ public abstract class EngineAdaptor {
     public abstract String getTableMetaQueryTpl();
 
     public abstract String functionNameCorrector(String sql);
+
+    /***
+     * the first rows of the query, the engines supported so far all take a trailing limit
+     * @param sql
+     * @param limit
+     * @return
+     */
+    public String getLimitSql(String sql, long limit) {
+        return String.format("%s limit %d", sql, limit);
+    }
 }
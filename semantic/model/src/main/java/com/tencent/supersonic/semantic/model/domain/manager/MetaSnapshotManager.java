@@ -0,0 +1,89 @@
+package com.tencent.supersonic.semantic.model.domain.manager;
+
+import com.tencent.supersonic.semantic.model.domain.pojo.MetaSnapshot;
+import com.tencent.supersonic.semantic.model.domain.repository.DatabaseRepository;
+import com.tencent.supersonic.semantic.model.domain.repository.DatasourceRepository;
+import com.tencent.supersonic.semantic.model.domain.repository.DimensionRepository;
+import com.tencent.supersonic.semantic.model.domain.repository.DomainRepository;
+import com.tencent.supersonic.semantic.model.domain.repository.MetricRepository;
+import com.tencent.supersonic.semantic.model.domain.repository.ModelRepository;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the current {@link MetaSnapshot}. Every write of domains, models, metrics, dimensions, datasources or
+ * databases bumps the version, the next read rebuilds the snapshot and all reads in between share it. The snapshot
+ * also expires after a while, so writes made by other instances are picked up.
+ */
+@Slf4j
+@Service
+public class MetaSnapshotManager {
+
+    private final AtomicLong version = new AtomicLong();
+    private final DomainRepository domainRepository;
+    private final ModelRepository modelRepository;
+    private final MetricRepository metricRepository;
+    private final DimensionRepository dimensionRepository;
+    private final DatasourceRepository datasourceRepository;
+    private final DatabaseRepository databaseRepository;
+
+    @Value("${meta.snapshot.expire.seconds:60}")
+    private long expireSeconds;
+
+    private volatile MetaSnapshot snapshot;
+    private volatile long loadedAt;
+
+    public MetaSnapshotManager(DomainRepository domainRepository, ModelRepository modelRepository,
+            MetricRepository metricRepository, DimensionRepository dimensionRepository,
+            DatasourceRepository datasourceRepository, DatabaseRepository databaseRepository) {
+        this.domainRepository = domainRepository;
+        this.modelRepository = modelRepository;
+        this.metricRepository = metricRepository;
+        this.dimensionRepository = dimensionRepository;
+        this.datasourceRepository = datasourceRepository;
+        this.databaseRepository = databaseRepository;
+    }
+
+    public MetaSnapshot getSnapshot() {
+        MetaSnapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (isFresh(current)) {
+                return current;
+            }
+            // a write during the load bumps the version again, so a snapshot missing it is never kept
+            long loadVersion = version.get();
+            long start = System.currentTimeMillis();
+            current = new MetaSnapshot(loadVersion, domainRepository.getDomainList(),
+                    modelRepository.getModelList(), metricRepository.getMetricList(),
+                    dimensionRepository.getDimensionList(), datasourceRepository.getDatasourceList(),
+                    databaseRepository.getDatabaseList());
+            loadedAt = start;
+            snapshot = current;
+            log.debug("load meta snapshot, version:{}, cost:{}ms", loadVersion, System.currentTimeMillis() - start);
+            return current;
+        }
+    }
+
+    /***
+     * mark the current snapshot stale, called after every metadata write
+     */
+    public void bumpVersion() {
+        version.incrementAndGet();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    private boolean isFresh(MetaSnapshot current) {
+        return current != null && current.getVersion() == version.get()
+                && System.currentTimeMillis() - loadedAt < TimeUnit.SECONDS.toMillis(expireSeconds);
+    }
+}
@@ -0,0 +1,252 @@
+package com.tencent.supersonic.semantic.model.domain.manager;
+
+import com.tencent.supersonic.common.pojo.enums.QueryLaneEnum;
+import com.tencent.supersonic.common.util.QueryLaneContext;
+import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.QueryAdmissionResp;
+import com.tencent.supersonic.semantic.model.domain.pojo.JdbcDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admits queries to a database. At most as many queries as the pool has connections run at once, the others
+ * wait in a bounded queue per lane and are rejected when the queue is full or the wait is too long, so a slow
+ * database fails fast instead of holding the threads of every caller. A free slot goes to the waiting query
+ * of the lane with the highest priority, and background lanes never take all slots of a database. Limiters are
+ * keyed like the pools of {@link JdbcDataSource}, so a database whose connection changes gets a new one.
+ */
+@Slf4j
+@Component
+public class QueryAdmissionManager {
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+    private final JdbcDataSource jdbcDataSource;
+
+    @Value("${source.admission.queue-size:64}")
+    private int queueSize;
+
+    @Value("${source.admission.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    @Value("${source.admission.background-ratio:0.5}")
+    private double backgroundRatio;
+
+    public QueryAdmissionManager(JdbcDataSource jdbcDataSource) {
+        this.jdbcDataSource = jdbcDataSource;
+    }
+
+    /***
+     * run the query once the database admits it, in the lane of the current thread
+     * @param databaseResp
+     * @param query
+     * @return
+     */
+    public <T> T execute(DatabaseResp databaseResp, Supplier<T> query) {
+        QueryLaneEnum lane = QueryLaneContext.get();
+        Limiter limiter = getLimiter(databaseResp);
+        limiter.acquire(lane);
+        try {
+            return query.get();
+        } finally {
+            limiter.release(lane);
+        }
+    }
+
+    /***
+     * drop the limiter of the pool of a database whose connection changed or that was deleted,
+     * queries it admitted still release to it
+     * @param databaseResp
+     */
+    public void remove(DatabaseResp databaseResp) {
+        limiters.remove(jdbcDataSource.getDataSourceKey(databaseResp));
+    }
+
+    public List<QueryAdmissionResp> getStats() {
+        List<QueryAdmissionResp> stats = new ArrayList<>();
+        limiters.values().forEach(limiter -> stats.addAll(limiter.getStats()));
+        return stats;
+    }
+
+    private Limiter getLimiter(DatabaseResp databaseResp) {
+        int maxRunning = jdbcDataSource.getMaxActive(databaseResp);
+        String key = jdbcDataSource.getDataSourceKey(databaseResp);
+        Limiter limiter = limiters.get(key);
+        if (limiter != null && limiter.maxRunning == maxRunning) {
+            return limiter;
+        }
+        // queries admitted by a replaced limiter still release to it
+        return limiters.compute(key, (poolKey, current) ->
+                current != null && current.maxRunning == maxRunning ? current
+                        : new Limiter(databaseResp.getName(), maxRunning,
+                                Math.max(1, (int) (maxRunning * backgroundRatio)), queueSize,
+                                TimeUnit.MILLISECONDS.toNanos(maxWaitMs)));
+    }
+
+    private static final class Limiter {
+
+        private final String name;
+        private final int maxRunning;
+        private final int backgroundMaxRunning;
+        private final int queueSize;
+        private final long maxWaitNanos;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition[] conditions;
+        private final int[] laneRunning;
+        private final int[] waiting;
+        private final long[] admitted;
+        private final long[] rejected;
+        private final long[] totalWaitNanos;
+        private final long[] laneMaxWaitNanos;
+        private int running;
+        private int backgroundRunning;
+
+        private Limiter(String name, int maxRunning, int backgroundMaxRunning, int queueSize, long maxWaitNanos) {
+            this.name = name;
+            this.maxRunning = maxRunning;
+            this.backgroundMaxRunning = Math.min(maxRunning, backgroundMaxRunning);
+            this.queueSize = queueSize;
+            this.maxWaitNanos = maxWaitNanos;
+            int lanes = QueryLaneEnum.values().length;
+            this.conditions = new Condition[lanes];
+            for (int i = 0; i < lanes; i++) {
+                conditions[i] = lock.newCondition();
+            }
+            this.laneRunning = new int[lanes];
+            this.waiting = new int[lanes];
+            this.admitted = new long[lanes];
+            this.rejected = new long[lanes];
+            this.totalWaitNanos = new long[lanes];
+            this.laneMaxWaitNanos = new long[lanes];
+        }
+
+        private void acquire(QueryLaneEnum lane) {
+            int index = lane.ordinal();
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                if (!hasWaiters(index) && canRun(lane)) {
+                    admit(lane, 0);
+                    return;
+                }
+                if (waiting[index] >= queueSize) {
+                    rejected[index]++;
+                    log.warn("database:{} rejects {} query, waiting:{}, running:{}", name, lane, waiting[index],
+                            running);
+                    throw new RuntimeException(String.format("database %s is busy, %d %s queries are waiting",
+                            name, waiting[index], lane.name().toLowerCase()));
+                }
+                waiting[index]++;
+                boolean acquired = false;
+                try {
+                    long nanos = maxWaitNanos;
+                    while (!canRun(lane)) {
+                        if (nanos <= 0) {
+                            rejected[index]++;
+                            log.warn("database:{} rejects {} query after waiting {}ms", name, lane,
+                                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                            throw new RuntimeException(String.format("database %s is busy, waited %dms", name,
+                                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos)));
+                        }
+                        nanos = conditions[index].awaitNanos(nanos);
+                    }
+                    acquired = true;
+                } finally {
+                    waiting[index]--;
+                    if (!acquired) {
+                        // a slot signalled to this query goes to the next one
+                        signalNext();
+                    }
+                }
+                admit(lane, System.nanoTime() - start);
+                signalNext();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while waiting for database " + name);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(QueryLaneEnum lane) {
+            lock.lock();
+            try {
+                running--;
+                laneRunning[lane.ordinal()]--;
+                if (lane.isBackground()) {
+                    backgroundRunning--;
+                }
+                signalNext();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean canRun(QueryLaneEnum lane) {
+            return running < maxRunning && (!lane.isBackground() || backgroundRunning < backgroundMaxRunning);
+        }
+
+        private boolean hasWaiters(int index) {
+            for (int i = 0; i <= index; i++) {
+                if (waiting[i] > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void admit(QueryLaneEnum lane, long waitNanos) {
+            int index = lane.ordinal();
+            running++;
+            laneRunning[index]++;
+            if (lane.isBackground()) {
+                backgroundRunning++;
+            }
+            admitted[index]++;
+            totalWaitNanos[index] += waitNanos;
+            laneMaxWaitNanos[index] = Math.max(laneMaxWaitNanos[index], waitNanos);
+        }
+
+        private void signalNext() {
+            for (QueryLaneEnum lane : QueryLaneEnum.values()) {
+                if (waiting[lane.ordinal()] > 0 && canRun(lane)) {
+                    conditions[lane.ordinal()].signal();
+                    return;
+                }
+            }
+        }
+
+        private List<QueryAdmissionResp> getStats() {
+            List<QueryAdmissionResp> stats = new ArrayList<>();
+            lock.lock();
+            try {
+                for (QueryLaneEnum lane : QueryLaneEnum.values()) {
+                    int index = lane.ordinal();
+                    QueryAdmissionResp stat = new QueryAdmissionResp();
+                    stat.setDatabase(name);
+                    stat.setLane(lane.name());
+                    stat.setMaxRunning(lane.isBackground() ? backgroundMaxRunning : maxRunning);
+                    stat.setRunning(laneRunning[index]);
+                    stat.setWaiting(waiting[index]);
+                    stat.setAdmitted(admitted[index]);
+                    stat.setRejected(rejected[index]);
+                    stat.setAvgWaitMs(admitted[index] == 0 ? 0
+                            : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos[index] / admitted[index]));
+                    stat.setMaxWaitMs(TimeUnit.NANOSECONDS.toMillis(laneMaxWaitNanos[index]));
+                    stats.add(stat);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return stats;
+        }
+    }
+}
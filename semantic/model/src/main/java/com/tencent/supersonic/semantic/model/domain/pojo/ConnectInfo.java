@@ -15,4 +15,6 @@ public class ConnectInfo {
 
     private String database;
 
+    private Integer maxActive;
+
 }
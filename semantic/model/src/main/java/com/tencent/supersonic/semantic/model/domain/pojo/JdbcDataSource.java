@@ -23,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -32,6 +33,8 @@ public class JdbcDataSource {
     private static final Object lockLock = new Object();
     private static volatile Map<String, DruidDataSource> dataSourceMap = new ConcurrentHashMap<>();
     private static volatile Map<String, Lock> dataSourceLockMap = new ConcurrentHashMap<>();
+    private static volatile Map<String, JdbcTemplate> jdbcTemplateMap = new ConcurrentHashMap<>();
+    private static final int FETCH_SIZE = 500;
     @Value("${source.lock-time:30}")
     @Getter
     protected Long lockTime;
@@ -166,6 +169,7 @@ public class JdbcDataSource {
         }
 
         try {
+            jdbcTemplateMap.remove(key);
             DruidDataSource druidDataSource = dataSourceMap.remove(key);
             if (druidDataSource != null) {
                 druidDataSource.close();
@@ -177,7 +181,42 @@ public class JdbcDataSource {
         }
     }
 
+    /***
+     * the JdbcTemplate of the pool of the database, built once per pool and dropped with it. Connections are
+     * checked by the druid validation settings when borrowed, not by the caller
+     * @param jdbcSourceInfo
+     * @return
+     */
+    public JdbcTemplate getJdbcTemplate(DatabaseResp jdbcSourceInfo) throws RuntimeException {
+        String key = getDataSourceKey(jdbcSourceInfo);
+        DruidDataSource druidDataSource = getDataSource(jdbcSourceInfo, key);
+        JdbcTemplate jdbcTemplate = jdbcTemplateMap.get(key);
+        if (jdbcTemplate != null && jdbcTemplate.getDataSource() == druidDataSource) {
+            return jdbcTemplate;
+        }
+        jdbcTemplate = new JdbcTemplate(druidDataSource);
+        jdbcTemplate.setDatabaseProductName(jdbcSourceInfo.getName());
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+        jdbcTemplateMap.put(key, jdbcTemplate);
+        log.info("create jdbcTemplate for datasource:{}", jdbcSourceInfo.getName());
+        return jdbcTemplate;
+    }
+
+    /***
+     * the pool size of the database, its own setting when given, otherwise source.max-active
+     * @param jdbcSourceInfo
+     * @return
+     */
+    public int getMaxActive(DatabaseResp jdbcSourceInfo) {
+        Integer databaseMaxActive = jdbcSourceInfo.getMaxActive();
+        return databaseMaxActive != null && databaseMaxActive > 0 ? databaseMaxActive : maxActive;
+    }
+
     public DruidDataSource getDataSource(DatabaseResp jdbcSourceInfo) throws RuntimeException {
+        return getDataSource(jdbcSourceInfo, getDataSourceKey(jdbcSourceInfo));
+    }
+
+    private DruidDataSource getDataSource(DatabaseResp jdbcSourceInfo, String key) throws RuntimeException {
 
         String name = jdbcSourceInfo.getName();
         String type = jdbcSourceInfo.getType();
@@ -185,8 +224,6 @@ public class JdbcDataSource {
         String username = jdbcSourceInfo.getUsername();
         String password = jdbcSourceInfo.getPassword();
 
-        String key = getDataSourceKey(jdbcSourceInfo);
-
         DruidDataSource druidDataSource = dataSourceMap.get(key);
         if (druidDataSource != null && !druidDataSource.isClosed()) {
             return druidDataSource;
@@ -234,7 +271,7 @@ public class JdbcDataSource {
 
             druidDataSource.setInitialSize(initialSize);
             druidDataSource.setMinIdle(minIdle);
-            druidDataSource.setMaxActive(maxActive);
+            druidDataSource.setMaxActive(getMaxActive(jdbcSourceInfo));
             druidDataSource.setMaxWait(maxWait);
             druidDataSource.setTimeBetweenEvictionRunsMillis(timeBetweenEvictionRunsMillis);
             druidDataSource.setMinEvictableIdleTimeMillis(minEvictableIdleTimeMillis);
@@ -307,7 +344,12 @@ public class JdbcDataSource {
         return druidDataSource;
     }
 
-    private String getDataSourceKey(DatabaseResp jdbcSourceInfo) {
+    /***
+     * the key of the pool of the database, a database whose connection changes gets a new pool
+     * @param jdbcSourceInfo
+     * @return
+     */
+    public String getDataSourceKey(DatabaseResp jdbcSourceInfo) {
         return JdbcDataSourceUtils.getKey(jdbcSourceInfo.getName(),
                 jdbcSourceInfo.getUrl(),
                 jdbcSourceInfo.getUsername(),
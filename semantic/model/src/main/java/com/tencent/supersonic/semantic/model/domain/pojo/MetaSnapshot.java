@@ -0,0 +1,216 @@
+package com.tencent.supersonic.semantic.model.domain.pojo;
+
+import com.tencent.supersonic.semantic.model.domain.dataobject.DatabaseDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DatasourceDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DimensionDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DomainDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.MetricDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.ModelDO;
+import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Immutable view of the domains, models, metrics, dimensions, datasources and databases read at one metadata
+ * version, indexed by id and by model id. The data objects are shared by all readers and must not be modified,
+ * write paths still read the rows they update from the repositories.
+ */
+@Slf4j
+public class MetaSnapshot {
+
+    private final long version;
+    private final List<DomainDO> domains;
+    private final Map<Long, DomainDO> domainMap;
+    private final Map<Long, String> domainFullPaths;
+    private final List<ModelDO> models;
+    private final Map<Long, ModelDO> modelMap;
+    private final List<MetricDO> metrics;
+    private final Map<Long, List<MetricDO>> modelMetrics;
+    private final List<DimensionDO> dimensions;
+    private final Map<Long, List<DimensionDO>> modelDimensions;
+    private final List<DatasourceDO> datasources;
+    private final Map<Long, List<DatasourceDO>> modelDatasources;
+    private final Map<Long, DatabaseDO> databaseMap;
+    private final Map<Long, String> modelDigests = new ConcurrentHashMap<>();
+
+    public MetaSnapshot(long version, List<DomainDO> domains, List<ModelDO> models, List<MetricDO> metrics,
+            List<DimensionDO> dimensions, List<DatasourceDO> datasources, List<DatabaseDO> databases) {
+        this.version = version;
+        this.domains = Collections.unmodifiableList(new ArrayList<>(domains));
+        this.domainMap = indexById(this.domains, DomainDO::getId);
+        this.domainFullPaths = Collections.unmodifiableMap(buildDomainFullPaths(this.domains, domainMap));
+        this.models = Collections.unmodifiableList(new ArrayList<>(models));
+        this.modelMap = indexById(this.models, ModelDO::getId);
+        this.metrics = Collections.unmodifiableList(new ArrayList<>(metrics));
+        this.modelMetrics = groupByModel(this.metrics, MetricDO::getModelId);
+        this.dimensions = Collections.unmodifiableList(new ArrayList<>(dimensions));
+        this.modelDimensions = groupByModel(this.dimensions, DimensionDO::getModelId);
+        this.datasources = Collections.unmodifiableList(new ArrayList<>(datasources));
+        this.modelDatasources = groupByModel(this.datasources, DatasourceDO::getModelId);
+        this.databaseMap = indexById(databases, DatabaseDO::getId);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<DomainDO> getDomains() {
+        return domains;
+    }
+
+    public DomainDO getDomain(Long id) {
+        return domainMap.get(id);
+    }
+
+    /***
+     * domain id to the biz names of the domain and its parents, such as parent/child/
+     * @return
+     */
+    public Map<Long, String> getDomainFullPaths() {
+        return domainFullPaths;
+    }
+
+    public List<ModelDO> getModels() {
+        return models;
+    }
+
+    public ModelDO getModel(Long id) {
+        return modelMap.get(id);
+    }
+
+    public List<MetricDO> getMetrics() {
+        return metrics;
+    }
+
+    public List<MetricDO> getMetrics(Long modelId) {
+        return modelMetrics.getOrDefault(modelId, Collections.emptyList());
+    }
+
+    public List<DimensionDO> getDimensions() {
+        return dimensions;
+    }
+
+    public List<DimensionDO> getDimensions(Long modelId) {
+        return modelDimensions.getOrDefault(modelId, Collections.emptyList());
+    }
+
+    public List<DatasourceDO> getDatasources() {
+        return datasources;
+    }
+
+    public List<DatasourceDO> getDatasources(Long modelId) {
+        return modelDatasources.getOrDefault(modelId, Collections.emptyList());
+    }
+
+    public DatabaseDO getDatabase(Long id) {
+        return databaseMap.get(id);
+    }
+
+    /***
+     * the database the model is queried on, the database of its first datasource
+     * @param modelId
+     * @return
+     */
+    public DatabaseDO getDatabaseOfModel(Long modelId) {
+        List<DatasourceDO> modelDatasourceList = getDatasources(modelId);
+        if (modelDatasourceList.isEmpty()) {
+            return null;
+        }
+        return databaseMap.get(modelDatasourceList.get(0).getDatabaseId());
+    }
+
+    /***
+     * digest of the model row and the rows of its metrics, dimensions and datasources, ids and update times,
+     * so every instance reading the same rows gets the same digest and any update or delete changes it
+     * @param modelId
+     * @return
+     */
+    public String getModelDigest(Long modelId) {
+        return modelDigests.computeIfAbsent(modelId, id -> {
+            StringBuilder rows = new StringBuilder();
+            ModelDO model = modelMap.get(id);
+            appendRow(rows, "model", id, model == null ? null : model.getUpdatedAt());
+            getMetrics(id).stream().sorted(Comparator.comparing(MetricDO::getId))
+                    .forEach(metric -> appendRow(rows, "metric", metric.getId(), metric.getUpdatedAt()));
+            getDimensions(id).stream().sorted(Comparator.comparing(DimensionDO::getId))
+                    .forEach(dimension -> appendRow(rows, "dimension", dimension.getId(), dimension.getUpdatedAt()));
+            getDatasources(id).stream().sorted(Comparator.comparing(DatasourceDO::getId))
+                    .forEach(datasource -> appendRow(rows, "datasource", datasource.getId(),
+                            datasource.getUpdatedAt()));
+            return DigestUtils.md5DigestAsHex(rows.toString().getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    private static void appendRow(StringBuilder rows, String type, Long id, Date updatedAt) {
+        rows.append(type).append(':').append(id).append(':')
+                .append(updatedAt == null ? 0L : updatedAt.getTime()).append(';');
+    }
+
+    private static Map<Long, String> buildDomainFullPaths(List<DomainDO> domains, Map<Long, DomainDO> domainMap) {
+        Map<Long, String> domainFullPathMap = new HashMap<>();
+        for (DomainDO domainDO : domains) {
+            domainFullPathMap.put(domainDO.getId(), buildDomainFullPath(domainDO, domainMap));
+        }
+        return domainFullPathMap;
+    }
+
+    /***
+     * the full path of the domain, its own biz name when a parent is missing or the parents form a cycle,
+     * so one bad domain row does not fail the whole snapshot
+     * @param domainDO
+     * @param domainMap
+     * @return
+     */
+    private static String buildDomainFullPath(DomainDO domainDO, Map<Long, DomainDO> domainMap) {
+        String ownPath = domainDO.getBizName() + "/";
+        StringBuilder fullPath = new StringBuilder(ownPath);
+        Set<Long> visited = new HashSet<>();
+        visited.add(domainDO.getId());
+        Long parentId = domainDO.getParentId();
+        while (parentId != null && parentId > 0) {
+            DomainDO parent = domainMap.get(parentId);
+            if (parent == null) {
+                log.warn("parent domain {} of domain {} not found, use its own name as full path",
+                        parentId, domainDO.getId());
+                return ownPath;
+            }
+            if (!visited.add(parentId)) {
+                log.warn("parents of domain {} form a cycle at {}, use its own name as full path",
+                        domainDO.getId(), parentId);
+                return ownPath;
+            }
+            fullPath.insert(0, parent.getBizName() + "/");
+            parentId = parent.getParentId();
+        }
+        return fullPath.toString();
+    }
+
+    private static <T> Map<Long, T> indexById(List<T> items, Function<T, Long> getId) {
+        Map<Long, T> index = new HashMap<>();
+        for (T item : items) {
+            index.putIfAbsent(getId.apply(item), item);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static <T> Map<Long, List<T>> groupByModel(List<T> items, Function<T, Long> getModelId) {
+        Map<Long, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(getModelId.apply(item), key -> new ArrayList<>()).add(item);
+        }
+        groups.replaceAll((modelId, group) -> Collections.unmodifiableList(group));
+        return Collections.unmodifiableMap(groups);
+    }
+}
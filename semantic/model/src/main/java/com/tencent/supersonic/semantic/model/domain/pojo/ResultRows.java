@@ -0,0 +1,93 @@
+package com.tencent.supersonic.semantic.model.domain.pojo;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows fetched from a jdbc result set, each row an array of values in column order. The rows are turned into
+ * the column name maps of {@link QueryResultWithSchemaResp} only when the response is filled.
+ */
+public class ResultRows {
+
+    private final List<QueryColumn> columns;
+    private final List<Object[]> rows;
+    private final boolean truncated;
+    private final int rowCount;
+
+    public ResultRows(List<QueryColumn> columns, List<Object[]> rows, boolean truncated) {
+        this(columns, rows, truncated, rows.size());
+    }
+
+    /***
+     * rows of a streamed result, the rowCount rows were handed to a row handler instead of being kept
+     * @param columns
+     * @param rows
+     * @param truncated
+     * @param rowCount
+     */
+    public ResultRows(List<QueryColumn> columns, List<Object[]> rows, boolean truncated, int rowCount) {
+        this.columns = columns;
+        this.rows = rows;
+        this.truncated = truncated;
+        this.rowCount = rowCount;
+    }
+
+    public List<QueryColumn> getColumns() {
+        return columns;
+    }
+
+    public List<Object[]> getRows() {
+        return rows;
+    }
+
+    /***
+     * whether rows were dropped because the row or byte budget was reached
+     * @return
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /***
+     * the number of rows read, including streamed ones
+     * @return
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /***
+     * convert the rows to column name maps, each row is released once it is converted,
+     * so the rows can be converted only once
+     * @return
+     */
+    public List<Map<String, Object>> toResultList() {
+        String[] names = new String[columns.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = columns.get(i).getNameEn();
+        }
+        int capacity = (int) (names.length / 0.75f) + 1;
+        List<Map<String, Object>> resultList = new ArrayList<>(rows.size());
+        for (int r = 0; r < rows.size(); r++) {
+            Object[] row = rows.get(r);
+            Map<String, Object> map = new LinkedHashMap<>(capacity);
+            for (int i = 0; i < names.length; i++) {
+                map.put(names[i], row[i]);
+            }
+            rows.set(r, null);
+            resultList.add(map);
+        }
+        return resultList;
+    }
+
+    public QueryResultWithSchemaResp fill(QueryResultWithSchemaResp queryResultWithColumns) {
+        queryResultWithColumns.setColumns(columns);
+        queryResultWithColumns.setResultList(toResultList());
+        queryResultWithColumns.setTruncated(truncated);
+        return queryResultWithColumns;
+    }
+}
@@ -23,6 +23,7 @@ public class DatabaseConverter {
         connectInfo.setPassword(databaseReq.getPassword());
         connectInfo.setUrl(databaseReq.getUrl());
         connectInfo.setDatabase(databaseReq.getDatabase());
+        connectInfo.setMaxActive(databaseReq.getMaxActive());
         database.setConnectInfo(connectInfo);
         database.setCreatedAt(new Date());
         database.setCreatedBy(user.getName());
@@ -60,6 +61,7 @@ public class DatabaseConverter {
         databaseResp.setPassword(connectInfo.getPassword());
         databaseResp.setUsername(connectInfo.getUserName());
         databaseResp.setDatabase(connectInfo.getDatabase());
+        databaseResp.setMaxActive(connectInfo.getMaxActive());
         if (StringUtils.isNotBlank(databaseDO.getAdmin())) {
             databaseResp.setAdmins(Arrays.asList(databaseDO.getAdmin().split(",")));
         }
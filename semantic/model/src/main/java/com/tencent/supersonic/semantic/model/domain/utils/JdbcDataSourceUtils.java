@@ -25,6 +25,7 @@ import java.util.regex.Matcher;
 import javax.sql.DataSource;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @Slf4j
 public class JdbcDataSourceUtils {
@@ -150,6 +151,10 @@ public class JdbcDataSourceUtils {
         return jdbcDataSource.getDataSource(databaseResp);
     }
 
+    public JdbcTemplate getJdbcTemplate(DatabaseResp databaseResp) throws RuntimeException {
+        return jdbcDataSource.getJdbcTemplate(databaseResp);
+    }
+
     public Connection getConnection(DatabaseResp databaseResp) throws RuntimeException {
         Connection conn = getConnectionWithRetry(databaseResp);
         if (conn == null) {
@@ -0,0 +1,213 @@
+package com.tencent.supersonic.semantic.model.domain.utils;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.common.util.DateUtils;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.StatementCallback;
+
+/**
+ * Runs one query and reads its rows by column index into {@link ResultRows}. Reading stops at the row and
+ * byte budget, the statement is cancelled when the query runs past its timeout, when the reading thread is
+ * interrupted or when {@link #cancel()} is called from another thread, such as when the request of the query
+ * is given up. An error while reading fails the query instead of returning the rows read before it.
+ * A fetcher with a row handler streams the rows: the driver reads them in batches of the fetch size and each
+ * row is handed to the handler as it is read instead of being kept.
+ */
+@Slf4j
+public class ResultFetcher implements StatementCallback<ResultRows> {
+
+    private static final int CHECK_INTERVAL = 1024;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DateUtils.DATE_FORMAT);
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(DateUtils.TIME_FORMAT);
+
+    private final String sql;
+    private final int maxRows;
+    private final long maxBytes;
+    private final int timeoutSeconds;
+    private final int fetchSize;
+    private final Consumer<Map<String, Object>> rowHandler;
+    private volatile Statement statement;
+    private volatile boolean cancelled;
+
+    public ResultFetcher(String sql, int maxRows, long maxBytes, int timeoutSeconds) {
+        this(sql, maxRows, maxBytes, timeoutSeconds, 0, null);
+    }
+
+    /***
+     * stream the rows to the handler, as a column name map each, the rows are not kept so no byte budget applies
+     * @param sql
+     * @param maxRows
+     * @param timeoutSeconds
+     * @param fetchSize
+     * @param rowHandler
+     */
+    public ResultFetcher(String sql, int maxRows, int timeoutSeconds, int fetchSize,
+            Consumer<Map<String, Object>> rowHandler) {
+        this(sql, maxRows, 0, timeoutSeconds, fetchSize, rowHandler);
+    }
+
+    private ResultFetcher(String sql, int maxRows, long maxBytes, int timeoutSeconds, int fetchSize,
+            Consumer<Map<String, Object>> rowHandler) {
+        this.sql = sql;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.timeoutSeconds = timeoutSeconds;
+        this.fetchSize = fetchSize;
+        this.rowHandler = rowHandler;
+    }
+
+    @Override
+    public ResultRows doInStatement(Statement stmt) throws SQLException {
+        long deadline = timeoutSeconds > 0
+                ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds) : Long.MAX_VALUE;
+        statement = stmt;
+        if (cancelled) {
+            throw new SQLException("query cancelled");
+        }
+        if (maxRows > 0 && maxRows < Integer.MAX_VALUE) {
+            // one more row than the budget, so a result of exactly maxRows is not reported as truncated
+            stmt.setMaxRows(maxRows + 1);
+        }
+        if (timeoutSeconds > 0) {
+            stmt.setQueryTimeout(timeoutSeconds);
+        }
+        if (fetchSize != 0) {
+            stmt.setFetchSize(fetchSize);
+        }
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return read(rs, deadline);
+        } finally {
+            statement = null;
+        }
+    }
+
+    /***
+     * cancel the running query, the reading thread fails with an SQLException
+     */
+    public void cancel() {
+        cancelled = true;
+        Statement current = statement;
+        if (current != null) {
+            cancelStatement(current);
+        }
+    }
+
+    private ResultRows read(ResultSet rs, long deadline) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<QueryColumn> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(new QueryColumn(metaData.getColumnLabel(i), metaData.getColumnTypeName(i)));
+        }
+        List<Object[]> rows = new ArrayList<>();
+        int rowCount = 0;
+        long bytes = 0;
+        boolean truncated = false;
+        try {
+            while (rs.next()) {
+                if ((maxRows > 0 && rowCount >= maxRows) || (maxBytes > 0 && bytes >= maxBytes)) {
+                    truncated = true;
+                    break;
+                }
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = getValue(rs.getObject(i + 1));
+                    bytes += estimateSize(row[i]);
+                }
+                if (rowHandler == null) {
+                    rows.add(row);
+                } else {
+                    rowHandler.accept(toMap(columns, row));
+                }
+                rowCount++;
+                if (rowCount % CHECK_INTERVAL == 0) {
+                    checkRunning(deadline);
+                }
+            }
+        } catch (SQLTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            if (cancelled) {
+                throw new SQLException("query cancelled", e);
+            }
+            // the rows read so far are only a part of the result, they are not returned as if complete
+            throw e instanceof SQLException ? (SQLException) e
+                    : new SQLException("read query result error after " + rowCount + " rows", e);
+        }
+        if (truncated) {
+            log.warn("query result truncated, rows:{}, bytes:{}, sql:{}", rowCount, bytes, sql);
+            // the remaining rows are not needed, stop the database from sending them
+            cancelStatement(rs.getStatement());
+        }
+        return new ResultRows(columns, rows, truncated, rowCount);
+    }
+
+    private Map<String, Object> toMap(List<QueryColumn> columns, Object[] row) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < row.length; i++) {
+            map.put(columns.get(i).getNameEn(), row[i]);
+        }
+        return map;
+    }
+
+    private void checkRunning(long deadline) throws SQLException {
+        if (Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+        }
+        if (cancelled) {
+            cancelStatement(statement);
+            throw new SQLException("query cancelled");
+        }
+        if (System.currentTimeMillis() > deadline) {
+            cancelStatement(statement);
+            throw new SQLTimeoutException("query timeout after " + timeoutSeconds + "s");
+        }
+    }
+
+    private void cancelStatement(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (Exception e) {
+            log.warn("cancel statement error", e);
+        }
+    }
+
+    private Object getValue(Object value) {
+        if (value instanceof LocalDate) {
+            LocalDate localDate = (LocalDate) value;
+            return localDate.format(DATE_FORMATTER);
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime localDateTime = (LocalDateTime) value;
+            return localDateTime.format(TIME_FORMATTER);
+        } else if (value instanceof Date) {
+            Date date = (Date) value;
+            return DateUtils.format(date);
+        } else if (value instanceof byte[]) {
+            return new String((byte[]) value);
+        }
+        return value;
+    }
+
+    private long estimateSize(Object value) {
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        }
+        return value == null ? 8 : 24;
+    }
+}
@@ -2,26 +2,17 @@ package com.tencent.supersonic.semantic.model.domain.utils;
 
 import static com.tencent.supersonic.common.pojo.Constants.AT_SYMBOL;
 
-import com.tencent.supersonic.common.pojo.QueryColumn;
-import com.tencent.supersonic.common.util.DateUtils;
+import com.tencent.supersonic.common.util.QueryCancelContext;
 import com.tencent.supersonic.semantic.api.model.enums.DataTypeEnum;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.model.domain.manager.QueryAdmissionManager;
 import com.tencent.supersonic.semantic.model.domain.pojo.JdbcDataSource;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
 import java.rmi.ServerException;
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
-import java.sql.SQLException;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import javax.sql.DataSource;
+import java.util.function.Consumer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,9 +31,21 @@ public class SqlUtils {
     @Autowired
     private JdbcDataSource jdbcDataSource;
 
+    @Autowired
+    private QueryAdmissionManager queryAdmissionManager;
+
     @Value("${source.result-limit:1000000}")
     private int resultLimit;
 
+    @Value("${source.result-max-bytes:536870912}")
+    private long resultMaxBytes;
+
+    @Value("${source.query-timeout-seconds:300}")
+    private int queryTimeoutSeconds;
+
+    @Value("${source.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
     @Value("${source.enable-query-log:false}")
     private boolean isQueryLogEnable;
 
@@ -70,17 +73,22 @@ public class SqlUtils {
                 .withJdbcUrl(databaseResp.getUrl())
                 .withUsername(databaseResp.getUsername())
                 .withPassword(databaseResp.getPassword())
+                .withMaxActive(databaseResp.getMaxActive())
                 .withJdbcDataSource(this.jdbcDataSource)
+                .withQueryAdmissionManager(this.queryAdmissionManager)
                 .withResultLimit(this.resultLimit)
+                .withResultMaxBytes(this.resultMaxBytes)
+                .withQueryTimeoutSeconds(this.queryTimeoutSeconds)
+                .withStreamFetchSize(this.streamFetchSize)
                 .withIsQueryLogEnable(this.isQueryLogEnable)
                 .build();
     }
 
     public List<Map<String, Object>> execute(String sql) throws ServerException {
         try {
-            List<Map<String, Object>> list = jdbcTemplate().queryForList(sql);
-            log.info("list:{}", list);
-            return list;
+            ResultRows resultRows = fetch(sql, jdbcTemplate(), resultLimit);
+            log.info("execute sql result size:{}", resultRows.size());
+            return resultRows.toResultList();
         } catch (Exception e) {
             log.error(e.toString(), e);
             throw new ServerException(e.getMessage());
@@ -92,20 +100,14 @@ public class SqlUtils {
     }
 
     public JdbcTemplate jdbcTemplate() throws RuntimeException {
-        Connection connection = null;
-        try {
-            connection = jdbcDataSourceUtils.getConnection(databaseResp);
-        } catch (Exception e) {
-            log.warn("e:", e);
-        } finally {
-            JdbcDataSourceUtils.releaseConnection(connection);
-        }
-        DataSource dataSource = jdbcDataSourceUtils.getDataSource(databaseResp);
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-        jdbcTemplate.setDatabaseProductName(databaseResp.getName());
-        jdbcTemplate.setFetchSize(500);
-        log.info("jdbcTemplate:{}, dataSource:{}", jdbcTemplate, dataSource);
-        return jdbcTemplate;
+        return jdbcDataSourceUtils.getJdbcTemplate(databaseResp);
+    }
+
+    /***
+     * close the pool of the database and drop its JdbcTemplate, called when the database config changes
+     */
+    public void releaseDataSource() {
+        jdbcDataSourceUtils.releaseDataSource(databaseResp);
     }
 
 
@@ -113,76 +115,75 @@ public class SqlUtils {
         getResult(sql, queryResultWithColumns, jdbcTemplate());
     }
 
+    /***
+     * run the query and keep the rows as value arrays in column order, truncated at maxRows or the result budget
+     * @param sql
+     * @param maxRows
+     * @return
+     */
+    public ResultRows queryRows(String sql, int maxRows) {
+        return fetch(sql, jdbcTemplate(), Math.min(maxRows, resultLimit));
+    }
+
+    /***
+     * run the query and hand each row to the handler as it is read, the rows are not kept,
+     * so a result larger than the result budget can be processed
+     * @param sql
+     * @param rowHandler
+     * @return the columns of the result, without rows
+     */
+    public ResultRows streamRows(String sql, Consumer<Map<String, Object>> rowHandler) {
+        // mysql connector/j only streams with this fetch size, any other one reads the whole result first
+        int fetchSize = DataTypeEnum.MYSQL.equals(dataTypeEnum) ? Integer.MIN_VALUE : streamFetchSize;
+        return fetch(sql, jdbcTemplate(), new ResultFetcher(sql, 0, queryTimeoutSeconds, fetchSize, rowHandler));
+    }
+
     private QueryResultWithSchemaResp getResult(String sql, QueryResultWithSchemaResp queryResultWithColumns,
             JdbcTemplate jdbcTemplate) {
-        jdbcTemplate.query(sql, rs -> {
-            if (null == rs) {
-                return queryResultWithColumns;
-            }
-
-            ResultSetMetaData metaData = rs.getMetaData();
-            List<QueryColumn> queryColumns = new ArrayList<>();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                String key = metaData.getColumnLabel(i);
-                queryColumns.add(new QueryColumn(key, metaData.getColumnTypeName(i)));
-            }
-            queryResultWithColumns.setColumns(queryColumns);
+        return fetch(sql, jdbcTemplate, resultLimit).fill(queryResultWithColumns);
+    }
 
-            List<Map<String, Object>> resultList = getAllData(rs, queryColumns);
-            queryResultWithColumns.setResultList(resultList);
-            return queryResultWithColumns;
-        });
-        return queryResultWithColumns;
+    private ResultRows fetch(String sql, JdbcTemplate jdbcTemplate, int maxRows) {
+        return fetch(sql, jdbcTemplate, new ResultFetcher(sql, maxRows, resultMaxBytes, queryTimeoutSeconds));
     }
 
-    private List<Map<String, Object>> getAllData(ResultSet rs, List<QueryColumn> queryColumns) {
-        List<Map<String, Object>> data = new ArrayList<>();
+    private ResultRows fetch(String sql, JdbcTemplate jdbcTemplate, ResultFetcher resultFetcher) {
+        // the statement is cancelled when the request running it is given up
+        QueryCancelContext.Token token = QueryCancelContext.get();
+        Runnable cancel = resultFetcher::cancel;
+        if (token != null) {
+            token.register(cancel);
+        }
+        ResultRows resultRows;
         try {
-            while (rs.next()) {
-                data.add(getLineData(rs, queryColumns));
+            // the query waits for a free slot of the database before it takes a connection of the pool
+            resultRows = queryAdmissionManager.execute(databaseResp, () -> jdbcTemplate.execute(resultFetcher));
+        } finally {
+            if (token != null) {
+                token.unregister(cancel);
             }
-        } catch (Exception e) {
-            log.warn("error in getAllData, e:", e);
         }
-        return data;
-    }
-
-    private Map<String, Object> getLineData(ResultSet rs, List<QueryColumn> queryColumns) throws SQLException {
-        Map<String, Object> map = new LinkedHashMap<>();
-        for (QueryColumn queryColumn : queryColumns) {
-            String colName = queryColumn.getNameEn();
-            Object value = rs.getObject(colName);
-            map.put(colName, getValue(value));
+        if (isQueryLogEnable) {
+            log.info("query result rows:{}, truncated:{}, sql:{}", resultRows.size(), resultRows.isTruncated(), sql);
         }
-        return map;
-    }
-
-    private Object getValue(Object value) {
-        if (value instanceof LocalDate) {
-            LocalDate localDate = (LocalDate) value;
-            return localDate.format(DateTimeFormatter.ofPattern(DateUtils.DATE_FORMAT));
-        } else if (value instanceof LocalDateTime) {
-            LocalDateTime localDateTime = (LocalDateTime) value;
-            return localDateTime.format(DateTimeFormatter.ofPattern(DateUtils.TIME_FORMAT));
-        } else if (value instanceof Date) {
-            Date date = (Date) value;
-            return DateUtils.format(date);
-        } else if (value instanceof byte[]) {
-            return new String((byte[]) value);
-        }
-        return value;
+        return resultRows;
     }
 
     public static final class SqlUtilsBuilder {
 
         private JdbcDataSource jdbcDataSource;
+        private QueryAdmissionManager queryAdmissionManager;
         private int resultLimit;
+        private long resultMaxBytes;
+        private int queryTimeoutSeconds;
+        private int streamFetchSize;
         private boolean isQueryLogEnable;
         private String name;
         private String type;
         private String jdbcUrl;
         private String username;
         private String password;
+        private Integer maxActive;
 
         private SqlUtilsBuilder() {
 
@@ -197,11 +198,31 @@ public class SqlUtils {
             return this;
         }
 
+        SqlUtilsBuilder withQueryAdmissionManager(QueryAdmissionManager queryAdmissionManager) {
+            this.queryAdmissionManager = queryAdmissionManager;
+            return this;
+        }
+
         SqlUtilsBuilder withResultLimit(int resultLimit) {
             this.resultLimit = resultLimit;
             return this;
         }
 
+        SqlUtilsBuilder withResultMaxBytes(long resultMaxBytes) {
+            this.resultMaxBytes = resultMaxBytes;
+            return this;
+        }
+
+        SqlUtilsBuilder withQueryTimeoutSeconds(int queryTimeoutSeconds) {
+            this.queryTimeoutSeconds = queryTimeoutSeconds;
+            return this;
+        }
+
+        SqlUtilsBuilder withStreamFetchSize(int streamFetchSize) {
+            this.streamFetchSize = streamFetchSize;
+            return this;
+        }
+
         SqlUtilsBuilder withIsQueryLogEnable(boolean isQueryLogEnable) {
             this.isQueryLogEnable = isQueryLogEnable;
             return this;
@@ -232,6 +253,11 @@ public class SqlUtils {
             return this;
         }
 
+        SqlUtilsBuilder withMaxActive(Integer maxActive) {
+            this.maxActive = maxActive;
+            return this;
+        }
+
         public SqlUtils build() {
             DatabaseResp databaseResp = DatabaseResp.builder()
                     .name(this.name)
@@ -239,11 +265,16 @@ public class SqlUtils {
                     .url(this.jdbcUrl)
                     .username(this.username)
                     .password(this.password)
+                    .maxActive(this.maxActive)
                     .build();
 
             SqlUtils sqlUtils = new SqlUtils(databaseResp);
             sqlUtils.jdbcDataSource = this.jdbcDataSource;
+            sqlUtils.queryAdmissionManager = this.queryAdmissionManager;
             sqlUtils.resultLimit = this.resultLimit;
+            sqlUtils.resultMaxBytes = this.resultMaxBytes;
+            sqlUtils.queryTimeoutSeconds = this.queryTimeoutSeconds;
+            sqlUtils.streamFetchSize = this.streamFetchSize;
             sqlUtils.isQueryLogEnable = this.isQueryLogEnable;
             sqlUtils.jdbcDataSourceUtils = new JdbcDataSourceUtils(this.jdbcDataSource);
 
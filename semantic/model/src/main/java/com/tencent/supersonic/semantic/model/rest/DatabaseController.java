@@ -5,6 +5,7 @@ import com.tencent.supersonic.auth.api.authentication.utils.UserHolder;
 import com.tencent.supersonic.semantic.api.model.request.DatabaseReq;
 import com.tencent.supersonic.semantic.api.model.request.SqlExecuteReq;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.QueryAdmissionResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.DatabaseService;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -89,4 +90,9 @@ public class DatabaseController {
         return databaseService.getColumns(id, db, table);
     }
 
+    @GetMapping("/admission/stats")
+    public List<QueryAdmissionResp> getAdmissionStats() {
+        return databaseService.getAdmissionStats();
+    }
+
 }
@@ -0,0 +1,108 @@
+package com.tencent.supersonic.semantic.model.domain;
+
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DatabaseDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DatasourceDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DimensionDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DomainDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.MetricDO;
+import com.tencent.supersonic.semantic.model.domain.dataobject.ModelDO;
+import com.tencent.supersonic.semantic.model.domain.pojo.MetaSnapshot;
+import java.util.ArrayList;
+import java.util.Date;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MetaSnapshotTest {
+
+    @Test
+    void index() {
+        DomainDO parent = new DomainDO();
+        parent.setId(1L);
+        parent.setBizName("parent");
+        parent.setParentId(0L);
+        DomainDO child = new DomainDO();
+        child.setId(2L);
+        child.setBizName("child");
+        child.setParentId(1L);
+        ModelDO model = new ModelDO();
+        model.setId(10L);
+        model.setDomainId(2L);
+        MetricDO metric = new MetricDO();
+        metric.setId(100L);
+        metric.setModelId(10L);
+        DimensionDO dimension = new DimensionDO();
+        dimension.setId(200L);
+        dimension.setModelId(11L);
+        DatasourceDO datasource = new DatasourceDO();
+        datasource.setId(300L);
+        datasource.setModelId(10L);
+        datasource.setDatabaseId(1000L);
+        DatabaseDO database = new DatabaseDO();
+        database.setId(1000L);
+
+        MetaSnapshot snapshot = new MetaSnapshot(3L, Lists.newArrayList(parent, child), Lists.newArrayList(model),
+                Lists.newArrayList(metric), Lists.newArrayList(dimension), Lists.newArrayList(datasource),
+                Lists.newArrayList(database));
+
+        Assertions.assertEquals(3L, snapshot.getVersion());
+        Assertions.assertEquals("parent/child/", snapshot.getDomainFullPaths().get(2L));
+        Assertions.assertSame(child, snapshot.getDomain(2L));
+        Assertions.assertSame(model, snapshot.getModel(10L));
+        Assertions.assertEquals(Lists.newArrayList(metric), snapshot.getMetrics(10L));
+        Assertions.assertTrue(snapshot.getDimensions(10L).isEmpty());
+        Assertions.assertEquals(1, snapshot.getDimensions(11L).size());
+        Assertions.assertEquals(1, snapshot.getDatasources(10L).size());
+        Assertions.assertSame(database, snapshot.getDatabase(1000L));
+        Assertions.assertSame(database, snapshot.getDatabaseOfModel(10L));
+        Assertions.assertNull(snapshot.getDatabaseOfModel(11L));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.getMetrics(10L).clear());
+    }
+
+    @Test
+    void modelDigest() {
+        ModelDO model = new ModelDO();
+        model.setId(10L);
+        MetricDO metric = new MetricDO();
+        metric.setId(100L);
+        metric.setModelId(10L);
+        metric.setUpdatedAt(new Date(1000L));
+        MetaSnapshot snapshot = new MetaSnapshot(1L, new ArrayList<>(), Lists.newArrayList(model),
+                Lists.newArrayList(metric), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        MetaSnapshot reloaded = new MetaSnapshot(2L, new ArrayList<>(), Lists.newArrayList(model),
+                Lists.newArrayList(metric), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Assertions.assertEquals(snapshot.getModelDigest(10L), reloaded.getModelDigest(10L));
+
+        MetricDO updated = new MetricDO();
+        updated.setId(100L);
+        updated.setModelId(10L);
+        updated.setUpdatedAt(new Date(2000L));
+        MetaSnapshot afterUpdate = new MetaSnapshot(3L, new ArrayList<>(), Lists.newArrayList(model),
+                Lists.newArrayList(updated), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Assertions.assertNotEquals(snapshot.getModelDigest(10L), afterUpdate.getModelDigest(10L));
+        MetaSnapshot afterDelete = new MetaSnapshot(4L, new ArrayList<>(), Lists.newArrayList(model),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Assertions.assertNotEquals(snapshot.getModelDigest(10L), afterDelete.getModelDigest(10L));
+    }
+
+    @Test
+    void missingParent() {
+        DomainDO orphan = new DomainDO();
+        orphan.setId(2L);
+        orphan.setBizName("orphan");
+        orphan.setParentId(1L);
+        DomainDO first = new DomainDO();
+        first.setId(3L);
+        first.setBizName("first");
+        first.setParentId(4L);
+        DomainDO second = new DomainDO();
+        second.setId(4L);
+        second.setBizName("second");
+        second.setParentId(3L);
+        MetaSnapshot snapshot = new MetaSnapshot(0L, Lists.newArrayList(orphan, first, second),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Assertions.assertEquals("orphan/", snapshot.getDomainFullPaths().get(2L));
+        Assertions.assertEquals("first/", snapshot.getDomainFullPaths().get(3L));
+        Assertions.assertEquals("second/", snapshot.getDomainFullPaths().get(4L));
+    }
+}
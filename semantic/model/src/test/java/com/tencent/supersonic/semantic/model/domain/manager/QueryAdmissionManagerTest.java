@@ -0,0 +1,156 @@
+package com.tencent.supersonic.semantic.model.domain.manager;
+
+import com.tencent.supersonic.common.pojo.enums.QueryLaneEnum;
+import com.tencent.supersonic.common.util.QueryLaneContext;
+import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.QueryAdmissionResp;
+import com.tencent.supersonic.semantic.model.domain.pojo.JdbcDataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class QueryAdmissionManagerTest {
+
+    private final DatabaseResp databaseResp = DatabaseResp.builder().name("1@h2")
+            .url("jdbc:h2:mem:one").username("root").maxActive(1).build();
+    private QueryAdmissionManager queryAdmissionManager;
+    private ExecutorService executorService;
+    private CountDownLatch holding;
+    private CountDownLatch finish;
+
+    @BeforeEach
+    void init() throws Exception {
+        queryAdmissionManager = new QueryAdmissionManager(new JdbcDataSource());
+        ReflectionTestUtils.setField(queryAdmissionManager, "queueSize", 1);
+        ReflectionTestUtils.setField(queryAdmissionManager, "maxWaitMs", 10000L);
+        ReflectionTestUtils.setField(queryAdmissionManager, "backgroundRatio", 0.5);
+        executorService = Executors.newFixedThreadPool(3);
+        holding = new CountDownLatch(1);
+        finish = new CountDownLatch(1);
+        executorService.submit(() -> queryAdmissionManager.execute(databaseResp, () -> {
+            holding.countDown();
+            return await(finish);
+        }));
+        Assertions.assertTrue(holding.await(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void close() {
+        finish.countDown();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void rejectWhenQueueFull() throws Exception {
+        Future<Integer> waiting = executorService.submit(() -> queryAdmissionManager.execute(databaseResp, () -> 1));
+        waitUntilWaiting(QueryLaneEnum.INTERACTIVE, 1);
+
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class,
+                () -> queryAdmissionManager.execute(databaseResp, () -> 2));
+        Assertions.assertTrue(exception.getMessage().contains("busy"));
+
+        finish.countDown();
+        Assertions.assertEquals(1, waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, getStat(QueryLaneEnum.INTERACTIVE).getRejected());
+    }
+
+    @Test
+    void rejectAfterMaxWait() throws Exception {
+        ReflectionTestUtils.setField(queryAdmissionManager, "maxWaitMs", 50L);
+        DatabaseResp other = DatabaseResp.builder().name("2@h2").url("jdbc:h2:mem:two")
+                .username("root").maxActive(1).build();
+        CountDownLatch otherHolding = new CountDownLatch(1);
+        executorService.submit(() -> queryAdmissionManager.execute(other, () -> {
+            otherHolding.countDown();
+            return await(finish);
+        }));
+        Assertions.assertTrue(otherHolding.await(5, TimeUnit.SECONDS));
+
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class,
+                () -> queryAdmissionManager.execute(other, () -> 1));
+        Assertions.assertTrue(exception.getMessage().contains("waited 50ms"));
+    }
+
+    @Test
+    void interactiveFirst() throws Exception {
+        List<QueryLaneEnum> order = new CopyOnWriteArrayList<>();
+        Future<?> dictionary = executorService.submit(() -> runInLane(QueryLaneEnum.DICTIONARY, order));
+        waitUntilWaiting(QueryLaneEnum.DICTIONARY, 1);
+        Future<?> interactive = executorService.submit(() -> runInLane(QueryLaneEnum.INTERACTIVE, order));
+        waitUntilWaiting(QueryLaneEnum.INTERACTIVE, 1);
+
+        finish.countDown();
+        interactive.get(5, TimeUnit.SECONDS);
+        dictionary.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(QueryLaneEnum.INTERACTIVE, order.get(0));
+        Assertions.assertEquals(QueryLaneEnum.DICTIONARY, order.get(1));
+    }
+
+    @Test
+    void removeLimiter() throws Exception {
+        Future<Integer> waiting = executorService.submit(() -> queryAdmissionManager.execute(databaseResp, () -> 1));
+        waitUntilWaiting(QueryLaneEnum.INTERACTIVE, 1);
+        queryAdmissionManager.remove(databaseResp);
+        Assertions.assertTrue(queryAdmissionManager.getStats().isEmpty());
+
+        // queries admitted by the removed limiter release to it, new ones get a new limiter
+        finish.countDown();
+        Assertions.assertEquals(1, waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, queryAdmissionManager.execute(databaseResp, () -> 2));
+        Assertions.assertEquals(1, getStat(QueryLaneEnum.INTERACTIVE).getAdmitted());
+    }
+
+    @Test
+    void keyedByPool() {
+        // same name on another url is another pool, its queries do not wait for the first one
+        DatabaseResp moved = DatabaseResp.builder().name("1@h2").url("jdbc:h2:mem:moved").username("root")
+                .maxActive(1).build();
+        Assertions.assertEquals(1, queryAdmissionManager.execute(moved, () -> 1));
+        Assertions.assertEquals(2 * QueryLaneEnum.values().length, queryAdmissionManager.getStats().size());
+
+        queryAdmissionManager.remove(moved);
+        Assertions.assertEquals(QueryLaneEnum.values().length, queryAdmissionManager.getStats().size());
+    }
+
+    private void runInLane(QueryLaneEnum lane, List<QueryLaneEnum> order) {
+        QueryLaneEnum previousLane = QueryLaneContext.set(lane);
+        try {
+            queryAdmissionManager.execute(databaseResp, () -> order.add(lane));
+        } finally {
+            QueryLaneContext.restore(previousLane);
+        }
+    }
+
+    private void waitUntilWaiting(QueryLaneEnum lane, int waiting) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (getStat(lane).getWaiting() < waiting) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private QueryAdmissionResp getStat(QueryLaneEnum lane) {
+        return queryAdmissionManager.getStats().stream()
+                .filter(stat -> stat.getDatabase().equals(databaseResp.getName()))
+                .filter(stat -> stat.getLane().equals(lane.name()))
+                .findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    private static Integer await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.tencent.supersonic.semantic.model.domain.utils;
+
+import com.tencent.supersonic.common.util.QueryCancelContext;
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ResultFetcherTest {
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void init() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:result_fetcher;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table s2_pv_uv (imp_date date, user_name varchar(64), pv int)");
+        for (int i = 0; i < 10; i++) {
+            jdbcTemplate.update("insert into s2_pv_uv values (date '2023-08-1" + i + "', 'user" + i + "', " + i + ")");
+        }
+    }
+
+    @Test
+    void fetch() {
+        ResultRows resultRows = jdbcTemplate.execute(new ResultFetcher(
+                "select user_name, pv, imp_date from s2_pv_uv order by pv", 100, 0, 10));
+
+        Assertions.assertFalse(resultRows.isTruncated());
+        Assertions.assertEquals(10, resultRows.size());
+        Assertions.assertEquals("USER_NAME", resultRows.getColumns().get(0).getNameEn());
+
+        List<Map<String, Object>> resultList = resultRows.toResultList();
+        Assertions.assertEquals("user1", resultList.get(1).get("USER_NAME"));
+        Assertions.assertEquals(1, resultList.get(1).get("PV"));
+        Assertions.assertEquals("2023-08-11", resultList.get(1).get("IMP_DATE"));
+    }
+
+    @Test
+    void budget() {
+        ResultRows exact = jdbcTemplate.execute(new ResultFetcher("select * from s2_pv_uv", 10, 0, 10));
+        Assertions.assertFalse(exact.isTruncated());
+        Assertions.assertEquals(10, exact.size());
+
+        ResultRows rowLimited = jdbcTemplate.execute(new ResultFetcher("select * from s2_pv_uv", 3, 0, 10));
+        Assertions.assertTrue(rowLimited.isTruncated());
+        Assertions.assertEquals(3, rowLimited.size());
+        Assertions.assertTrue(rowLimited.fill(new QueryResultWithSchemaResp()).isTruncated());
+
+        ResultRows byteLimited = jdbcTemplate.execute(new ResultFetcher("select * from s2_pv_uv", 100, 1, 10));
+        Assertions.assertTrue(byteLimited.isTruncated());
+        Assertions.assertEquals(1, byteLimited.size());
+    }
+
+    @Test
+    void stream() {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        ResultRows resultRows = jdbcTemplate.execute(new ResultFetcher(
+                "select user_name, pv from s2_pv_uv order by pv", 0, 10, 2, lines::add));
+
+        Assertions.assertFalse(resultRows.isTruncated());
+        Assertions.assertEquals(10, resultRows.size());
+        Assertions.assertTrue(resultRows.getRows().isEmpty());
+        Assertions.assertEquals("PV", resultRows.getColumns().get(1).getNameEn());
+        Assertions.assertEquals(10, lines.size());
+        Assertions.assertEquals("user9", lines.get(9).get("USER_NAME"));
+
+        lines.clear();
+        ResultRows rowLimited = jdbcTemplate.execute(new ResultFetcher(
+                "select user_name, pv from s2_pv_uv", 4, 10, 2, lines::add));
+        Assertions.assertTrue(rowLimited.isTruncated());
+        Assertions.assertEquals(4, lines.size());
+    }
+
+    @Test
+    void cancel() {
+        ResultFetcher resultFetcher = new ResultFetcher("select * from s2_pv_uv", 100, 0, 10);
+        resultFetcher.cancel();
+
+        Assertions.assertThrows(DataAccessException.class, () -> jdbcTemplate.execute(resultFetcher));
+
+        // the token of a request given up cancels the fetchers registered later
+        QueryCancelContext.Token token = new QueryCancelContext.Token();
+        token.cancel();
+        ResultFetcher late = new ResultFetcher("select * from s2_pv_uv", 100, 0, 10);
+        token.register(late::cancel);
+        Assertions.assertThrows(DataAccessException.class, () -> jdbcTemplate.execute(late));
+    }
+
+    @Test
+    void failMidStream() throws SQLException {
+        ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(1);
+        Mockito.when(metaData.getColumnLabel(1)).thenReturn("pv");
+        Mockito.when(metaData.getColumnTypeName(1)).thenReturn("INTEGER");
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getMetaData()).thenReturn(metaData);
+        Mockito.when(resultSet.next()).thenReturn(true).thenThrow(new SQLException("connection reset"));
+        Mockito.when(resultSet.getObject(1)).thenReturn(1);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.executeQuery(Mockito.anyString())).thenReturn(resultSet);
+
+        SQLException e = Assertions.assertThrows(SQLException.class,
+                () -> new ResultFetcher("select pv from s2_pv_uv", 100, 0, 10).doInStatement(statement));
+        Assertions.assertEquals("connection reset", e.getMessage());
+    }
+}
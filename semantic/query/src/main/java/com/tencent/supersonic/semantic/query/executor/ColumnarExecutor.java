@@ -0,0 +1,157 @@
+package com.tencent.supersonic.semantic.query.executor;
+
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.semantic.api.model.pojo.Measure;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarQuery;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarStore;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarTable;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.utils.QueryStructUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Runs struct queries on a single small datasource in process, over the rows the {@link ColumnarStore} keeps in
+ * memory, instead of sending the planned sql to the database. It takes the filters, groups, atomic metrics,
+ * orders and limit of a query, anything else, or a datasource that is not loaded yet, is left to the
+ * {@link JdbcExecutor}. Strings are compared case sensitively by their chars, so by default only datasources of
+ * engines comparing the same way are taken, query.executor.columnar.engine.types lists them, empty for any.
+ */
+@Slf4j
+@Component("ColumnarExecutor")
+public class ColumnarExecutor implements QueryExecutor {
+
+    private final Catalog catalog;
+    private final ColumnarStore columnarStore;
+    private final QueryStructUtils queryStructUtils;
+    private final JdbcExecutor jdbcExecutor;
+    private final ExecutorCapability capability;
+
+    public ColumnarExecutor(Catalog catalog, ColumnarStore columnarStore, QueryStructUtils queryStructUtils,
+            JdbcExecutor jdbcExecutor,
+            @Value("${query.executor.columnar.engine.types:H2}") String engineTypes) {
+        this.catalog = catalog;
+        this.columnarStore = columnarStore;
+        this.queryStructUtils = queryStructUtils;
+        this.jdbcExecutor = jdbcExecutor;
+        Set<String> types = Arrays.stream(engineTypes.split(",")).map(String::trim).filter(Strings::isNotEmpty)
+                .collect(Collectors.toSet());
+        this.capability = ExecutorCapability.of(types, columnarStore.getMaxRows(), QueryFeature.DETAIL,
+                QueryFeature.FILTER, QueryFeature.DATE_FILTER, QueryFeature.GROUP_BY, QueryFeature.AGGREGATE,
+                QueryFeature.ORDER_BY, QueryFeature.LIMIT);
+    }
+
+    @Override
+    public ExecutorCapability getCapability() {
+        return capability;
+    }
+
+    @Override
+    public boolean accept(QueryStatement queryStatement) {
+        if (!capability.supports(queryStatement) || Objects.isNull(queryStatement.getDatasourceId())
+                || Objects.isNull(queryStatement.getQueryStructReq())) {
+            return false;
+        }
+        Optional<ColumnarQuery.Plan> plan = plan(queryStatement);
+        if (!plan.isPresent()) {
+            return false;
+        }
+        queryStatement.setExecutorPlan(plan.get());
+        return true;
+    }
+
+    @Override
+    public QueryResultWithSchemaResp execute(Catalog catalog, QueryStatement queryStatement) {
+        Optional<ColumnarQuery.Plan> plan = queryStatement.getExecutorPlan() instanceof ColumnarQuery.Plan
+                ? Optional.of((ColumnarQuery.Plan) queryStatement.getExecutorPlan()) : plan(queryStatement);
+        if (!plan.isPresent()) {
+            // the statement was not planned here, or its table was dropped since
+            return jdbcExecutor.execute(catalog, queryStatement);
+        }
+        long startAt = System.currentTimeMillis();
+        QueryResultWithSchemaResp queryResultWithColumns = new QueryResultWithSchemaResp();
+        plan.get().execute().fill(queryResultWithColumns);
+        log.info("columnar query datasource:{}, rows:{}, cost:{}ms", queryStatement.getDatasourceId(),
+                queryResultWithColumns.getResultList().size(), System.currentTimeMillis() - startAt);
+        return queryResultWithColumns;
+    }
+
+    /***
+     * plan the struct query on the loaded table of the datasource, empty when the table is not loaded or can
+     * not answer the query. a planning error is logged and also leaves the query to the database
+     * @param queryStatement
+     * @return
+     */
+    private Optional<ColumnarQuery.Plan> plan(QueryStatement queryStatement) {
+        ColumnarTable table = columnarStore.getTable(queryStatement.getModelId(), queryStatement.getDatasourceId());
+        if (Objects.isNull(table)) {
+            return Optional.empty();
+        }
+        try {
+            return getQuery(queryStatement.getQueryStructReq()).flatMap(query -> query.plan(table));
+        } catch (RuntimeException e) {
+            log.warn("columnar plan error, leave the query to the database, datasource:{}",
+                    queryStatement.getDatasourceId(), e);
+            return Optional.empty();
+        }
+    }
+
+    /***
+     * the struct query over the columns of the datasource, each metric aggregates its only measure,
+     * empty when a metric is not an atomic metric of one measure
+     * @param queryStructCmd
+     * @return
+     */
+    public Optional<ColumnarQuery> getQuery(QueryStructReq queryStructCmd) {
+        ColumnarQuery columnarQuery = new ColumnarQuery();
+        columnarQuery.setGroups(new ArrayList<>(queryStructCmd.getGroups()));
+        columnarQuery.setDetail(Boolean.TRUE.equals(queryStructCmd.getNativeQuery()));
+        if (!CollectionUtils.isEmpty(queryStructCmd.getAggregators())) {
+            Map<String, MetricResp> metrics = catalog.getMetrics(queryStructCmd.getModelId()).stream()
+                    .collect(Collectors.toMap(MetricResp::getBizName, metric -> metric, (a, b) -> a));
+            for (Aggregator aggregator : queryStructCmd.getAggregators()) {
+                Measure measure = getMeasure(metrics.get(aggregator.getColumn()));
+                if (Objects.isNull(measure)) {
+                    log.debug("columnar executor declines metric:{}", aggregator.getColumn());
+                    return Optional.empty();
+                }
+                columnarQuery.getAggregates().add(new ColumnarQuery.Aggregate(aggregator.getColumn(),
+                        measure.getAgg(), measure.getBizName()));
+            }
+        }
+        columnarQuery.setWhere(queryStructUtils.generateWhere(queryStructCmd));
+        columnarQuery.setOrders(new ArrayList<>(queryStructCmd.getOrders()));
+        columnarQuery.setLimit(Objects.isNull(queryStructCmd.getLimit()) ? 0 : queryStructCmd.getLimit());
+        return Optional.of(columnarQuery);
+    }
+
+    private Measure getMeasure(MetricResp metric) {
+        if (Objects.isNull(metric) || !"ATOMIC".equalsIgnoreCase(metric.getType())
+                || Objects.isNull(metric.getTypeParams())
+                || CollectionUtils.isEmpty(metric.getTypeParams().getMeasures())
+                || metric.getTypeParams().getMeasures().size() > 1) {
+            return null;
+        }
+        Measure measure = metric.getTypeParams().getMeasures().get(0);
+        String expr = metric.getTypeParams().getExpr();
+        // a metric computed over its measure needs the database
+        if (Strings.isNotEmpty(expr) && !expr.trim().equals(measure.getBizName())) {
+            return null;
+        }
+        return measure;
+    }
+}
@@ -0,0 +1,55 @@
+package com.tencent.supersonic.semantic.query.executor;
+
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Data;
+
+/**
+ * What an executor can run, the planner describes each statement the same way and the engine routes it to the
+ * first executor whose capability covers it.
+ */
+@Data
+public class ExecutorCapability {
+
+    /**
+     * the database engines the executor runs queries of, empty for any
+     */
+    private Set<String> engineTypes = Collections.emptySet();
+    /**
+     * the largest estimated row count of the source, statements of an unknown size only go to executors
+     * without a bound
+     */
+    private long maxEstimatedRows = Long.MAX_VALUE;
+    private Set<QueryFeature> features = EnumSet.allOf(QueryFeature.class);
+
+    public static ExecutorCapability any() {
+        return new ExecutorCapability();
+    }
+
+    public static ExecutorCapability of(Set<String> engineTypes, long maxEstimatedRows,
+            QueryFeature... features) {
+        ExecutorCapability capability = new ExecutorCapability();
+        capability.setEngineTypes(engineTypes.stream().map(String::toUpperCase).collect(Collectors.toSet()));
+        capability.setMaxEstimatedRows(maxEstimatedRows);
+        capability.setFeatures(features.length == 0 ? EnumSet.noneOf(QueryFeature.class)
+                : EnumSet.copyOf(Arrays.asList(features)));
+        return capability;
+    }
+
+    public boolean supports(QueryStatement queryStatement) {
+        if (!engineTypes.isEmpty() && (Objects.isNull(queryStatement.getEngineType())
+                || !engineTypes.contains(queryStatement.getEngineType().toUpperCase()))) {
+            return false;
+        }
+        if (maxEstimatedRows < Long.MAX_VALUE && (Objects.isNull(queryStatement.getEstimatedRows())
+                || queryStatement.getEstimatedRows() > maxEstimatedRows)) {
+            return false;
+        }
+        return features.containsAll(queryStatement.getFeatures());
+    }
+}
@@ -3,8 +3,12 @@ package com.tencent.supersonic.semantic.query.executor;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
 import com.tencent.supersonic.semantic.model.domain.utils.SqlUtils;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.stereotype.Component;
@@ -19,9 +23,13 @@ public class JdbcExecutor implements QueryExecutor {
         this.sqlUtils = sqlUtils;
     }
 
+    /***
+     * runs any statement on its database, the fallback of every other executor
+     * @return
+     */
     @Override
-    public boolean accept(QueryStatement queryStatement) {
-        return true;
+    public ExecutorCapability getCapability() {
+        return ExecutorCapability.any();
     }
 
     @Override
@@ -39,4 +47,21 @@ public class JdbcExecutor implements QueryExecutor {
         return queryResultWithColumns;
     }
 
+    @Override
+    public QueryResultWithSchemaResp stream(Catalog catalog, QueryStatement queryStatement,
+            Consumer<Map<String, Object>> rowHandler) {
+        if (Strings.isEmpty(queryStatement.getSourceId())) {
+            log.warn("data base id is empty");
+            return null;
+        }
+        log.info("stream SQL: {}", queryStatement.getSql());
+        DatabaseResp databaseResp = catalog.getDatabase(Long.parseLong(queryStatement.getSourceId()));
+        ResultRows resultRows = this.sqlUtils.init(databaseResp).streamRows(queryStatement.getSql(), rowHandler);
+        log.info("stream SQL rows:{}", resultRows.size());
+        QueryResultWithSchemaResp queryResultWithColumns = new QueryResultWithSchemaResp();
+        queryResultWithColumns.setColumns(resultRows.getColumns());
+        queryResultWithColumns.setResultList(new ArrayList<>());
+        return queryResultWithColumns;
+    }
+
 }
@@ -3,10 +3,42 @@ package com.tencent.supersonic.semantic.query.executor;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface QueryExecutor {
 
-    boolean accept(QueryStatement queryStatement);
+    /***
+     * what the executor can run, negotiated against the engine type, estimated size and features the planner
+     * sets on each statement
+     * @return
+     */
+    default ExecutorCapability getCapability() {
+        return ExecutorCapability.any();
+    }
+
+    default boolean accept(QueryStatement queryStatement) {
+        return getCapability().supports(queryStatement);
+    }
 
     QueryResultWithSchemaResp execute(Catalog catalog, QueryStatement queryStatement);
+
+    /***
+     * run the statement and hand each row to the handler, the returned result has the columns and no rows.
+     * executors that cannot stream hand over the rows of the whole result
+     * @param catalog
+     * @param queryStatement
+     * @param rowHandler
+     * @return
+     */
+    default QueryResultWithSchemaResp stream(Catalog catalog, QueryStatement queryStatement,
+            Consumer<Map<String, Object>> rowHandler) {
+        QueryResultWithSchemaResp queryResultWithColumns = execute(catalog, queryStatement);
+        if (queryResultWithColumns != null && queryResultWithColumns.getResultList() != null) {
+            queryResultWithColumns.getResultList().forEach(rowHandler);
+            queryResultWithColumns.setResultList(new ArrayList<>());
+        }
+        return queryResultWithColumns;
+    }
 }
@@ -0,0 +1,26 @@
+package com.tencent.supersonic.semantic.query.executor;
+
+/**
+ * What a planned query needs from the executor that runs it, executors declare the features they support in
+ * their {@link ExecutorCapability}.
+ */
+public enum QueryFeature {
+
+    /**
+     * rows without aggregation, the native queries
+     */
+    DETAIL,
+    FILTER,
+    DATE_FILTER,
+    GROUP_BY,
+    AGGREGATE,
+    ORDER_BY,
+    LIMIT,
+    METRIC_FILTER,
+    PARAM,
+    RATIO,
+    /**
+     * sql that only a database can run, the queries not planned from a struct
+     */
+    SQL
+}
@@ -0,0 +1,168 @@
+package com.tencent.supersonic.semantic.query.executor;
+
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
+import com.tencent.supersonic.semantic.api.model.pojo.DatasourceDetail;
+import com.tencent.supersonic.semantic.api.model.pojo.Identify;
+import com.tencent.supersonic.semantic.api.model.pojo.Measure;
+import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
+import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarStore;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.utils.SqlFilterUtils;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Describes a planned struct query for the executors to negotiate on, the engine type of its database, the
+ * features it needs, the only datasource it reads when there is one, and the row count of that datasource.
+ */
+@Slf4j
+@Component
+public class QueryProfiler {
+
+    private static final Set<AggOperatorEnum> SQL_OPERATORS = new HashSet<>(Arrays.asList(
+            AggOperatorEnum.TOPN, AggOperatorEnum.PERCENTILE, AggOperatorEnum.DISTINCT));
+
+    private final Catalog catalog;
+    private final ColumnarStore columnarStore;
+    private final SqlFilterUtils sqlFilterUtils;
+
+    public QueryProfiler(Catalog catalog, ColumnarStore columnarStore, SqlFilterUtils sqlFilterUtils) {
+        this.catalog = catalog;
+        this.columnarStore = columnarStore;
+        this.sqlFilterUtils = sqlFilterUtils;
+    }
+
+    public void profile(QueryStructReq queryStructCmd, QueryStatement queryStatement) {
+        queryStatement.setQueryStructReq(queryStructCmd);
+        queryStatement.setFeatures(getFeatures(queryStructCmd));
+        DatabaseResp databaseResp = catalog.getDatabaseByModelId(queryStructCmd.getModelId());
+        if (Objects.nonNull(databaseResp)) {
+            queryStatement.setEngineType(databaseResp.getType());
+        }
+        // a rewritten statement reads a pre-aggregated table instead of the datasource
+        if (Strings.isEmpty(queryStatement.getMaterialization())) {
+            Long datasourceId = getDatasourceId(queryStructCmd);
+            queryStatement.setDatasourceId(datasourceId);
+            queryStatement.setEstimatedRows(columnarStore.estimateRows(queryStructCmd.getModelId(), datasourceId));
+        }
+        log.debug("profile engineType:{}, features:{}, datasourceId:{}, estimatedRows:{}",
+                queryStatement.getEngineType(), queryStatement.getFeatures(), queryStatement.getDatasourceId(),
+                queryStatement.getEstimatedRows());
+    }
+
+    public Set<QueryFeature> getFeatures(QueryStructReq queryStructCmd) {
+        Set<QueryFeature> features = EnumSet.noneOf(QueryFeature.class);
+        if (Boolean.TRUE.equals(queryStructCmd.getNativeQuery())) {
+            features.add(CollectionUtils.isEmpty(queryStructCmd.getAggregators()) ? QueryFeature.DETAIL
+                    : QueryFeature.SQL);
+        } else {
+            if (!CollectionUtils.isEmpty(queryStructCmd.getGroups())) {
+                features.add(QueryFeature.GROUP_BY);
+            }
+            for (Aggregator aggregator : queryStructCmd.getAggregators()) {
+                features.add(getFeature(aggregator));
+            }
+        }
+        if (!CollectionUtils.isEmpty(queryStructCmd.getDimensionFilters())) {
+            features.add(QueryFeature.FILTER);
+            if (sqlFilterUtils.hasSqlFilter(queryStructCmd.getDimensionFilters())) {
+                features.add(QueryFeature.SQL);
+            }
+        }
+        if (!CollectionUtils.isEmpty(queryStructCmd.getMetricFilters())) {
+            features.add(QueryFeature.METRIC_FILTER);
+        }
+        if (!CollectionUtils.isEmpty(queryStructCmd.getParams())) {
+            features.add(QueryFeature.PARAM);
+        }
+        if (Objects.nonNull(queryStructCmd.getDateInfo())) {
+            features.add(QueryFeature.DATE_FILTER);
+        }
+        if (!CollectionUtils.isEmpty(queryStructCmd.getOrders())) {
+            features.add(QueryFeature.ORDER_BY);
+        }
+        if (Objects.nonNull(queryStructCmd.getLimit()) && queryStructCmd.getLimit() > 0) {
+            features.add(QueryFeature.LIMIT);
+        }
+        return features;
+    }
+
+    /***
+     * the only datasource holding all groups, filter columns and metric measures of the query
+     * @param queryStructCmd
+     * @return null when the query reads several datasources or none holds all its columns
+     */
+    public Long getDatasourceId(QueryStructReq queryStructCmd) {
+        Long modelId = queryStructCmd.getModelId();
+        List<DatasourceResp> datasources = catalog.getDatasourceList(modelId);
+        if (CollectionUtils.isEmpty(datasources)) {
+            return null;
+        }
+        Map<String, Long> dimensionDatasources = catalog.getDimensions(modelId).stream()
+                .filter(d -> Objects.nonNull(d.getDatasourceId()))
+                .collect(Collectors.toMap(DimensionResp::getBizName, DimensionResp::getDatasourceId, (a, b) -> a));
+        Set<String> dimensions = new HashSet<>(queryStructCmd.getGroups());
+        dimensions.addAll(sqlFilterUtils.getFiltersCol(queryStructCmd.getOriginalFilter()));
+        dimensions.removeAll(TimeDimensionEnum.getNameList());
+        Set<String> measures = new HashSet<>();
+        Map<String, MetricResp> metrics = catalog.getMetrics(modelId).stream()
+                .collect(Collectors.toMap(MetricResp::getBizName, metric -> metric, (a, b) -> a));
+        for (String metric : queryStructCmd.getMetrics()) {
+            MetricResp metricResp = metrics.get(metric);
+            if (Objects.isNull(metricResp) || Objects.isNull(metricResp.getTypeParams())) {
+                return null;
+            }
+            metricResp.getTypeParams().getMeasures().forEach(measure -> measures.add(measure.getBizName()));
+        }
+        List<Long> candidates = datasources.stream()
+                .filter(datasource -> holds(datasource, dimensions, dimensionDatasources, measures))
+                .map(DatasourceResp::getId).collect(Collectors.toList());
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    private boolean holds(DatasourceResp datasource, Set<String> dimensions, Map<String, Long> dimensionDatasources,
+            Set<String> measures) {
+        DatasourceDetail detail = datasource.getDatasourceDetail();
+        if (Objects.isNull(detail)) {
+            return false;
+        }
+        Set<String> identifiers = CollectionUtils.isEmpty(detail.getIdentifiers()) ? new HashSet<>()
+                : detail.getIdentifiers().stream().map(Identify::getBizName).collect(Collectors.toSet());
+        for (String dimension : dimensions) {
+            if (!datasource.getId().equals(dimensionDatasources.get(dimension)) && !identifiers.contains(dimension)) {
+                return false;
+            }
+        }
+        Set<String> datasourceMeasures = CollectionUtils.isEmpty(detail.getMeasures()) ? new HashSet<>()
+                : detail.getMeasures().stream().map(Measure::getBizName).collect(Collectors.toSet());
+        return datasourceMeasures.containsAll(measures);
+    }
+
+    private QueryFeature getFeature(Aggregator aggregator) {
+        AggOperatorEnum func = aggregator.getFunc();
+        if (AggOperatorEnum.RATIO_ROLL.equals(func) || AggOperatorEnum.RATIO_OVER.equals(func)) {
+            return QueryFeature.RATIO;
+        }
+        if (SQL_OPERATORS.contains(func) || !CollectionUtils.isEmpty(aggregator.getArgs())) {
+            return QueryFeature.SQL;
+        }
+        return QueryFeature.AGGREGATE;
+    }
+}
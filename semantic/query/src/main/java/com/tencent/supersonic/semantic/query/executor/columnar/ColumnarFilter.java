@@ -0,0 +1,282 @@
+package com.tencent.supersonic.semantic.query.executor.columnar;
+
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarTable.Column;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarTable.StringColumn;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+
+/**
+ * Compiles a where clause into a condition over the rows of a {@link ColumnarTable}. Only comparisons of a
+ * column with literals joined by and, or and not are supported, the shape of the where clauses generated from
+ * the date and dimension filters of a struct query, anything else fails to compile with an
+ * {@link UnsupportedQueryException}. Conditions follow the sql three valued logic, a comparison with a null value
+ * is unknown and a row passes only when the where is true.
+ */
+public final class ColumnarFilter {
+
+    private ColumnarFilter() {
+    }
+
+    public interface Condition {
+
+        /***
+         * the value of the condition on the row, null when unknown
+         * @param row
+         * @return
+         */
+        Boolean eval(int row);
+    }
+
+    /***
+     * compile the where, the resolver maps a column of the where to a column of the table, null when it is
+     * not loaded
+     * @param where
+     * @param columnResolver
+     * @return
+     */
+    static Condition compile(String where, Function<String, Column> columnResolver) {
+        try {
+            return compile(CCJSqlParserUtil.parseCondExpression(where), columnResolver);
+        } catch (JSQLParserException e) {
+            throw new UnsupportedQueryException("can not parse where:" + where, e);
+        }
+    }
+
+    private static Condition compile(Expression expression, Function<String, Column> columnResolver) {
+        if (expression instanceof Parenthesis) {
+            return compile(((Parenthesis) expression).getExpression(), columnResolver);
+        }
+        if (expression instanceof AndExpression) {
+            Condition left = compile(((AndExpression) expression).getLeftExpression(), columnResolver);
+            Condition right = compile(((AndExpression) expression).getRightExpression(), columnResolver);
+            return row -> and(left.eval(row), right.eval(row));
+        }
+        if (expression instanceof OrExpression) {
+            Condition left = compile(((OrExpression) expression).getLeftExpression(), columnResolver);
+            Condition right = compile(((OrExpression) expression).getRightExpression(), columnResolver);
+            return row -> or(left.eval(row), right.eval(row));
+        }
+        if (expression instanceof NotExpression) {
+            return not(compile(((NotExpression) expression).getExpression(), columnResolver));
+        }
+        if (expression instanceof ComparisonOperator) {
+            return compileComparison((ComparisonOperator) expression, columnResolver);
+        }
+        if (expression instanceof InExpression) {
+            return compileIn((InExpression) expression, columnResolver);
+        }
+        if (expression instanceof IsNullExpression) {
+            IsNullExpression isNull = (IsNullExpression) expression;
+            Column column = getColumn(isNull.getLeftExpression(), columnResolver);
+            boolean not = isNull.isNot();
+            return row -> column.isNull(row) != not;
+        }
+        if (expression instanceof LikeExpression) {
+            return compileLike((LikeExpression) expression, columnResolver);
+        }
+        if (expression instanceof Between) {
+            Between between = (Between) expression;
+            Column column = getColumn(between.getLeftExpression(), columnResolver);
+            Object start = getLiteral(between.getBetweenExpressionStart());
+            Object end = getLiteral(between.getBetweenExpressionEnd());
+            Condition condition = row -> column.isNull(row) ? null
+                    : compare(column.get(row), start) >= 0 && compare(column.get(row), end) <= 0;
+            return between.isNot() ? not(condition) : condition;
+        }
+        throw new UnsupportedQueryException("unsupported condition:" + expression);
+    }
+
+    private static Condition compileComparison(ComparisonOperator comparison,
+            Function<String, Column> columnResolver) {
+        boolean reversed = !(comparison.getLeftExpression() instanceof net.sf.jsqlparser.schema.Column);
+        Expression columnExpression = reversed ? comparison.getRightExpression() : comparison.getLeftExpression();
+        Expression literalExpression = reversed ? comparison.getLeftExpression() : comparison.getRightExpression();
+        Column column = getColumn(columnExpression, columnResolver);
+        Object literal = getLiteral(literalExpression);
+        if (comparison instanceof EqualsTo || comparison instanceof NotEqualsTo) {
+            boolean equals = comparison instanceof EqualsTo;
+            if (column instanceof StringColumn && literal instanceof String) {
+                StringColumn stringColumn = (StringColumn) column;
+                int code = stringColumn.getCode((String) literal);
+                return row -> stringColumn.isNull(row) ? null : (stringColumn.getCodeAt(row) == code) == equals;
+            }
+            return row -> column.isNull(row) ? null : (compare(column.get(row), literal) == 0) == equals;
+        }
+        int sign = reversed ? -1 : 1;
+        if (comparison instanceof GreaterThan) {
+            return row -> column.isNull(row) ? null : sign * compare(column.get(row), literal) > 0;
+        }
+        if (comparison instanceof GreaterThanEquals) {
+            return row -> column.isNull(row) ? null : sign * compare(column.get(row), literal) >= 0;
+        }
+        if (comparison instanceof MinorThan) {
+            return row -> column.isNull(row) ? null : sign * compare(column.get(row), literal) < 0;
+        }
+        if (comparison instanceof MinorThanEquals) {
+            return row -> column.isNull(row) ? null : sign * compare(column.get(row), literal) <= 0;
+        }
+        throw new UnsupportedQueryException("unsupported comparison:" + comparison);
+    }
+
+    private static Condition compileIn(InExpression in, Function<String, Column> columnResolver) {
+        Column column = getColumn(in.getLeftExpression(), columnResolver);
+        if (!(in.getRightItemsList() instanceof ExpressionList)) {
+            throw new UnsupportedQueryException("unsupported in:" + in);
+        }
+        List<Object> literals = new ArrayList<>();
+        for (Expression expression : ((ExpressionList) in.getRightItemsList()).getExpressions()) {
+            literals.add(getLiteral(expression));
+        }
+        boolean not = in.isNot();
+        if (column instanceof StringColumn && literals.stream().allMatch(literal -> literal instanceof String)) {
+            StringColumn stringColumn = (StringColumn) column;
+            BitSet codes = new BitSet(stringColumn.getCardinality());
+            literals.stream().mapToInt(literal -> stringColumn.getCode((String) literal))
+                    .filter(code -> code >= 0).forEach(codes::set);
+            return row -> stringColumn.isNull(row) ? null : codes.get(stringColumn.getCodeAt(row)) != not;
+        }
+        return row -> {
+            if (column.isNull(row)) {
+                return null;
+            }
+            Object value = column.get(row);
+            return literals.stream().anyMatch(literal -> compare(value, literal) == 0) != not;
+        };
+    }
+
+    private static Condition compileLike(LikeExpression like, Function<String, Column> columnResolver) {
+        if (like.isCaseInsensitive() || Objects.nonNull(like.getEscape())) {
+            throw new UnsupportedQueryException("unsupported like:" + like);
+        }
+        Column column = getColumn(like.getLeftExpression(), columnResolver);
+        Pattern pattern = toPattern(String.valueOf(getLiteral(like.getRightExpression())));
+        boolean not = like.isNot();
+        return row -> column.isNull(row) ? null : pattern.matcher(String.valueOf(column.get(row))).matches() != not;
+    }
+
+    private static Pattern toPattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : like.toCharArray()) {
+            if (c == '%' || c == '_') {
+                regex.append(Pattern.quote(literal.toString())).append(c == '%' ? ".*" : ".");
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+            }
+        }
+        regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static Column getColumn(Expression expression, Function<String, Column> columnResolver) {
+        if (!(expression instanceof net.sf.jsqlparser.schema.Column)) {
+            throw new UnsupportedQueryException("unsupported operand:" + expression);
+        }
+        String name = ((net.sf.jsqlparser.schema.Column) expression).getColumnName().replace("`", "")
+                .replace("\"", "");
+        Column column = columnResolver.apply(name);
+        if (Objects.isNull(column)) {
+            throw new UnsupportedQueryException("column not loaded:" + name);
+        }
+        return column;
+    }
+
+    private static Object getLiteral(Expression expression) {
+        if (expression instanceof StringValue) {
+            return ((StringValue) expression).getValue().replace("''", "'");
+        }
+        if (expression instanceof LongValue) {
+            return ((LongValue) expression).getValue();
+        }
+        if (expression instanceof DoubleValue) {
+            return ((DoubleValue) expression).getValue();
+        }
+        if (expression instanceof SignedExpression && ((SignedExpression) expression).getSign() == '-') {
+            Object value = getLiteral(((SignedExpression) expression).getExpression());
+            if (value instanceof Long) {
+                return -(Long) value;
+            }
+            if (value instanceof Double) {
+                return -(Double) value;
+            }
+        }
+        throw new UnsupportedQueryException("unsupported literal:" + expression);
+    }
+
+    /***
+     * compare as numbers when one side is a number and the other one converts, as strings otherwise
+     * @param value
+     * @param literal
+     * @return
+     */
+    static int compare(Object value, Object literal) {
+        if (value instanceof Number || literal instanceof Number) {
+            Double left = toDouble(value);
+            Double right = toDouble(literal);
+            if (left != null && right != null) {
+                return Double.compare(left, right);
+            }
+        }
+        return String.valueOf(value).compareTo(String.valueOf(literal));
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Condition not(Condition condition) {
+        return row -> {
+            Boolean value = condition.eval(row);
+            return value == null ? null : !value;
+        };
+    }
+
+    private static Boolean and(Boolean left, Boolean right) {
+        if (Boolean.FALSE.equals(left) || Boolean.FALSE.equals(right)) {
+            return false;
+        }
+        return left == null || right == null ? null : true;
+    }
+
+    private static Boolean or(Boolean left, Boolean right) {
+        if (Boolean.TRUE.equals(left) || Boolean.TRUE.equals(right)) {
+            return true;
+        }
+        return left == null || right == null ? null : false;
+    }
+}
@@ -0,0 +1,389 @@
+package com.tencent.supersonic.semantic.query.executor.columnar;
+
+import com.tencent.supersonic.common.pojo.Order;
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarTable.Column;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarTable.DoubleColumn;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarTable.LongColumn;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A struct query over one {@link ColumnarTable}: filter the rows by the where, group them and aggregate the
+ * measures, or keep them as they are for a detail query, then order and limit. The result has the columns a
+ * database returns for the planned sql, the groups followed by the metrics. The query is planned once against the
+ * table, a query the table can not answer gets no plan, so the caller can leave it to the database.
+ */
+@Data
+@Slf4j
+public class ColumnarQuery {
+
+    private static final String DESC = "desc";
+    private static final String BIGINT = "BIGINT";
+    private static final String DOUBLE = "DOUBLE";
+
+    private List<String> groups = new ArrayList<>();
+    private List<Aggregate> aggregates = new ArrayList<>();
+    private String where;
+    private List<Order> orders = new ArrayList<>();
+    private long limit;
+    /**
+     * the rows without grouping, projected to the groups
+     */
+    private boolean detail;
+
+    /***
+     * plan the query on the table, empty when the table misses a column the query reads or the query needs
+     * something that is not supported
+     * @param table
+     * @return
+     */
+    public Optional<Plan> plan(ColumnarTable table) {
+        try {
+            return Optional.of(compile(table));
+        } catch (UnsupportedQueryException e) {
+            log.debug("columnar query not supported:{}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private ResultRows execute(Plan plan) {
+        ColumnarTable table = plan.table;
+        BitSet rows = new BitSet(table.getRowCount());
+        for (int row = 0; row < table.getRowCount(); row++) {
+            if (plan.where == null || Boolean.TRUE.equals(plan.where.eval(row))) {
+                rows.set(row);
+            }
+        }
+        List<Object[]> result = detail ? project(plan, rows) : aggregate(plan, rows);
+        if (!plan.orders.isEmpty()) {
+            result.sort(plan.orders.stream().reduce(Comparator::thenComparing).get());
+        }
+        if (limit > 0 && result.size() > limit) {
+            result = new ArrayList<>(result.subList(0, (int) limit));
+        }
+        return new ResultRows(plan.columns, result, false);
+    }
+
+    private Plan compile(ColumnarTable table) {
+        Plan plan = new Plan(table);
+        List<String> names = new ArrayList<>();
+        for (String group : groups) {
+            Column column = getColumn(table, group);
+            plan.groups.add(column);
+            plan.columns.add(new QueryColumn(group, column.getType()));
+            names.add(group);
+        }
+        if (detail && !aggregates.isEmpty()) {
+            throw new UnsupportedQueryException("detail query with metrics");
+        }
+        for (Aggregate aggregate : aggregates) {
+            Column column = getColumn(table, aggregate.getColumn());
+            String agg = Objects.isNull(aggregate.getAgg()) ? "" : aggregate.getAgg().toLowerCase();
+            plan.columns.add(new QueryColumn(aggregate.getName(), getType(agg, column)));
+            plan.measures.add(column);
+            plan.aggs.add(agg);
+            // fails on an agg the column does not support
+            newAccumulator(agg, column);
+            names.add(aggregate.getName());
+        }
+        if (Objects.nonNull(where) && !where.trim().isEmpty()) {
+            plan.where = ColumnarFilter.compile(where, table::getColumn);
+        }
+        for (Order order : orders) {
+            int index = names.indexOf(order.getColumn());
+            if (index < 0) {
+                throw new UnsupportedQueryException("order column not selected:" + order.getColumn());
+            }
+            Comparator<Object[]> comparator = (a, b) -> compareNullsFirst(a[index], b[index]);
+            plan.orders.add(DESC.equalsIgnoreCase(order.getDirection()) ? comparator.reversed() : comparator);
+        }
+        return plan;
+    }
+
+    private List<Object[]> project(Plan plan, BitSet rows) {
+        List<Object[]> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            Object[] values = new Object[plan.groups.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = plan.groups.get(i).get(row);
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    private List<Object[]> aggregate(Plan plan, BitSet rows) {
+        Map<List<Object>, Accumulator[]> groupAccumulators = new LinkedHashMap<>();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            Object[] key = new Object[plan.groups.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = plan.groups.get(i).get(row);
+            }
+            Accumulator[] accumulators = groupAccumulators.computeIfAbsent(Arrays.asList(key),
+                    k -> newAccumulators(plan));
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].add(plan.measures.get(i), row);
+            }
+        }
+        // an aggregation without groups returns one row, even over no rows
+        if (groupAccumulators.isEmpty() && plan.groups.isEmpty()) {
+            groupAccumulators.put(new ArrayList<>(), newAccumulators(plan));
+        }
+        List<Object[]> result = new ArrayList<>(groupAccumulators.size());
+        for (Map.Entry<List<Object>, Accumulator[]> entry : groupAccumulators.entrySet()) {
+            Object[] values = new Object[plan.groups.size() + plan.measures.size()];
+            for (int i = 0; i < plan.groups.size(); i++) {
+                values[i] = entry.getKey().get(i);
+            }
+            for (int i = 0; i < plan.measures.size(); i++) {
+                values[plan.groups.size() + i] = entry.getValue()[i].get();
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    private static Accumulator[] newAccumulators(Plan plan) {
+        Accumulator[] accumulators = new Accumulator[plan.aggs.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = newAccumulator(plan.aggs.get(i), plan.measures.get(i));
+        }
+        return accumulators;
+    }
+
+    private static Accumulator newAccumulator(String agg, Column column) {
+        switch (agg) {
+            case "sum":
+                if (column instanceof LongColumn) {
+                    return new LongSum();
+                }
+                if (column instanceof DoubleColumn) {
+                    return new DoubleSum();
+                }
+                break;
+            case "avg":
+                if (column.isNumeric()) {
+                    return new Avg();
+                }
+                break;
+            case "count":
+                return new Count();
+            case "count_distinct":
+                return new CountDistinct();
+            case "max":
+                return new Extreme(1);
+            case "min":
+                return new Extreme(-1);
+            default:
+                break;
+        }
+        throw new UnsupportedQueryException("unsupported agg:" + agg + " on column:" + column.getName());
+    }
+
+    private static String getType(String agg, Column column) {
+        switch (agg) {
+            case "sum":
+                return column instanceof LongColumn ? BIGINT : DOUBLE;
+            case "count":
+            case "count_distinct":
+                return BIGINT;
+            case "avg":
+                return DOUBLE;
+            default:
+                return column.getType();
+        }
+    }
+
+    private static Column getColumn(ColumnarTable table, String name) {
+        Column column = table.getColumn(name);
+        if (Objects.isNull(column)) {
+            throw new UnsupportedQueryException("column not loaded:" + name);
+        }
+        return column;
+    }
+
+    private static int compareNullsFirst(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return ColumnarFilter.compare(a, b);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Aggregate {
+
+        /**
+         * the metric the value is returned as
+         */
+        private String name;
+        /**
+         * sum, count, count_distinct, max, min or avg
+         */
+        private String agg;
+        /**
+         * the measure column aggregated
+         */
+        private String column;
+    }
+
+    /**
+     * The query compiled against the columns of one table, it keeps reading that table when the store
+     * has loaded a newer one since.
+     */
+    public final class Plan {
+
+        private final ColumnarTable table;
+        private final List<Column> groups = new ArrayList<>();
+        private final List<Column> measures = new ArrayList<>();
+        private final List<String> aggs = new ArrayList<>();
+        private final List<QueryColumn> columns = new ArrayList<>();
+        private final List<Comparator<Object[]>> orders = new ArrayList<>();
+        private ColumnarFilter.Condition where;
+
+        private Plan(ColumnarTable table) {
+            this.table = table;
+        }
+
+        public ResultRows execute() {
+            return ColumnarQuery.this.execute(this);
+        }
+    }
+
+    private interface Accumulator {
+
+        void add(Column column, int row);
+
+        Object get();
+    }
+
+    private static final class LongSum implements Accumulator {
+
+        private long sum;
+        private boolean any;
+
+        @Override
+        public void add(Column column, int row) {
+            if (!column.isNull(row)) {
+                sum += ((LongColumn) column).getLong(row);
+                any = true;
+            }
+        }
+
+        @Override
+        public Object get() {
+            return any ? sum : null;
+        }
+    }
+
+    private static final class DoubleSum implements Accumulator {
+
+        private double sum;
+        private boolean any;
+
+        @Override
+        public void add(Column column, int row) {
+            if (!column.isNull(row)) {
+                sum += ((DoubleColumn) column).getDouble(row);
+                any = true;
+            }
+        }
+
+        @Override
+        public Object get() {
+            return any ? sum : null;
+        }
+    }
+
+    private static final class Avg implements Accumulator {
+
+        private double sum;
+        private long count;
+
+        @Override
+        public void add(Column column, int row) {
+            if (!column.isNull(row)) {
+                sum += ((Number) column.get(row)).doubleValue();
+                count++;
+            }
+        }
+
+        @Override
+        public Object get() {
+            return count > 0 ? sum / count : null;
+        }
+    }
+
+    private static final class Count implements Accumulator {
+
+        private long count;
+
+        @Override
+        public void add(Column column, int row) {
+            if (!column.isNull(row)) {
+                count++;
+            }
+        }
+
+        @Override
+        public Object get() {
+            return count;
+        }
+    }
+
+    private static final class CountDistinct implements Accumulator {
+
+        private final Set<Object> values = new HashSet<>();
+
+        @Override
+        public void add(Column column, int row) {
+            if (!column.isNull(row)) {
+                values.add(column.get(row));
+            }
+        }
+
+        @Override
+        public Object get() {
+            return (long) values.size();
+        }
+    }
+
+    private static final class Extreme implements Accumulator {
+
+        private final int sign;
+        private Object value;
+
+        private Extreme(int sign) {
+            this.sign = sign;
+        }
+
+        @Override
+        public void add(Column column, int row) {
+            Object current = column.get(row);
+            if (current != null && (value == null || sign * ColumnarFilter.compare(current, value) > 0)) {
+                value = current;
+            }
+        }
+
+        @Override
+        public Object get() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.tencent.supersonic.semantic.query.executor.columnar;
+
+import com.tencent.supersonic.common.util.cache.CacheTags;
+import com.tencent.supersonic.common.util.cache.CacheUtils;
+import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
+import com.tencent.supersonic.semantic.api.model.pojo.DatasourceDetail;
+import com.tencent.supersonic.semantic.api.model.pojo.Dim;
+import com.tencent.supersonic.semantic.api.model.pojo.Identify;
+import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
+import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.model.domain.adaptor.engineadapter.EngineAdaptorFactory;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
+import com.tencent.supersonic.semantic.model.domain.utils.SqlUtils;
+import com.tencent.supersonic.semantic.model.domain.utils.SysTimeDimensionBuilder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Keeps the rows of small datasources in memory as {@link ColumnarTable}s, with one column per dimension,
+ * system time dimension, identifier and measure of the datasource. A table is loaded in the background the
+ * first time a query reads its datasource and served for at most query.executor.columnar.refresh.seconds,
+ * or until the model or the datasource is changed. Before a load the rows are counted with a limited probe,
+ * datasources with more than query.executor.columnar.max.rows rows are not read, they are checked again once
+ * per refresh interval. All tables together hold at most query.executor.columnar.max.total.rows rows, the
+ * least recently read tables are dropped for a new one, and a sweep once per refresh interval drops the
+ * expired tables and those of changed or deleted datasources and models.
+ */
+@Slf4j
+@Component
+public class ColumnarStore {
+
+    private static final String SOURCE_ALIAS = "src";
+
+    private final Catalog catalog;
+    private final SqlUtils sqlUtils;
+    private final CacheUtils cacheUtils;
+    private final boolean enable;
+    private final int maxRows;
+    private final long maxTotalRows;
+    private final long refreshMillis;
+    private final Map<Long, Entry> tables = new ConcurrentHashMap<>();
+    private final Map<Long, Long> skippedAt = new ConcurrentHashMap<>();
+    private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+    private final AtomicLong reads = new AtomicLong();
+    private final ScheduledExecutorService loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "columnar-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ColumnarStore(Catalog catalog, SqlUtils sqlUtils, CacheUtils cacheUtils,
+            @Value("${query.executor.columnar.enable:true}") boolean enable,
+            @Value("${query.executor.columnar.max.rows:50000}") int maxRows,
+            @Value("${query.executor.columnar.max.total.rows:500000}") long maxTotalRows,
+            @Value("${query.executor.columnar.refresh.seconds:300}") long refreshSeconds) {
+        this.catalog = catalog;
+        this.sqlUtils = sqlUtils;
+        this.cacheUtils = cacheUtils;
+        this.enable = enable;
+        this.maxRows = (int) Math.min(maxRows, maxTotalRows);
+        this.maxTotalRows = maxTotalRows;
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(refreshSeconds);
+        if (enable && refreshMillis > 0) {
+            loader.scheduleWithFixedDelay(this::sweep, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /***
+     * the row count of the datasource, loading it in the background when no fresh table is kept
+     * @param modelId
+     * @param datasourceId
+     * @return the rows of the kept table, more than the max rows for a datasource too large to keep or
+     *         failing to load, null when not known yet
+     */
+    public Long estimateRows(Long modelId, Long datasourceId) {
+        if (!enable || Objects.isNull(datasourceId)) {
+            return null;
+        }
+        ColumnarTable table = getTable(modelId, datasourceId);
+        if (Objects.nonNull(table)) {
+            return (long) table.getRowCount();
+        }
+        Long checkedAt = skippedAt.get(datasourceId);
+        if (Objects.nonNull(checkedAt) && System.currentTimeMillis() - checkedAt < refreshMillis) {
+            return maxRows + 1L;
+        }
+        scheduleLoad(modelId, datasourceId);
+        return null;
+    }
+
+    /***
+     * the table of the datasource, null when it is not loaded, older than the refresh interval or older
+     * than the last change of the model or the datasource
+     * @param modelId
+     * @param datasourceId
+     * @return
+     */
+    public ColumnarTable getTable(Long modelId, Long datasourceId) {
+        if (!enable || Objects.isNull(datasourceId)) {
+            return null;
+        }
+        Entry entry = tables.get(datasourceId);
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        if (isStale(entry) || Objects.nonNull(modelId) && !modelId.equals(entry.modelId)) {
+            tables.remove(datasourceId, entry);
+            return null;
+        }
+        entry.readAt = reads.incrementAndGet();
+        return entry.table;
+    }
+
+    /***
+     * the rows of all kept tables
+     * @return
+     */
+    public long getTotalRows() {
+        return tables.values().stream().mapToLong(entry -> entry.table.getRowCount()).sum();
+    }
+
+    /***
+     * read the rows of the datasource from its database and keep them, dropping the least recently read
+     * tables over the total rows. a datasource with more than the max rows is only recorded as too large
+     * @param modelId
+     * @param datasourceId
+     * @return the loaded table, null when the datasource is too large
+     */
+    public ColumnarTable load(Long modelId, Long datasourceId) {
+        long startAt = System.currentTimeMillis();
+        DatasourceResp datasource = catalog.getDatasourceList(modelId).stream()
+                .filter(d -> datasourceId.equals(d.getId())).findFirst()
+                .orElseThrow(() -> new RuntimeException("datasource not found:" + datasourceId));
+        DatabaseResp database = catalog.getDatabase(datasource.getDatabaseId());
+        SqlUtils databaseSqlUtils = sqlUtils.init(database);
+        ResultRows probe = databaseSqlUtils.queryRows(getProbeSql(datasource, database.getType(), maxRows + 1), 1);
+        if (probe.size() == 0 || ((Number) probe.getRows().get(0)[0]).longValue() > maxRows) {
+            return skip(datasourceId, startAt);
+        }
+        String sql = getLoadSql(datasource, catalog.getDimensions(modelId), database.getType());
+        ResultRows resultRows = databaseSqlUtils.queryRows(sql, maxRows + 1);
+        if (resultRows.isTruncated() || resultRows.size() > maxRows) {
+            return skip(datasourceId, startAt);
+        }
+        // stamped with the start of the load, so a metadata change during the load stales the table
+        ColumnarTable table = ColumnarTable.of(datasourceId, resultRows, startAt);
+        tables.put(datasourceId, new Entry(table, modelId, reads.incrementAndGet()));
+        skippedAt.remove(datasourceId);
+        evictOverBudget(datasourceId);
+        log.info("load datasource:{} in memory, rows:{}, columns:{}, cost:{}ms", datasourceId,
+                table.getRowCount(), table.getColumns().size(), System.currentTimeMillis() - startAt);
+        return table;
+    }
+
+    /***
+     * select every dimension, system time dimension, identifier and measure of the datasource, each named by
+     * its biz name as the queries refer to it
+     * @param datasource
+     * @param dimensions the dimensions of the model
+     * @param engineType
+     * @return
+     */
+    public static String getLoadSql(DatasourceResp datasource, List<DimensionResp> dimensions, String engineType) {
+        DatasourceDetail detail = datasource.getDatasourceDetail();
+        String source = getSource(datasource);
+        Map<String, String> selects = new LinkedHashMap<>();
+        if (!CollectionUtils.isEmpty(dimensions)) {
+            dimensions.stream().filter(d -> datasource.getId().equals(d.getDatasourceId()))
+                    .filter(d -> Strings.isNotEmpty(d.getExpr()))
+                    .forEach(d -> selects.putIfAbsent(d.getBizName(), d.getExpr()));
+        }
+        List<String> sysTimeNames = TimeDimensionEnum.getNameList();
+        List<Dim> dims = new ArrayList<>();
+        if (!CollectionUtils.isEmpty(detail.getDimensions())) {
+            dims.addAll(detail.getDimensions().stream().filter(d -> !sysTimeNames.contains(d.getBizName()))
+                    .collect(Collectors.toList()));
+        }
+        dims.forEach(d -> selects.putIfAbsent(d.getBizName(), d.getExpr()));
+        SysTimeDimensionBuilder.addSysTimeDimension(dims, EngineAdaptorFactory.getEngineAdaptor(engineType));
+        dims.stream().filter(d -> sysTimeNames.contains(d.getBizName()))
+                .forEach(d -> selects.putIfAbsent(d.getBizName(), d.getExpr()));
+        if (!CollectionUtils.isEmpty(detail.getIdentifiers())) {
+            detail.getIdentifiers().stream().map(Identify::getBizName)
+                    .forEach(bizName -> selects.putIfAbsent(bizName, bizName));
+        }
+        if (!CollectionUtils.isEmpty(detail.getMeasures())) {
+            detail.getMeasures().stream().filter(m -> Strings.isNotEmpty(m.getExpr()))
+                    .forEach(m -> selects.putIfAbsent(m.getBizName(), m.getExpr()));
+        }
+        selects.values().removeIf(Strings::isEmpty);
+        return String.format("select %s from %s", selects.entrySet().stream()
+                .map(select -> select.getValue() + " as " + select.getKey())
+                .collect(Collectors.joining(",")), source);
+    }
+
+    /***
+     * count the rows of the datasource up to the limit, without reading its columns
+     * @param datasource
+     * @param engineType
+     * @param limit
+     * @return
+     */
+    public static String getProbeSql(DatasourceResp datasource, String engineType, long limit) {
+        String limited = EngineAdaptorFactory.getEngineAdaptor(engineType)
+                .getLimitSql("select 1 as probe_row from " + getSource(datasource), limit);
+        return String.format("select count(*) from (%s) probe", limited);
+    }
+
+    /***
+     * drop the expired tables, those of changed or deleted datasources and models and the too large marks
+     * older than the refresh interval
+     */
+    public void sweep() {
+        tables.entrySet().removeIf(entry -> isStale(entry.getValue()));
+        long now = System.currentTimeMillis();
+        skippedAt.values().removeIf(checkedAt -> now - checkedAt >= refreshMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private void scheduleLoad(Long modelId, Long datasourceId) {
+        if (!loading.add(datasourceId)) {
+            return;
+        }
+        try {
+            loader.execute(() -> {
+                try {
+                    load(modelId, datasourceId);
+                } catch (Exception e) {
+                    log.warn("load datasource:{} in memory failed", datasourceId, e);
+                    skippedAt.put(datasourceId, System.currentTimeMillis());
+                } finally {
+                    loading.remove(datasourceId);
+                }
+            });
+        } catch (RuntimeException e) {
+            loading.remove(datasourceId);
+            log.warn("schedule load of datasource:{} failed", datasourceId, e);
+        }
+    }
+
+    private static String getSource(DatasourceResp datasource) {
+        DatasourceDetail detail = datasource.getDatasourceDetail();
+        if (Strings.isNotEmpty(detail.getSqlQuery())) {
+            return "(" + detail.getSqlQuery() + ") " + SOURCE_ALIAS;
+        }
+        if (Strings.isNotEmpty(detail.getTableQuery())) {
+            return detail.getTableQuery();
+        }
+        throw new RuntimeException("datasource has no sql or table:" + datasource.getId());
+    }
+
+    private ColumnarTable skip(Long datasourceId, long startAt) {
+        log.info("datasource:{} over {} rows, not kept in memory", datasourceId, maxRows);
+        tables.remove(datasourceId);
+        skippedAt.put(datasourceId, startAt);
+        return null;
+    }
+
+    private synchronized void evictOverBudget(Long loadedId) {
+        long totalRows = getTotalRows();
+        while (totalRows > maxTotalRows) {
+            Map.Entry<Long, Entry> coldest = tables.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(loadedId))
+                    .min(Comparator.comparingLong(entry -> entry.getValue().readAt)).orElse(null);
+            if (Objects.isNull(coldest)) {
+                return;
+            }
+            tables.remove(coldest.getKey(), coldest.getValue());
+            totalRows -= coldest.getValue().table.getRowCount();
+            log.info("drop datasource:{} from memory for the total rows:{}", coldest.getKey(), maxTotalRows);
+        }
+    }
+
+    private boolean isStale(Entry entry) {
+        ColumnarTable table = entry.table;
+        return System.currentTimeMillis() - table.getLoadedAt() >= refreshMillis
+                || cacheUtils.getTagEvictedAt(CacheTags.datasource(table.getDatasourceId())) >= table.getLoadedAt()
+                || cacheUtils.getTagEvictedAt(CacheTags.model(entry.modelId)) >= table.getLoadedAt();
+    }
+
+    private static final class Entry {
+
+        private final ColumnarTable table;
+        private final Long modelId;
+        /**
+         * the sequence number of the last read, a new table counts as read
+         */
+        private volatile long readAt;
+
+        private Entry(ColumnarTable table, Long modelId, long readAt) {
+            this.table = table;
+            this.modelId = modelId;
+            this.readAt = readAt;
+        }
+    }
+}
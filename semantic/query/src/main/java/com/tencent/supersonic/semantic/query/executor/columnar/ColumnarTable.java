@@ -0,0 +1,267 @@
+package com.tencent.supersonic.semantic.query.executor.columnar;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows of one datasource held column by column. Integral columns are kept as longs, other numbers as
+ * doubles and everything else as strings encoded against a dictionary of the distinct values, so a filter
+ * on a string compares ints and a table takes about the size of its values.
+ */
+public class ColumnarTable {
+
+    private final Long datasourceId;
+    private final int rowCount;
+    private final Map<String, Column> columns;
+    private final long loadedAt;
+
+    public ColumnarTable(Long datasourceId, int rowCount, Map<String, Column> columns, long loadedAt) {
+        this.datasourceId = datasourceId;
+        this.rowCount = rowCount;
+        this.columns = Collections.unmodifiableMap(columns);
+        this.loadedAt = loadedAt;
+    }
+
+    public static ColumnarTable of(Long datasourceId, ResultRows resultRows, long loadedAt) {
+        List<Object[]> rows = resultRows.getRows();
+        Map<String, Column> columns = new LinkedHashMap<>();
+        for (int i = 0; i < resultRows.getColumns().size(); i++) {
+            QueryColumn queryColumn = resultRows.getColumns().get(i);
+            columns.put(queryColumn.getNameEn(), buildColumn(queryColumn, rows, i));
+        }
+        return new ColumnarTable(datasourceId, rows.size(), columns, loadedAt);
+    }
+
+    public Long getDatasourceId() {
+        return datasourceId;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public Column getColumn(String name) {
+        return columns.get(name);
+    }
+
+    public Map<String, Column> getColumns() {
+        return columns;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    private static Column buildColumn(QueryColumn queryColumn, List<Object[]> rows, int index) {
+        boolean integral = true;
+        boolean numeric = true;
+        for (Object[] row : rows) {
+            Object value = row[index];
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof Number)) {
+                numeric = false;
+                integral = false;
+                break;
+            }
+            integral = integral && isIntegral((Number) value);
+        }
+        String name = queryColumn.getNameEn();
+        String type = queryColumn.getType();
+        if (numeric && integral) {
+            LongColumn column = new LongColumn(name, type, rows.size());
+            for (int r = 0; r < rows.size(); r++) {
+                column.set(r, (Number) rows.get(r)[index]);
+            }
+            return column;
+        }
+        if (numeric) {
+            DoubleColumn column = new DoubleColumn(name, type, rows.size());
+            for (int r = 0; r < rows.size(); r++) {
+                column.set(r, (Number) rows.get(r)[index]);
+            }
+            return column;
+        }
+        StringColumn column = new StringColumn(name, type, rows.size());
+        for (int r = 0; r < rows.size(); r++) {
+            Object value = rows.get(r)[index];
+            column.set(r, value == null ? null : String.valueOf(value));
+        }
+        return column;
+    }
+
+    private static boolean isIntegral(Number value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return true;
+        }
+        if (value instanceof BigInteger) {
+            return ((BigInteger) value).bitLength() < Long.SIZE;
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            return decimal.scale() <= 0 && decimal.toBigInteger().bitLength() < Long.SIZE;
+        }
+        return false;
+    }
+
+    public abstract static class Column {
+
+        protected final BitSet nulls = new BitSet();
+        private final String name;
+        private final String type;
+
+        protected Column(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /***
+         * the type name the database reported for the column
+         * @return
+         */
+        public String getType() {
+            return type;
+        }
+
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        public abstract Object get(int row);
+
+        public abstract boolean isNumeric();
+    }
+
+    public static final class LongColumn extends Column {
+
+        private final long[] values;
+
+        private LongColumn(String name, String type, int rowCount) {
+            super(name, type);
+            this.values = new long[rowCount];
+        }
+
+        private void set(int row, Number value) {
+            if (value == null) {
+                nulls.set(row);
+            } else {
+                values[row] = value.longValue();
+            }
+        }
+
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return true;
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+
+        private final double[] values;
+
+        private DoubleColumn(String name, String type, int rowCount) {
+            super(name, type);
+            this.values = new double[rowCount];
+        }
+
+        private void set(int row, Number value) {
+            if (value == null) {
+                nulls.set(row);
+            } else {
+                values[row] = value.doubleValue();
+            }
+        }
+
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return true;
+        }
+    }
+
+    public static final class StringColumn extends Column {
+
+        private final int[] codes;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codeOf = new HashMap<>();
+
+        private StringColumn(String name, String type, int rowCount) {
+            super(name, type);
+            this.codes = new int[rowCount];
+        }
+
+        private void set(int row, String value) {
+            if (value == null) {
+                nulls.set(row);
+                codes[row] = -1;
+                return;
+            }
+            codes[row] = codeOf.computeIfAbsent(value, key -> {
+                dictionary.add(key);
+                return dictionary.size() - 1;
+            });
+        }
+
+        /***
+         * the dictionary code of the value, -1 when no row holds it
+         * @param value
+         * @return
+         */
+        public int getCode(String value) {
+            return codeOf.getOrDefault(value, -1);
+        }
+
+        public int getCodeAt(int row) {
+            return codes[row];
+        }
+
+        public String getValue(int code) {
+            return dictionary.get(code);
+        }
+
+        public int getCardinality() {
+            return dictionary.size();
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : dictionary.get(codes[row]);
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return false;
+        }
+    }
+}
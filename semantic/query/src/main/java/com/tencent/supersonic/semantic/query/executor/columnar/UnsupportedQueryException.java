@@ -0,0 +1,16 @@
+package com.tencent.supersonic.semantic.query.executor.columnar;
+
+/**
+ * Thrown while a query is compiled against a {@link ColumnarTable} it can not run on, {@link ColumnarQuery#plan}
+ * turns it into an empty plan so the query is left to the database.
+ */
+class UnsupportedQueryException extends RuntimeException {
+
+    UnsupportedQueryException(String message) {
+        super(message);
+    }
+
+    UnsupportedQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,37 @@
+package com.tencent.supersonic.semantic.query.listener;
+
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.util.cache.CacheUtils;
+import com.tencent.supersonic.semantic.query.parser.calcite.PlanCache;
+import com.tencent.supersonic.semantic.query.parser.calcite.SemanticSchemaManager;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the semantic models, plans and results derived from changed metadata, within the write. The results are
+ * evicted last, so a query starting after the eviction plans against the reloaded model.
+ */
+@Component
+@Slf4j
+public class MetaChangeListener implements ApplicationListener<MetaChangeEvent> {
+
+    private final SemanticSchemaManager semanticSchemaManager;
+    private final PlanCache planCache;
+    private final CacheUtils cacheUtils;
+
+    public MetaChangeListener(SemanticSchemaManager semanticSchemaManager, PlanCache planCache,
+            CacheUtils cacheUtils) {
+        this.semanticSchemaManager = semanticSchemaManager;
+        this.planCache = planCache;
+        this.cacheUtils = cacheUtils;
+    }
+
+    @Override
+    public void onApplicationEvent(MetaChangeEvent event) {
+        Set<String> rootPaths = semanticSchemaManager.invalidate(event.getModelId());
+        planCache.invalidate(rootPaths);
+        cacheUtils.evictByTag(event.getCacheTag());
+    }
+}
@@ -0,0 +1,231 @@
+package com.tencent.supersonic.semantic.query.optimizer;
+
+import static com.tencent.supersonic.common.pojo.Constants.MONTH;
+import static com.tencent.supersonic.common.pojo.Constants.WEEK;
+
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
+import com.tencent.supersonic.semantic.api.model.pojo.Measure;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.service.MaterializationService;
+import com.tencent.supersonic.semantic.query.utils.QueryStructUtils;
+import com.tencent.supersonic.semantic.query.utils.SqlFilterUtils;
+import com.tencent.supersonic.semantic.query.utils.SqlGenerateUtils;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Rewrites a metric query to read the smallest registered pre-aggregated table that covers it, instead of the
+ * raw datasource tables. A table covers a query when it holds all its metrics, its groups and filter columns
+ * and its date range at the same period. Only metrics whose measure rolls up again, sum, count, max and min,
+ * are rewritten, any other query keeps the plan on the raw tables.
+ */
+@Slf4j
+@Component("MaterializationQuery")
+public class MaterializationQuery implements QueryOptimizer {
+
+    private static final Map<String, String> ROLLUP_FUNCTIONS = new LinkedHashMap<>();
+    private static final Set<AggOperatorEnum> ROLLUP_OPERATORS = new HashSet<>(Arrays.asList(
+            AggOperatorEnum.SUM, AggOperatorEnum.MAX, AggOperatorEnum.MIN, AggOperatorEnum.AVG,
+            AggOperatorEnum.UNKNOWN));
+
+    static {
+        ROLLUP_FUNCTIONS.put("sum", "sum");
+        ROLLUP_FUNCTIONS.put("count", "sum");
+        ROLLUP_FUNCTIONS.put("max", "max");
+        ROLLUP_FUNCTIONS.put("min", "min");
+    }
+
+    private final MaterializationService materializationService;
+    private final Catalog catalog;
+    private final QueryStructUtils queryStructUtils;
+    private final SqlFilterUtils sqlFilterUtils;
+    private final SqlGenerateUtils sqlGenerateUtils;
+
+    public MaterializationQuery(MaterializationService materializationService, Catalog catalog,
+            QueryStructUtils queryStructUtils, SqlFilterUtils sqlFilterUtils, SqlGenerateUtils sqlGenerateUtils) {
+        this.materializationService = materializationService;
+        this.catalog = catalog;
+        this.queryStructUtils = queryStructUtils;
+        this.sqlFilterUtils = sqlFilterUtils;
+        this.sqlGenerateUtils = sqlGenerateUtils;
+    }
+
+    @Override
+    public void rewrite(QueryStructReq queryStructCmd, QueryStatement queryStatement) {
+        Map<String, String> rollups = getRollupFunctions(queryStructCmd);
+        if (rollups.isEmpty()) {
+            return;
+        }
+        List<Materialization> materializations = materializationService.getMaterializations(
+                queryStructCmd.getModelId());
+        Optional<Materialization> materialization = match(queryStructCmd, materializations);
+        if (!materialization.isPresent()) {
+            return;
+        }
+        String sql = String.format("select %s from %s where %s %s %s %s", getSelect(queryStructCmd, rollups),
+                materialization.get().getDestination(), queryStructUtils.generateWhere(queryStructCmd),
+                sqlGenerateUtils.getGroupBy(queryStructCmd), sqlGenerateUtils.getOrderBy(queryStructCmd),
+                sqlGenerateUtils.getLimit(queryStructCmd));
+        log.info("rewrite to materialization:{}, sql:{}", materialization.get().getName(), sql);
+        queryStatement.setSql(sql);
+        queryStatement.setMaterialization(materialization.get().getName());
+    }
+
+    /***
+     * the smallest table that covers the query, the one with the fewest dimensions on equal row counts
+     * @param queryStructCmd
+     * @param materializations
+     * @return
+     */
+    public Optional<Materialization> match(QueryStructReq queryStructCmd, List<Materialization> materializations) {
+        if (CollectionUtils.isEmpty(materializations)) {
+            return Optional.empty();
+        }
+        return materializations.stream()
+                .filter(materialization -> isCover(queryStructCmd, materialization))
+                .min(Comparator.comparing((Materialization materialization) ->
+                                Objects.isNull(materialization.getRowCount()) ? Long.MAX_VALUE
+                                        : materialization.getRowCount())
+                        .thenComparing(materialization -> materialization.getDimensions().size()));
+    }
+
+    /***
+     * the function each metric rolls up with from the table, empty when the query can not read a table
+     * @param queryStructCmd
+     * @return
+     */
+    public Map<String, String> getRollupFunctions(QueryStructReq queryStructCmd) {
+        if (Objects.isNull(queryStructCmd) || Boolean.TRUE.equals(queryStructCmd.getNativeQuery())
+                || CollectionUtils.isEmpty(queryStructCmd.getAggregators())
+                || Objects.isNull(queryStructCmd.getDateInfo())
+                || !CollectionUtils.isEmpty(queryStructCmd.getMetricFilters())
+                || !CollectionUtils.isEmpty(queryStructCmd.getParams())) {
+            return Collections.emptyMap();
+        }
+        Map<String, MetricResp> metrics = catalog.getMetrics(queryStructCmd.getModelId()).stream()
+                .collect(Collectors.toMap(MetricResp::getBizName, metric -> metric, (a, b) -> a));
+        Map<String, String> rollups = new LinkedHashMap<>();
+        for (Aggregator aggregator : queryStructCmd.getAggregators()) {
+            // the raw plan aggregates once more per group, any of these keeps the value of the measure
+            if (Objects.nonNull(aggregator.getFunc()) && !ROLLUP_OPERATORS.contains(aggregator.getFunc())
+                    || !CollectionUtils.isEmpty(aggregator.getArgs())) {
+                return Collections.emptyMap();
+            }
+            String rollup = getRollupFunction(metrics.get(aggregator.getColumn()));
+            if (Objects.isNull(rollup)) {
+                return Collections.emptyMap();
+            }
+            rollups.put(aggregator.getColumn(), rollup);
+        }
+        return rollups;
+    }
+
+    private String getRollupFunction(MetricResp metric) {
+        if (Objects.isNull(metric) || !"ATOMIC".equalsIgnoreCase(metric.getType())
+                || Objects.isNull(metric.getTypeParams())
+                || CollectionUtils.isEmpty(metric.getTypeParams().getMeasures())
+                || metric.getTypeParams().getMeasures().size() > 1) {
+            return null;
+        }
+        Measure measure = metric.getTypeParams().getMeasures().get(0);
+        String expr = metric.getTypeParams().getExpr();
+        if (Objects.isNull(measure.getAgg()) || Strings.isNotEmpty(expr) && !expr.trim().equals(measure.getBizName())) {
+            return null;
+        }
+        return ROLLUP_FUNCTIONS.get(measure.getAgg().toLowerCase());
+    }
+
+    private boolean isCover(QueryStructReq queryStructCmd, Materialization materialization) {
+        DateConf dateInfo = queryStructCmd.getDateInfo();
+        String period = Strings.isEmpty(dateInfo.getPeriod()) ? TimeDimensionEnum.DAY.name()
+                : dateInfo.getPeriod().toUpperCase();
+        if (!period.equalsIgnoreCase(materialization.getPeriod())) {
+            return false;
+        }
+        if (!materialization.getMetrics().containsAll(queryStructCmd.getMetrics())) {
+            return false;
+        }
+        // the columns of sql parts, such as the row permission filters, are unknown to the materialization
+        if (sqlFilterUtils.hasSqlFilter(queryStructCmd.getOriginalFilter())) {
+            return false;
+        }
+        String dateCol = TimeDimensionEnum.valueOf(period).getName();
+        Set<String> columns = new HashSet<>(queryStructCmd.getGroups());
+        columns.addAll(sqlFilterUtils.getFiltersCol(queryStructCmd.getOriginalFilter()));
+        columns.remove(dateCol);
+        if (!materialization.getDimensions().containsAll(columns)) {
+            return false;
+        }
+        return isDateCover(dateInfo, period, materialization);
+    }
+
+    private boolean isDateCover(DateConf dateInfo, String period, Materialization materialization) {
+        String start = materialization.getStartDate();
+        String end = materialization.getEndDate();
+        switch (dateInfo.getDateMode()) {
+            case BETWEEN:
+                return isRangeCover(start, end, dateInfo.getStartDate(), dateInfo.getEndDate());
+            case LIST:
+                if (CollectionUtils.isEmpty(dateInfo.getDateList())) {
+                    return false;
+                }
+                return isRangeCover(start, end, Collections.min(dateInfo.getDateList()),
+                        Collections.max(dateInfo.getDateList()));
+            case RECENT:
+                // the range ends at the latest date with data, only a table kept up to date covers it
+                if (Strings.isNotEmpty(end) || Objects.isNull(dateInfo.getUnit())) {
+                    return false;
+                }
+                return isRangeCover(start, null, getRecentStart(period, dateInfo.getUnit()), null);
+            default:
+                return Strings.isEmpty(start) && Strings.isEmpty(end);
+        }
+    }
+
+    private static boolean isRangeCover(String start, String end, String queryStart, String queryEnd) {
+        if (Strings.isNotEmpty(start) && (Strings.isEmpty(queryStart) || start.compareTo(queryStart) > 0)) {
+            return false;
+        }
+        return Strings.isEmpty(end) || Strings.isNotEmpty(queryEnd) && end.compareTo(queryEnd) >= 0;
+    }
+
+    private static String getRecentStart(String period, Integer unit) {
+        LocalDate today = LocalDate.now();
+        if (MONTH.equalsIgnoreCase(period)) {
+            return today.minusMonths(unit).toString();
+        }
+        if (WEEK.equalsIgnoreCase(period)) {
+            return today.minusWeeks(unit).toString();
+        }
+        return today.minusDays(unit).toString();
+    }
+
+    private static String getSelect(QueryStructReq queryStructCmd, Map<String, String> rollups) {
+        String aggStr = rollups.entrySet().stream()
+                .map(rollup -> String.format("%s(%s) as %s", rollup.getValue(), rollup.getKey(), rollup.getKey()))
+                .collect(Collectors.joining(","));
+        return CollectionUtils.isEmpty(queryStructCmd.getGroups()) ? aggStr
+                : String.join(",", queryStructCmd.getGroups()) + "," + aggStr;
+    }
+}
@@ -1,5 +1,7 @@
 package com.tencent.supersonic.semantic.query.parser.calcite;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.tencent.supersonic.semantic.api.query.request.MetricReq;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
 import com.tencent.supersonic.semantic.query.parser.SqlParser;
@@ -11,11 +13,20 @@ import org.springframework.stereotype.Component;
 
 @Component("CalciteSqlParser")
 public class CalciteSqlParser implements SqlParser {
+
+    /**
+     * planning schema of each loaded semantic model, keyed by identity. A reload of the model creates a new
+     * instance, so an entry is only used for the version it was built from and goes away with it.
+     */
+    private final Cache<SemanticModel, SemanticSchema> semanticSchemaCache = CacheBuilder.newBuilder()
+            .weakKeys().build();
     private final SemanticSchemaManager semanticSchemaManager;
+    private final PlanCache planCache;
 
     public CalciteSqlParser(
-            SemanticSchemaManager semanticSchemaManager) {
+            SemanticSchemaManager semanticSchemaManager, PlanCache planCache) {
         this.semanticSchemaManager = semanticSchemaManager;
+        this.planCache = planCache;
     }
 
     @Override
@@ -26,11 +37,19 @@ public class CalciteSqlParser implements SqlParser {
             queryStatement.setErrMsg("semanticSchema not found");
             return queryStatement;
         }
-        SemanticSchema semanticSchema = getSemanticSchema(semanticModel);
+        SemanticSchema semanticSchema = semanticSchemaCache.get(semanticModel,
+                () -> getSemanticSchema(semanticModel));
+        // the key is taken before planning, the planner fills in defaults on the request
+        String planKey = PlanCache.getKey(semanticSchema, metricReq, isAgg);
+        QueryStatement cached = planCache.get(planKey);
+        if (cached != null) {
+            return cached;
+        }
         AggPlanner aggBuilder = new AggPlanner(semanticSchema);
         aggBuilder.explain(metricReq, isAgg);
         queryStatement.setSql(aggBuilder.getSql());
         queryStatement.setSourceId(aggBuilder.getSourceId());
+        planCache.put(planKey, queryStatement);
         return queryStatement;
     }
 
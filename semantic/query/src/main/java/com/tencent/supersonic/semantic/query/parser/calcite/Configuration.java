@@ -32,14 +32,24 @@ public class Configuration {
             .withSqlConformance(SemanticSqlDialect.DEFAULT.getConformance())
             .withDefaultNullCollation(config.defaultNullCollation())
             .withIdentifierExpansion(true);
+    private static final SqlParser.Config PARSER_CONFIG;
 
     static {
         configProperties.put(CalciteConnectionProperty.CASE_SENSITIVE.camelName(), Boolean.TRUE.toString());
         configProperties.put(CalciteConnectionProperty.UNQUOTED_CASING.camelName(), Casing.UNCHANGED.toString());
         configProperties.put(CalciteConnectionProperty.QUOTED_CASING.camelName(), Casing.TO_LOWER.toString());
+        PARSER_CONFIG = buildParserConfig();
     }
 
+    /***
+     * the parser config is immutable, it is built once and shared by all parsers
+     * @return
+     */
     public static SqlParser.Config getParserConfig() {
+        return PARSER_CONFIG;
+    }
+
+    private static SqlParser.Config buildParserConfig() {
         CalciteConnectionConfig config = new CalciteConnectionConfigImpl(configProperties);
         SqlParser.ConfigBuilder parserConfig = SqlParser.configBuilder();
         parserConfig.setCaseSensitive(config.caseSensitive());
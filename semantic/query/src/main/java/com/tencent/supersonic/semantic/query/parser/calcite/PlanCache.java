@@ -0,0 +1,122 @@
+package com.tencent.supersonic.semantic.query.parser.calcite;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tencent.supersonic.common.pojo.ColumnOrder;
+import com.tencent.supersonic.semantic.api.query.request.MetricReq;
+import com.tencent.supersonic.semantic.query.parser.calcite.schema.SemanticSchema;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generated sql of planned queries, keyed by the schema version and a canonical form of the request, so a
+ * query shape issued again is answered without planning. Statements are copied in and out because callers
+ * modify the statement they get.
+ */
+@Slf4j
+@Component
+public class PlanCache {
+
+    private final Cache<String, QueryStatement> cache;
+    private final AtomicLong requests = new AtomicLong();
+    private final long statsLogInterval;
+
+    public PlanCache(@Value("${parser.plan.cache.maximumSize:2000}") long maximumSize,
+            @Value("${parser.plan.cache.expireMinutes:30}") long expireMinutes,
+            @Value("${parser.plan.cache.statsLogInterval:1000}") long statsLogInterval) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        this.statsLogInterval = statsLogInterval;
+    }
+
+    /***
+     * canonical key of a request planned against a schema, null and empty values are the same and the
+     * variables are sorted, the order of metrics, dimensions and orders is kept as it decides the output
+     * @param schema
+     * @param metricReq
+     * @param isAgg
+     * @return
+     */
+    public static String getKey(SemanticSchema schema, MetricReq metricReq, boolean isAgg) {
+        StringBuilder key = new StringBuilder();
+        key.append(schema.getVersion()).append('|').append(schema.getRootPath())
+                .append("|agg=").append(isAgg)
+                .append("|native=").append(metricReq.isNativeQuery())
+                .append("|metrics=").append(orEmpty(metricReq.getMetrics()))
+                .append("|dimensions=").append(orEmpty(metricReq.getDimensions()))
+                .append("|where=").append(metricReq.getWhere() == null ? "" : metricReq.getWhere())
+                .append("|limit=").append(metricReq.getLimit() == null ? 0L : metricReq.getLimit())
+                .append("|order=");
+        for (ColumnOrder columnOrder : orEmpty(metricReq.getOrder())) {
+            key.append(columnOrder.getCol()).append(' ').append(columnOrder.getOrder()).append(',');
+        }
+        Map<String, String> variables = metricReq.getVariables() == null ? Collections.emptyMap()
+                : new TreeMap<>(metricReq.getVariables());
+        key.append("|variables=").append(variables);
+        return key.toString();
+    }
+
+    public QueryStatement get(String key) {
+        QueryStatement queryStatement = cache.getIfPresent(key);
+        if (statsLogInterval > 0 && requests.incrementAndGet() % statsLogInterval == 0) {
+            CacheStats stats = getStats();
+            log.info("plan cache size:{}, hitRate:{}, hit:{}, miss:{}", cache.estimatedSize(), stats.hitRate(),
+                    stats.hitCount(), stats.missCount());
+        }
+        return queryStatement == null ? null : copy(queryStatement);
+    }
+
+    /***
+     * keep a successfully planned statement, failed ones are planned again
+     * @param key
+     * @param queryStatement
+     */
+    public void put(String key, QueryStatement queryStatement) {
+        if (queryStatement.isOk()) {
+            cache.put(key, copy(queryStatement));
+        }
+    }
+
+    /***
+     * drop the plans of the schemas loaded for the root paths
+     * @param rootPaths
+     */
+    public void invalidate(Set<String> rootPaths) {
+        cache.asMap().keySet().removeIf(key -> {
+            int start = key.indexOf('|') + 1;
+            return rootPaths.contains(key.substring(start, key.indexOf('|', start)));
+        });
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private static QueryStatement copy(QueryStatement queryStatement) {
+        QueryStatement copy = new QueryStatement();
+        copy.setModelId(queryStatement.getModelId());
+        copy.setSql(queryStatement.getSql());
+        copy.setSourceId(queryStatement.getSourceId());
+        copy.setErrMsg(queryStatement.getErrMsg());
+        copy.setOk(queryStatement.getOk());
+        copy.setMaterialization(queryStatement.getMaterialization());
+        return copy;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+}
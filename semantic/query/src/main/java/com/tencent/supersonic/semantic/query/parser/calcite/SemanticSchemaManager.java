@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
@@ -96,6 +97,22 @@ public class SemanticSchemaManager {
         return schema;
     }
 
+    /***
+     * drop the loaded semantic models covering the model, all of them when the model is not known anymore,
+     * the next query loads them again
+     * @param modelId
+     * @return the root paths dropped
+     */
+    public Set<String> invalidate(Long modelId) {
+        String modelFullPath = catalog.getModelFullPath(modelId);
+        Set<String> rootPaths = loadingCache.asMap().keySet().stream()
+                .filter(rootPath -> Strings.isEmpty(modelFullPath) || formatKey(modelFullPath).startsWith(rootPath))
+                .collect(Collectors.toSet());
+        loadingCache.invalidateAll(rootPaths);
+        log.info("invalidate SemanticSchema of model:{}, rootPaths:{}", modelId, rootPaths);
+        return rootPaths;
+    }
+
     public static List<Metric> getMetrics(final List<MetricYamlTpl> t) {
         return getMetricsByMetricYamlTpl(t);
     }
@@ -203,6 +220,7 @@ public class SemanticSchemaManager {
     public static void update(SemanticSchema schema, List<Metric> metric) throws Exception {
         if (schema != null) {
             updateMetric(metric, schema.getMetrics());
+            schema.invalidate();
         }
     }
 
@@ -216,6 +234,7 @@ public class SemanticSchemaManager {
             } else {
                 schema.getDatasource().put(dataSourceName, datasourceYamlTpl);
             }
+            schema.invalidate();
         }
     }
 
@@ -231,6 +250,7 @@ public class SemanticSchemaManager {
                 updateDimension(dimensionYamlTpls, dimensions);
                 schema.getDimension().put(datasourceBizName, dimensions);
             }
+            schema.invalidate();
         }
     }
 
@@ -0,0 +1,115 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.schema;
+
+import com.tencent.supersonic.semantic.query.parser.calcite.dsl.DataSource;
+import com.tencent.supersonic.semantic.query.parser.calcite.dsl.Dimension;
+import com.tencent.supersonic.semantic.query.parser.calcite.dsl.Identify;
+import com.tencent.supersonic.semantic.query.parser.calcite.dsl.Measure;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Names of the measures, identifiers and dimensions of every datasource of a schema, computed once so that
+ * matching the datasources of a query only intersects sets. The sets are shared and must not be modified.
+ * The index remembers the entries it was built from, a map whose entries were replaced needs a new index.
+ */
+public class DataSourceIndex {
+
+    private final Map<String, DataSource> datasourceMap;
+    private final Map<String, List<Dimension>> dimensionMap;
+
+    private final Map<String, Set<String>> measures = new HashMap<>();
+    private final Map<String, Set<String>> identifiers = new HashMap<>();
+    private final Map<String, Set<String>> sourceDimensions = new HashMap<>();
+    private final Map<String, Set<String>> dimensions = new HashMap<>();
+    private final Map<String, Set<String>> extendDimensions = new HashMap<>();
+
+    public DataSourceIndex(Map<String, DataSource> datasourceMap, Map<String, List<Dimension>> dimensionMap) {
+        this.datasourceMap = new HashMap<>(datasourceMap);
+        this.dimensionMap = new HashMap<>(dimensionMap);
+        for (Map.Entry<String, List<Dimension>> entry : dimensionMap.entrySet()) {
+            extendDimensions.put(entry.getKey(), toNames(entry.getValue(), Dimension::getName));
+        }
+        for (Map.Entry<String, DataSource> entry : datasourceMap.entrySet()) {
+            DataSource dataSource = entry.getValue();
+            Set<String> identifierNames = toNames(dataSource.getIdentifiers(), Identify::getName);
+            Set<String> sourceDimensionNames = new HashSet<>(toNames(dataSource.getDimensions(), Dimension::getName));
+            sourceDimensionNames.addAll(identifierNames);
+            Set<String> dimensionNames = new HashSet<>(sourceDimensionNames);
+            dimensionNames.addAll(getExtendDimensions(dataSource.getName()));
+            measures.put(entry.getKey(), toNames(dataSource.getMeasures(), Measure::getName));
+            identifiers.put(entry.getKey(), identifierNames);
+            sourceDimensions.put(entry.getKey(), Collections.unmodifiableSet(sourceDimensionNames));
+            dimensions.put(entry.getKey(), Collections.unmodifiableSet(dimensionNames));
+        }
+    }
+
+    /***
+     * whether the maps hold the same datasource and dimension objects the index was built from
+     * @param datasources
+     * @param dimensions
+     * @return
+     */
+    public boolean isBuiltFrom(Map<String, DataSource> datasources, Map<String, List<Dimension>> dimensions) {
+        return isSameEntries(datasourceMap, datasources) && isSameEntries(dimensionMap, dimensions);
+    }
+
+    public Set<String> getMeasures(String dataSourceName) {
+        return measures.getOrDefault(dataSourceName, Collections.emptySet());
+    }
+
+    public Set<String> getIdentifiers(String dataSourceName) {
+        return identifiers.getOrDefault(dataSourceName, Collections.emptySet());
+    }
+
+    /***
+     * dimensions and identifiers defined in the datasource
+     * @param dataSourceName
+     * @return
+     */
+    public Set<String> getSourceDimensions(String dataSourceName) {
+        return sourceDimensions.getOrDefault(dataSourceName, Collections.emptySet());
+    }
+
+    /***
+     * dimensions and identifiers of the datasource, together with the dimensions defined on it in the schema
+     * @param dataSourceName
+     * @return
+     */
+    public Set<String> getDimensions(String dataSourceName) {
+        return dimensions.getOrDefault(dataSourceName, Collections.emptySet());
+    }
+
+    public Map<String, Set<String>> getExtendDimensions() {
+        return extendDimensions;
+    }
+
+    public Set<String> getExtendDimensions(String dataSourceName) {
+        return extendDimensions.getOrDefault(dataSourceName, Collections.emptySet());
+    }
+
+    private static <T> boolean isSameEntries(Map<String, T> indexed, Map<String, T> current) {
+        if (indexed.size() != current.size()) {
+            return false;
+        }
+        for (Map.Entry<String, T> entry : current.entrySet()) {
+            if (indexed.get(entry.getKey()) != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> Set<String> toNames(Collection<T> items, Function<T, String> getName) {
+        Set<String> names = new HashSet<>();
+        if (items != null) {
+            items.forEach(item -> names.add(getName.apply(item)));
+        }
+        return Collections.unmodifiableSet(names);
+    }
+}
@@ -15,18 +15,28 @@ import org.apache.calcite.sql.validate.SqlValidatorScope;
 
 public class SchemaBuilder {
 
+    /***
+     * a new scope for one query, the validator keeps per query state and is not shared,
+     * the catalog reader it reads from is built once per schema
+     * @param schema
+     * @return
+     * @throws Exception
+     */
     public static SqlValidatorScope getScope(SemanticSchema schema) throws Exception {
         Map<String, RelDataType> nameToTypeMap = new HashMap<>();
+        DSLSqlValidatorImpl dslSqlValidator = new DSLSqlValidatorImpl(Configuration.operatorTable,
+                schema.getCatalogReader(), Configuration.typeFactory, Configuration.validatorConfig);
+        return new ParameterScope(dslSqlValidator, nameToTypeMap);
+    }
+
+    public static Prepare.CatalogReader buildCatalogReader(SemanticSchema schema) {
         CalciteSchema rootSchema = CalciteSchema.createRootSchema(true, false);
         rootSchema.add(schema.getRootPath(), schema);
-        Prepare.CatalogReader catalogReader = new CalciteCatalogReader(
+        return new CalciteCatalogReader(
                 rootSchema,
                 Collections.singletonList(schema.getRootPath()),
                 Configuration.typeFactory,
                 Configuration.config
         );
-        DSLSqlValidatorImpl dslSqlValidator = new DSLSqlValidatorImpl(Configuration.operatorTable, catalogReader,
-                Configuration.typeFactory, Configuration.validatorConfig);
-        return new ParameterScope(dslSqlValidator, nameToTypeMap);
     }
 }
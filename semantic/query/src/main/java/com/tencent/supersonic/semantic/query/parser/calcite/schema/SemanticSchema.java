@@ -8,17 +8,27 @@ import com.tencent.supersonic.semantic.query.parser.calcite.dsl.SemanticModel;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.calcite.prepare.Prepare;
 import org.apache.calcite.schema.Schema;
 import org.apache.calcite.schema.SchemaVersion;
 import org.apache.calcite.schema.Table;
 import org.apache.calcite.schema.impl.AbstractSchema;
+import org.apache.calcite.sql.SqlNode;
 
 public class SemanticSchema extends AbstractSchema {
 
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long version = VERSIONS.incrementAndGet();
     private final String rootPath;
     private final Map<String, Table> tableMap;
 
     private SemanticModel semanticModel = new SemanticModel();
+    private volatile Prepare.CatalogReader catalogReader;
+    private volatile DataSourceIndex dataSourceIndex;
+    private final Map<String, SqlNode> dataSourceNodes = new ConcurrentHashMap<>();
 
 
     private SemanticSchema(String rootPath, Map<String, Table> tableMap) {
@@ -30,6 +40,14 @@ public class SemanticSchema extends AbstractSchema {
         return new Builder(rootPath);
     }
 
+    /***
+     * identifies this schema instance, a reloaded model gets a new schema and so a new version
+     * @return
+     */
+    public long getVersion() {
+        return version;
+    }
+
     public String getRootPath() {
         return rootPath;
     }
@@ -44,12 +62,61 @@ public class SemanticSchema extends AbstractSchema {
         return this;
     }
 
+    /***
+     * the catalog reader over this schema, built on first use and shared by the validators of all queries
+     * @return
+     */
+    public Prepare.CatalogReader getCatalogReader() {
+        Prepare.CatalogReader reader = catalogReader;
+        if (reader == null) {
+            synchronized (this) {
+                reader = catalogReader;
+                if (reader == null) {
+                    reader = SchemaBuilder.buildCatalogReader(this);
+                    catalogReader = reader;
+                }
+            }
+        }
+        return reader;
+    }
+
+    public DataSourceIndex getDataSourceIndex() {
+        DataSourceIndex index = dataSourceIndex;
+        if (index == null || !index.isBuiltFrom(getDatasource(), getDimension())) {
+            index = new DataSourceIndex(getDatasource(), getDimension());
+            dataSourceIndex = index;
+        }
+        return index;
+    }
+
+    /***
+     * the parsed and validated node of a datasource sql, shared by all queries and never modified
+     * @param sql
+     * @return null if the sql is not parsed yet
+     */
+    public SqlNode getDataSourceNode(String sql) {
+        return dataSourceNodes.get(sql);
+    }
+
+    public void putDataSourceNode(String sql, SqlNode sqlNode) {
+        dataSourceNodes.put(sql, sqlNode);
+    }
+
+    /***
+     * drop what is derived from the datasources, dimensions and metrics, called after they change
+     */
+    public void invalidate() {
+        dataSourceIndex = null;
+        dataSourceNodes.clear();
+    }
+
     public Map<String, DataSource> getDatasource() {
         return semanticModel.getDatasourceMap();
     }
 
     public void setDatasource(Map<String, DataSource> datasource) {
         semanticModel.setDatasourceMap(datasource);
+        invalidate();
     }
 
     public Map<String, List<Dimension>> getDimension() {
@@ -58,6 +125,7 @@ public class SemanticSchema extends AbstractSchema {
 
     public void setDimension(Map<String, List<Dimension>> dimensions) {
         semanticModel.setDimensionMap(dimensions);
+        invalidate();
     }
 
     public List<Metric> getMetrics() {
@@ -66,6 +134,7 @@ public class SemanticSchema extends AbstractSchema {
 
     public void setMetric(List<Metric> metric) {
         semanticModel.setMetrics(metric);
+        invalidate();
     }
 
 
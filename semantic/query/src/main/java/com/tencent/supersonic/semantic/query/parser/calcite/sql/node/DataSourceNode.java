@@ -5,10 +5,11 @@ import com.tencent.supersonic.semantic.api.query.request.MetricReq;
 import com.tencent.supersonic.semantic.query.parser.calcite.Configuration;
 import com.tencent.supersonic.semantic.query.parser.calcite.dsl.Constants;
 import com.tencent.supersonic.semantic.query.parser.calcite.dsl.DataSource;
-import com.tencent.supersonic.semantic.query.parser.calcite.dsl.Dimension;
+import com.tencent.supersonic.semantic.query.parser.calcite.schema.DataSourceIndex;
 import com.tencent.supersonic.semantic.query.parser.calcite.schema.SemanticSchema;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,7 +28,16 @@ import org.apache.calcite.sql.validate.SqlValidatorScope;
 @Slf4j
 public class DataSourceNode extends SemanticNode {
 
-    public static SqlNode build(DataSource datasource, SqlValidatorScope scope) throws Exception {
+    /***
+     * the node of the datasource sql, it is parsed and validated once per schema and copied for each query
+     * @param datasource
+     * @param schema
+     * @param scope
+     * @return
+     * @throws Exception
+     */
+    public static SqlNode build(DataSource datasource, SemanticSchema schema, SqlValidatorScope scope)
+            throws Exception {
         String sqlTable = "";
         if (datasource.getSqlQuery() != null && !datasource.getSqlQuery().isEmpty()) {
             sqlTable = datasource.getSqlQuery();
@@ -37,7 +47,12 @@ public class DataSourceNode extends SemanticNode {
         if (sqlTable.isEmpty()) {
             throw new Exception("DatasourceNode build error [tableSqlNode not found]");
         }
-        return buildAs(datasource.getName(), getTable(sqlTable, scope));
+        SqlNode tableNode = schema.getDataSourceNode(sqlTable);
+        if (tableNode == null) {
+            tableNode = getTable(sqlTable, scope);
+            schema.putDataSourceNode(sqlTable, tableNode);
+        }
+        return buildAs(datasource.getName(), copy(tableNode));
     }
 
     private static SqlNode getTable(String sqlQuery, SqlValidatorScope scope) throws Exception {
@@ -89,6 +104,7 @@ public class DataSourceNode extends SemanticNode {
     public static List<DataSource> getMatchDataSources(SqlValidatorScope scope, SemanticSchema schema,
                                                        MetricReq metricCommand) throws Exception {
         List<DataSource> dataSources = new ArrayList<>();
+        DataSourceIndex index = schema.getDataSourceIndex();
 
         // check by metric
         List<String> measures = new ArrayList<>();
@@ -96,12 +112,11 @@ public class DataSourceNode extends SemanticNode {
         getQueryDimensionMeasure(schema, metricCommand, queryDimension, measures);
         DataSource baseDataSource = null;
         // one , match measure count
+        Set<String> queryMeasures = new HashSet<>(measures);
         Map<String, Integer> dataSourceMeasures = new HashMap<>();
-        for (Map.Entry<String, DataSource> entry : schema.getDatasource().entrySet()) {
-            Set<String> sourceMeasure = entry.getValue().getMeasures().stream().map(mm -> mm.getName())
-                    .collect(Collectors.toSet());
-            sourceMeasure.retainAll(measures);
-            dataSourceMeasures.put(entry.getKey(), sourceMeasure.size());
+        for (String dataSourceName : schema.getDatasource().keySet()) {
+            long matchCount = index.getMeasures(dataSourceName).stream().filter(queryMeasures::contains).count();
+            dataSourceMeasures.put(dataSourceName, (int) matchCount);
         }
         log.info("dataSourceMeasures [{}]", dataSourceMeasures);
         Optional<Map.Entry<String, Integer>> base = dataSourceMeasures.entrySet().stream()
@@ -112,26 +127,16 @@ public class DataSourceNode extends SemanticNode {
         }
         // second , check match all dimension and metric
         if (baseDataSource != null) {
-            Set<String> filterMeasure = new HashSet<>();
-            Set<String> sourceMeasure = baseDataSource.getMeasures().stream().map(mm -> mm.getName())
-                    .collect(Collectors.toSet());
-            Set<String> dimension = baseDataSource.getDimensions().stream().map(dd -> dd.getName())
-                    .collect(Collectors.toSet());
-            baseDataSource.getIdentifiers().stream().forEach(i -> dimension.add(i.getName()));
-            if (schema.getDimension().containsKey(baseDataSource.getName())) {
-                schema.getDimension().get(baseDataSource.getName()).stream().forEach(d -> dimension.add(d.getName()));
-            }
-            filterMeasure.addAll(sourceMeasure);
-            filterMeasure.addAll(dimension);
+            Set<String> sourceMeasure = new HashSet<>(index.getMeasures(base.get().getKey()));
+            Set<String> dimension = new HashSet<>(index.getDimensions(base.get().getKey()));
             mergeQueryFilterDimensionMeasure(schema, metricCommand, queryDimension, measures, scope);
-            boolean isAllMatch = checkMatch(sourceMeasure, queryDimension, measures, dimension, metricCommand, scope);
+            boolean isAllMatch = checkMatch(sourceMeasure, queryDimension, measures, dimension);
             if (isAllMatch) {
                 log.info("baseDataSource  match all ");
                 return dataSources;
             }
             // find all dataSource has the same identifiers
-            Set<String> baseIdentifiers = baseDataSource.getIdentifiers().stream().map(i -> i.getName())
-                    .collect(Collectors.toSet());
+            Set<String> baseIdentifiers = index.getIdentifiers(base.get().getKey());
             if (baseIdentifiers.isEmpty()) {
                 throw new Exception("datasource error : " + baseDataSource.getName() + " miss identifier");
             }
@@ -153,9 +158,7 @@ public class DataSourceNode extends SemanticNode {
     private static boolean checkMatch(Set<String> sourceMeasure,
                                       Set<String> queryDimension,
                                       List<String> measures,
-                                      Set<String> dimension,
-                                      MetricReq metricCommand,
-                                      SqlValidatorScope scope) throws Exception {
+                                      Set<String> dimension) {
         boolean isAllMatch = true;
         sourceMeasure.retainAll(measures);
         if (sourceMeasure.size() < measures.size()) {
@@ -170,12 +173,6 @@ public class DataSourceNode extends SemanticNode {
             isAllMatch = false;
         }
         queryDimension.removeAll(dimension);
-
-        if (metricCommand.getWhere() != null && !metricCommand.getWhere().isEmpty()) {
-            Set<String> whereFields = new HashSet<>();
-            SqlNode sqlNode = parse(metricCommand.getWhere(), scope);
-            FilterNode.getFilterField(sqlNode, whereFields);
-        }
         return isAllMatch;
     }
 
@@ -184,46 +181,30 @@ public class DataSourceNode extends SemanticNode {
                                                        List<String> measures,
                                                        DataSource baseDataSource,
                                                        SemanticSchema schema) {
+        DataSourceIndex index = schema.getDataSourceIndex();
         Set<String> linkDataSourceName = new HashSet<>();
         List<DataSource> linkDataSources = new ArrayList<>();
-        for (Map.Entry<String, DataSource> entry : schema.getDatasource().entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(baseDataSource.getName())) {
+        for (String dataSourceName : schema.getDatasource().keySet()) {
+            if (dataSourceName.equalsIgnoreCase(baseDataSource.getName())) {
                 continue;
             }
-            Long identifierNum = entry.getValue().getIdentifiers().stream().map(i -> i.getName())
-                    .filter(i -> baseIdentifiers.contains(i)).count();
-            if (identifierNum > 0) {
+            if (containsAny(index.getIdentifiers(dataSourceName), baseIdentifiers)) {
                 boolean isMatch = false;
-                if (!queryDimension.isEmpty()) {
-                    Set<String> linkDimension = entry.getValue().getDimensions().stream().map(dd -> dd.getName())
-                            .collect(Collectors.toSet());
-                    entry.getValue().getIdentifiers().stream().forEach(i -> linkDimension.add(i.getName()));
-                    linkDimension.retainAll(queryDimension);
-                    if (!linkDimension.isEmpty()) {
-                        isMatch = true;
-                    }
+                if (!queryDimension.isEmpty() && containsAny(index.getSourceDimensions(dataSourceName),
+                        queryDimension)) {
+                    isMatch = true;
                 }
-                if (!measures.isEmpty()) {
-                    Set<String> linkMeasure = entry.getValue().getMeasures().stream().map(mm -> mm.getName())
-                            .collect(Collectors.toSet());
-                    linkMeasure.retainAll(measures);
-                    if (!linkMeasure.isEmpty()) {
-                        isMatch = true;
-                    }
+                if (!measures.isEmpty() && containsAny(index.getMeasures(dataSourceName), measures)) {
+                    isMatch = true;
                 }
                 if (isMatch) {
-                    linkDataSourceName.add(entry.getKey());
+                    linkDataSourceName.add(dataSourceName);
                 }
             }
         }
-        for (Map.Entry<String, List<Dimension>> entry : schema.getDimension().entrySet()) {
-            if (!queryDimension.isEmpty()) {
-                Set<String> linkDimension = entry.getValue().stream().map(dd -> dd.getName())
-                        .collect(Collectors.toSet());
-                linkDimension.retainAll(queryDimension);
-                if (!linkDimension.isEmpty()) {
-                    linkDataSourceName.add(entry.getKey());
-                }
+        for (Map.Entry<String, Set<String>> entry : index.getExtendDimensions().entrySet()) {
+            if (!queryDimension.isEmpty() && containsAny(entry.getValue(), queryDimension)) {
+                linkDataSourceName.add(entry.getKey());
             }
         }
         for (String linkName : linkDataSourceName) {
@@ -231,4 +212,8 @@ public class DataSourceNode extends SemanticNode {
         }
         return linkDataSources;
     }
+
+    private static boolean containsAny(Set<String> names, Collection<String> values) {
+        return values.stream().anyMatch(names::contains);
+    }
 }
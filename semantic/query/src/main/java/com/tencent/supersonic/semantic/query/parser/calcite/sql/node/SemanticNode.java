@@ -12,15 +12,18 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.calcite.sql.SqlAsOperator;
 import org.apache.calcite.sql.SqlBasicCall;
+import org.apache.calcite.sql.SqlCall;
 import org.apache.calcite.sql.SqlIdentifier;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
 import org.apache.calcite.sql.SqlSelect;
 import org.apache.calcite.sql.SqlWriterConfig;
 import org.apache.calcite.sql.advise.SqlSimpleParser;
 import org.apache.calcite.sql.parser.SqlParser;
 import org.apache.calcite.sql.parser.SqlParserPos;
 import org.apache.calcite.sql.pretty.SqlPrettyWriter;
+import org.apache.calcite.sql.util.SqlShuttle;
 import org.apache.calcite.sql.validate.SqlValidatorScope;
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,6 +43,36 @@ public abstract class SemanticNode {
                 SqlParserPos.ZERO);
     }
 
+    /***
+     * deep copy of a node tree, calls, lists and identifiers are copied, literals are immutable and shared
+     * @param sqlNode
+     * @return
+     */
+    public static SqlNode copy(SqlNode sqlNode) {
+        return sqlNode.accept(new SqlShuttle() {
+            @Override
+            public SqlNode visit(SqlIdentifier id) {
+                return id.clone(id.getParserPosition());
+            }
+
+            @Override
+            public SqlNode visit(SqlNodeList nodeList) {
+                SqlNodeList copy = new SqlNodeList(nodeList.getParserPosition());
+                for (SqlNode node : nodeList) {
+                    copy.add(node == null ? null : node.accept(this));
+                }
+                return copy;
+            }
+
+            @Override
+            public SqlNode visit(SqlCall call) {
+                CallCopyingArgHandler argHandler = new CallCopyingArgHandler(call, true);
+                call.getOperator().acceptCall(this, call, false, argHandler);
+                return argHandler.result();
+            }
+        });
+    }
+
     public static String getSql(SqlNode sqlNode) {
         SqlSimpleParser sqlSimpleParser = new SqlSimpleParser("", Configuration.getParserConfig());
         SqlWriterConfig config = SqlPrettyWriter.config().withDialect(SemanticSqlDialect.DEFAULT)
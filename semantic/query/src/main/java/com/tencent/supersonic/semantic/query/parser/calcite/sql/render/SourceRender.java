@@ -74,7 +74,7 @@ public class SourceRender extends Renderer {
                     dimension.contains(Constants.DIMENSION_IDENTIFY) ? dimension.split(Constants.DIMENSION_IDENTIFY)[1]
                             : dimension, datasource, schema, nonAgg, dataSet, output, scope);
         }
-        SqlNode tableNode = DataSourceNode.build(datasource, scope);
+        SqlNode tableNode = DataSourceNode.build(datasource, schema, scope);
         dataSet.setTable(tableNode);
         output.setTable(SemanticNode.buildAs(
                 Constants.DATASOURCE_TABLE_OUT_PREFIX + datasource.getName() + "_" + UUID.randomUUID().toString()
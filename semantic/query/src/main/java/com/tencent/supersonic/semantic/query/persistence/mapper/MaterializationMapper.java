@@ -0,0 +1,20 @@
+package com.tencent.supersonic.semantic.query.persistence.mapper;
+
+import com.tencent.supersonic.semantic.query.persistence.pojo.MaterializationDO;
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface MaterializationMapper {
+
+    Boolean insert(MaterializationDO materializationDO);
+
+    Boolean update(MaterializationDO materializationDO);
+
+    Boolean delete(@Param("id") Long id);
+
+    MaterializationDO getById(@Param("id") Long id);
+
+    List<MaterializationDO> getMaterializations(@Param("modelId") Long modelId);
+}
@@ -0,0 +1,26 @@
+package com.tencent.supersonic.semantic.query.persistence.pojo;
+
+import java.util.Date;
+import lombok.Data;
+
+@Data
+public class MaterializationDO {
+
+    private Long id;
+    private Long modelId;
+    private String name;
+    private String destination;
+    private String destinationType;
+    private String depends;
+    private String metrics;
+    private String dimensions;
+    private String datePeriod;
+    private String startDate;
+    private String endDate;
+    private Long rowCount;
+    private Date createdAt;
+    private String createdBy;
+    private Date updatedAt;
+    private String updatedBy;
+
+}
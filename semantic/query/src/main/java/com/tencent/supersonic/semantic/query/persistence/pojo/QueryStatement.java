@@ -1,6 +1,13 @@
 package com.tencent.supersonic.semantic.query.persistence.pojo;
 
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.query.executor.QueryExecutor;
+import com.tencent.supersonic.semantic.query.executor.QueryFeature;
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Data
 public class QueryStatement {
@@ -9,6 +16,38 @@ public class QueryStatement {
     private String sourceId = "";
     private String errMsg = "";
     private Boolean ok;
+    /**
+     * the pre-aggregated table the sql reads, empty when it reads the raw tables
+     */
+    private String materialization = "";
+    /**
+     * the engine type, features and estimated row count executors negotiate on
+     */
+    private String engineType;
+    private Set<QueryFeature> features = EnumSet.of(QueryFeature.SQL);
+    private Long estimatedRows;
+    /**
+     * the only datasource the query reads, empty when it reads several or a pre-aggregated table
+     */
+    private Long datasourceId;
+    /**
+     * the struct the statement is planned from, empty for sql queries
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private QueryStructReq queryStructReq;
+    /**
+     * the executor chosen by the first route of the statement
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private QueryExecutor executor;
+    /**
+     * what the chosen executor prepared while accepting the statement, reused when it runs it
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Object executorPlan;
 
     public boolean isOk() {
         this.ok = "".equals(errMsg) && !"".equals(sql);
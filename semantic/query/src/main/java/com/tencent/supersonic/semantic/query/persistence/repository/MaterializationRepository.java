@@ -0,0 +1,18 @@
+package com.tencent.supersonic.semantic.query.persistence.repository;
+
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import com.tencent.supersonic.semantic.query.persistence.pojo.MaterializationDO;
+import java.util.List;
+
+public interface MaterializationRepository {
+
+    Boolean insert(MaterializationDO materializationDO);
+
+    Boolean update(MaterializationDO materializationDO);
+
+    Boolean delete(Long id);
+
+    MaterializationDO getById(Long id);
+
+    List<Materialization> getMaterializations(Long modelId);
+}
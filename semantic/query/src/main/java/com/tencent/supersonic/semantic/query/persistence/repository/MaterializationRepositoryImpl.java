@@ -0,0 +1,71 @@
+package com.tencent.supersonic.semantic.query.persistence.repository;
+
+import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import com.tencent.supersonic.semantic.query.persistence.mapper.MaterializationMapper;
+import com.tencent.supersonic.semantic.query.persistence.pojo.MaterializationDO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class MaterializationRepositoryImpl implements MaterializationRepository {
+
+    private final MaterializationMapper materializationMapper;
+
+    public MaterializationRepositoryImpl(MaterializationMapper materializationMapper) {
+        this.materializationMapper = materializationMapper;
+    }
+
+    @Override
+    public Boolean insert(MaterializationDO materializationDO) {
+        return materializationMapper.insert(materializationDO);
+    }
+
+    @Override
+    public Boolean update(MaterializationDO materializationDO) {
+        return materializationMapper.update(materializationDO);
+    }
+
+    @Override
+    public Boolean delete(Long id) {
+        return materializationMapper.delete(id);
+    }
+
+    @Override
+    public MaterializationDO getById(Long id) {
+        return materializationMapper.getById(id);
+    }
+
+    @Override
+    public List<Materialization> getMaterializations(Long modelId) {
+        return materializationMapper.getMaterializations(modelId).stream()
+                .map(this::convert).collect(Collectors.toList());
+    }
+
+    private Materialization convert(MaterializationDO materializationDO) {
+        Materialization materialization = new Materialization();
+        materialization.setId(materializationDO.getId());
+        materialization.setModelId(materializationDO.getModelId());
+        materialization.setName(materializationDO.getName());
+        materialization.setDestination(materializationDO.getDestination());
+        materialization.setDestinationType(materializationDO.getDestinationType());
+        materialization.setDepends(toList(materializationDO.getDepends()));
+        materialization.setMetrics(toList(materializationDO.getMetrics()));
+        materialization.setDimensions(toList(materializationDO.getDimensions()));
+        materialization.setPeriod(materializationDO.getDatePeriod());
+        materialization.setStartDate(materializationDO.getStartDate());
+        materialization.setEndDate(materializationDO.getEndDate());
+        materialization.setRowCount(materializationDO.getRowCount());
+        return materialization;
+    }
+
+    private List<String> toList(String json) {
+        if (Strings.isEmpty(json)) {
+            return new ArrayList<>();
+        }
+        return JsonUtil.toList(json, String.class);
+    }
+}
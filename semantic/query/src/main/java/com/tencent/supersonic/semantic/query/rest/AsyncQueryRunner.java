@@ -0,0 +1,110 @@
+package com.tencent.supersonic.semantic.query.rest;
+
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.tencent.supersonic.common.util.QueryCancelContext;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+/**
+ * Runs the queries of a request as an async request, so the container tells when the request is given up.
+ * Each request gets a {@link QueryCancelContext.Token}, its running statements are cancelled when the client
+ * disconnects, the request fails or it runs past the request timeout. Requests wait in a bounded queue for a
+ * thread, a request arriving when the queue is full is rejected with an error instead of piling up in memory.
+ */
+@Component
+@Slf4j
+public class AsyncQueryRunner {
+
+    @Value("${query.request.thread.size:200}")
+    private Integer threadSize;
+
+    @Value("${query.request.queue.size:1000}")
+    private Integer queueSize;
+
+    @Value("${query.request.timeout.seconds:600}")
+    private Long timeoutSeconds;
+
+    private ThreadPoolExecutor threadPoolExecutor;
+    private TaskExecutorAdapter taskExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        threadPoolExecutor = new ThreadPoolExecutor(threadSize, threadSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "query-request-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, executor) -> {
+                    throw new RejectedExecutionException(String.format(
+                            "too many query requests, %d running and %d waiting, please retry later",
+                            executor.getActiveCount(), executor.getQueue().size()));
+                });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        // the user and lane of the request thread are passed to the query thread
+        ExecutorService executorService = TtlExecutors.getTtlExecutorService(threadPoolExecutor);
+        taskExecutor = new TaskExecutorAdapter(executorService) {
+            @Override
+            public Future<?> submit(Runnable task) {
+                // keep the reason of the rejection as the error returned for the request
+                try {
+                    return executorService.submit(task);
+                } catch (RejectedExecutionException e) {
+                    log.warn(e.getMessage());
+                    throw new TaskRejectedException(e.getMessage(), e);
+                }
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPoolExecutor.shutdownNow();
+    }
+
+    /***
+     * run the call for the current request, cancelling its statements when the request is given up
+     * @param call
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> WebAsyncTask<T> run(Callable<T> call) {
+        QueryCancelContext.Token token = new QueryCancelContext.Token();
+        WebAsyncTask<T> webAsyncTask = new WebAsyncTask<>(TimeUnit.SECONDS.toMillis(timeoutSeconds), taskExecutor,
+                () -> {
+                    QueryCancelContext.Token previous = QueryCancelContext.set(token);
+                    try {
+                        return call.call();
+                    } finally {
+                        QueryCancelContext.restore(previous);
+                    }
+                });
+        webAsyncTask.onTimeout(() -> {
+            log.warn("query request timeout after {}s, cancel its queries", timeoutSeconds);
+            token.cancel();
+            return (T) CallableProcessingInterceptor.RESULT_NONE;
+        });
+        webAsyncTask.onError(() -> {
+            // also called when the client disconnects
+            log.info("query request failed, cancel its queries");
+            token.cancel();
+            return (T) CallableProcessingInterceptor.RESULT_NONE;
+        });
+        return webAsyncTask;
+    }
+}
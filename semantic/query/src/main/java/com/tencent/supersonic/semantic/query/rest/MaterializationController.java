@@ -0,0 +1,45 @@
+package com.tencent.supersonic.semantic.query.rest;
+
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.auth.api.authentication.utils.UserHolder;
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import com.tencent.supersonic.semantic.query.service.MaterializationService;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/semantic/materialization")
+public class MaterializationController {
+
+    private final MaterializationService materializationService;
+
+    public MaterializationController(MaterializationService materializationService) {
+        this.materializationService = materializationService;
+    }
+
+    @PostMapping("/createOrUpdate")
+    public Materialization createOrUpdate(@RequestBody Materialization materialization,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        User user = UserHolder.findUser(request, response);
+        return materializationService.createOrUpdate(materialization, user);
+    }
+
+    @GetMapping("/getMaterializationList/{modelId}")
+    public List<Materialization> getMaterializationList(@PathVariable("modelId") Long modelId) {
+        return materializationService.getMaterializations(modelId);
+    }
+
+    @DeleteMapping("/{id}")
+    public void delete(@PathVariable("id") Long id) {
+        materializationService.delete(id);
+    }
+}
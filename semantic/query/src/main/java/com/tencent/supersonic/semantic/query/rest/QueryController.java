@@ -28,6 +28,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 
 @RestController
@@ -39,24 +40,28 @@ public class QueryController {
     private QueryService queryService;
     @Autowired
     private SemanticQueryEngine semanticQueryEngine;
+    @Autowired
+    private AsyncQueryRunner asyncQueryRunner;
 
 
     @PostMapping("/sql")
-    public Object queryBySql(@RequestBody QueryDslReq queryDslReq,
+    public WebAsyncTask<Object> queryBySql(@RequestBody QueryDslReq queryDslReq,
             HttpServletRequest request,
             HttpServletResponse response) throws Exception {
         User user = UserHolder.findUser(request, response);
-        Object queryBySql = queryService.queryBySql(queryDslReq, user);
-        log.info("queryBySql:{},queryBySql");
-        return queryBySql;
+        return asyncQueryRunner.run(() -> {
+            Object queryBySql = queryService.queryBySql(queryDslReq, user);
+            log.info("queryBySql:{},queryBySql");
+            return queryBySql;
+        });
     }
 
     @PostMapping("/struct")
-    public Object queryByStruct(@RequestBody QueryStructReq queryStructReq,
+    public WebAsyncTask<Object> queryByStruct(@RequestBody QueryStructReq queryStructReq,
             HttpServletRequest request,
             HttpServletResponse response) throws Exception {
         User user = UserHolder.findUser(request, response);
-        return queryService.queryByStructWithAuth(queryStructReq, user);
+        return asyncQueryRunner.run(() -> queryService.queryByStructWithAuth(queryStructReq, user));
     }
 
     @PostMapping("/struct/parse")
@@ -73,11 +78,11 @@ public class QueryController {
      * queryByMultiStruct
      */
     @PostMapping("/multiStruct")
-    public Object queryByMultiStruct(@RequestBody QueryMultiStructReq queryMultiStructReq,
+    public WebAsyncTask<Object> queryByMultiStruct(@RequestBody QueryMultiStructReq queryMultiStructReq,
             HttpServletRequest request,
             HttpServletResponse response) throws Exception {
         User user = UserHolder.findUser(request, response);
-        return queryService.queryByMultiStruct(queryMultiStructReq, user);
+        return asyncQueryRunner.run(() -> queryService.queryByMultiStruct(queryMultiStructReq, user));
     }
 
     /**
@@ -92,11 +97,11 @@ public class QueryController {
     }
 
     @PostMapping("/queryDimValue")
-    public QueryResultWithSchemaResp queryDimValue(@RequestBody QueryDimValueReq queryDimValueReq,
+    public WebAsyncTask<QueryResultWithSchemaResp> queryDimValue(@RequestBody QueryDimValueReq queryDimValueReq,
             HttpServletRequest request,
             HttpServletResponse response) {
         User user = UserHolder.findUser(request, response);
-        return queryService.queryDimValue(queryDimValueReq, user);
+        return asyncQueryRunner.run(() -> queryService.queryDimValue(queryDimValueReq, user));
     }
 
     @PostMapping("/explain")
@@ -0,0 +1,117 @@
+package com.tencent.supersonic.semantic.query.service;
+
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.utils.QueryUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plans the struct queries of a multi struct request on a bounded pool. The statements are returned in
+ * request order whatever order they finish in, and the request fails once its deadline passes.
+ */
+@Component
+@Slf4j
+public class ConcurrentPlanner {
+
+    @Value("${query.planner.thread.size:8}")
+    private Integer threadSize;
+
+    @Value("${query.planner.queue.size:256}")
+    private Integer queueSize;
+
+    @Value("${query.planner.timeout.ms:30000}")
+    private Long timeoutMs;
+
+    private final SemanticQueryEngine semanticQueryEngine;
+    private final QueryUtils queryUtils;
+
+    private ExecutorService executorService;
+
+    public ConcurrentPlanner(SemanticQueryEngine semanticQueryEngine, QueryUtils queryUtils) {
+        this.semanticQueryEngine = semanticQueryEngine;
+        this.queryUtils = queryUtils;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNum = new AtomicInteger();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threadSize, threadSize,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "query-planner-" + threadNum.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        executorService = TtlExecutors.getTtlExecutorService(threadPoolExecutor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdown();
+    }
+
+    /***
+     * plan every struct query, a single query is planned on the calling thread
+     * @param queryStructReqs
+     * @return the checked statements in the order of queryStructReqs
+     * @throws Exception
+     */
+    public List<QueryStatement> plan(List<QueryStructReq> queryStructReqs) throws Exception {
+        if (queryStructReqs.size() == 1) {
+            return new ArrayList<>(Collections.singletonList(plan(queryStructReqs.get(0))));
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        List<Future<QueryStatement>> futures = new ArrayList<>();
+        for (QueryStructReq queryStructReq : queryStructReqs) {
+            futures.add(executorService.submit(() -> plan(queryStructReq)));
+        }
+        List<QueryStatement> queryStatements = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                long remaining = Math.max(0L, deadline - System.currentTimeMillis());
+                try {
+                    queryStatements.add(futures.get(i).get(remaining, TimeUnit.MILLISECONDS));
+                } catch (TimeoutException e) {
+                    throw new RuntimeException(String.format("plan sub query %d timeout after %d ms", i, timeoutMs));
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw new RuntimeException("plan sub query " + i + " error", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while planning sub queries", e);
+        } finally {
+            if (queryStatements.size() < futures.size()) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+        return queryStatements;
+    }
+
+    private QueryStatement plan(QueryStructReq queryStructReq) throws Exception {
+        QueryStatement queryStatement = semanticQueryEngine.plan(queryStructReq);
+        queryUtils.checkSqlParse(queryStatement);
+        return queryStatement;
+    }
+}
@@ -0,0 +1,14 @@
+package com.tencent.supersonic.semantic.query.service;
+
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import java.util.List;
+
+public interface MaterializationService {
+
+    Materialization createOrUpdate(Materialization materialization, User user);
+
+    void delete(Long id);
+
+    List<Materialization> getMaterializations(Long modelId);
+}
@@ -0,0 +1,153 @@
+package com.tencent.supersonic.semantic.query.service;
+
+import static com.tencent.supersonic.common.pojo.Constants.DAY;
+import static com.tencent.supersonic.common.pojo.Constants.MONTH;
+import static com.tencent.supersonic.common.pojo.Constants.WEEK;
+
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.query.persistence.pojo.MaterializationDO;
+import com.tencent.supersonic.semantic.query.persistence.repository.MaterializationRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Registry of the pre-aggregated tables. The planner asks for the tables of a model on every query, so they
+ * are served from a snapshot of the whole registry, reloaded after a write and every
+ * materialization.refresh.seconds, which also picks up rows maintained by the jobs that build the tables.
+ */
+@Slf4j
+@Service
+public class MaterializationServiceImpl implements MaterializationService {
+
+    private static final List<String> PERIODS = Arrays.asList(DAY, WEEK, MONTH);
+
+    private final MaterializationRepository materializationRepository;
+    private final Catalog catalog;
+    private final long refreshMillis;
+    private volatile Map<Long, List<Materialization>> snapshot;
+    private volatile long loadedAt;
+
+    public MaterializationServiceImpl(MaterializationRepository materializationRepository, Catalog catalog,
+            @Value("${materialization.refresh.seconds:60}") long refreshSeconds) {
+        this.materializationRepository = materializationRepository;
+        this.catalog = catalog;
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(refreshSeconds);
+    }
+
+    @Override
+    public Materialization createOrUpdate(Materialization materialization, User user) {
+        check(materialization);
+        MaterializationDO materializationDO = convert(materialization);
+        Date now = new Date();
+        materializationDO.setUpdatedAt(now);
+        materializationDO.setUpdatedBy(user.getName());
+        if (Objects.isNull(materialization.getId())) {
+            materializationDO.setCreatedAt(now);
+            materializationDO.setCreatedBy(user.getName());
+            materializationRepository.insert(materializationDO);
+            materialization.setId(materializationDO.getId());
+        } else {
+            if (Objects.isNull(materializationRepository.getById(materialization.getId()))) {
+                throw new RuntimeException("materialization not found, id:" + materialization.getId());
+            }
+            materializationRepository.update(materializationDO);
+        }
+        snapshot = null;
+        return materialization;
+    }
+
+    @Override
+    public void delete(Long id) {
+        materializationRepository.delete(id);
+        snapshot = null;
+    }
+
+    @Override
+    public List<Materialization> getMaterializations(Long modelId) {
+        Map<Long, List<Materialization>> materializations = snapshot;
+        if (Objects.isNull(materializations) || System.currentTimeMillis() - loadedAt > refreshMillis) {
+            materializations = load();
+        }
+        if (Objects.isNull(modelId)) {
+            return materializations.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+        return materializations.getOrDefault(modelId, Collections.emptyList());
+    }
+
+    private synchronized Map<Long, List<Materialization>> load() {
+        long now = System.currentTimeMillis();
+        if (Objects.nonNull(snapshot) && now - loadedAt <= refreshMillis) {
+            return snapshot;
+        }
+        Map<Long, List<Materialization>> materializations = materializationRepository.getMaterializations(null)
+                .stream().collect(Collectors.groupingBy(Materialization::getModelId));
+        snapshot = materializations;
+        loadedAt = now;
+        log.debug("load materializations, models:{}", materializations.size());
+        return materializations;
+    }
+
+    private void check(Materialization materialization) {
+        if (Objects.isNull(materialization.getModelId()) || Strings.isEmpty(materialization.getName())
+                || Strings.isEmpty(materialization.getDestination())) {
+            throw new RuntimeException("materialization model, name and destination can not be empty");
+        }
+        if (CollectionUtils.isEmpty(materialization.getMetrics())) {
+            throw new RuntimeException("materialization metrics can not be empty");
+        }
+        if (!PERIODS.contains(materialization.getPeriod())) {
+            throw new RuntimeException("materialization period should be one of " + PERIODS);
+        }
+        Set<String> metrics = catalog.getMetrics(materialization.getModelId()).stream()
+                .map(MetricResp::getBizName).collect(Collectors.toSet());
+        List<String> unknownMetrics = materialization.getMetrics().stream()
+                .filter(metric -> !metrics.contains(metric)).collect(Collectors.toList());
+        Set<String> dimensions = catalog.getDimensions(materialization.getModelId()).stream()
+                .map(DimensionResp::getBizName).collect(Collectors.toSet());
+        List<String> unknownDimensions = listOrEmpty(materialization.getDimensions()).stream()
+                .filter(dimension -> !dimensions.contains(dimension)).collect(Collectors.toList());
+        if (!unknownMetrics.isEmpty() || !unknownDimensions.isEmpty()) {
+            throw new RuntimeException(String.format("materialization items not found in model %s, metrics:%s, "
+                    + "dimensions:%s", materialization.getModelId(), unknownMetrics, unknownDimensions));
+        }
+    }
+
+    private MaterializationDO convert(Materialization materialization) {
+        MaterializationDO materializationDO = new MaterializationDO();
+        materializationDO.setId(materialization.getId());
+        materializationDO.setModelId(materialization.getModelId());
+        materializationDO.setName(materialization.getName());
+        materializationDO.setDestination(materialization.getDestination());
+        materializationDO.setDestinationType(materialization.getDestinationType());
+        materializationDO.setDepends(JsonUtil.toString(listOrEmpty(materialization.getDepends())));
+        materializationDO.setMetrics(JsonUtil.toString(materialization.getMetrics()));
+        materializationDO.setDimensions(JsonUtil.toString(listOrEmpty(materialization.getDimensions())));
+        materializationDO.setDatePeriod(materialization.getPeriod());
+        materializationDO.setStartDate(materialization.getStartDate());
+        materializationDO.setEndDate(materialization.getEndDate());
+        materializationDO.setRowCount(materialization.getRowCount());
+        return materializationDO;
+    }
+
+    private static List<String> listOrEmpty(List<String> items) {
+        return Objects.isNull(items) ? new ArrayList<>() : items;
+    }
+}
@@ -11,6 +11,8 @@ import com.tencent.supersonic.semantic.api.query.request.QueryMultiStructReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.api.query.response.ItemUseResp;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface QueryService {
 
@@ -21,6 +23,17 @@ public interface QueryService {
     QueryResultWithSchemaResp queryByStructWithAuth(QueryStructReq queryStructCmd, User user)
             throws Exception;
 
+    /***
+     * query by struct with data permission, each row is handed to the handler instead of being returned,
+     * so the result is neither cached nor shared with identical queries
+     * @param queryStructCmd
+     * @param user
+     * @param rowHandler
+     * @return the columns of the result, without rows
+     */
+    QueryResultWithSchemaResp streamByStructWithAuth(QueryStructReq queryStructCmd, User user,
+            Consumer<Map<String, Object>> rowHandler) throws Exception;
+
     QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructCmd, User user) throws Exception;
 
     QueryResultWithSchemaResp queryDimValue(QueryDimValueReq queryDimValueReq, User user);
@@ -5,6 +5,7 @@ import com.tencent.supersonic.common.pojo.Aggregator;
 import com.tencent.supersonic.common.pojo.DateConf;
 import com.tencent.supersonic.common.pojo.enums.TaskStatusEnum;
 import com.tencent.supersonic.common.util.cache.CacheUtils;
+import com.tencent.supersonic.common.util.cache.SingleFlight;
 import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.semantic.api.model.enums.QueryTypeEnum;
 import com.tencent.supersonic.semantic.api.model.request.ModelSchemaFilterReq;
@@ -29,7 +30,9 @@ import com.tencent.supersonic.semantic.query.utils.StatUtils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
@@ -51,18 +54,23 @@ public class QueryServiceImpl implements QueryService {
     private Boolean cacheEnable;
 
     private final SemanticQueryEngine semanticQueryEngine;
+    private final ConcurrentPlanner concurrentPlanner;
+    // identical queries running at the same time share one execution
+    private final SingleFlight<QueryResultWithSchemaResp> singleFlight = new SingleFlight<>();
 
     public QueryServiceImpl(
             StatUtils statUtils,
             CacheUtils cacheUtils,
             QueryUtils queryUtils,
             QueryReqConverter queryReqConverter,
-            SemanticQueryEngine semanticQueryEngine) {
+            SemanticQueryEngine semanticQueryEngine,
+            ConcurrentPlanner concurrentPlanner) {
         this.statUtils = statUtils;
         this.cacheUtils = cacheUtils;
         this.queryUtils = queryUtils;
         this.queryReqConverter = queryReqConverter;
         this.semanticQueryEngine = semanticQueryEngine;
+        this.concurrentPlanner = concurrentPlanner;
     }
 
     @Override
@@ -94,8 +102,7 @@ public class QueryServiceImpl implements QueryService {
         log.info("[queryStructCmd:{}]", queryStructCmd);
         try {
             statUtils.initStatInfo(queryStructCmd, user);
-            String cacheKey = cacheUtils.generateCacheKey(queryStructCmd.getModelId().toString(),
-                    queryStructCmd.generateCommandMd5());
+            String cacheKey = queryUtils.getCacheKey(queryStructCmd);
             handleGlobalCacheDisable(queryStructCmd);
             boolean isCache = isCache(queryStructCmd);
             if (isCache) {
@@ -106,15 +113,20 @@ public class QueryServiceImpl implements QueryService {
                 }
             }
             StatUtils.get().setUseResultCache(false);
-            QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
-            QueryExecutor queryExecutor = semanticQueryEngine.route(queryStatement);
-            if (queryExecutor != null) {
-                queryResultWithColumns = semanticQueryEngine.execute(queryStatement);
+            long startAt = System.currentTimeMillis();
+            queryResultWithColumns = singleFlight.execute(cacheKey, () -> {
+                QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
+                QueryExecutor queryExecutor = semanticQueryEngine.route(queryStatement);
+                if (queryExecutor == null) {
+                    return null;
+                }
+                QueryResultWithSchemaResp result = semanticQueryEngine.execute(queryStatement);
                 if (isCache) {
                     // if queryResultWithColumns is not null, update cache data
-                    queryUtils.cacheResultLogic(cacheKey, queryResultWithColumns);
+                    queryUtils.cacheResultLogic(cacheKey, result, queryStructCmd, startAt);
                 }
-            }
+                return result;
+            });
             statUtils.statInfo2DbAsync(TaskStatusEnum.SUCCESS);
             return queryResultWithColumns;
         } catch (Exception e) {
@@ -132,6 +144,26 @@ public class QueryServiceImpl implements QueryService {
     }
 
 
+    @Override
+    @DataPermission
+    public QueryResultWithSchemaResp streamByStructWithAuth(QueryStructReq queryStructCmd, User user,
+            Consumer<Map<String, Object>> rowHandler) throws Exception {
+        log.info("[streamStructCmd:{}]", queryStructCmd);
+        try {
+            statUtils.initStatInfo(queryStructCmd, user);
+            StatUtils.get().setUseResultCache(false);
+            QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
+            QueryResultWithSchemaResp queryResultWithColumns = semanticQueryEngine.stream(queryStatement,
+                    rowHandler);
+            statUtils.statInfo2DbAsync(TaskStatusEnum.SUCCESS);
+            return queryResultWithColumns;
+        } catch (Exception e) {
+            log.warn("exception in streamByStruct, e: ", e);
+            statUtils.statInfo2DbAsync(TaskStatusEnum.ERROR);
+            throw e;
+        }
+    }
+
     @Override
     public QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructReq, User user)
             throws Exception {
@@ -150,19 +182,19 @@ public class QueryServiceImpl implements QueryService {
         }
         log.info("stat queryByStructWithoutCache, queryMultiStructReq:{}", queryMultiStructReq);
         try {
-            List<QueryStatement> sqlParsers = new ArrayList<>();
-            for (QueryStructReq queryStructCmd : queryMultiStructReq.getQueryStructReqs()) {
-                QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
-                queryUtils.checkSqlParse(queryStatement);
-                sqlParsers.add(queryStatement);
-            }
-            log.info("multi sqlParser:{}", sqlParsers);
-
-            QueryStatement sqlParser = queryUtils.sqlParserUnion(queryMultiStructReq, sqlParsers);
-            queryResultWithColumns = semanticQueryEngine.execute(sqlParser);
+            queryResultWithColumns = singleFlight.execute(cacheKey, () -> {
+                List<QueryStatement> sqlParsers = concurrentPlanner.plan(queryMultiStructReq.getQueryStructReqs());
+                log.info("multi sqlParser:{}", sqlParsers);
+
+                QueryStatement sqlParser = queryUtils.sqlParserUnion(queryMultiStructReq, sqlParsers);
+                QueryResultWithSchemaResp result = semanticQueryEngine.execute(sqlParser);
+                if (result != null) {
+                    queryUtils.fillItemNameInfo(result, queryMultiStructReq);
+                }
+                return result;
+            });
             if (queryResultWithColumns != null) {
                 statUtils.statInfo2DbAsync(TaskStatusEnum.SUCCESS);
-                queryUtils.fillItemNameInfo(queryResultWithColumns, queryMultiStructReq);
             }
             return queryResultWithColumns;
         } catch (Exception e) {
@@ -5,6 +5,8 @@ import com.tencent.supersonic.semantic.api.query.request.ParseSqlReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.query.executor.QueryExecutor;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface SemanticQueryEngine {
 
@@ -14,5 +16,7 @@ public interface SemanticQueryEngine {
 
     QueryResultWithSchemaResp execute(QueryStatement queryStatement);
 
+    QueryResultWithSchemaResp stream(QueryStatement queryStatement, Consumer<Map<String, Object>> rowHandler);
+
     QueryStatement physicalSql(ParseSqlReq sqlCommend) throws Exception;
 }
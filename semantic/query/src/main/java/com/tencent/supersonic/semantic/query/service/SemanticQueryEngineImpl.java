@@ -6,11 +6,14 @@ import com.tencent.supersonic.semantic.api.query.request.ParseSqlReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
 import com.tencent.supersonic.semantic.query.executor.QueryExecutor;
+import com.tencent.supersonic.semantic.query.executor.QueryProfiler;
 import com.tencent.supersonic.semantic.query.optimizer.QueryOptimizer;
 import com.tencent.supersonic.semantic.query.parser.QueryParser;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
 import com.tencent.supersonic.semantic.query.utils.ComponentFactory;
 import com.tencent.supersonic.semantic.query.utils.QueryUtils;
+import java.util.Map;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -21,12 +24,14 @@ public class SemanticQueryEngineImpl implements SemanticQueryEngine {
     private final QueryParser queryParser;
     private final Catalog catalog;
     private final QueryUtils queryUtils;
+    private final QueryProfiler queryProfiler;
 
     public SemanticQueryEngineImpl(QueryParser queryParser, Catalog catalog,
-            QueryUtils queryUtils) {
+            QueryUtils queryUtils, QueryProfiler queryProfiler) {
         this.queryParser = queryParser;
         this.catalog = catalog;
         this.queryUtils = queryUtils;
+        this.queryProfiler = queryProfiler;
     }
 
 
@@ -43,6 +48,23 @@ public class SemanticQueryEngineImpl implements SemanticQueryEngine {
         return queryResultWithColumns;
     }
 
+    public QueryResultWithSchemaResp stream(QueryStatement queryStatement,
+            Consumer<Map<String, Object>> rowHandler) {
+        QueryResultWithSchemaResp queryResultWithColumns = null;
+        QueryExecutor queryExecutor = route(queryStatement);
+        if (queryExecutor != null) {
+            queryResultWithColumns = queryExecutor.stream(catalog, queryStatement, rowHandler);
+            if (queryResultWithColumns == null) {
+                return null;
+            }
+            queryResultWithColumns.setSql(queryStatement.getSql());
+            if (queryStatement.getModelId() > 0) {
+                queryUtils.fillItemNameInfo(queryResultWithColumns, queryStatement.getModelId());
+            }
+        }
+        return queryResultWithColumns;
+    }
+
     public QueryStatement plan(QueryStructReq queryStructCmd) throws Exception {
         QueryStatement queryStatement = queryParser.logicSql(queryStructCmd);
         queryUtils.checkSqlParse(queryStatement);
@@ -51,12 +73,17 @@ public class SemanticQueryEngineImpl implements SemanticQueryEngine {
         for (QueryOptimizer queryOptimizer : ComponentFactory.getQueryOptimizers()) {
             queryOptimizer.rewrite(queryStructCmd, queryStatement);
         }
+        queryProfiler.profile(queryStructCmd, queryStatement);
         return queryStatement;
     }
 
     public QueryExecutor route(QueryStatement queryStatement) {
+        if (queryStatement.getExecutor() != null) {
+            return queryStatement.getExecutor();
+        }
         for (QueryExecutor queryExecutor : ComponentFactory.getQueryExecutors()) {
             if (queryExecutor.accept(queryStatement)) {
+                queryStatement.setExecutor(queryExecutor);
                 return queryExecutor;
             }
         }
@@ -1,9 +1,11 @@
 package com.tencent.supersonic.semantic.query.utils;
 
 import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.semantic.query.executor.ColumnarExecutor;
 import com.tencent.supersonic.semantic.query.executor.JdbcExecutor;
 import com.tencent.supersonic.semantic.query.executor.QueryExecutor;
 import com.tencent.supersonic.semantic.query.optimizer.DetailQuery;
+import com.tencent.supersonic.semantic.query.optimizer.MaterializationQuery;
 import com.tencent.supersonic.semantic.query.optimizer.QueryOptimizer;
 import com.tencent.supersonic.semantic.query.parser.SemanticConverter;
 import com.tencent.supersonic.semantic.query.parser.SqlParser;
@@ -61,6 +63,7 @@ public class ComponentFactory {
     }
     private static void initQueryOptimizer() {
         queryOptimizers.add(getBean("DetailQuery", DetailQuery.class));
+        queryOptimizers.add(getBean("MaterializationQuery", MaterializationQuery.class));
     }
     private static void initSemanticConverter() {
         semanticConverters.add(getBean("DefaultDimValueConverter", DefaultDimValueConverter.class));
@@ -70,6 +73,7 @@ public class ComponentFactory {
     }
 
     private static void initQueryExecutors() {
+        queryExecutors.add(getBean("ColumnarExecutor", ColumnarExecutor.class));
         queryExecutors.add(ContextUtils.getContext().getBean("JdbcExecutor", JdbcExecutor.class));
     }
 
@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import com.tencent.supersonic.semantic.model.domain.DimensionService;
 import com.tencent.supersonic.semantic.model.domain.MetricService;
@@ -118,8 +119,11 @@ public class DataPermissionAOP {
         // 5.row permission pre-filter
         doRowPermission(queryStructReq, authorizedResource);
 
-        // 6.proceed
-        QueryResultWithSchemaResp queryResultWithColumns = (QueryResultWithSchemaResp) point.proceed();
+        // 6.proceed, streamed rows are desensitized as they are handed over
+        if (args.length > 2 && args[2] instanceof Consumer) {
+            args[2] = desensitizationRows((Consumer<Map<String, Object>>) args[2], sensitiveResReq, resAuthSet);
+        }
+        QueryResultWithSchemaResp queryResultWithColumns = (QueryResultWithSchemaResp) point.proceed(args);
 
         if (CollectionUtils.isEmpty(sensitiveResReq) || allSensitiveResReqIsOk(sensitiveResReq, resAuthSet)) {
             // if sensitiveRes is empty
@@ -345,6 +349,23 @@ public class DataPermissionAOP {
         return queryResultWithColumns;
     }
 
+    private Consumer<Map<String, Object>> desensitizationRows(Consumer<Map<String, Object>> rowHandler,
+            Set<String> sensitiveResReq, Set<String> resAuthSet) {
+        Set<String> need2Apply = sensitiveResReq.stream().filter(req -> !resAuthSet.contains(req))
+                .collect(Collectors.toSet());
+        if (CollectionUtils.isEmpty(need2Apply)) {
+            return rowHandler;
+        }
+        return row -> {
+            for (String col : need2Apply) {
+                if (row.containsKey(col)) {
+                    row.put(col, "****");
+                }
+            }
+            rowHandler.accept(row);
+        };
+    }
+
     private void addAuthorizedSchemaInfo(List<QueryColumn> columns, Set<String> need2Apply) {
         if (CollectionUtils.isEmpty(need2Apply)) {
             return;
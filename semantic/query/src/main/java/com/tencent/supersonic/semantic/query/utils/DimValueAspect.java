@@ -58,8 +58,8 @@ public class DimValueAspect {
     }
 
 
-    @Around("execution(* com.tencent.supersonic.semantic.query.rest.QueryController.queryByStruct(..))"
-            + " || execution(* com.tencent.supersonic.semantic.query.service.QueryService.queryByStruct(..))"
+    // the controller runs the query on another thread, it is covered by the service
+    @Around("execution(* com.tencent.supersonic.semantic.query.service.QueryService.queryByStruct(..))"
             + " || execution(* com.tencent.supersonic.semantic.query.service.QueryService.queryByStructWithAuth(..))")
     public Object handleDimValue(ProceedingJoinPoint joinPoint) throws Throwable {
 
@@ -90,17 +90,25 @@ public class QueryStructUtils {
         return metricIds;
     }
 
+    /***
+     * the dates the data of the dimensions and metrics of the query is available for
+     * @param queryStructCmd
+     * @return
+     */
+    public ItemDateResp getItemDate(QueryStructReq queryStructCmd) {
+        List<Long> dimensionIds = getDimensionIds(queryStructCmd);
+        List<Long> metricIds = getMetricIds(queryStructCmd);
+        return catalog.getItemDate(
+                new ItemDateFilter(dimensionIds, TypeEnums.DIMENSION.getName()),
+                new ItemDateFilter(metricIds, TypeEnums.METRIC.getName()));
+    }
+
     public String getDateWhereClause(QueryStructReq queryStructCmd) {
         DateConf dateInfo = queryStructCmd.getDateInfo();
         if (Objects.isNull(dateInfo) || Objects.isNull(dateInfo.getDateMode())) {
             return "";
         }
-        List<Long> dimensionIds = getDimensionIds(queryStructCmd);
-        List<Long> metricIds = getMetricIds(queryStructCmd);
-
-        ItemDateResp dateDate = catalog.getItemDate(
-                new ItemDateFilter(dimensionIds, TypeEnums.DIMENSION.getName()),
-                new ItemDateFilter(metricIds, TypeEnums.METRIC.getName()));
+        ItemDateResp dateDate = getItemDate(queryStructCmd);
         if (Objects.isNull(dateDate)
                 || Strings.isEmpty(dateDate.getStartDate())
                 && Strings.isEmpty(dateDate.getEndDate())) {
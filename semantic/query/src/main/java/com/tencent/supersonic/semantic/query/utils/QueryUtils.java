@@ -5,16 +5,26 @@ import static com.tencent.supersonic.common.pojo.Constants.UNIONALL;
 
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.common.util.cache.CacheCommonConfig;
+import com.tencent.supersonic.common.util.cache.CacheTags;
 import com.tencent.supersonic.common.util.cache.CacheUtils;
 import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
 import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
 import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.api.model.response.ItemDateResp;
 import com.tencent.supersonic.semantic.api.model.response.MetricResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.query.request.QueryMultiStructReq;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -22,6 +32,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
@@ -45,12 +56,19 @@ public class QueryUtils {
 
     private final Catalog catalog;
 
+    private final CacheCommonConfig cacheCommonConfig;
+
+    private final QueryStructUtils queryStructUtils;
+
     public QueryUtils(
-            CacheUtils cacheUtils, StatUtils statUtils, Catalog catalog) {
+            CacheUtils cacheUtils, StatUtils statUtils, Catalog catalog, CacheCommonConfig cacheCommonConfig,
+            QueryStructUtils queryStructUtils) {
 
         this.cacheUtils = cacheUtils;
         this.statUtils = statUtils;
         this.catalog = catalog;
+        this.cacheCommonConfig = cacheCommonConfig;
+        this.queryStructUtils = queryStructUtils;
     }
 
     @PostConstruct
@@ -204,18 +222,113 @@ public class QueryUtils {
         return sqlParser;
     }
 
-    public void cacheResultLogic(String key, QueryResultWithSchemaResp queryResultWithColumns) {
+    /***
+     * the result cache key of a struct query. it carries the digest of the stored metadata of the model, so
+     * once an instance reloads metadata changed by another one, the results computed from the old metadata
+     * are not found anymore, also the long lived ones
+     * @param queryStructCmd
+     * @return
+     */
+    public String getCacheKey(QueryStructReq queryStructCmd) {
+        String modelDigest = catalog.getModelDigest(queryStructCmd.getModelId());
+        return cacheUtils.generateCacheKey(queryStructCmd.getModelId().toString(),
+                (Objects.isNull(modelDigest) ? "" : modelDigest + JOIN_UNDERLINE)
+                        + queryStructCmd.generateCommandMd5());
+    }
+
+    /***
+     * cache the result tagged with the model and datasources it is computed from, results over dates whose
+     * data is loaded live longer. the result is dropped when the metadata changes after the query started,
+     * also while it is put
+     * @param key
+     * @param queryResultWithColumns
+     * @param queryStructCmd
+     * @param startAt
+     */
+    public void cacheResultLogic(String key, QueryResultWithSchemaResp queryResultWithColumns,
+            QueryStructReq queryStructCmd, long startAt) {
         if (cacheEnable && Objects.nonNull(queryResultWithColumns) && !CollectionUtils.isEmpty(
                 queryResultWithColumns.getResultList())) {
+            Set<String> tags = getCacheTags(queryStructCmd.getModelId());
+            if (tags.stream().anyMatch(tag -> cacheUtils.getTagEvictedAt(tag) >= startAt)) {
+                log.info("skip cache, metadata changed during the query, key:{}", key);
+                return;
+            }
+            long expireMinutes = isStableDate(queryStructCmd)
+                    ? cacheCommonConfig.getCacheCommonStableExpireAfterWrite()
+                    : cacheCommonConfig.getCacheCommonExpireAfterWrite();
             QueryResultWithSchemaResp finalQueryResultWithColumns = queryResultWithColumns;
-            CompletableFuture.supplyAsync(() -> cacheUtils.put(key, finalQueryResultWithColumns))
+            CompletableFuture.supplyAsync(() -> cacheUtils.put(key, finalQueryResultWithColumns, tags, startAt,
+                            expireMinutes))
                     .exceptionally(exception -> {
                         log.warn("exception:", exception);
                         return null;
                     });
             statUtils.updateResultCacheKey(key);
-            log.info("add record to cache, key:{}", key);
+            log.info("add record to cache, key:{}, expireMinutes:{}", key, expireMinutes);
+        }
+
+    }
+
+    private Set<String> getCacheTags(Long modelId) {
+        Set<String> tags = new HashSet<>();
+        tags.add(CacheTags.model(modelId));
+        List<DatasourceResp> datasourceResps = catalog.getDatasourceList(modelId);
+        if (!CollectionUtils.isEmpty(datasourceResps)) {
+            datasourceResps.forEach(datasourceResp -> tags.add(CacheTags.datasource(datasourceResp.getId())));
+        }
+        return tags;
+    }
+
+    private boolean isStableDate(QueryStructReq queryStructCmd) {
+        DateConf dateConf = queryStructCmd.getDateInfo();
+        if (dateConf == null || !Constants.DAY.equalsIgnoreCase(dateConf.getPeriod())) {
+            return false;
+        }
+        try {
+            return isStableDate(dateConf, queryStructUtils.getItemDate(queryStructCmd));
+        } catch (RuntimeException e) {
+            log.warn("get item date error, cache with the default expire, e:", e);
+            return false;
         }
+    }
 
+    /***
+     * whether the data of all days of the date conf is loaded, the days are at or before the last day the
+     * data is available for and none of them is unavailable, so the data is not expected to change
+     * @param dateConf
+     * @param itemDate
+     * @return
+     */
+    public static boolean isStableDate(DateConf dateConf, ItemDateResp itemDate) {
+        if (dateConf == null || !Constants.DAY.equalsIgnoreCase(dateConf.getPeriod())
+                || itemDate == null || StringUtils.isEmpty(itemDate.getEndDate())) {
+            return false;
+        }
+        try {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(
+                    StringUtils.isEmpty(itemDate.getDateFormat()) ? Constants.DAY_FORMAT : itemDate.getDateFormat());
+            LocalDate loadedEnd = LocalDate.parse(itemDate.getEndDate(), formatter);
+            LocalDate end;
+            Predicate<LocalDate> requested;
+            if (DateConf.DateMode.BETWEEN.equals(dateConf.getDateMode())) {
+                LocalDate start = LocalDate.parse(dateConf.getStartDate());
+                end = LocalDate.parse(dateConf.getEndDate());
+                requested = date -> !date.isBefore(start) && !date.isAfter(end);
+            } else if (DateConf.DateMode.LIST.equals(dateConf.getDateMode())
+                    && !CollectionUtils.isEmpty(dateConf.getDateList())) {
+                Set<LocalDate> dates = dateConf.getDateList().stream().map(LocalDate::parse)
+                        .collect(Collectors.toSet());
+                end = Collections.max(dates);
+                requested = dates::contains;
+            } else {
+                return false;
+            }
+            List<String> unavailableDates = itemDate.getUnavailableDateList();
+            return !end.isAfter(loadedEnd) && (CollectionUtils.isEmpty(unavailableDates)
+                    || unavailableDates.stream().map(date -> LocalDate.parse(date, formatter)).noneMatch(requested));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
     }
 }
@@ -38,6 +38,25 @@ public class SqlFilterUtils {
         return filterCols;
     }
 
+    /***
+     * whether any filter, including nested ones, is a raw sql part or an exists clause whose columns are unknown
+     * @param filters
+     * @return
+     */
+    public boolean hasSqlFilter(List<Filter> filters) {
+        if (CollectionUtils.isEmpty(filters)) {
+            return false;
+        }
+        for (Filter filter : filters) {
+            if (FilterOperatorEnum.SQL_PART.equals(filter.getOperator())
+                    || FilterOperatorEnum.EXISTS.equals(filter.getOperator())
+                    || hasSqlFilter(filter.getChildren())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private List<String> getFilterCol(Filter filter) {
         List<String> filterCols = new ArrayList<>();
         if (Filter.Relation.FILTER.equals(filter.getRelation())) {
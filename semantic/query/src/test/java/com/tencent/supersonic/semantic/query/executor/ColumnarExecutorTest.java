@@ -0,0 +1,209 @@
+package com.tencent.supersonic.semantic.query.executor;
+
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.common.pojo.Order;
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.semantic.api.model.pojo.Measure;
+import com.tencent.supersonic.semantic.api.model.pojo.MetricTypeParams;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarStore;
+import com.tencent.supersonic.semantic.query.executor.columnar.ColumnarTable;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.utils.QueryStructUtils;
+import com.tencent.supersonic.semantic.query.utils.SqlFilterUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class ColumnarExecutorTest {
+
+    private QueryStructUtils queryStructUtils;
+    private ColumnarStore columnarStore;
+    private ColumnarExecutor columnarExecutor;
+    private QueryProfiler queryProfiler;
+
+    @BeforeEach
+    void setUp() {
+        Catalog catalog = Mockito.mock(Catalog.class);
+        Mockito.when(catalog.getMetrics(1L)).thenReturn(Arrays.asList(getMetric("pv", "sum", "s2_pv"),
+                getMetric("uv", "count_distinct", "s2_uv"), getMetric("stay_hours", "avg", "s2_stay_hours")));
+        queryStructUtils = Mockito.mock(QueryStructUtils.class);
+        columnarStore = Mockito.mock(ColumnarStore.class);
+        Mockito.when(columnarStore.getMaxRows()).thenReturn(100);
+        Mockito.when(columnarStore.getTable(1L, 2L)).thenReturn(getTable());
+        columnarExecutor = new ColumnarExecutor(catalog, columnarStore, queryStructUtils,
+                Mockito.mock(JdbcExecutor.class), "H2");
+        queryProfiler = new QueryProfiler(catalog, columnarStore, new SqlFilterUtils());
+    }
+
+    @Test
+    void aggregateByGroup() {
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any()))
+                .thenReturn("sys_imp_date >= '2023-10-01' and sys_imp_date <= '2023-10-02' "
+                        + "AND ( user_name NOT IN ('tom') )");
+        QueryStructReq queryStructReq = getQuery();
+        queryStructReq.setAggregators(Arrays.asList(new Aggregator("pv", AggOperatorEnum.SUM),
+                new Aggregator("uv", AggOperatorEnum.SUM), new Aggregator("stay_hours", AggOperatorEnum.SUM)));
+        queryStructReq.setOrders(Collections.singletonList(new Order("pv", "desc")));
+        QueryStatement queryStatement = getStatement(queryStructReq);
+        Assertions.assertTrue(columnarExecutor.accept(queryStatement));
+
+        QueryResultWithSchemaResp result = columnarExecutor.execute(null, queryStatement);
+        Assertions.assertEquals(Arrays.asList(new QueryColumn("page", "VARCHAR"), new QueryColumn("pv", "BIGINT"),
+                new QueryColumn("uv", "BIGINT"), new QueryColumn("stay_hours", "DOUBLE")), result.getColumns());
+        List<Map<String, Object>> rows = result.getResultList();
+        // the row of a null user is unknown to not in and filtered, as the database does
+        Assertions.assertEquals(2, rows.size());
+        Assertions.assertEquals(Arrays.asList("home", 3L, 2L, 2.0), new ArrayList<>(rows.get(0).values()));
+        Assertions.assertEquals(Arrays.asList("about", 1L, 1L, 3.0), new ArrayList<>(rows.get(1).values()));
+
+        queryStructReq.setLimit(1L);
+        Assertions.assertEquals(1, columnarExecutor.execute(null, getStatement(queryStructReq))
+                .getResultList().size());
+    }
+
+    @Test
+    void aggregateWithoutRows() {
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any())).thenReturn("page = 'none'");
+        QueryStructReq queryStructReq = getQuery();
+        queryStructReq.setGroups(new ArrayList<>());
+        QueryResultWithSchemaResp result = columnarExecutor.execute(null, getStatement(queryStructReq));
+        Assertions.assertEquals(1, result.getResultList().size());
+        Assertions.assertNull(result.getResultList().get(0).get("pv"));
+    }
+
+    @Test
+    void detailQuery() {
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any()))
+                .thenReturn("user_name like 'j%' or user_name is null");
+        QueryStructReq queryStructReq = getQuery();
+        queryStructReq.setNativeQuery(true);
+        queryStructReq.setAggregators(new ArrayList<>());
+        queryStructReq.setGroups(Arrays.asList("user_name", "page"));
+        queryStructReq.setOrders(Collections.singletonList(new Order("user_name", "asc")));
+        QueryStatement queryStatement = getStatement(queryStructReq);
+        Assertions.assertTrue(columnarExecutor.accept(queryStatement));
+
+        List<Map<String, Object>> rows = columnarExecutor.execute(null, queryStatement).getResultList();
+        Assertions.assertEquals(4, rows.size());
+        Assertions.assertNull(rows.get(0).get("user_name"));
+        Assertions.assertEquals(Arrays.asList("jack", "home"), new ArrayList<>(rows.get(1).values()));
+        Assertions.assertEquals(Arrays.asList("jack", "home"), new ArrayList<>(rows.get(2).values()));
+        Assertions.assertEquals("jerry", rows.get(3).get("user_name"));
+    }
+
+    @Test
+    void leaveToDatabase() {
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any())).thenReturn("");
+        Assertions.assertTrue(columnarExecutor.accept(getStatement(getQuery())));
+
+        QueryStructReq ratio = getQuery();
+        ratio.setAggregators(Collections.singletonList(new Aggregator("pv", AggOperatorEnum.RATIO_ROLL)));
+        Assertions.assertFalse(columnarExecutor.accept(getStatement(ratio)));
+
+        QueryStructReq unknownColumn = getQuery();
+        unknownColumn.setGroups(Collections.singletonList("department"));
+        Assertions.assertFalse(columnarExecutor.accept(getStatement(unknownColumn)));
+
+        QueryStatement large = getStatement(getQuery());
+        large.setEstimatedRows(101L);
+        Assertions.assertFalse(columnarExecutor.accept(large));
+
+        // strings of other engines may compare case insensitively
+        QueryStatement otherEngine = getStatement(getQuery());
+        otherEngine.setEngineType("MYSQL");
+        Assertions.assertFalse(columnarExecutor.accept(otherEngine));
+
+        QueryStatement notLoaded = getStatement(getQuery());
+        notLoaded.setDatasourceId(3L);
+        Assertions.assertFalse(columnarExecutor.accept(notLoaded));
+
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any())).thenReturn("substr(page, 1, 2) = 'ho'");
+        Assertions.assertFalse(columnarExecutor.accept(getStatement(getQuery())));
+    }
+
+    @Test
+    void planOnceInAccept() {
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any())).thenReturn("");
+        QueryStatement queryStatement = getStatement(getQuery());
+        Assertions.assertTrue(columnarExecutor.accept(queryStatement));
+
+        // the plan made in accept still runs on its table after the store dropped it
+        Mockito.when(columnarStore.getTable(1L, 2L)).thenReturn(null);
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any())).thenThrow(new IllegalStateException("broken"));
+        Assertions.assertEquals(2, columnarExecutor.execute(null, queryStatement).getResultList().size());
+    }
+
+    @Test
+    void planErrorLeavesToDatabase() {
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any())).thenThrow(new IllegalStateException("broken"));
+        Assertions.assertFalse(columnarExecutor.accept(getStatement(getQuery())));
+    }
+
+    private QueryStatement getStatement(QueryStructReq queryStructReq) {
+        QueryStatement queryStatement = new QueryStatement();
+        queryStatement.setModelId(1L);
+        queryStatement.setSql("select raw");
+        queryStatement.setQueryStructReq(queryStructReq);
+        queryStatement.setFeatures(queryProfiler.getFeatures(queryStructReq));
+        queryStatement.setEngineType("H2");
+        queryStatement.setDatasourceId(2L);
+        queryStatement.setEstimatedRows(5L);
+        return queryStatement;
+    }
+
+    private static QueryStructReq getQuery() {
+        QueryStructReq queryStructReq = new QueryStructReq();
+        queryStructReq.setModelId(1L);
+        queryStructReq.setGroups(new ArrayList<>(Collections.singletonList("page")));
+        queryStructReq.setAggregators(Collections.singletonList(new Aggregator("pv", AggOperatorEnum.SUM)));
+        DateConf dateConf = new DateConf();
+        dateConf.setDateMode(DateConf.DateMode.BETWEEN);
+        dateConf.setStartDate("2023-10-01");
+        dateConf.setEndDate("2023-10-02");
+        queryStructReq.setDateInfo(dateConf);
+        return queryStructReq;
+    }
+
+    private static ColumnarTable getTable() {
+        List<QueryColumn> columns = Arrays.asList(new QueryColumn("sys_imp_date", "VARCHAR"),
+                new QueryColumn("page", "VARCHAR"), new QueryColumn("user_name", "VARCHAR"),
+                new QueryColumn("s2_pv", "INTEGER"), new QueryColumn("s2_uv", "VARCHAR"),
+                new QueryColumn("s2_stay_hours", "DOUBLE"));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"2023-10-01", "home", "jack", 1, "jack", 1.5});
+        rows.add(new Object[]{"2023-10-01", "home", "jerry", 1, "jerry", 2.5});
+        rows.add(new Object[]{"2023-10-02", "home", "jack", 1, "jack", 2.0});
+        rows.add(new Object[]{"2023-10-02", "about", "tim", 1, "tim", 3.0});
+        rows.add(new Object[]{"2023-10-02", "about", null, 1, null, 4.0});
+        rows.add(new Object[]{"2023-10-02", "about", "tom", 1, "tom", 5.0});
+        rows.add(new Object[]{"2023-10-03", "home", "tim", 1, "tim", 6.0});
+        return ColumnarTable.of(2L, new ResultRows(columns, rows, false), System.currentTimeMillis());
+    }
+
+    private static MetricResp getMetric(String bizName, String agg, String measureBizName) {
+        Measure measure = new Measure();
+        measure.setBizName(measureBizName);
+        measure.setAgg(agg);
+        MetricTypeParams typeParams = new MetricTypeParams();
+        typeParams.setExpr(measureBizName);
+        typeParams.setMeasures(Collections.singletonList(measure));
+        MetricResp metric = new MetricResp();
+        metric.setBizName(bizName);
+        metric.setType("ATOMIC");
+        metric.setTypeParams(typeParams);
+        return metric;
+    }
+}
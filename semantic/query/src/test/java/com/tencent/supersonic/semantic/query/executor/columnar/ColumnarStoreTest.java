@@ -0,0 +1,107 @@
+package com.tencent.supersonic.semantic.query.executor.columnar;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.common.util.cache.CacheTags;
+import com.tencent.supersonic.common.util.cache.CacheUtils;
+import com.tencent.supersonic.semantic.api.model.pojo.DatasourceDetail;
+import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.model.domain.pojo.ResultRows;
+import com.tencent.supersonic.semantic.model.domain.utils.SqlUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class ColumnarStoreTest {
+
+    private SqlUtils sqlUtils;
+    private CacheUtils cacheUtils;
+    private ColumnarStore columnarStore;
+
+    @BeforeEach
+    void setUp() {
+        Catalog catalog = Mockito.mock(Catalog.class);
+        Mockito.when(catalog.getDatasourceList(1L)).thenReturn(Arrays.asList(getDatasource(1L, "t1"),
+                getDatasource(2L, "t2"), getDatasource(3L, "t3"), getDatasource(4L, "t4")));
+        DatabaseResp database = new DatabaseResp();
+        database.setType("h2");
+        Mockito.when(catalog.getDatabase(Mockito.any())).thenReturn(database);
+        sqlUtils = Mockito.mock(SqlUtils.class);
+        Mockito.when(sqlUtils.init(Mockito.any())).thenReturn(sqlUtils);
+        mockSource("t1", 4);
+        mockSource("t2", 4);
+        mockSource("t3", 4);
+        mockSource("t4", 11);
+        cacheUtils = Mockito.mock(CacheUtils.class);
+        columnarStore = new ColumnarStore(catalog, sqlUtils, cacheUtils, true, 10, 10, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        columnarStore.shutdown();
+    }
+
+    @Test
+    void totalRows() {
+        Assertions.assertNotNull(columnarStore.load(1L, 1L));
+        Assertions.assertNotNull(columnarStore.load(1L, 2L));
+        // read the first table, so the second one is the least recently read
+        Assertions.assertNotNull(columnarStore.getTable(1L, 1L));
+        Assertions.assertNotNull(columnarStore.load(1L, 3L));
+
+        Assertions.assertEquals(8, columnarStore.getTotalRows());
+        Assertions.assertNotNull(columnarStore.getTable(1L, 1L));
+        Assertions.assertNull(columnarStore.getTable(1L, 2L));
+        Assertions.assertNotNull(columnarStore.getTable(1L, 3L));
+    }
+
+    @Test
+    void probeTooLarge() {
+        Assertions.assertNull(columnarStore.load(1L, 4L));
+        Assertions.assertEquals(11L, columnarStore.estimateRows(1L, 4L));
+        // the rows of the too large datasource are never read
+        Mockito.verify(sqlUtils, Mockito.never()).queryRows(Mockito.matches("^select .* from t4$"),
+                Mockito.anyInt());
+    }
+
+    @Test
+    void sweepChanged() {
+        Assertions.assertNotNull(columnarStore.load(1L, 1L));
+        Assertions.assertNotNull(columnarStore.load(1L, 2L));
+        Mockito.when(cacheUtils.getTagEvictedAt(CacheTags.datasource(2L))).thenReturn(Long.MAX_VALUE);
+
+        columnarStore.sweep();
+        Assertions.assertEquals(4, columnarStore.getTotalRows());
+        Assertions.assertNotNull(columnarStore.getTable(1L, 1L));
+    }
+
+    private void mockSource(String table, int rows) {
+        Mockito.when(sqlUtils.queryRows(Mockito.contains("probe_row from " + table), Mockito.anyInt()))
+                .thenReturn(new ResultRows(Collections.singletonList(new QueryColumn("count", "BIGINT")),
+                        Collections.singletonList(new Object[]{Math.min(rows, 11L)}), false));
+        List<Object[]> values = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            values.add(new Object[]{"page" + i});
+        }
+        Mockito.when(sqlUtils.queryRows(Mockito.matches("^select .* from " + table + "$"), Mockito.anyInt()))
+                .thenReturn(new ResultRows(Collections.singletonList(new QueryColumn("page", "VARCHAR")), values,
+                        false));
+    }
+
+    private static DatasourceResp getDatasource(Long id, String table) {
+        DatasourceDetail detail = new DatasourceDetail();
+        detail.setTableQuery(table);
+        DatasourceResp datasource = new DatasourceResp();
+        datasource.setId(id);
+        datasource.setModelId(1L);
+        datasource.setDatasourceDetail(detail);
+        return datasource;
+    }
+}
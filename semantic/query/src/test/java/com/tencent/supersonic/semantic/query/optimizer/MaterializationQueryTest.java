@@ -0,0 +1,182 @@
+package com.tencent.supersonic.semantic.query.optimizer;
+
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.semantic.api.model.pojo.Measure;
+import com.tencent.supersonic.semantic.api.model.pojo.MetricTypeParams;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.query.enums.FilterOperatorEnum;
+import com.tencent.supersonic.semantic.api.query.pojo.Filter;
+import com.tencent.supersonic.semantic.api.query.pojo.Materialization;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.service.MaterializationService;
+import com.tencent.supersonic.semantic.query.utils.QueryStructUtils;
+import com.tencent.supersonic.semantic.query.utils.SqlFilterUtils;
+import com.tencent.supersonic.semantic.query.utils.SqlGenerateUtils;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class MaterializationQueryTest {
+
+    private final List<Materialization> materializations = new ArrayList<>();
+    private MaterializationQuery materializationQuery;
+
+    @BeforeEach
+    void setUp() {
+        Catalog catalog = Mockito.mock(Catalog.class);
+        Mockito.when(catalog.getMetrics(1L)).thenReturn(Arrays.asList(getMetric("pv", "sum"),
+                getMetric("uv", "count_distinct"), getMetric("stay_hours", "sum")));
+        MaterializationService materializationService = Mockito.mock(MaterializationService.class);
+        Mockito.when(materializationService.getMaterializations(1L)).thenReturn(materializations);
+        QueryStructUtils queryStructUtils = Mockito.mock(QueryStructUtils.class);
+        Mockito.when(queryStructUtils.generateWhere(Mockito.any()))
+                .thenReturn("sys_imp_date >= '2023-10-01' and sys_imp_date <= '2023-10-07'");
+        materializationQuery = new MaterializationQuery(materializationService, catalog, queryStructUtils,
+                new SqlFilterUtils(), new SqlGenerateUtils());
+    }
+
+    @Test
+    void rewriteToSmallestCover() {
+        materializations.add(getMaterialization("pv_page_user", Arrays.asList("page", "user_name"), 1000L));
+        materializations.add(getMaterialization("pv_page", Collections.singletonList("page"), 100L));
+        materializations.add(getMaterialization("pv_all", Collections.emptyList(), 10L));
+
+        QueryStatement queryStatement = rewrite(getQuery());
+        Assertions.assertEquals("pv_page", queryStatement.getMaterialization());
+        Assertions.assertTrue(queryStatement.getSql().startsWith("select page,sum(pv) as pv from pv_page where "
+                + "sys_imp_date >= '2023-10-01' and sys_imp_date <= '2023-10-07' group by page"));
+
+        QueryStructReq filterByUser = getQuery();
+        filterByUser.setDimensionFilters(Collections.singletonList(
+                new Filter("user_name", FilterOperatorEnum.EQUALS, "alice")));
+        Assertions.assertEquals("pv_page_user", rewrite(filterByUser).getMaterialization());
+    }
+
+    @Test
+    void keepRawTables() {
+        materializations.add(getMaterialization("pv_page", Collections.singletonList("page"), 100L));
+
+        QueryStructReq uv = getQuery();
+        uv.setAggregators(Collections.singletonList(new Aggregator("uv", AggOperatorEnum.SUM)));
+        Assertions.assertTrue(materializationQuery.getRollupFunctions(uv).isEmpty());
+
+        QueryStructReq ratio = getQuery();
+        ratio.setAggregators(Collections.singletonList(new Aggregator("pv", AggOperatorEnum.RATIO_ROLL)));
+        Assertions.assertTrue(materializationQuery.getRollupFunctions(ratio).isEmpty());
+
+        QueryStructReq stayHours = getQuery();
+        stayHours.setAggregators(Collections.singletonList(new Aggregator("stay_hours", AggOperatorEnum.SUM)));
+        Assertions.assertFalse(materializationQuery.match(stayHours, materializations).isPresent());
+
+        QueryStructReq byUser = getQuery();
+        byUser.setGroups(Arrays.asList("page", "user_name"));
+        Assertions.assertEquals("", rewrite(byUser).getMaterialization());
+
+        QueryStructReq byMonth = getQuery();
+        byMonth.getDateInfo().setPeriod("MONTH");
+        Assertions.assertFalse(materializationQuery.match(byMonth, materializations).isPresent());
+    }
+
+    @Test
+    void keepRawTablesForSqlFilters() {
+        materializations.add(getMaterialization("pv_page", Collections.singletonList("page"), 100L));
+
+        // the row permission filter added by DataPermissionAOP
+        QueryStructReq rowPermission = getQuery();
+        rowPermission.setDimensionFilters(new ArrayList<>(Collections.singletonList(
+                new Filter("", FilterOperatorEnum.SQL_PART, " ( user_name = 'alice' ) "))));
+        Assertions.assertFalse(materializationQuery.match(rowPermission, materializations).isPresent());
+        Assertions.assertEquals("", rewrite(rowPermission).getMaterialization());
+
+        Filter nested = new Filter();
+        nested.setRelation(Filter.Relation.OR);
+        nested.setChildren(Arrays.asList(new Filter("page", FilterOperatorEnum.EQUALS, "home"),
+                new Filter("", FilterOperatorEnum.EXISTS, "select 1 from t_user")));
+        QueryStructReq exists = getQuery();
+        exists.setDimensionFilters(Collections.singletonList(nested));
+        Assertions.assertFalse(materializationQuery.match(exists, materializations).isPresent());
+    }
+
+    @Test
+    void matchDateRange() {
+        Materialization materialization = getMaterialization("pv_page", Collections.singletonList("page"), 100L);
+        materialization.setStartDate("2023-10-01");
+        materialization.setEndDate("2023-10-07");
+        materializations.add(materialization);
+        Assertions.assertTrue(materializationQuery.match(getQuery(), materializations).isPresent());
+
+        QueryStructReq later = getQuery();
+        later.getDateInfo().setEndDate("2023-10-08");
+        Assertions.assertFalse(materializationQuery.match(later, materializations).isPresent());
+
+        QueryStructReq list = getQuery();
+        list.getDateInfo().setDateMode(DateConf.DateMode.LIST);
+        list.getDateInfo().setDateList(Arrays.asList("2023-10-02", "2023-10-05"));
+        Assertions.assertTrue(materializationQuery.match(list, materializations).isPresent());
+
+        QueryStructReq recent = getQuery();
+        recent.getDateInfo().setDateMode(DateConf.DateMode.RECENT);
+        recent.getDateInfo().setUnit(7);
+        Assertions.assertFalse(materializationQuery.match(recent, materializations).isPresent());
+
+        materialization.setStartDate(LocalDate.now().minusDays(30).toString());
+        materialization.setEndDate(null);
+        Assertions.assertTrue(materializationQuery.match(recent, materializations).isPresent());
+    }
+
+    private QueryStatement rewrite(QueryStructReq queryStructReq) {
+        QueryStatement queryStatement = new QueryStatement();
+        queryStatement.setSql("select raw");
+        materializationQuery.rewrite(queryStructReq, queryStatement);
+        return queryStatement;
+    }
+
+    private static QueryStructReq getQuery() {
+        QueryStructReq queryStructReq = new QueryStructReq();
+        queryStructReq.setModelId(1L);
+        queryStructReq.setGroups(new ArrayList<>(Collections.singletonList("page")));
+        queryStructReq.setAggregators(Collections.singletonList(new Aggregator("pv", AggOperatorEnum.SUM)));
+        DateConf dateConf = new DateConf();
+        dateConf.setDateMode(DateConf.DateMode.BETWEEN);
+        dateConf.setStartDate("2023-10-01");
+        dateConf.setEndDate("2023-10-07");
+        queryStructReq.setDateInfo(dateConf);
+        return queryStructReq;
+    }
+
+    private static Materialization getMaterialization(String name, List<String> dimensions, Long rowCount) {
+        Materialization materialization = new Materialization();
+        materialization.setModelId(1L);
+        materialization.setName(name);
+        materialization.setDestination(name);
+        materialization.setMetrics(Arrays.asList("pv", "uv"));
+        materialization.setDimensions(dimensions);
+        materialization.setPeriod("DAY");
+        materialization.setRowCount(rowCount);
+        return materialization;
+    }
+
+    private static MetricResp getMetric(String bizName, String agg) {
+        Measure measure = new Measure();
+        measure.setBizName("s2_" + bizName);
+        measure.setAgg(agg);
+        MetricTypeParams typeParams = new MetricTypeParams();
+        typeParams.setExpr("s2_" + bizName);
+        typeParams.setMeasures(Collections.singletonList(measure));
+        MetricResp metric = new MetricResp();
+        metric.setBizName(bizName);
+        metric.setType("ATOMIC");
+        metric.setTypeParams(typeParams);
+        return metric;
+    }
+}
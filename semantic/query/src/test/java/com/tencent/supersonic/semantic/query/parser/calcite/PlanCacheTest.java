@@ -0,0 +1,82 @@
+package com.tencent.supersonic.semantic.query.parser.calcite;
+
+import com.tencent.supersonic.semantic.api.query.request.MetricReq;
+import com.tencent.supersonic.semantic.query.parser.calcite.schema.SemanticSchema;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PlanCacheTest {
+
+    @Test
+    void key() {
+        SemanticSchema schema = SemanticSchema.newBuilder("s2").build();
+        MetricReq metricReq = buildReq("a", "b");
+        MetricReq sameReq = buildReq("b", "a");
+        sameReq.setDimensions(new ArrayList<>(metricReq.getDimensions()));
+        Assertions.assertEquals(PlanCache.getKey(schema, metricReq, true), PlanCache.getKey(schema, sameReq, true));
+        Assertions.assertNotEquals(PlanCache.getKey(schema, metricReq, true),
+                PlanCache.getKey(schema, metricReq, false));
+
+        sameReq.setLimit(0L);
+        metricReq.setLimit(null);
+        Assertions.assertEquals(PlanCache.getKey(schema, metricReq, true), PlanCache.getKey(schema, sameReq, true));
+
+        SemanticSchema reloaded = SemanticSchema.newBuilder("s2").build();
+        Assertions.assertNotEquals(PlanCache.getKey(schema, metricReq, true),
+                PlanCache.getKey(reloaded, metricReq, true));
+    }
+
+    @Test
+    void getAndPut() {
+        PlanCache planCache = new PlanCache(10, 10, 0);
+        QueryStatement failed = new QueryStatement();
+        failed.setErrMsg("error");
+        planCache.put("failed", failed);
+        Assertions.assertNull(planCache.get("failed"));
+
+        QueryStatement queryStatement = new QueryStatement();
+        queryStatement.setSql("select 1");
+        queryStatement.setSourceId("1");
+        planCache.put("ok", queryStatement);
+        QueryStatement cached = planCache.get("ok");
+        Assertions.assertEquals("select 1", cached.getSql());
+        cached.setSql("changed");
+        Assertions.assertEquals("select 1", planCache.get("ok").getSql());
+        Assertions.assertEquals(2, planCache.getStats().hitCount());
+        Assertions.assertEquals(1, planCache.getStats().missCount());
+    }
+
+    @Test
+    void invalidate() {
+        PlanCache planCache = new PlanCache(10, 10, 0);
+        QueryStatement queryStatement = new QueryStatement();
+        queryStatement.setSql("select 1");
+        String key = PlanCache.getKey(SemanticSchema.newBuilder("s2").build(), buildReq("a", "b"), true);
+        String otherKey = PlanCache.getKey(SemanticSchema.newBuilder("s3").build(), buildReq("a", "b"), true);
+        planCache.put(key, queryStatement);
+        planCache.put(otherKey, queryStatement);
+
+        planCache.invalidate(Collections.singleton("s2"));
+        Assertions.assertNull(planCache.get(key));
+        Assertions.assertNotNull(planCache.get(otherKey));
+    }
+
+    private static MetricReq buildReq(String firstVariable, String secondVariable) {
+        MetricReq metricReq = new MetricReq();
+        metricReq.setRootPath("s2");
+        metricReq.setMetrics(Arrays.asList("pv"));
+        metricReq.setDimensions(Arrays.asList("sys_imp_date", "user_name"));
+        metricReq.setWhere("user_name = 'ab'");
+        Map<String, String> variables = new LinkedHashMap<>();
+        variables.put(firstVariable, firstVariable);
+        variables.put(secondVariable, secondVariable);
+        metricReq.setVariables(variables);
+        return metricReq;
+    }
+}
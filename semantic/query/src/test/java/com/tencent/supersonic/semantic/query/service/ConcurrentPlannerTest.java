@@ -0,0 +1,69 @@
+package com.tencent.supersonic.semantic.query.service;
+
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.utils.QueryUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ConcurrentPlannerTest {
+
+    @Test
+    void planInOrder() throws Exception {
+        ConcurrentPlanner planner = buildPlanner(10000L);
+        List<QueryStructReq> queryStructReqs = new ArrayList<>();
+        for (long i = 1; i <= 4; i++) {
+            QueryStructReq queryStructReq = new QueryStructReq();
+            queryStructReq.setModelId(i);
+            queryStructReqs.add(queryStructReq);
+        }
+        List<String> sqls = planner.plan(queryStructReqs).stream().map(QueryStatement::getSql)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("select 1", "select 2", "select 3", "select 4"), sqls);
+        planner.destroy();
+    }
+
+    @Test
+    void planTimeout() {
+        ConcurrentPlanner planner = buildPlanner(50L);
+        QueryStructReq slow = new QueryStructReq();
+        slow.setModelId(1000L);
+        QueryStructReq fast = new QueryStructReq();
+        fast.setModelId(1L);
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class,
+                () -> planner.plan(Arrays.asList(slow, fast)));
+        Assertions.assertTrue(exception.getMessage().contains("timeout"));
+        planner.destroy();
+    }
+
+    private static ConcurrentPlanner buildPlanner(long timeoutMs) {
+        SemanticQueryEngine semanticQueryEngine = Mockito.mock(SemanticQueryEngine.class);
+        try {
+            // earlier queries sleep longer and finish last, model ids from 100 sleep that many ms
+            Mockito.when(semanticQueryEngine.plan(Mockito.any())).thenAnswer(invocation -> {
+                QueryStructReq queryStructReq = invocation.getArgument(0);
+                Thread.sleep(queryStructReq.getModelId() < 100 ? (5 - queryStructReq.getModelId()) * 10
+                        : queryStructReq.getModelId());
+                QueryStatement queryStatement = new QueryStatement();
+                queryStatement.setSql("select " + queryStructReq.getModelId());
+                queryStatement.setSourceId("1");
+                return queryStatement;
+            });
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        ConcurrentPlanner planner = new ConcurrentPlanner(semanticQueryEngine,
+                new QueryUtils(null, null, null, null, null));
+        ReflectionTestUtils.setField(planner, "threadSize", 4);
+        ReflectionTestUtils.setField(planner, "queueSize", 8);
+        ReflectionTestUtils.setField(planner, "timeoutMs", timeoutMs);
+        planner.init();
+        return planner;
+    }
+}
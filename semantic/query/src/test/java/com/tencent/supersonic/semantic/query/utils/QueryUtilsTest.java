@@ -0,0 +1,43 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.semantic.api.model.response.ItemDateResp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class QueryUtilsTest {
+
+    @Test
+    void isStableDate() {
+        ItemDateResp itemDate = new ItemDateResp("yyyyMMdd", "20231001", "20231010", "DAY", new ArrayList<>());
+        DateConf between = new DateConf();
+        between.setDateMode(DateConf.DateMode.BETWEEN);
+        between.setStartDate("2023-10-01");
+        between.setEndDate("2023-10-10");
+        Assertions.assertTrue(QueryUtils.isStableDate(between, itemDate));
+
+        between.setEndDate("2023-10-11");
+        Assertions.assertFalse(QueryUtils.isStableDate(between, itemDate));
+        Assertions.assertFalse(QueryUtils.isStableDate(between, null));
+
+        between.setEndDate("2023-10-05");
+        itemDate.setUnavailableDateList(Collections.singletonList("20231003"));
+        Assertions.assertFalse(QueryUtils.isStableDate(between, itemDate));
+        between.setStartDate("2023-10-04");
+        Assertions.assertTrue(QueryUtils.isStableDate(between, itemDate));
+
+        DateConf list = new DateConf();
+        list.setDateMode(DateConf.DateMode.LIST);
+        list.setDateList(Arrays.asList("2023-10-02", "2023-10-09"));
+        Assertions.assertTrue(QueryUtils.isStableDate(list, itemDate));
+
+        list.setPeriod("MONTH");
+        Assertions.assertFalse(QueryUtils.isStableDate(list, itemDate));
+
+        Assertions.assertFalse(QueryUtils.isStableDate(new DateConf(), itemDate));
+        Assertions.assertFalse(QueryUtils.isStableDate(null, itemDate));
+    }
+}